@@ -1,21 +1,45 @@
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
 import java.util.Objects;
 
 /**
- * Add command used to add additional books to the library from a book data csv file.
+ * Add command used to add additional books to the library from a book data csv file, which may be compressed,
+ * from all book data csv files in a directory or matching a glob pattern, or from standard input or a named pipe.
  */
 public class AddCmd extends LibraryCommand {
 
     /**
-     * File extension that a file must have for the book data to be loaded.
+     * Separator between the optional keywords and the path of the command argument.
      */
-    private static final String FILE_EXTENSION = ".csv";
+    private static final String ARGUMENT_SEPARATOR = " ";
 
     /**
-     * Path of the book data csv file currently being loaded.
+     * Path of the book data csv file, directory, glob pattern or stream currently being loaded.
      */
-    private Path bookPath;
+    private String bookSource;
+
+    /**
+     * Load mode used to read the book data csv file, FULL unless specified otherwise.
+     */
+    private LoadMode loadMode;
+
+    /**
+     * Key used to identify duplicates of books already loaded, RECORD unless specified otherwise.
+     */
+    private DuplicateKey duplicateKey;
+
+    /**
+     * Policy applied to loaded duplicates, SKIP unless specified otherwise.
+     */
+    private DuplicatePolicy duplicatePolicy;
+
+    /**
+     * Level of detail in which lines not loaded and skipped duplicates are reported, SUMMARY unless specified otherwise.
+     */
+    private ReportDetail reportDetail;
 
     /**
      * Create an add command.
@@ -39,25 +63,136 @@ public class AddCmd extends LibraryCommand {
     public void execute(LibraryData data) {
         Objects.requireNonNull(data, ExceptionMessage.NULL_DATA.getExceptionMessage());
 
-        data.loadData(bookPath);
+        if (!BookDataFiles.isFileSet(bookSource)) {
+            data.loadData(Paths.get(bookSource), loadMode, duplicateKey, duplicatePolicy, reportDetail);
+            return;
+        }
+
+        List<Path> bookFiles = BookDataFiles.find(bookSource);
+        if (bookFiles == null) {
+            System.err.println("ERROR: Loading book data failed for: " + bookSource);
+        } else if (bookFiles.isEmpty()) {
+            System.err.println("ERROR: No book data files found for: " + bookSource);
+        } else {
+            data.loadData(bookFiles, loadMode, duplicateKey, duplicatePolicy, reportDetail);
+        }
     }
 
     /**
      * Parse the given command argument and assigns it to the instance variable.
      *
-     * @param argumentInput Path to a book data csv file, which could include subfolders or only a file name.
-     * @return True if the argument is a valid path that indicates a file name which ends with ".csv".
+     * @param argumentInput Path to a book data csv file, which could include subfolders or only a file name
+     *                      and may be compressed as ".csv.gz" file or ".zip" archive of csv files,
+     *                      path to a directory, whose csv files are all loaded, or glob pattern of csv files,
+     *                      e.g. "data/books*.csv" or "data/**.csv", "-" for standard input or path to a named pipe.
+     *                      The path can optionally be preceded by a load mode, a duplicate key, a duplicate policy and
+     *                      a report detail in any order, e.g. "STREAM ISBN REPLACE VERBOSE books.csv".
+     * @return True if the argument is a valid path that indicates a file name which ends with ".csv",
+     * ".csv.gz" or ".zip", an existing directory or a stream, no duplicate options are combined with the LAZY
+     * load mode and streams are not loaded in LAZY mode.
      * @throws NullPointerException If the given argumentInput is null.
      */
     @Override
     protected boolean parseArguments(String argumentInput) {
         Objects.requireNonNull(argumentInput, ExceptionMessage.NULL_ARGUMENT.getExceptionMessage());
 
-        if (!argumentInput.endsWith(FILE_EXTENSION)) {
+        LoadMode loadMode = null;
+        DuplicateKey duplicateKey = null;
+        DuplicatePolicy duplicatePolicy = null;
+        ReportDetail reportDetail = null;
+        String path = argumentInput;
+
+        // splits off keywords from the start of the argument input as long as each names a new option
+        int separatorIndex;
+        while ((separatorIndex = path.indexOf(ARGUMENT_SEPARATOR)) != -1) {
+            String keyword = path.substring(0, separatorIndex);
+            LoadMode parsedMode = parseKeyword(LoadMode.values(), keyword);
+            DuplicateKey parsedKey = parseKeyword(DuplicateKey.values(), keyword);
+            DuplicatePolicy parsedPolicy = parseKeyword(DuplicatePolicy.values(), keyword);
+            ReportDetail parsedDetail = parseKeyword(ReportDetail.values(), keyword);
+
+            if (parsedMode != null && loadMode == null) {
+                loadMode = parsedMode;
+            } else if (parsedKey != null && duplicateKey == null) {
+                duplicateKey = parsedKey;
+            } else if (parsedPolicy != null && duplicatePolicy == null) {
+                duplicatePolicy = parsedPolicy;
+            } else if (parsedDetail != null && reportDetail == null) {
+                reportDetail = parsedDetail;
+            } else {
+                break; // the remaining argument input is the path
+            }
+            path = path.substring(separatorIndex + 1);
+        }
+
+        boolean stream = isStream(path);
+        if (!BookDataFiles.isBookDataFile(path) && !isDirectory(path) && !stream) {
+            return false;
+        }
+
+        // LAZY mode does not check for duplicates, so duplicate options are meaningless for it
+        if (loadMode == LoadMode.LAZY && (duplicateKey != null || duplicatePolicy != null)) {
+            return false;
+        }
+
+        // LAZY mode keeps the raw content, which cannot be read incrementally from a stream
+        if (loadMode == LoadMode.LAZY && stream) {
             return false;
         }
 
-        bookPath = Paths.get(argumentInput);
+        this.loadMode = loadMode != null ? loadMode : LoadMode.FULL;
+        this.duplicateKey = duplicateKey != null ? duplicateKey : DuplicateKey.RECORD;
+        this.duplicatePolicy = duplicatePolicy != null ? duplicatePolicy : DuplicatePolicy.SKIP;
+        this.reportDetail = reportDetail != null ? reportDetail : ReportDetail.SUMMARY;
+        bookSource = path;
         return true;
     }
+
+    /**
+     * Check whether the given path names an existing directory.
+     *
+     * @param path path of the command argument
+     * @return true if the path is not blank and an existing directory
+     */
+    private static boolean isDirectory(String path) {
+        try {
+            return !path.isBlank() && Files.isDirectory(Paths.get(path));
+        } catch (InvalidPathException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Check whether the given path names standard input or an existing named pipe.
+     *
+     * @param path path of the command argument
+     * @return true if the path is a stream as checked by BookDataFiles.isStream
+     */
+    private static boolean isStream(String path) {
+        try {
+            return !path.isBlank() && BookDataFiles.isStream(Paths.get(path));
+        } catch (InvalidPathException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Translate given command keyword to the corresponding option.
+     *
+     * @param values all values of the option
+     * @param inputArgument command keyword
+     * @param <T> type of the option
+     * @return option associated with given keyword or null if no
+     * association was found.
+     */
+    private <T extends Enum<T>> T parseKeyword(T[] values, String inputArgument) {
+        // iterates through the values of the enum, and returns the one which is associated with inputArgument
+        for (T value : values) {
+            if (value.name().equals(inputArgument)) {
+                return value;
+            }
+        }
+
+        return null; // returns null if no association has been found
+    }
 }
@@ -0,0 +1,342 @@
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Dictionary assigning a unique int id to every distinct author name, which also serves as
+ * a pool of shared author name strings.
+ *
+ * Ids are assigned consecutively starting from 0 in the order names are first added,
+ * and a name keeps its id for the lifetime of the dictionary. Names can be looked up
+ * directly from a range of a char buffer, so a name which is already known does not
+ * need a new String to be found. All methods are thread-safe. Names which are already
+ * known are looked up without locking, only adding a new name is synchronized, so
+ * parsers sharing a dictionary do not wait for each other for names they have seen before.
+ */
+public class AuthorDictionary {
+
+    /** Value returned by find for names which are not in the dictionary. */
+    public static final int NO_ID = -1;
+
+    /** Initial number of names the dictionary has room for. */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** Estimated heap size of a String object without its content, in bytes. */
+    private static final int STRING_OBJECT_SIZE = 24;
+
+    /** Estimated heap size of an array object without its elements, in bytes. */
+    private static final int ARRAY_HEADER_SIZE = 16;
+
+    /** Alignment of objects on the heap, in bytes. */
+    private static final int OBJECT_ALIGNMENT = 8;
+
+    /** All names in the dictionary, indexed by their id, replaced by a larger copy when full. */
+    private volatile String[] names;
+
+    /**
+     * Open addressing hash table holding the hash code of each name in the upper and its id + 1 in the
+     * lower 32 bits of a slot, 0 for unused slots. Slots are only set under the lock of the dictionary,
+     * after the name has been stored and counted, and the table is replaced by a larger one once it is
+     * half full.
+     */
+    private volatile AtomicLongArray slots;
+
+    /** Number of names in the dictionary. */
+    private volatile int size;
+
+    /** Estimated number of bytes saved by returning shared names instead of new strings. */
+    private final LongAdder sharedBytes;
+
+    /** Create a new and empty author dictionary. */
+    public AuthorDictionary() {
+        names = new String[INITIAL_CAPACITY];
+        slots = new AtomicLongArray(2 * INITIAL_CAPACITY);
+        size = 0;
+        sharedBytes = new LongAdder();
+    }
+
+    /**
+     * Get the id of the given name, adding the name to the dictionary if necessary.
+     *
+     * @param name author name
+     * @return id of the name
+     * @throws NullPointerException if the given name is null
+     */
+    public int add(String name) {
+        Objects.requireNonNull(name, "Given author must not be null.");
+
+        int hash = name.hashCode();
+        int id = findId(hash, name);
+        return id != NO_ID ? id : addIfAbsent(hash, name);
+    }
+
+    /**
+     * Get the shared instance of the given name, adding the name to the dictionary if necessary.
+     *
+     * @param name author name
+     * @return name in the dictionary equal to the given name
+     * @throws NullPointerException if the given name is null
+     */
+    public String intern(String name) {
+        Objects.requireNonNull(name, "Given author must not be null.");
+
+        int hash = name.hashCode();
+        int id = findId(hash, name);
+        if (id == NO_ID) {
+            id = addIfAbsent(hash, name);
+        }
+
+        String shared = names[id];
+        if (shared != name) {
+            sharedBytes.add(estimateSize(shared));
+        }
+        return shared;
+    }
+
+    /**
+     * Get the shared instance of the name held in the given range of a char buffer, adding
+     * the name to the dictionary if necessary. A String is only created for new names.
+     *
+     * @param buffer buffer holding the name
+     * @param start start offset of the name in the buffer
+     * @param end end offset of the name in the buffer
+     * @return name in the dictionary equal to the content of the range
+     * @throws NullPointerException if the given buffer is null
+     * @throws IndexOutOfBoundsException if the range is not within the buffer
+     */
+    public String intern(char[] buffer, int start, int end) {
+        Objects.checkFromToIndex(start, end, buffer.length);
+
+        // same hash as String.hashCode of the name
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + buffer[i];
+        }
+
+        String shared = findName(hash, buffer, start, end);
+        if (shared == null) {
+            synchronized (this) {
+                // the name may have been added since it was looked up
+                shared = findName(hash, buffer, start, end);
+                if (shared == null) {
+                    String name = new String(buffer, start, end - start);
+                    insert(hash, name);
+                    return name;
+                }
+            }
+        }
+
+        sharedBytes.add(estimateSize(shared));
+        return shared;
+    }
+
+    /**
+     * Get the id of the given name without adding it to the dictionary.
+     *
+     * @param name author name
+     * @return id of the name or NO_ID if the name is not in the dictionary
+     * @throws NullPointerException if the given name is null
+     */
+    public int find(String name) {
+        Objects.requireNonNull(name, "Given author must not be null.");
+        return findId(name.hashCode(), name);
+    }
+
+    /**
+     * Get the name with the given id.
+     *
+     * @param id id of the name
+     * @return author name
+     * @throws IndexOutOfBoundsException if no name has the given id
+     */
+    public String getName(int id) {
+        // the size is read first, so the names read afterwards hold at least that many names
+        Objects.checkIndex(id, size);
+        return names[id];
+    }
+
+    /**
+     * Get the number of distinct names in the dictionary.
+     *
+     * @return number of names
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the estimated number of heap bytes saved so far by interning names, i.e. the size of the
+     * strings which would have been created if every interned name had been kept as its own string.
+     *
+     * @return estimated number of saved bytes
+     */
+    public long getSharedBytes() {
+        return sharedBytes.sum();
+    }
+
+    /**
+     * Find the id of the given name without locking.
+     *
+     * @param hash hash code of the name
+     * @param name author name
+     * @return id of the name or NO_ID if it is not in the dictionary
+     */
+    private int findId(int hash, String name) {
+        AtomicLongArray table = slots;
+        int mask = table.length() - 1;
+        int slot = spread(hash) & mask;
+        long entry;
+        while ((entry = table.get(slot)) != 0) {
+            // names are read after the slot, so they hold every name the table refers to
+            if ((int) (entry >>> 32) == hash && names[(int) entry - 1].equals(name)) {
+                return (int) entry - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NO_ID;
+    }
+
+    /**
+     * Find the name held in the given range of a char buffer without locking.
+     *
+     * @param hash hash code of the name
+     * @param buffer buffer holding the name
+     * @param start start offset of the name in the buffer
+     * @param end end offset of the name in the buffer
+     * @return name in the dictionary equal to the content of the range or null if it is not in the dictionary
+     */
+    private String findName(int hash, char[] buffer, int start, int end) {
+        AtomicLongArray table = slots;
+        int mask = table.length() - 1;
+        int slot = spread(hash) & mask;
+        long entry;
+        while ((entry = table.get(slot)) != 0) {
+            if ((int) (entry >>> 32) == hash) {
+                String name = names[(int) entry - 1];
+                if (equalsRange(name, buffer, start, end)) {
+                    return name;
+                }
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Get the id of the given name, adding the name if it has not been added since it was looked up.
+     *
+     * @param hash hash code of the name
+     * @param name author name
+     * @return id of the name
+     */
+    private synchronized int addIfAbsent(int hash, String name) {
+        int id = findId(hash, name);
+        return id != NO_ID ? id : insert(hash, name);
+    }
+
+    /**
+     * Add a new name, which must not be in the dictionary. Must only be called holding the lock
+     * of the dictionary.
+     *
+     * @param hash hash code of the name
+     * @param name author name
+     * @return id of the added name
+     */
+    private int insert(int hash, String name) {
+        int id = size;
+        String[] currentNames = names;
+        if (id == currentNames.length) {
+            currentNames = Arrays.copyOf(currentNames, 2 * id);
+            names = currentNames;
+        }
+        currentNames[id] = name;
+        // counted before it is set in the table, so its id is valid as soon as it can be found
+        size = id + 1;
+
+        long entry = ((long) hash << 32) | (id + 1);
+        AtomicLongArray table = slots;
+        // keeps the table at most half full
+        if (2 * size > table.length()) {
+            AtomicLongArray resized = new AtomicLongArray(2 * table.length());
+            for (int i = 0; i < table.length(); i++) {
+                long existing = table.get(i);
+                if (existing != 0) {
+                    resized.set(freeSlot(resized, (int) (existing >>> 32)), existing);
+                }
+            }
+            resized.set(freeSlot(resized, hash), entry);
+            slots = resized;
+        } else {
+            table.set(freeSlot(table, hash), entry);
+        }
+        return id;
+    }
+
+    /**
+     * Find the first unused slot for the given hash in the given table.
+     *
+     * @param table hash table of the names
+     * @param hash hash code of a name
+     * @return unused slot
+     */
+    private static int freeSlot(AtomicLongArray table, int hash) {
+        int mask = table.length() - 1;
+        int slot = spread(hash) & mask;
+        while (table.get(slot) != 0) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Check whether the given name equals the content of the given range of a char buffer.
+     *
+     * @param name author name
+     * @param buffer buffer holding the range
+     * @param start start offset of the range
+     * @param end end offset of the range
+     * @return true if both are equal
+     */
+    private static boolean equalsRange(String name, char[] buffer, int start, int end) {
+        if (name.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) != buffer[start + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Estimate the heap size of a string with the content of the given name.
+     *
+     * @param name author name
+     * @return estimated size of the string in bytes
+     */
+    private static long estimateSize(String name) {
+        int contentSize = name.length();
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) > 0xFF) {
+                contentSize = 2 * name.length(); // strings which are not Latin-1 use two bytes per char
+                break;
+            }
+        }
+
+        int arraySize = (ARRAY_HEADER_SIZE + contentSize + OBJECT_ALIGNMENT - 1) / OBJECT_ALIGNMENT * OBJECT_ALIGNMENT;
+        return STRING_OBJECT_SIZE + arraySize;
+    }
+
+    /**
+     * Spread the bits of the given hash, so hashes differing only in their upper bits use different slots.
+     *
+     * @param hash hash code of a name
+     * @return spread hash
+     */
+    private static int spread(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
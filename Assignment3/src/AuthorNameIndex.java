@@ -0,0 +1,94 @@
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Index of the tokens of author names, finding the authors whose names contain a token within a
+ * small edit distance of a term.
+ *
+ * Names are taken from an author dictionary, which all loaders of a library intern the authors of
+ * their books into. Names are folded and split into tokens like titles are by the title index,
+ * and the distinct tokens are kept in a BK-tree. As names are never removed from a dictionary,
+ * only the names added since the index was searched last are indexed before searching it again.
+ * Names of authors who no longer have any books may be found, but match no books.
+ */
+public class AuthorNameIndex {
+
+    /** Dictionary the indexed names are taken from. */
+    private final AuthorDictionary authorDictionary;
+
+    /** Tree of the tokens of all indexed names. */
+    private final BkTree tokenTree;
+
+    /** Ids of the authors whose names contain the token, for every token. */
+    private final Map<String, List<Integer>> authorIds;
+
+    /** Number of names of the dictionary which have been indexed. */
+    private int indexedCount;
+
+    /**
+     * Create an index of the names of the given dictionary.
+     *
+     * @param authorDictionary dictionary the indexed names are taken from
+     * @throws NullPointerException if the given dictionary is null
+     */
+    public AuthorNameIndex(AuthorDictionary authorDictionary) {
+        this.authorDictionary = Objects.requireNonNull(authorDictionary, "Given author dictionary must not be null.");
+        tokenTree = new BkTree();
+        authorIds = new HashMap<>();
+        indexedCount = 0;
+    }
+
+    /**
+     * Find all authors whose names contain a token within the given edit distance of the given term,
+     * ranked by the distance of their closest token.
+     *
+     * @param foldedTerm term to look for, folded as by TitleIndex.fold
+     * @param maxDistance largest number of inserted, deleted or replaced characters
+     * @return names of the authors grouped by distance, the list at index d holding the names whose
+     * closest token is at distance d, for every distance from 0 to maxDistance
+     * @throws NullPointerException if the given term is null
+     * @throws IllegalArgumentException if the given distance is negative
+     */
+    public synchronized List<List<String>> fuzzySearch(String foldedTerm, int maxDistance) {
+        Objects.requireNonNull(foldedTerm, "Given term must not be null.");
+        update();
+
+        BitSet foundIds = new BitSet(indexedCount);
+        List<List<String>> names = new ArrayList<>();
+        for (List<String> tokens : tokenTree.find(foldedTerm, maxDistance)) {
+            List<String> distanceNames = new ArrayList<>();
+            for (String token : tokens) {
+                for (int authorId : authorIds.get(token)) {
+                    if (!foundIds.get(authorId)) {
+                        foundIds.set(authorId);
+                        distanceNames.add(authorDictionary.getName(authorId));
+                    }
+                }
+            }
+            names.add(distanceNames);
+        }
+        return names;
+    }
+
+    /** Index the names which have been added to the dictionary since the index was updated last. */
+    private void update() {
+        int nameCount = authorDictionary.size();
+        for (int authorId = indexedCount; authorId < nameCount; authorId++) {
+            String foldedName = TitleIndex.fold(authorDictionary.getName(authorId));
+            for (String token : TitleIndex.tokenize(foldedName)) {
+                List<Integer> ids = authorIds.get(token);
+                if (ids == null) {
+                    ids = new ArrayList<>();
+                    authorIds.put(token, ids);
+                    tokenTree.add(token);
+                }
+                ids.add(authorId);
+            }
+        }
+        indexedCount = nameCount;
+    }
+}
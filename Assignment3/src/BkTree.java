@@ -0,0 +1,209 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * BK-tree of distinct words, finding all words within a given edit distance of a term.
+ *
+ * Every child of a node is kept under its Levenshtein distance to the word of the node. As the
+ * distance is a metric, a word within distance max of the term can only be below a child whose
+ * distance to the node differs by at most max from the distance of the term to the node, so only
+ * a small part of the words has to be compared with the term. Words cannot be removed, users of
+ * the tree have to skip words which are no longer in use.
+ *
+ * The tree reuses buffers for computing distances, so it must not be used by several threads at once.
+ */
+public class BkTree {
+
+    /** Initial number of characters the distance buffers have room for. */
+    private static final int INITIAL_BUFFER_LENGTH = 32;
+
+    /** Root node, null if the tree is empty. */
+    private Node root;
+
+    /** Number of words in the tree. */
+    private int size;
+
+    /** Row of the distance matrix computed last. */
+    private int[] previousRow;
+
+    /** Row of the distance matrix currently computed. */
+    private int[] currentRow;
+
+    /** Create a new and empty tree. */
+    public BkTree() {
+        previousRow = new int[INITIAL_BUFFER_LENGTH];
+        currentRow = new int[INITIAL_BUFFER_LENGTH];
+        clear();
+    }
+
+    /** Remove all words. */
+    public void clear() {
+        root = null;
+        size = 0;
+    }
+
+    /**
+     * Get the number of distinct words in the tree.
+     *
+     * @return number of words
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Add the given word, unless it is in the tree already.
+     *
+     * @param word word to be added
+     * @return true if the word was not in the tree before
+     * @throws NullPointerException if the given word is null
+     */
+    public boolean add(String word) {
+        Objects.requireNonNull(word, "Given word must not be null.");
+
+        if (root == null) {
+            root = new Node(word);
+            size++;
+            return true;
+        }
+
+        Node node = root;
+        while (true) {
+            int distance = distance(word, node.word);
+            if (distance == 0) {
+                return false;
+            }
+            Node child = node.getChild(distance);
+            if (child == null) {
+                node.setChild(distance, new Node(word));
+                size++;
+                return true;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * Find all words within the given edit distance of the given term.
+     *
+     * @param term term to compare the words with
+     * @param maxDistance largest number of inserted, deleted or replaced characters
+     * @return words grouped by their distance to the term, the list at index d holding the words at
+     * distance d in ascending order, for every distance from 0 to maxDistance
+     * @throws NullPointerException if the given term is null
+     * @throws IllegalArgumentException if the given distance is negative
+     */
+    public List<List<String>> find(String term, int maxDistance) {
+        Objects.requireNonNull(term, "Given term must not be null.");
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException("Given distance must not be negative: " + maxDistance);
+        }
+
+        List<List<String>> matches = new ArrayList<>();
+        for (int d = 0; d <= maxDistance; d++) {
+            matches.add(new ArrayList<>());
+        }
+        if (root == null) {
+            return matches;
+        }
+
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            int distance = distance(term, node.word);
+            if (distance <= maxDistance) {
+                matches.get(distance).add(node.word);
+            }
+
+            // by the triangle inequality, only children at a distance close to that of the term can match
+            int last = Math.min(node.children.length - 1, distance + maxDistance);
+            for (int childDistance = Math.max(1, distance - maxDistance); childDistance <= last; childDistance++) {
+                if (node.children[childDistance] != null) {
+                    pending.push(node.children[childDistance]);
+                }
+            }
+        }
+
+        for (List<String> words : matches) {
+            Collections.sort(words);
+        }
+        return matches;
+    }
+
+    /**
+     * Compute the Levenshtein distance of the given words, i.e. the smallest number of inserted,
+     * deleted or replaced characters turning one word into the other.
+     *
+     * @param first first word
+     * @param second second word
+     * @return edit distance of the words
+     */
+    int distance(String first, String second) {
+        if (second.length() + 1 > previousRow.length) {
+            previousRow = new int[2 * (second.length() + 1)];
+            currentRow = new int[previousRow.length];
+        }
+
+        for (int j = 0; j <= second.length(); j++) {
+            previousRow[j] = j;
+        }
+        for (int i = 1; i <= first.length(); i++) {
+            currentRow[0] = i;
+            char c = first.charAt(i - 1);
+            for (int j = 1; j <= second.length(); j++) {
+                int replace = previousRow[j - 1] + (c == second.charAt(j - 1) ? 0 : 1);
+                currentRow[j] = Math.min(replace, Math.min(previousRow[j], currentRow[j - 1]) + 1);
+            }
+            int[] row = previousRow;
+            previousRow = currentRow;
+            currentRow = row;
+        }
+        return previousRow[second.length()];
+    }
+
+    /**
+     * Node of the tree holding a single word.
+     */
+    private static class Node {
+
+        /** Word of the node. */
+        private final String word;
+
+        /** Children of the node, indexed by their distance to the word of the node. */
+        private Node[] children;
+
+        private Node(String word) {
+            this.word = word;
+            children = new Node[0];
+        }
+
+        /**
+         * Get the child at the given distance.
+         *
+         * @param distance distance of the child to the word of the node
+         * @return child node or null if there is none
+         */
+        private Node getChild(int distance) {
+            return distance < children.length ? children[distance] : null;
+        }
+
+        /**
+         * Set the child at the given distance.
+         *
+         * @param distance distance of the child to the word of the node
+         * @param child child node
+         */
+        private void setChild(int distance, Node child) {
+            if (distance >= children.length) {
+                children = Arrays.copyOf(children, distance + 1);
+            }
+            children[distance] = child;
+        }
+    }
+}
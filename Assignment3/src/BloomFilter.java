@@ -0,0 +1,170 @@
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * Bloom filter over 64 bit hashes of keys.
+ *
+ * Answers whether a key may have been added, without false negatives and with a false positive
+ * rate depending on the number of bits per added key. Every key sets a fixed number of bits,
+ * derived from its hash by double hashing.
+ */
+public class BloomFilter {
+
+    /** Maximal number of bits of a filter. */
+    private static final long MAX_BITS = (long) Integer.MAX_VALUE * Long.SIZE;
+
+    /** Bits of the filter. */
+    private final long[] bits;
+
+    /** Number of bits of the filter. */
+    private final long bitCount;
+
+    /** Number of bits set per key. */
+    private final int hashCount;
+
+    /**
+     * Create an empty filter sized for the given number of keys and false positive rate.
+     *
+     * @param expectedKeys number of keys expected to be added
+     * @param falsePositiveRate false positive rate expected after adding the expected number of keys
+     * @throws IllegalArgumentException if the number of keys is negative or the rate is not between 0 and 1
+     */
+    public BloomFilter(long expectedKeys, double falsePositiveRate) {
+        if (expectedKeys < 0) {
+            throw new IllegalArgumentException("Given number of keys must not be negative: " + expectedKeys);
+        }
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("Given false positive rate must be between 0 and 1: "
+                    + falsePositiveRate);
+        }
+
+        // optimal number of bits and hash functions for the given number of keys and rate
+        long keys = Math.max(expectedKeys, 1);
+        double optimalBits = -keys * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        long wordCount = (Math.min((long) Math.ceil(optimalBits), MAX_BITS) + Long.SIZE - 1) / Long.SIZE;
+        bits = new long[(int) wordCount];
+        bitCount = wordCount * Long.SIZE;
+        hashCount = Math.max(1, (int) Math.round((double) bitCount / keys * Math.log(2)));
+    }
+
+    /**
+     * Create a filter with the given bits.
+     *
+     * @param bits bits of the filter
+     * @param hashCount number of bits set per key
+     */
+    private BloomFilter(long[] bits, int hashCount) {
+        this.bits = bits;
+        this.bitCount = (long) bits.length * Long.SIZE;
+        this.hashCount = hashCount;
+    }
+
+    /**
+     * Add the key with the given hash.
+     *
+     * @param hash 64 bit hash of the key
+     */
+    public void add(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    /**
+     * Check whether the key with the given hash may have been added.
+     *
+     * @param hash 64 bit hash of the key
+     * @return false if the key has certainly not been added, true if it may have been added
+     */
+    public boolean mightContain(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+            if ((bits[(int) (bit >>> 6)] & 1L << bit) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Estimate the probability that a key which has not been added is reported as possibly added,
+     * from the share of set bits.
+     *
+     * @return estimated false positive rate
+     */
+    public double getFalsePositiveRate() {
+        long setBits = 0;
+        for (long word : bits) {
+            setBits += Long.bitCount(word);
+        }
+        return Math.pow((double) setBits / bitCount, hashCount);
+    }
+
+    /**
+     * Get the number of bytes needed by write.
+     *
+     * @return size of the written filter, in bytes
+     */
+    public int getSerializedSize() {
+        return 2 * Integer.BYTES + bits.length * Long.BYTES;
+    }
+
+    /**
+     * Write the filter to the given buffer, at its position.
+     *
+     * @param buffer buffer to write to
+     */
+    public void write(ByteBuffer buffer) {
+        buffer.putInt(hashCount);
+        buffer.putInt(bits.length);
+        for (long word : bits) {
+            buffer.putLong(word);
+        }
+    }
+
+    /**
+     * Read a filter written by write from the given buffer, at its position.
+     *
+     * @param buffer buffer to read from
+     * @return filter read
+     * @throws IllegalArgumentException if the buffer does not hold a valid filter
+     * @throws java.nio.BufferUnderflowException if the buffer ends within the filter
+     */
+    public static BloomFilter read(ByteBuffer buffer) {
+        Objects.requireNonNull(buffer, "Given buffer must not be null.");
+
+        int hashCount = buffer.getInt();
+        int wordCount = buffer.getInt();
+        if (hashCount <= 0 || wordCount <= 0 || wordCount > buffer.remaining() / Long.BYTES) {
+            throw new IllegalArgumentException("Invalid Bloom filter: " + hashCount + " hashes, " + wordCount
+                    + " words");
+        }
+
+        long[] bits = new long[wordCount];
+        for (int i = 0; i < wordCount; i++) {
+            bits[i] = buffer.getLong();
+        }
+        return new BloomFilter(bits, hashCount);
+    }
+
+    /**
+     * Compute a well distributed 64 bit hash of the given key.
+     *
+     * @param key key to be hashed
+     * @return hash of the key
+     */
+    public static long hash(long key) {
+        // finalizer of the 64 bit MurmurHash3
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+}
@@ -0,0 +1,255 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Static utility for finding the book data files named by a directory or a glob pattern
+ * and for opening book data files, which may be compressed.
+ *
+ * Book data files are plain csv files, gzip compressed csv files ending with ".csv.gz"
+ * or zip archives of csv files ending with ".zip". Compressed files are inflated while
+ * they are read, without being extracted to disk. Book data can also be read from streams,
+ * i.e. from standard input named by STANDARD_INPUT or from named pipes, which can only be
+ * read once from start to end.
+ */
+public final class BookDataFiles {
+
+    /** File extension of book data files. */
+    public static final String FILE_EXTENSION = ".csv";
+
+    /** File extension of gzip compressed book data files. */
+    public static final String GZIP_EXTENSION = ".csv.gz";
+
+    /** File extension of zip archives of book data files. */
+    public static final String ZIP_EXTENSION = ".zip";
+
+    /** Name of standard input as source of book data. */
+    public static final String STANDARD_INPUT = "-";
+
+    /** Glob pattern matching the names of all kinds of book data files. */
+    private static final String BOOK_DATA_PATTERN = "*.{csv,csv.gz,zip}";
+
+    /** Size of the buffer used to read compressed files, in bytes. */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /** Characters with a special meaning in glob patterns. */
+    private static final String GLOB_CHARACTERS = "*?[{";
+
+    /** Glob pattern matching any number of directories. */
+    private static final String ANY_DIRECTORIES = "**";
+
+    /** Separator between the names of a path within a glob pattern. */
+    private static final char PATH_SEPARATOR = '/';
+
+    /** Not to be used. */
+    private BookDataFiles() {
+        throw new UnsupportedOperationException("This constructor should never be used.");
+    }
+
+    /**
+     * Check whether the given file name has the extension of one of the kinds of book data files.
+     *
+     * @param fileName name or path of a file
+     * @return true if the name ends with ".csv", ".csv.gz" or ".zip"
+     * @throws NullPointerException if the given file name is null
+     */
+    public static boolean isBookDataFile(String fileName) {
+        Objects.requireNonNull(fileName, "Given filename must not be null.");
+        return fileName.endsWith(FILE_EXTENSION) || fileName.endsWith(GZIP_EXTENSION)
+                || fileName.endsWith(ZIP_EXTENSION);
+    }
+
+    /**
+     * Check whether the given path names a stream rather than a regular file, i.e. standard
+     * input or an existing named pipe or other special file.
+     *
+     * @param fileName path of a book data source
+     * @return true if the path is STANDARD_INPUT or names an existing file which is neither
+     * a regular file nor a directory
+     * @throws NullPointerException if the given file name is null
+     */
+    public static boolean isStream(Path fileName) {
+        Objects.requireNonNull(fileName, "Given filename must not be null.");
+        if (fileName.toString().equals(STANDARD_INPUT)) {
+            return true;
+        }
+        try {
+            return Files.readAttributes(fileName, BasicFileAttributes.class).isOther();
+        } catch (IOException | SecurityException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Check whether the given book data file is compressed.
+     *
+     * @param fileName path of a book data file
+     * @return true if the file is a gzip compressed file or a zip archive
+     * @throws NullPointerException if the given file name is null
+     */
+    public static boolean isCompressed(Path fileName) {
+        Objects.requireNonNull(fileName, "Given filename must not be null.");
+        String name = fileName.toString();
+        return name.endsWith(GZIP_EXTENSION) || name.endsWith(ZIP_EXTENSION);
+    }
+
+    /**
+     * Open the given book data file for reading its content as plain csv data. Compressed files
+     * are inflated while they are read. The csv files of a zip archive are read in one pass as if
+     * they were a single file, with only the column header of the first file.
+     *
+     * @param fileName path of a book data file
+     * @return stream of the csv data
+     * @throws IOException if the file cannot be opened
+     * @throws NullPointerException if the given file name is null
+     */
+    public static InputStream openInputStream(Path fileName) throws IOException {
+        Objects.requireNonNull(fileName, "Given filename must not be null.");
+
+        InputStream in = Files.newInputStream(fileName);
+        String name = fileName.toString();
+        try {
+            if (name.endsWith(GZIP_EXTENSION)) {
+                return new GZIPInputStream(in, BUFFER_SIZE);
+            }
+            if (name.endsWith(ZIP_EXTENSION)) {
+                return new ZipBookDataInputStream(new BufferedInputStream(in, BUFFER_SIZE));
+            }
+        } catch (IOException e) {
+            in.close(); // the gzip header could not be read
+            throw e;
+        }
+        return in;
+    }
+
+    /**
+     * Open the given book data file for reading its content as lines of UTF-8 text, like
+     * Files.newBufferedReader, but inflating compressed files as described for openInputStream.
+     * STANDARD_INPUT is read as described for StandardInput.newDataReader.
+     *
+     * @param fileName path of a book data file
+     * @return reader of the csv data
+     * @throws IOException if the file cannot be opened
+     * @throws NullPointerException if the given file name is null
+     */
+    public static BufferedReader newBufferedReader(Path fileName) throws IOException {
+        if (fileName.toString().equals(STANDARD_INPUT)) {
+            return StandardInput.newDataReader();
+        }
+        if (!isCompressed(fileName)) {
+            return Files.newBufferedReader(fileName);
+        }
+        return new BufferedReader(new InputStreamReader(openInputStream(fileName),
+                StandardCharsets.UTF_8.newDecoder()));
+    }
+
+    /**
+     * Read the whole content of the given book data file as plain csv data, inflating
+     * compressed files as described for openInputStream.
+     *
+     * @param fileName path of a book data file
+     * @return content of the csv data
+     * @throws IOException if the file cannot be read
+     * @throws NullPointerException if the given file name is null
+     */
+    public static byte[] readAllBytes(Path fileName) throws IOException {
+        if (!isCompressed(fileName)) {
+            return Files.readAllBytes(fileName);
+        }
+        try (InputStream in = openInputStream(fileName)) {
+            return in.readAllBytes();
+        }
+    }
+
+    /**
+     * Check whether the given source names a set of files, i.e. it is a glob pattern or a directory.
+     *
+     * @param source path or glob pattern
+     * @return true if the source is a glob pattern or an existing directory
+     * @throws NullPointerException if the given source is null
+     */
+    public static boolean isFileSet(String source) {
+        Objects.requireNonNull(source, "Given source must not be null.");
+        return isGlobPattern(source) || Files.isDirectory(Paths.get(source));
+    }
+
+    /**
+     * Find all book data files named by the given source. For a directory these are all files
+     * in it ending with ".csv", ".csv.gz" or ".zip", for a glob pattern all files matching it. Directories in a glob
+     * pattern have to be separated by '/', and only "**" matches files in subdirectories of
+     * any depth. Files are returned in lexicographic order of their paths.
+     *
+     * @param source directory or glob pattern
+     * @return matching files or null if the files could not be listed
+     * @throws NullPointerException if the given source is null
+     */
+    public static List<Path> find(String source) {
+        Objects.requireNonNull(source, "Given source must not be null.");
+
+        Path baseDirectory;
+        String pattern;
+        if (isGlobPattern(source)) {
+            // the base directory is the part of the source before the first directory containing a glob character
+            int firstGlob = indexOfGlobCharacter(source);
+            int baseEnd = source.lastIndexOf(PATH_SEPARATOR, firstGlob);
+            baseDirectory = baseEnd < 0 ? Paths.get("") : Paths.get(baseEnd == 0 ? "/" : source.substring(0, baseEnd));
+            pattern = source.substring(baseEnd + 1);
+        } else {
+            baseDirectory = Paths.get(source);
+            pattern = BOOK_DATA_PATTERN;
+        }
+
+        int depth = pattern.contains(ANY_DIRECTORIES) ? Integer.MAX_VALUE
+                : (int) pattern.chars().filter(c -> c == PATH_SEPARATOR).count() + 1;
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+
+        try (Stream<Path> files = Files.walk(baseDirectory, depth)) {
+            return files.filter(Files::isRegularFile)
+                    .filter(file -> matcher.matches(baseDirectory.relativize(file)))
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException | SecurityException e) {
+            System.err.println("ERROR: Listing book data files failed: " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Check whether the given source contains glob characters.
+     *
+     * @param source path or glob pattern
+     * @return true if the source is a glob pattern
+     */
+    private static boolean isGlobPattern(String source) {
+        return indexOfGlobCharacter(source) >= 0;
+    }
+
+    /**
+     * Find the first glob character in the given source.
+     *
+     * @param source path or glob pattern
+     * @return index of the first glob character or -1 if there is none
+     */
+    private static int indexOfGlobCharacter(String source) {
+        for (int i = 0; i < source.length(); i++) {
+            if (GLOB_CHARACTERS.indexOf(source.charAt(i)) >= 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
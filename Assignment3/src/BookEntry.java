@@ -68,7 +68,7 @@ public class BookEntry {
             throw new NullPointerException("No author can be null.");
         }
 
-        if (rating < MINIMAL_RATING || rating > MAXIMAL_RATING) {
+        if (!isValidRating(rating)) {
             throw new IllegalArgumentException(String.format(Locale.UK, "Given rating should be" +
                     " between %d and %d: %.2f", MINIMAL_RATING, MAXIMAL_RATING, rating));
         }
@@ -85,6 +85,16 @@ public class BookEntry {
         this.pages = pages;
     }
 
+    /**
+     * Check whether the given rating is within the correct range.
+     *
+     * @param rating Rating of a book
+     * @return True if a book can be created with the given rating.
+     */
+    static boolean isValidRating(float rating) {
+        return !(rating < MINIMAL_RATING || rating > MAXIMAL_RATING);
+    }
+
     /**
      * Get the title of the book.
      *
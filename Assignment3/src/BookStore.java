@@ -0,0 +1,243 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.IntPredicate;
+
+/**
+ * Storage of the book entries of a library, accessed by position.
+ *
+ * Besides materialising whole BookEntry objects, a store gives access to the individual
+ * data values of a book, so commands which only need some of them do not have to create
+ * full book entries. Positions are contiguous from 0 to size() - 1 and follow the order
+ * in which books were added.
+ */
+public interface BookStore {
+
+    /**
+     * Get the number of positions in the store.
+     *
+     * @return number of stored books
+     */
+    int size();
+
+    /**
+     * Check whether a book is stored at the given position.
+     *
+     * @param index position of the book
+     * @return true unless the position holds no book
+     * @throws IndexOutOfBoundsException if the position is out of range
+     */
+    boolean hasBook(int index);
+
+    /**
+     * Get the book stored at the given position.
+     *
+     * @param index position of the book
+     * @return book entry with the stored data values
+     * @throws IndexOutOfBoundsException if the position is out of range
+     */
+    BookEntry getBook(int index);
+
+    /**
+     * Get the title of the book stored at the given position.
+     *
+     * @param index position of the book
+     * @return title of the book
+     * @throws IndexOutOfBoundsException if the position is out of range
+     */
+    String getTitle(int index);
+
+    /**
+     * Append the title of the book stored at the given position to the given output.
+     * Stores which do not keep titles as strings can append them without creating one.
+     *
+     * @param index position of the book
+     * @param output output the title is appended to
+     * @throws IndexOutOfBoundsException if the position is out of range
+     */
+    default void appendTitle(int index, StringBuilder output) {
+        output.append(getTitle(index));
+    }
+
+    /**
+     * Check whether the title of the book stored at the given position contains the given term,
+     * ignoring the case.
+     *
+     * @param index position of the book
+     * @param lowerCaseTerm term to look for, in lower case
+     * @return true if the lower case title contains the given term
+     * @throws IndexOutOfBoundsException if the position is out of range
+     */
+    default boolean titleContains(int index, String lowerCaseTerm) {
+        return getTitle(index).toLowerCase().contains(lowerCaseTerm);
+    }
+
+    /**
+     * Get the number of authors of the book stored at the given position.
+     *
+     * @param index position of the book
+     * @return number of authors of the book
+     * @throws IndexOutOfBoundsException if the position is out of range
+     */
+    int getAuthorCount(int index);
+
+    /**
+     * Get a single author of the book stored at the given position.
+     *
+     * @param index position of the book
+     * @param authorIndex position of the author within the authors of the book
+     * @return author of the book
+     * @throws IndexOutOfBoundsException if one of the positions is out of range
+     */
+    String getAuthor(int index, int authorIndex);
+
+    /**
+     * Get the id of a single author of the book stored at the given position. Ids refer
+     * to the author dictionary of this store, so equal authors have equal ids.
+     *
+     * @param index position of the book
+     * @param authorIndex position of the author within the authors of the book
+     * @return id of the author
+     * @throws IndexOutOfBoundsException if one of the positions is out of range
+     */
+    int getAuthorId(int index, int authorIndex);
+
+    /**
+     * Get the dictionary the author ids of this store refer to.
+     *
+     * @return author dictionary of this store
+     */
+    AuthorDictionary getAuthorDictionary();
+
+    /**
+     * Check whether the book stored at the given position has the given title.
+     *
+     * @param index position of the book
+     * @param title title to compare with
+     * @return true if the title of the book equals the given title
+     * @throws IndexOutOfBoundsException if the position is out of range
+     */
+    default boolean hasTitle(int index, String title) {
+        return getTitle(index).equals(title);
+    }
+
+    /**
+     * Check whether the given author is one of the authors of the book stored at the given position.
+     *
+     * @param index position of the book
+     * @param author author to look for
+     * @return true if one of the authors of the book equals the given author
+     * @throws IndexOutOfBoundsException if the position is out of range
+     */
+    default boolean hasAuthor(int index, String author) {
+        int authorCount = getAuthorCount(index);
+        for (int i = 0; i < authorCount; i++) {
+            if (getAuthor(index, i).equals(author)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Create a filter accepting the positions of all stored books which have the given author.
+     *
+     * @param author author to look for
+     * @return filter over the positions of this store
+     * @throws NullPointerException if the given author is null
+     */
+    default IntPredicate authorFilter(String author) {
+        Objects.requireNonNull(author, "Given author must not be null.");
+        return index -> hasBook(index) && hasAuthor(index, author);
+    }
+
+    /**
+     * Check whether filters over the positions of this store, such as those created by
+     * authorFilter, may be evaluated from several threads at once while no change is made.
+     * Stores which decode or cache data when it is read cannot be scanned in parallel.
+     *
+     * @return true if the store can be scanned by a ParallelScan
+     */
+    default boolean supportsParallelScan() {
+        return false;
+    }
+
+    /**
+     * Get the rating of the book stored at the given position.
+     *
+     * @param index position of the book
+     * @return rating of the book
+     * @throws IndexOutOfBoundsException if the position is out of range
+     */
+    float getRating(int index);
+
+    /**
+     * Get the ISBN of the book stored at the given position.
+     *
+     * @param index position of the book
+     * @return ISBN of the book
+     * @throws IndexOutOfBoundsException if the position is out of range
+     */
+    String getISBN(int index);
+
+    /**
+     * Get the number of pages of the book stored at the given position.
+     *
+     * @param index position of the book
+     * @return number of pages of the book
+     * @throws IndexOutOfBoundsException if the position is out of range
+     */
+    int getPages(int index);
+
+    /**
+     * Add a book after the last position.
+     *
+     * @param book book to be added
+     * @throws NullPointerException if the given book is null
+     */
+    void add(BookEntry book);
+
+    /**
+     * Replace the book stored at the given position.
+     *
+     * @param index position of the book
+     * @param book book replacing the stored book
+     * @throws IndexOutOfBoundsException if the position is out of range
+     * @throws NullPointerException if the given book is null
+     */
+    void set(int index, BookEntry book);
+
+    /**
+     * Remove the book stored at the given position. Books at later positions move
+     * one position to the front.
+     *
+     * @param index position of the book
+     * @throws IndexOutOfBoundsException if the position is out of range
+     */
+    void remove(int index);
+
+    /**
+     * Remove all books whose positions match the given filter. The filter is evaluated
+     * for the positions before removal, and the remaining books keep their order.
+     *
+     * @param filter filter deciding for each position whether its book is removed
+     * @return number of removed books
+     * @throws NullPointerException if the given filter is null
+     */
+    int removeIf(IntPredicate filter);
+
+    /** Remove all books. */
+    void clear();
+
+    /**
+     * Decode and validate all books whose validation was deferred when they were added,
+     * removing those which turn out to be invalid. Stores which validate books right away
+     * have nothing to do.
+     *
+     * @return errors of the removed books in the order of their positions, numbered by their
+     *         positions before validation
+     */
+    default List<LineError> validate() {
+        return new ArrayList<>();
+    }
+}
@@ -0,0 +1,80 @@
+import java.util.AbstractList;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * List view of a book store. Books are created from the store whenever they are
+ * requested, so the view holds no BookEntry objects itself.
+ */
+public class BookStoreList extends AbstractList<BookEntry> implements RandomAccess {
+
+    /** Store the view is backed by. */
+    private final BookStore store;
+
+    /**
+     * Create a list view of the given store.
+     *
+     * @param store store to be viewed
+     * @throws NullPointerException if the given store is null
+     */
+    public BookStoreList(BookStore store) {
+        this.store = Objects.requireNonNull(store, ExceptionMessage.NULL_BOOK_ENTRIES.getExceptionMessage());
+    }
+
+    /**
+     * Get the store this view is backed by.
+     *
+     * @return viewed store
+     */
+    public BookStore getStore() {
+        return store;
+    }
+
+    @Override
+    public BookEntry get(int index) {
+        return store.getBook(index);
+    }
+
+    @Override
+    public int size() {
+        return store.size();
+    }
+
+    @Override
+    public BookEntry set(int index, BookEntry book) {
+        BookEntry previous = store.getBook(index);
+        store.set(index, book);
+        return previous;
+    }
+
+    /**
+     * Add a book at the given position. Books can only be added after the last position.
+     *
+     * @param index position of the book, which must be the size of the list
+     * @param book book to be added
+     * @throws UnsupportedOperationException if the position is not the size of the list
+     * @throws NullPointerException if the given book is null
+     */
+    @Override
+    public void add(int index, BookEntry book) {
+        if (index != store.size()) {
+            throw new UnsupportedOperationException("Books can only be added at the end of a book store.");
+        }
+        store.add(book);
+        modCount++;
+    }
+
+    @Override
+    public BookEntry remove(int index) {
+        BookEntry previous = store.getBook(index);
+        store.remove(index);
+        modCount++;
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        store.clear();
+        modCount++;
+    }
+}
@@ -0,0 +1,64 @@
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Objects;
+
+/**
+ * Catalog command used to keep the library in an LSM-tree catalog directory, which persists
+ * every change as it happens and restores the library when the same directory is opened again.
+ */
+public class CatalogCmd extends LibraryCommand {
+
+    /**
+     * Path of the catalog directory.
+     */
+    private Path catalogPath;
+
+    /**
+     * Create a catalog command.
+     *
+     * @param argumentInput Command argument
+     * @throws IllegalArgumentException If given arguments are invalid.
+     * @throws NullPointerException     If the given argumentInput is null.
+     */
+    public CatalogCmd(String argumentInput) {
+        super(CommandType.CATALOG, argumentInput);
+    }
+
+    /**
+     * Execute the catalog command. This method calls the given LibraryData instance's openCatalog
+     * in order to restore the library from the catalog or move the library into it.
+     *
+     * @param data book data to be considered for command execution.
+     * @throws NullPointerException If data is null.
+     */
+    @Override
+    public void execute(LibraryData data) {
+        Objects.requireNonNull(data, ExceptionMessage.NULL_DATA.getExceptionMessage());
+
+        data.openCatalog(catalogPath);
+    }
+
+    /**
+     * Parse the given command argument and assigns it to the instance variable.
+     *
+     * @param argumentInput Path to the catalog directory, which is created if it does not exist.
+     * @return True if the argument is a valid path which is not blank.
+     * @throws NullPointerException If the given argumentInput is null.
+     */
+    @Override
+    protected boolean parseArguments(String argumentInput) {
+        Objects.requireNonNull(argumentInput, ExceptionMessage.NULL_ARGUMENT.getExceptionMessage());
+
+        if (argumentInput.isBlank()) {
+            return false;
+        }
+
+        try {
+            catalogPath = Paths.get(argumentInput);
+        } catch (InvalidPathException e) {
+            return false;
+        }
+        return true;
+    }
+}
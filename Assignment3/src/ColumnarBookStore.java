@@ -0,0 +1,508 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.IntPredicate;
+
+/**
+ * Book store keeping each data value of the books in its own column instead of in BookEntry objects.
+ *
+ * Ratings and page numbers are kept in primitive arrays. ISBNs consisting of at most 14 digits
+ * or 'X' are packed into a single long each, any other ISBN is kept as a string. All titles share
+ * one char arena, addressed by a start offset and length per book. Authors are kept as ids of an
+ * AuthorDictionary, which again share one int arena. BookEntry objects are only created when a
+ * whole book is requested.
+ *
+ * Removing or replacing books leaves their previous arena contents unused. The arenas are compacted
+ * as soon as more than half of their content is unused.
+ */
+public class ColumnarBookStore implements BookStore {
+
+    /** Initial number of books the columns have room for. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** Maximal number of characters of an ISBN which is packed into a long. */
+    private static final int PACKED_ISBN_MAX_LENGTH = 14;
+
+    /** Number of bits used per packed ISBN character. */
+    private static final int PACKED_ISBN_CHAR_BITS = 4;
+
+    /** Position of the length of a packed ISBN within its long. */
+    private static final int PACKED_ISBN_LENGTH_SHIFT = PACKED_ISBN_MAX_LENGTH * PACKED_ISBN_CHAR_BITS;
+
+    /** Packed length marking an ISBN kept as string, the remaining bits hold its position in irregularIsbns. */
+    private static final long IRREGULAR_ISBN = 0xFL;
+
+    /** Packed value of the ISBN character 'X', digits are packed as their value. */
+    private static final int PACKED_ISBN_X = 10;
+
+    /** Dictionary of the author ids stored in the author arena. */
+    private final AuthorDictionary authorDictionary;
+
+    /** Number of stored books. */
+    private int size;
+
+    /** Rating column. */
+    private float[] ratings;
+
+    /** Page number column. */
+    private int[] pages;
+
+    /** Packed ISBN column. */
+    private long[] isbns;
+
+    /** ISBNs which cannot be packed, referenced from the ISBN column. */
+    private List<String> irregularIsbns;
+
+    /** Characters of all titles. */
+    private char[] titleArena;
+
+    /** Number of used characters in the title arena. */
+    private int titleArenaSize;
+
+    /** Offset of each title in the title arena. */
+    private int[] titleStarts;
+
+    /** Length of each title. */
+    private int[] titleLengths;
+
+    /** Author ids of all books. */
+    private int[] authorArena;
+
+    /** Number of used ids in the author arena. */
+    private int authorArenaSize;
+
+    /** Offset of the authors of each book in the author arena. */
+    private int[] authorStarts;
+
+    /** Number of authors of each book. */
+    private int[] authorCounts;
+
+    /** Number of characters in the title arena which belong to no stored book anymore. */
+    private int unusedTitleChars;
+
+    /** Number of ids in the author arena which belong to no stored book anymore. */
+    private int unusedAuthorIds;
+
+    /** Number of irregular ISBNs which belong to no stored book anymore. */
+    private int unusedIrregularIsbns;
+
+    /** Create a new and empty columnar book store. */
+    public ColumnarBookStore() {
+        this(new AuthorDictionary());
+    }
+
+    /**
+     * Create a new and empty columnar book store keeping author ids of the given dictionary,
+     * which may be shared with other stores and loaders.
+     *
+     * @param authorDictionary dictionary assigning the author ids
+     * @throws NullPointerException if the given dictionary is null
+     */
+    public ColumnarBookStore(AuthorDictionary authorDictionary) {
+        this.authorDictionary = Objects.requireNonNull(authorDictionary, "Given author dictionary must not be null.");
+        clear();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean hasBook(int index) {
+        Objects.checkIndex(index, size);
+        return true;
+    }
+
+    @Override
+    public BookEntry getBook(int index) {
+        Objects.checkIndex(index, size);
+
+        String[] authors = new String[authorCounts[index]];
+        for (int i = 0; i < authors.length; i++) {
+            authors[i] = authorDictionary.getName(authorArena[authorStarts[index] + i]);
+        }
+
+        return new BookEntry(getTitle(index), authors, ratings[index], getISBN(index), pages[index]);
+    }
+
+    @Override
+    public String getTitle(int index) {
+        Objects.checkIndex(index, size);
+        return new String(titleArena, titleStarts[index], titleLengths[index]);
+    }
+
+    @Override
+    public boolean hasTitle(int index, String title) {
+        Objects.checkIndex(index, size);
+
+        int length = titleLengths[index];
+        if (title.length() != length) {
+            return false;
+        }
+
+        int start = titleStarts[index];
+        for (int i = 0; i < length; i++) {
+            if (titleArena[start + i] != title.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int getAuthorCount(int index) {
+        Objects.checkIndex(index, size);
+        return authorCounts[index];
+    }
+
+    @Override
+    public String getAuthor(int index, int authorIndex) {
+        Objects.checkIndex(index, size);
+        Objects.checkIndex(authorIndex, authorCounts[index]);
+        return authorDictionary.getName(authorArena[authorStarts[index] + authorIndex]);
+    }
+
+    @Override
+    public boolean hasAuthor(int index, String author) {
+        Objects.checkIndex(index, size);
+
+        int authorId = authorDictionary.find(author);
+        return authorId != AuthorDictionary.NO_ID && hasAuthorId(index, authorId);
+    }
+
+    /**
+     * Check whether the author with the given id is one of the authors of the book stored at
+     * the given position. Looking up the id once and comparing ids avoids comparing names.
+     *
+     * @param index position of the book
+     * @param authorId id of the author in the author dictionary of this store
+     * @return true if one of the authors of the book has the given id
+     * @throws IndexOutOfBoundsException if the position is out of range
+     */
+    public boolean hasAuthorId(int index, int authorId) {
+        Objects.checkIndex(index, size);
+
+        int start = authorStarts[index];
+        int end = start + authorCounts[index];
+        for (int i = start; i < end; i++) {
+            if (authorArena[i] == authorId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int getAuthorId(int index, int authorIndex) {
+        Objects.checkIndex(index, size);
+        Objects.checkIndex(authorIndex, authorCounts[index]);
+        return authorArena[authorStarts[index] + authorIndex];
+    }
+
+    @Override
+    public AuthorDictionary getAuthorDictionary() {
+        return authorDictionary;
+    }
+
+    /**
+     * Create a filter accepting the positions of all stored books which have the given author.
+     * The id of the author is looked up once, so the filter only compares ints.
+     *
+     * @param author author to look for
+     * @return filter over the positions of this store
+     * @throws NullPointerException if the given author is null
+     */
+    @Override
+    public IntPredicate authorFilter(String author) {
+        int authorId = authorDictionary.find(author);
+        if (authorId == AuthorDictionary.NO_ID) {
+            return index -> false;
+        }
+        return index -> hasAuthorId(index, authorId);
+    }
+
+    @Override
+    public boolean supportsParallelScan() {
+        return true;
+    }
+
+    @Override
+    public float getRating(int index) {
+        Objects.checkIndex(index, size);
+        return ratings[index];
+    }
+
+    @Override
+    public String getISBN(int index) {
+        Objects.checkIndex(index, size);
+        return unpackIsbn(isbns[index]);
+    }
+
+    @Override
+    public int getPages(int index) {
+        Objects.checkIndex(index, size);
+        return pages[index];
+    }
+
+    @Override
+    public void add(BookEntry book) {
+        Objects.requireNonNull(book, "Given book must not be null.");
+
+        ensureCapacity(size + 1);
+        size++;
+        write(size - 1, book);
+    }
+
+    @Override
+    public void set(int index, BookEntry book) {
+        Objects.checkIndex(index, size);
+        Objects.requireNonNull(book, "Given book must not be null.");
+
+        release(index);
+        write(index, book);
+        compactIfNeeded();
+    }
+
+    @Override
+    public void remove(int index) {
+        Objects.checkIndex(index, size);
+        removeIf(i -> i == index);
+    }
+
+    @Override
+    public int removeIf(IntPredicate filter) {
+        Objects.requireNonNull(filter, "Given filter must not be null.");
+
+        // moves the columns of the remaining books to the front, their arena contents stay in place
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (filter.test(i)) {
+                release(i);
+            } else {
+                if (kept != i) {
+                    ratings[kept] = ratings[i];
+                    pages[kept] = pages[i];
+                    isbns[kept] = isbns[i];
+                    titleStarts[kept] = titleStarts[i];
+                    titleLengths[kept] = titleLengths[i];
+                    authorStarts[kept] = authorStarts[i];
+                    authorCounts[kept] = authorCounts[i];
+                }
+                kept++;
+            }
+        }
+
+        int removed = size - kept;
+        size = kept;
+        compactIfNeeded();
+
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+        ratings = new float[INITIAL_CAPACITY];
+        pages = new int[INITIAL_CAPACITY];
+        isbns = new long[INITIAL_CAPACITY];
+        irregularIsbns = new ArrayList<>();
+        titleArena = new char[INITIAL_CAPACITY];
+        titleArenaSize = 0;
+        titleStarts = new int[INITIAL_CAPACITY];
+        titleLengths = new int[INITIAL_CAPACITY];
+        authorArena = new int[INITIAL_CAPACITY];
+        authorArenaSize = 0;
+        authorStarts = new int[INITIAL_CAPACITY];
+        authorCounts = new int[INITIAL_CAPACITY];
+        unusedTitleChars = 0;
+        unusedAuthorIds = 0;
+        unusedIrregularIsbns = 0;
+    }
+
+    /**
+     * Write the data values of the given book to the given position, appending
+     * its title and authors to the arenas.
+     *
+     * @param index position to write to
+     * @param book book to be written
+     */
+    private void write(int index, BookEntry book) {
+        ratings[index] = book.getRating();
+        pages[index] = book.getPages();
+        isbns[index] = packIsbn(book.getISBN());
+
+        String title = book.getTitle();
+        titleArena = ensureArenaCapacity(titleArena, titleArenaSize + title.length());
+        title.getChars(0, title.length(), titleArena, titleArenaSize);
+        titleStarts[index] = titleArenaSize;
+        titleLengths[index] = title.length();
+        titleArenaSize += title.length();
+
+        String[] authors = book.getAuthors();
+        authorArena = ensureArenaCapacity(authorArena, authorArenaSize + authors.length);
+        for (int i = 0; i < authors.length; i++) {
+            authorArena[authorArenaSize + i] = authorDictionary.add(authors[i]);
+        }
+        authorStarts[index] = authorArenaSize;
+        authorCounts[index] = authors.length;
+        authorArenaSize += authors.length;
+    }
+
+    /**
+     * Mark the arena contents of the book at the given position as unused.
+     *
+     * @param index position of the book
+     */
+    private void release(int index) {
+        unusedTitleChars += titleLengths[index];
+        unusedAuthorIds += authorCounts[index];
+        if (isbns[index] >>> PACKED_ISBN_LENGTH_SHIFT == IRREGULAR_ISBN) {
+            unusedIrregularIsbns++;
+        }
+    }
+
+    /**
+     * Compact the arenas if more than half of their content is unused. The arenas are copied
+     * in the order of the stored books, so their contents are contiguous afterwards.
+     */
+    private void compactIfNeeded() {
+        if (2 * unusedTitleChars <= titleArenaSize && 2 * unusedAuthorIds <= authorArenaSize
+                && 2 * unusedIrregularIsbns <= irregularIsbns.size()) {
+            return;
+        }
+
+        char[] newTitleArena = new char[Math.max(titleArenaSize - unusedTitleChars, INITIAL_CAPACITY)];
+        int[] newAuthorArena = new int[Math.max(authorArenaSize - unusedAuthorIds, INITIAL_CAPACITY)];
+        List<String> newIrregularIsbns = new ArrayList<>();
+        titleArenaSize = 0;
+        authorArenaSize = 0;
+
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(titleArena, titleStarts[i], newTitleArena, titleArenaSize, titleLengths[i]);
+            titleStarts[i] = titleArenaSize;
+            titleArenaSize += titleLengths[i];
+
+            System.arraycopy(authorArena, authorStarts[i], newAuthorArena, authorArenaSize, authorCounts[i]);
+            authorStarts[i] = authorArenaSize;
+            authorArenaSize += authorCounts[i];
+
+            if (isbns[i] >>> PACKED_ISBN_LENGTH_SHIFT == IRREGULAR_ISBN) {
+                isbns[i] = irregularIsbn(newIrregularIsbns, unpackIsbn(isbns[i]));
+            }
+        }
+
+        titleArena = newTitleArena;
+        authorArena = newAuthorArena;
+        irregularIsbns = newIrregularIsbns;
+        unusedTitleChars = 0;
+        unusedAuthorIds = 0;
+        unusedIrregularIsbns = 0;
+    }
+
+    /**
+     * Pack the given ISBN into a long. The upper four bits hold the number of characters,
+     * followed by four bits per character. ISBNs which cannot be packed this way are
+     * added to the irregular ISBNs instead.
+     *
+     * @param isbn ISBN to be packed
+     * @return packed ISBN
+     */
+    private long packIsbn(String isbn) {
+        if (isbn.length() > PACKED_ISBN_MAX_LENGTH) {
+            return irregularIsbn(irregularIsbns, isbn);
+        }
+
+        long packed = (long) isbn.length() << PACKED_ISBN_LENGTH_SHIFT;
+        for (int i = 0; i < isbn.length(); i++) {
+            char c = isbn.charAt(i);
+            long value;
+            if (c >= '0' && c <= '9') {
+                value = c - '0';
+            } else if (c == 'X') {
+                value = PACKED_ISBN_X;
+            } else {
+                return irregularIsbn(irregularIsbns, isbn);
+            }
+            packed |= value << (i * PACKED_ISBN_CHAR_BITS);
+        }
+
+        return packed;
+    }
+
+    /**
+     * Add the given ISBN to the given list of irregular ISBNs.
+     *
+     * @param irregular list of irregular ISBNs
+     * @param isbn ISBN which cannot be packed
+     * @return packed value referencing the ISBN within the list
+     */
+    private static long irregularIsbn(List<String> irregular, String isbn) {
+        irregular.add(isbn);
+        return IRREGULAR_ISBN << PACKED_ISBN_LENGTH_SHIFT | (irregular.size() - 1);
+    }
+
+    /**
+     * Restore an ISBN packed by packIsbn.
+     *
+     * @param packed packed ISBN
+     * @return ISBN
+     */
+    private String unpackIsbn(long packed) {
+        int length = (int) (packed >>> PACKED_ISBN_LENGTH_SHIFT);
+        if (length == IRREGULAR_ISBN) {
+            return irregularIsbns.get((int) packed);
+        }
+
+        char[] isbn = new char[length];
+        for (int i = 0; i < length; i++) {
+            int value = (int) (packed >>> (i * PACKED_ISBN_CHAR_BITS)) & 0xF;
+            isbn[i] = value == PACKED_ISBN_X ? 'X' : (char) ('0' + value);
+        }
+
+        return new String(isbn);
+    }
+
+    /**
+     * Make sure the columns have room for the given number of books.
+     *
+     * @param capacity required number of books
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ratings.length) {
+            return;
+        }
+
+        int newCapacity = Math.max(capacity, 2 * ratings.length);
+        ratings = Arrays.copyOf(ratings, newCapacity);
+        pages = Arrays.copyOf(pages, newCapacity);
+        isbns = Arrays.copyOf(isbns, newCapacity);
+        titleStarts = Arrays.copyOf(titleStarts, newCapacity);
+        titleLengths = Arrays.copyOf(titleLengths, newCapacity);
+        authorStarts = Arrays.copyOf(authorStarts, newCapacity);
+        authorCounts = Arrays.copyOf(authorCounts, newCapacity);
+    }
+
+    /**
+     * Get an arena with room for the given number of characters, growing the given one if necessary.
+     *
+     * @param arena current arena
+     * @param capacity required number of characters
+     * @return arena with the contents of the given one and at least the given capacity
+     */
+    private static char[] ensureArenaCapacity(char[] arena, int capacity) {
+        return capacity <= arena.length ? arena : Arrays.copyOf(arena, Math.max(capacity, 2 * arena.length));
+    }
+
+    /**
+     * Get an arena with room for the given number of ids, growing the given one if necessary.
+     *
+     * @param arena current arena
+     * @param capacity required number of ids
+     * @return arena with the contents of the given one and at least the given capacity
+     */
+    private static int[] ensureArenaCapacity(int[] arena, int capacity) {
+        return capacity <= arena.length ? arena : Arrays.copyOf(arena, Math.max(capacity, 2 * arena.length));
+    }
+}
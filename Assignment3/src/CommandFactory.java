@@ -34,6 +34,13 @@ public final class CommandFactory { // the final keyword prevents subclassing of
                 case SEARCH: return new SearchCmd(argumentInput);
                 case REMOVE: return new RemoveCmd(argumentInput);
                 case GROUP: return new GroupCmd(argumentInput);
+                case SAVE: return new SaveCmd(argumentInput);
+                case RESTORE: return new RestoreCmd(argumentInput);
+                case STORAGE: return new StorageCmd(argumentInput);
+                case VALIDATE: return new ValidateCmd(argumentInput);
+                case FOLLOW: return new FollowCmd(argumentInput);
+                case JOURNAL: return new JournalCmd(argumentInput);
+                case CATALOG: return new CatalogCmd(argumentInput);
                 default:
                     throw new IllegalArgumentException("Command type not supported: " + cmdType);
             }
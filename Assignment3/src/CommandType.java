@@ -6,5 +6,12 @@ public enum CommandType {
     SEARCH,
     LIST,
     REMOVE,
-    GROUP
+    GROUP,
+    SAVE,
+    RESTORE,
+    STORAGE,
+    VALIDATE,
+    FOLLOW,
+    JOURNAL,
+    CATALOG
 }
@@ -0,0 +1,289 @@
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Reusable tokenizer splitting a single csv line into fields as described in RFC 4180.
+ *
+ * Fields can be enclosed in double quotes, in which case they may contain the separator,
+ * and a double quote inside a quoted field is escaped by another double quote. Lines are
+ * copied into an internal buffer which is reused for every line, and fields are only
+ * reported as offsets into that buffer, so no Strings are created unless requested.
+ *
+ * Quoted fields spanning multiple lines are not supported, as book data files are read line by line.
+ */
+public class CsvTokenizer {
+
+    /** Character enclosing a quoted field. */
+    private static final char QUOTE = '"';
+
+    /** Initial capacity of the line buffer and number of field offsets. */
+    private static final int INITIAL_CAPACITY = 256;
+
+    /** Separator between the fields of a line. */
+    private final char separator;
+
+    /** Characters of the line tokenized last. */
+    private char[] buffer;
+
+    /** Number of characters of the line tokenized last. */
+    private int lineLength;
+
+    /** Start offsets of the fields in the buffer, excluding enclosing quotes. */
+    private int[] fieldStarts;
+
+    /** End offsets (exclusive) of the fields in the buffer, excluding enclosing quotes. */
+    private int[] fieldEnds;
+
+    /** Whether a field contains escaped quotes, i.e. has to be unescaped when converted into a String. */
+    private boolean[] fieldEscaped;
+
+    /** Number of fields found in the line tokenized last, or -1 if that line was malformed. */
+    private int fieldCount;
+
+    /**
+     * Create a tokenizer for the given field separator.
+     *
+     * @param separator separator between the fields of a line
+     * @throws IllegalArgumentException if the separator is a double quote
+     */
+    public CsvTokenizer(char separator) {
+        if (separator == QUOTE) {
+            throw new IllegalArgumentException("Separator must not be a quote character.");
+        }
+
+        this.separator = separator;
+        buffer = new char[INITIAL_CAPACITY];
+        lineLength = 0;
+        fieldStarts = new int[INITIAL_CAPACITY];
+        fieldEnds = new int[INITIAL_CAPACITY];
+        fieldEscaped = new boolean[INITIAL_CAPACITY];
+        fieldCount = 0;
+    }
+
+    /**
+     * Tokenize the given line.
+     *
+     * @param line line to be split into fields, without line break
+     * @return number of fields in the line or -1 if the line is malformed
+     * @throws NullPointerException if the given line is null
+     */
+    public int tokenize(String line) {
+        Objects.requireNonNull(line, "Given line must not be null.");
+
+        int length = line.length();
+        ensureBufferCapacity(length);
+        line.getChars(0, length, buffer, 0);
+
+        return tokenizeBuffer(length);
+    }
+
+    /**
+     * Tokenize the line held by the given characters.
+     *
+     * @param line characters of the line to be split into fields, without line break
+     * @param length number of characters of the line
+     * @return number of fields in the line or -1 if the line is malformed
+     * @throws NullPointerException if the given line is null
+     */
+    public int tokenize(char[] line, int length) {
+        Objects.requireNonNull(line, "Given line must not be null.");
+
+        ensureBufferCapacity(length);
+        System.arraycopy(line, 0, buffer, 0, length);
+
+        return tokenizeBuffer(length);
+    }
+
+    /**
+     * Get the number of fields found by the last call to tokenize.
+     *
+     * @return number of fields or -1 if the last line was malformed
+     */
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * Get the buffer containing the line tokenized last. Field offsets refer to this buffer.
+     *
+     * @return internal line buffer, which is overwritten by the next call to tokenize
+     */
+    public char[] getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * Create a String with the complete line tokenized last, e.g. for error messages.
+     *
+     * @return line tokenized last
+     */
+    public String getLine() {
+        return new String(buffer, 0, lineLength);
+    }
+
+    /**
+     * Get the start offset of a field, excluding an enclosing quote.
+     *
+     * @param field index of the field
+     * @return offset of the first character of the field in the buffer
+     * @throws IndexOutOfBoundsException if there is no such field
+     */
+    public int getFieldStart(int field) {
+        return fieldStarts[Objects.checkIndex(field, Math.max(fieldCount, 0))];
+    }
+
+    /**
+     * Get the end offset of a field, excluding an enclosing quote.
+     *
+     * @param field index of the field
+     * @return offset after the last character of the field in the buffer
+     * @throws IndexOutOfBoundsException if there is no such field
+     */
+    public int getFieldEnd(int field) {
+        return fieldEnds[Objects.checkIndex(field, Math.max(fieldCount, 0))];
+    }
+
+    /**
+     * Create a String with the content of a field. Escaped quotes are unescaped.
+     *
+     * @param field index of the field
+     * @return content of the field
+     * @throws IndexOutOfBoundsException if there is no such field
+     */
+    public String getField(int field) {
+        return getField(field, getFieldStart(field), getFieldEnd(field));
+    }
+
+    /**
+     * Check whether a field contains escaped quotes, i.e. whether its content differs
+     * from the characters between its start and end offsets.
+     *
+     * @param field index of the field
+     * @return true if the field contains escaped quotes
+     * @throws IndexOutOfBoundsException if there is no such field
+     */
+    public boolean isFieldEscaped(int field) {
+        Objects.checkIndex(field, Math.max(fieldCount, 0));
+        return fieldEscaped[field];
+    }
+
+    /**
+     * Create a String with the content of a part of a field. Escaped quotes are unescaped.
+     *
+     * @param field index of the field
+     * @param start start offset of the part in the buffer
+     * @param end end offset of the part in the buffer
+     * @return content of the part of the field
+     * @throws IndexOutOfBoundsException if there is no such field
+     */
+    public String getField(int field, int start, int end) {
+        Objects.checkIndex(field, Math.max(fieldCount, 0));
+
+        if (!fieldEscaped[field]) {
+            return new String(buffer, start, end - start);
+        }
+
+        StringBuilder content = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            content.append(buffer[i]);
+            if (buffer[i] == QUOTE) {
+                i++; // skips the second quote of an escaped quote
+            }
+        }
+        return content.toString();
+    }
+
+    /**
+     * Split the line held in the buffer into fields.
+     *
+     * @param length number of characters of the line
+     * @return number of fields in the line or -1 if the line is malformed
+     */
+    private int tokenizeBuffer(int length) {
+        lineLength = length;
+        fieldCount = 0;
+        int position = 0;
+
+        while (true) {
+            ensureFieldCapacity(fieldCount + 1);
+            boolean escaped = false;
+            int start;
+            int end;
+
+            if (position < length && buffer[position] == QUOTE) {
+                // quoted field, which ends at the first quote not followed by another quote
+                start = position + 1;
+                end = -1;
+                for (int i = start; i < length; i++) {
+                    if (buffer[i] == QUOTE) {
+                        if (i + 1 < length && buffer[i + 1] == QUOTE) {
+                            escaped = true;
+                            i++;
+                        } else {
+                            end = i;
+                            break;
+                        }
+                    }
+                }
+                if (end == -1) {
+                    return markMalformed(); // closing quote is missing
+                }
+                position = end + 1;
+                if (position < length && buffer[position] != separator) {
+                    return markMalformed(); // content between closing quote and separator
+                }
+            } else {
+                start = position;
+                while (position < length && buffer[position] != separator) {
+                    position++;
+                }
+                end = position;
+            }
+
+            fieldStarts[fieldCount] = start;
+            fieldEnds[fieldCount] = end;
+            fieldEscaped[fieldCount] = escaped;
+            fieldCount++;
+
+            if (position >= length) {
+                return fieldCount;
+            }
+            position++; // skips the separator
+        }
+    }
+
+    /**
+     * Mark the line tokenized last as malformed.
+     *
+     * @return -1 as field count of a malformed line
+     */
+    private int markMalformed() {
+        fieldCount = -1;
+        return fieldCount;
+    }
+
+    /**
+     * Grow the line buffer if it cannot hold a line of the given length.
+     *
+     * @param length length of the line to be held
+     */
+    private void ensureBufferCapacity(int length) {
+        if (buffer.length < length) {
+            buffer = new char[Math.max(length, 2 * buffer.length)];
+        }
+    }
+
+    /**
+     * Grow the field offset arrays if they cannot hold the given number of fields.
+     *
+     * @param fields number of fields to be held
+     */
+    private void ensureFieldCapacity(int fields) {
+        if (fieldStarts.length < fields) {
+            int capacity = 2 * fieldStarts.length;
+            fieldStarts = Arrays.copyOf(fieldStarts, capacity);
+            fieldEnds = Arrays.copyOf(fieldEnds, capacity);
+            fieldEscaped = Arrays.copyOf(fieldEscaped, capacity);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+import java.util.Objects;
+
+/**
+ * Bloom filter over the duplicate key hashes of the books in a book store, checked before the
+ * DuplicateIndex is probed.
+ *
+ * A book whose key hash is certainly not in the filter cannot have a duplicate, so the index is not
+ * probed for it. As the filter takes about ten bits per book instead of the two ints per slot of the
+ * index, checking it touches far less memory. The filter is sized for the expected number of keys
+ * and reports when it is full, so it can be rebuilt larger before its false positive rate degrades.
+ */
+public class DuplicateFilter {
+
+    /** False positive rate the filter is sized for. */
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    /** Minimal number of keys the filter is sized for. */
+    private static final long MIN_CAPACITY = 1024;
+
+    /** Filter over the key hashes. */
+    private BloomFilter filter;
+
+    /** Number of keys the filter is sized for. */
+    private long capacity;
+
+    /** Number of keys added to the filter. */
+    private long keyCount;
+
+    /** Create a new and empty duplicate filter. */
+    public DuplicateFilter() {
+        clear(0);
+    }
+
+    /**
+     * Remove all keys from the filter and size it for the given number of keys.
+     *
+     * @param expectedKeys number of keys expected to be added
+     */
+    public void clear(long expectedKeys) {
+        capacity = Math.max(expectedKeys, MIN_CAPACITY);
+        filter = new BloomFilter(capacity, FALSE_POSITIVE_RATE);
+        keyCount = 0;
+    }
+
+    /**
+     * Size the filter for the given number of keys and add the keys of all books of the given store.
+     *
+     * @param store store containing the books
+     * @param key duplicate key identifying the books
+     * @param expectedKeys number of keys expected to be added, including those of the store
+     * @throws NullPointerException if one of the given parameters is null
+     */
+    public void rebuild(BookStore store, DuplicateKey key, long expectedKeys) {
+        Objects.requireNonNull(store, ExceptionMessage.NULL_BOOK_ENTRIES.getExceptionMessage());
+        Objects.requireNonNull(key, "Given duplicate key must not be null.");
+
+        clear(Math.max(expectedKeys, store.size()));
+        for (int i = 0; i < store.size(); i++) {
+            if (store.hasBook(i)) {
+                add(key.hashOf(store, i));
+            }
+        }
+    }
+
+    /**
+     * Add a key hash to the filter.
+     *
+     * @param hash key hash of a book
+     */
+    public void add(int hash) {
+        filter.add(BloomFilter.hash(hash));
+        keyCount++;
+    }
+
+    /**
+     * Check whether a book with the given key hash may have been added.
+     *
+     * @param hash key hash of a book
+     * @return false if no book with the key hash has been added, true if one may have been added
+     */
+    public boolean mightContain(int hash) {
+        return filter.mightContain(BloomFilter.hash(hash));
+    }
+
+    /**
+     * Check whether the filter holds as many keys as it is sized for.
+     *
+     * @return true if the filter should be rebuilt before adding further keys
+     */
+    public boolean isFull() {
+        return keyCount >= capacity;
+    }
+
+    /**
+     * Get the number of keys the filter is sized for.
+     *
+     * @return capacity of the filter
+     */
+    public long getCapacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,139 @@
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Hash index of the positions of the books in a book store by their duplicate key.
+ *
+ * The index only stores key hashes and positions in two int arrays using open addressing
+ * with linear probing, so it holds no references to keys or books. Candidate positions with
+ * a matching hash are compared against the store itself.
+ */
+public class DuplicateIndex {
+
+    /** Initial number of slots, which must be a power of two. */
+    private static final int INITIAL_SLOTS = 64;
+
+    /** Position value of an empty slot. */
+    private static final int EMPTY = -1;
+
+    /** Key hash of each slot. */
+    private int[] hashes;
+
+    /** Book position of each slot, EMPTY if the slot is unused. */
+    private int[] positions;
+
+    /** Number of used slots. */
+    private int count;
+
+    /** Create a new and empty duplicate index. */
+    public DuplicateIndex() {
+        clear();
+    }
+
+    /** Remove all positions from the index. */
+    public void clear() {
+        hashes = new int[INITIAL_SLOTS];
+        positions = new int[INITIAL_SLOTS];
+        Arrays.fill(positions, EMPTY);
+        count = 0;
+    }
+
+    /**
+     * Add all books of the given store to the index.
+     *
+     * @param store store containing the books
+     * @param key duplicate key identifying the books
+     * @throws NullPointerException if one of the given parameters is null
+     */
+    public void addAll(BookStore store, DuplicateKey key) {
+        Objects.requireNonNull(store, ExceptionMessage.NULL_BOOK_ENTRIES.getExceptionMessage());
+        Objects.requireNonNull(key, "Given duplicate key must not be null.");
+
+        for (int i = 0; i < store.size(); i++) {
+            if (store.hasBook(i)) {
+                add(key.hashOf(store, i), i);
+            }
+        }
+    }
+
+    /**
+     * Add a book position to the index. If several positions with duplicate books are added,
+     * find returns the one added first.
+     *
+     * @param hash key hash of the book
+     * @param position position of the book in the store
+     */
+    public void add(int hash, int position) {
+        if (2 * (count + 1) > positions.length) {
+            grow();
+        }
+
+        int mask = positions.length - 1;
+        int slot = spread(hash) & mask;
+        while (positions[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+
+        hashes[slot] = hash;
+        positions[slot] = position;
+        count++;
+    }
+
+    /**
+     * Find the position of a book in the given store which is a duplicate of the given book.
+     *
+     * @param store store containing the indexed books
+     * @param key duplicate key identifying the books
+     * @param hash key hash of the given book
+     * @param book book to find a duplicate for
+     * @return position of the first indexed duplicate or -1 if there is none
+     */
+    public int find(BookStore store, DuplicateKey key, int hash, BookEntry book) {
+        int mask = positions.length - 1;
+        int slot = spread(hash) & mask;
+        while (positions[slot] != EMPTY) {
+            if (hashes[slot] == hash && key.matches(store, positions[slot], book)) {
+                return positions[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return -1;
+    }
+
+    /** Double the number of slots, re-inserting all used slots in their previous probing order. */
+    private void grow() {
+        int[] oldHashes = hashes;
+        int[] oldPositions = positions;
+        int used = count;
+
+        hashes = new int[2 * oldPositions.length];
+        positions = new int[2 * oldPositions.length];
+        Arrays.fill(positions, EMPTY);
+        count = 0;
+
+        // positions increase with insertion order, so sorting by position keeps the first duplicate first
+        long[] entries = new long[used];
+        int entry = 0;
+        for (int i = 0; i < oldPositions.length; i++) {
+            if (oldPositions[i] != EMPTY) {
+                entries[entry++] = (long) oldPositions[i] << Integer.SIZE | (oldHashes[i] & 0xFFFFFFFFL);
+            }
+        }
+        Arrays.sort(entries);
+        for (long e : entries) {
+            add((int) e, (int) (e >>> Integer.SIZE));
+        }
+    }
+
+    /**
+     * Spread the bits of the given hash, so hashes differing only in their upper bits use different slots.
+     *
+     * @param hash key hash
+     * @return spread hash
+     */
+    private static int spread(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
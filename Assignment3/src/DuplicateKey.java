@@ -0,0 +1,138 @@
+import java.util.Objects;
+
+/**
+ * All available ways of deciding whether two book entries are duplicates of each other.
+ *
+ * Keys compare the data values of books directly, so books kept in a BookStore can be
+ * checked without creating BookEntry objects for them.
+ */
+public enum DuplicateKey {
+    /** Books are duplicates if all of their data values are equal. */
+    RECORD,
+    /** Books are duplicates if their ISBNs are equal. */
+    ISBN,
+    /** Books are duplicates if their titles and authors are equal. */
+    TITLE_AUTHORS;
+
+    /**
+     * Compute the hash of the key identifying the given book. Books which are duplicates
+     * have equal hashes, also if one of them is kept in a book store.
+     *
+     * @param book book to compute the hash for
+     * @return hash of the key of the given book
+     * @throws NullPointerException if the given book is null
+     */
+    public int hashOf(BookEntry book) {
+        Objects.requireNonNull(book, "Given book must not be null.");
+
+        int authorsHash = 1;
+        for (String author : book.getAuthors()) {
+            authorsHash = 31 * authorsHash + author.hashCode();
+        }
+
+        return combine(book.getTitle(), authorsHash, book.getRating(), book.getISBN(), book.getPages());
+    }
+
+    /**
+     * Compute the hash of the key identifying the book stored at the given position.
+     *
+     * @param store store containing the book
+     * @param index position of the book
+     * @return hash of the key of the book
+     * @throws NullPointerException if the given store is null
+     * @throws IndexOutOfBoundsException if the position is out of range
+     */
+    public int hashOf(BookStore store, int index) {
+        Objects.requireNonNull(store, ExceptionMessage.NULL_BOOK_ENTRIES.getExceptionMessage());
+
+        if (this == ISBN) {
+            return store.getISBN(index).hashCode();
+        }
+
+        int authorsHash = 1;
+        int authorCount = store.getAuthorCount(index);
+        for (int i = 0; i < authorCount; i++) {
+            authorsHash = 31 * authorsHash + store.getAuthor(index, i).hashCode();
+        }
+
+        if (this == TITLE_AUTHORS) {
+            return combine(store.getTitle(index), authorsHash, 0, null, 0);
+        }
+        return combine(store.getTitle(index), authorsHash, store.getRating(index), store.getISBN(index),
+                store.getPages(index));
+    }
+
+    /**
+     * Check whether the book stored at the given position and the given book are duplicates.
+     *
+     * @param store store containing the first book
+     * @param index position of the first book
+     * @param book second book
+     * @return true if the keys of both books are equal
+     * @throws NullPointerException if the given store or book is null
+     * @throws IndexOutOfBoundsException if the position is out of range
+     */
+    public boolean matches(BookStore store, int index, BookEntry book) {
+        Objects.requireNonNull(store, ExceptionMessage.NULL_BOOK_ENTRIES.getExceptionMessage());
+        Objects.requireNonNull(book, "Given book must not be null.");
+
+        switch (this) {
+            case RECORD:
+                return store.getRating(index) == book.getRating()
+                        && store.getPages(index) == book.getPages()
+                        && store.getISBN(index).equals(book.getISBN())
+                        && store.hasTitle(index, book.getTitle())
+                        && authorsMatch(store, index, book.getAuthors());
+            case ISBN:
+                return store.getISBN(index).equals(book.getISBN());
+            case TITLE_AUTHORS:
+                return store.hasTitle(index, book.getTitle()) && authorsMatch(store, index, book.getAuthors());
+            default:
+                throw new IllegalStateException("Duplicate key not supported: " + this);
+        }
+    }
+
+    /**
+     * Combine the hashes of the data values which are part of this key.
+     *
+     * @param title title of the book
+     * @param authorsHash hash of the authors of the book
+     * @param rating rating of the book
+     * @param isbn ISBN of the book
+     * @param pages number of pages of the book
+     * @return combined hash
+     */
+    private int combine(String title, int authorsHash, float rating, String isbn, int pages) {
+        switch (this) {
+            case RECORD:
+                return Objects.hash(title, authorsHash, rating, isbn, pages);
+            case ISBN:
+                return isbn.hashCode();
+            case TITLE_AUTHORS:
+                return 31 * title.hashCode() + authorsHash;
+            default:
+                throw new IllegalStateException("Duplicate key not supported: " + this);
+        }
+    }
+
+    /**
+     * Check whether the book stored at the given position has exactly the given authors in the given order.
+     *
+     * @param store store containing the book
+     * @param index position of the book
+     * @param authors authors to compare with
+     * @return true if the authors are equal
+     */
+    private static boolean authorsMatch(BookStore store, int index, String[] authors) {
+        if (store.getAuthorCount(index) != authors.length) {
+            return false;
+        }
+
+        for (int i = 0; i < authors.length; i++) {
+            if (!store.getAuthor(index, i).equals(authors[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,11 @@
+/**
+ * All available ways of handling a loaded book which is a duplicate of a book in the library.
+ */
+public enum DuplicatePolicy {
+    /** Discard the loaded book. */
+    SKIP,
+    /** Replace the book in the library by the loaded book. */
+    REPLACE,
+    /** Add the loaded book in addition to the book in the library. */
+    KEEP
+}
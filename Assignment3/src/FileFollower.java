@@ -0,0 +1,287 @@
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Class responsible for following book data files which keep growing, so only lines
+ * appended since they were read last have to be parsed.
+ *
+ * For every followed file the byte offset after the last complete line read so far is
+ * remembered. The directories of followed files are watched with a WatchService, which
+ * reports the files that have been modified since changes were polled last. A line
+ * without line break at the end of a file is only read once it is complete.
+ */
+public class FileFollower implements AutoCloseable {
+
+    /** Line break terminating every line of a book data file. */
+    private static final int LINE_BREAK = '\n';
+
+    /** Carriage return preceding the line break of a line with Windows line endings. */
+    private static final byte CARRIAGE_RETURN = '\r';
+
+    /** Initial size of the buffer holding a single line, in bytes. */
+    private static final int INITIAL_LINE_SIZE = 256;
+
+    /** Size of the buffer used to read files, in bytes. */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /** Loader used to parse appended lines. */
+    private final LibraryFileLoader lineParser;
+
+    /** Offset after the last complete line read so far, for every followed file in the order they were followed. */
+    private final Map<Path, Long> offsets;
+
+    /** Watched directory of every registered watch key. */
+    private final Map<WatchKey, Path> watchedDirectories;
+
+    /** Followed files reported as modified which have not been returned by pollChanges yet. */
+    private final Set<Path> changedFiles;
+
+    /** Service watching the directories of the followed files, null until the first file is followed. */
+    private WatchService watchService;
+
+    /** Number of lines read by the last call of readNewBooks. */
+    private int lastLineCount;
+
+    /**
+     * Create a new file follower which does not follow any file yet.
+     *
+     * @param authorDictionary dictionary to intern author names into, null if names should not be shared
+     */
+    public FileFollower(AuthorDictionary authorDictionary) {
+        lineParser = new LibraryFileLoader(authorDictionary);
+        offsets = new LinkedHashMap<>();
+        watchedDirectories = new HashMap<>();
+        changedFiles = new LinkedHashSet<>();
+        watchService = null;
+        lastLineCount = 0;
+    }
+
+    /**
+     * Start following the given file. Nothing changes if it is followed already.
+     *
+     * @param file path of a book data file
+     * @return path under which the file is followed, or null if its directory cannot be watched
+     * @throws NullPointerException if the given path is null
+     */
+    public Path follow(Path file) {
+        Objects.requireNonNull(file, "Given filename must not be null.");
+
+        Path followed = file.toAbsolutePath().normalize();
+        if (offsets.containsKey(followed)) {
+            return followed;
+        }
+
+        try {
+            if (watchService == null) {
+                watchService = followed.getFileSystem().newWatchService();
+            }
+            Path directory = followed.getParent();
+            WatchKey key = directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+            watchedDirectories.put(key, directory);
+        } catch (IOException | SecurityException | UnsupportedOperationException e) {
+            System.err.println("ERROR: Watching file failed: " + e);
+            return null;
+        }
+
+        offsets.put(followed, 0L);
+        return followed;
+    }
+
+    /**
+     * Get all followed files.
+     *
+     * @return paths of the followed files in the order they were followed
+     */
+    public List<Path> getFollowedFiles() {
+        return new ArrayList<>(offsets.keySet());
+    }
+
+    /**
+     * Get the followed files which have been reported as modified since changes were polled last.
+     * This method does not block if no changes have been reported.
+     *
+     * @return paths of the modified files
+     */
+    public List<Path> pollChanges() {
+        if (watchService != null) {
+            WatchKey key;
+            while ((key = watchService.poll()) != null) {
+                Path directory = watchedDirectories.get(key);
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        changedFiles.addAll(offsets.keySet()); // events were lost, so every file may have changed
+                    } else if (directory != null) {
+                        Path file = directory.resolve((Path) event.context());
+                        if (offsets.containsKey(file)) {
+                            changedFiles.add(file);
+                        }
+                    }
+                }
+                if (!key.reset()) {
+                    watchedDirectories.remove(key);
+                }
+            }
+        }
+
+        List<Path> changes = new ArrayList<>(changedFiles);
+        changedFiles.clear();
+        return changes;
+    }
+
+    /**
+     * Parse the complete lines appended to the given followed file since it was read last.
+     * The first time a file is read, its column header is skipped. If the file has become
+     * shorter than the content read so far, it is considered to be replaced and read from
+     * its start again. Appended lines which cannot be loaded are reported in a single summary.
+     *
+     * @param file path under which the file is followed
+     * @return books parsed from the appended lines or null if the file could not be read
+     * @throws NullPointerException if the given path is null
+     * @throws IllegalArgumentException if the given file is not followed
+     */
+    public List<BookEntry> readNewBooks(Path file) {
+        LoadReport report = new LoadReport();
+        List<BookEntry> bookEntries = readNewBooks(file, report);
+        report.print();
+        return bookEntries;
+    }
+
+    /**
+     * Parse the complete lines appended to the given followed file since it was read last.
+     * The first time a file is read, its column header is skipped. If the file has become
+     * shorter than the content read so far, it is considered to be replaced and read from
+     * its start again.
+     *
+     * @param file path under which the file is followed
+     * @param report report every appended line which cannot be loaded is recorded in
+     * @return books parsed from the appended lines or null if the file could not be read
+     * @throws NullPointerException if one of the given parameters is null
+     * @throws IllegalArgumentException if the given file is not followed
+     */
+    public List<BookEntry> readNewBooks(Path file, LoadReport report) {
+        Objects.requireNonNull(file, "Given filename must not be null.");
+        Objects.requireNonNull(report, "Given report must not be null.");
+        Long offset = offsets.get(file);
+        if (offset == null) {
+            throw new IllegalArgumentException("Given file is not followed: " + file);
+        }
+
+        List<BookEntry> bookEntries = new ArrayList<>();
+        lastLineCount = 0;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long position = offset;
+            if (channel.size() < position) {
+                System.err.println("ERROR: File has been truncated and is read again: " + file);
+                position = 0;
+            }
+            boolean skipHeader = position == 0;
+
+            InputStream in = new BufferedInputStream(Channels.newInputStream(channel.position(position)), BUFFER_SIZE);
+            byte[] line = new byte[INITIAL_LINE_SIZE];
+            int length = 0;
+            int b;
+            while ((b = in.read()) != -1) {
+                if (b != LINE_BREAK) {
+                    if (length == line.length) {
+                        line = Arrays.copyOf(line, 2 * length);
+                    }
+                    line[length++] = (byte) b;
+                    continue;
+                }
+
+                position += length + 1;
+                if (length > 0 && line[length - 1] == CARRIAGE_RETURN) {
+                    length--;
+                }
+                if (skipHeader) {
+                    skipHeader = false; // ignores first line of the file, as it is just a column header
+                } else {
+                    lastLineCount++;
+                    parseLine(new String(line, 0, length, StandardCharsets.UTF_8), bookEntries, report, file);
+                }
+                length = 0;
+            }
+
+            offsets.put(file, position); // an incomplete last line is read again once it is complete
+        } catch (IOException | SecurityException e) {
+            System.err.println("ERROR: Reading file content failed: " + e);
+            return null;
+        }
+
+        return bookEntries;
+    }
+
+    /**
+     * Get the number of lines read by the last call of readNewBooks, not counting the column header.
+     *
+     * @return number of read lines
+     */
+    public int getLastLineCount() {
+        return lastLineCount;
+    }
+
+    /**
+     * Get the offset after the last complete line read so far from the given followed file.
+     *
+     * @param file path under which the file is followed
+     * @return offset in bytes or -1 if the file is not followed
+     */
+    public long getOffset(Path file) {
+        return offsets.getOrDefault(file, -1L);
+    }
+
+    /** Stop following all files and release the watch service. */
+    @Override
+    public void close() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                System.err.println("ERROR: Closing watch service failed: " + e);
+            }
+            watchService = null;
+        }
+        offsets.clear();
+        watchedDirectories.clear();
+        changedFiles.clear();
+    }
+
+    /**
+     * Parse a single line and add the book to the given list if the line is valid.
+     *
+     * @param line line without line break
+     * @param bookEntries list of parsed books
+     * @param report report the line is recorded in if it is invalid
+     * @param file path of the file the line has been appended to
+     */
+    private void parseLine(String line, List<BookEntry> bookEntries, LoadReport report, Path file) {
+        BookEntry book = lineParser.createBookFromFile(line);
+        if (book != null) {
+            bookEntries.add(book);
+        } else {
+            report.record(lineParser.getLineErrorCategory(),
+                    String.format("%s, appended line %d", file, lastLineCount), lineParser.getLineError());
+        }
+    }
+}
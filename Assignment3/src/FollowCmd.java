@@ -0,0 +1,71 @@
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Objects;
+
+/**
+ * Follow command used to load lines appended to book data csv files without reading them again.
+ */
+public class FollowCmd extends LibraryCommand {
+
+    /**
+     * File extension that a file must have to be followed.
+     */
+    private static final String FILE_EXTENSION = ".csv";
+
+    /**
+     * Path of the book data csv file to be followed, null to load the lines appended to all followed files.
+     */
+    private Path bookPath;
+
+    /**
+     * Create a follow command.
+     *
+     * @param argumentInput Command argument
+     * @throws IllegalArgumentException If given arguments are invalid.
+     * @throws NullPointerException     If the given argumentInput is null.
+     */
+    public FollowCmd(String argumentInput) {
+        super(CommandType.FOLLOW, argumentInput);
+    }
+
+    /**
+     * Execute the follow command. This method calls the given LibraryData instance's followData
+     * to start following the given file, or loadFollowedChanges if no file was given.
+     *
+     * @param data book data to be considered for command execution.
+     * @throws NullPointerException If data is null.
+     */
+    @Override
+    public void execute(LibraryData data) {
+        Objects.requireNonNull(data, ExceptionMessage.NULL_DATA.getExceptionMessage());
+
+        if (bookPath != null) {
+            data.followData(bookPath);
+        } else {
+            System.out.println(data.loadFollowedChanges(true) + " new book entries added.");
+        }
+    }
+
+    /**
+     * Parse the given command argument and assigns it to the instance variable.
+     *
+     * @param argumentInput Path to a book data csv file, or blank to load the lines appended to all followed files.
+     * @return True if the argument is blank or a path that indicates a file name which ends with ".csv".
+     * @throws NullPointerException If the given argumentInput is null.
+     */
+    @Override
+    protected boolean parseArguments(String argumentInput) {
+        Objects.requireNonNull(argumentInput, ExceptionMessage.NULL_ARGUMENT.getExceptionMessage());
+
+        if (argumentInput.isBlank()) {
+            bookPath = null;
+            return true;
+        }
+        if (!argumentInput.endsWith(FILE_EXTENSION)) {
+            return false;
+        }
+
+        bookPath = Paths.get(argumentInput);
+        return true;
+    }
+}
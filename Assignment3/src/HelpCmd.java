@@ -38,11 +38,20 @@ public class HelpCmd extends LibraryCommand {
 
         bld.append(padding).append(CommandType.HELP);
         bld.append(padding).append(CommandType.EXIT);
-        bld.append(padding).append(CommandType.ADD).append(" path/to/book/data.csv");
+        bld.append(padding).append(CommandType.ADD).append(" [FULL|STREAM|PARALLEL|PIPELINE|LAZY]")
+                .append(" [RECORD|ISBN|TITLE_AUTHORS] [SKIP|REPLACE|KEEP] [SUMMARY|VERBOSE]")
+                .append(" path/to/book/data.csv[.gz]|data.zip|directory|glob|named_pipe|-");
         bld.append(padding).append(CommandType.LIST).append(" [short|long]");
-        bld.append(padding).append(CommandType.SEARCH).append(" <value>");
+        bld.append(padding).append(CommandType.SEARCH).append(" <value>|FUZZY TITLE|AUTHOR <value>");
         bld.append(padding).append(CommandType.REMOVE).append(" TITLE|AUTHOR <value>");
         bld.append(padding).append(CommandType.GROUP).append(" TITLE|AUTHOR");
+        bld.append(padding).append(CommandType.SAVE).append(" path/to/library.snapshot");
+        bld.append(padding).append(CommandType.RESTORE).append(" path/to/library.snapshot");
+        bld.append(padding).append(CommandType.STORAGE).append(" LIST|COLUMNAR|LAZY|DISK|OFF_HEAP");
+        bld.append(padding).append(CommandType.VALIDATE);
+        bld.append(padding).append(CommandType.FOLLOW).append(" [path/to/book/data.csv]");
+        bld.append(padding).append(CommandType.JOURNAL).append(" path/to/library.journal");
+        bld.append(padding).append(CommandType.CATALOG).append(" path/to/catalog/directory");
 
         return bld.toString();
     }
@@ -0,0 +1,199 @@
+import java.util.List;
+import java.util.Objects;
+import java.util.function.IntPredicate;
+
+/**
+ * Book store updating a title index for every change made through it to another store.
+ *
+ * Reading methods are passed on unchanged. Changes are made to the other store first and
+ * applied to the index afterwards, so a change which fails is not indexed. If the index did
+ * not cover the books of the other store before a change, e.g. because books were changed
+ * without going through this store, it is invalidated instead, so it is rebuilt before it is
+ * searched next time.
+ */
+public class IndexedBookStore implements BookStore {
+
+    /** Store the changes are made to. */
+    private final BookStore store;
+
+    /** Index of the titles of the books in the store. */
+    private final TitleIndex titleIndex;
+
+    /**
+     * Create a store updating the given title index for all changes made to the given store.
+     *
+     * @param store store the changes are made to
+     * @param titleIndex index of the titles of the books in the store
+     * @throws NullPointerException if one of the given parameters is null
+     */
+    public IndexedBookStore(BookStore store, TitleIndex titleIndex) {
+        this.store = Objects.requireNonNull(store, ExceptionMessage.NULL_BOOK_ENTRIES.getExceptionMessage());
+        this.titleIndex = Objects.requireNonNull(titleIndex, "Given title index must not be null.");
+    }
+
+    /**
+     * Get the store the changes are made to.
+     *
+     * @return underlying store
+     */
+    public BookStore getStore() {
+        return store;
+    }
+
+    @Override
+    public int size() {
+        return store.size();
+    }
+
+    @Override
+    public boolean hasBook(int index) {
+        return store.hasBook(index);
+    }
+
+    @Override
+    public BookEntry getBook(int index) {
+        return store.getBook(index);
+    }
+
+    @Override
+    public String getTitle(int index) {
+        return store.getTitle(index);
+    }
+
+    @Override
+    public void appendTitle(int index, StringBuilder output) {
+        store.appendTitle(index, output);
+    }
+
+    @Override
+    public boolean titleContains(int index, String lowerCaseTerm) {
+        return store.titleContains(index, lowerCaseTerm);
+    }
+
+    @Override
+    public int getAuthorCount(int index) {
+        return store.getAuthorCount(index);
+    }
+
+    @Override
+    public String getAuthor(int index, int authorIndex) {
+        return store.getAuthor(index, authorIndex);
+    }
+
+    @Override
+    public int getAuthorId(int index, int authorIndex) {
+        return store.getAuthorId(index, authorIndex);
+    }
+
+    @Override
+    public AuthorDictionary getAuthorDictionary() {
+        return store.getAuthorDictionary();
+    }
+
+    @Override
+    public boolean hasTitle(int index, String title) {
+        return store.hasTitle(index, title);
+    }
+
+    @Override
+    public boolean hasAuthor(int index, String author) {
+        return store.hasAuthor(index, author);
+    }
+
+    @Override
+    public IntPredicate authorFilter(String author) {
+        return store.authorFilter(author);
+    }
+
+    @Override
+    public boolean supportsParallelScan() {
+        return store.supportsParallelScan();
+    }
+
+    @Override
+    public float getRating(int index) {
+        return store.getRating(index);
+    }
+
+    @Override
+    public String getISBN(int index) {
+        return store.getISBN(index);
+    }
+
+    @Override
+    public int getPages(int index) {
+        return store.getPages(index);
+    }
+
+    @Override
+    public void add(BookEntry book) {
+        boolean indexed = isIndexed();
+        store.add(book);
+        if (indexed) {
+            titleIndex.add(book.getTitle());
+        }
+    }
+
+    @Override
+    public void set(int index, BookEntry book) {
+        boolean indexed = isIndexed();
+        store.set(index, book);
+        if (indexed) {
+            titleIndex.set(index, book.getTitle());
+        }
+    }
+
+    @Override
+    public void remove(int index) {
+        boolean indexed = isIndexed();
+        store.remove(index);
+        if (indexed) {
+            titleIndex.remove(index);
+        }
+    }
+
+    @Override
+    public int removeIf(IntPredicate filter) {
+        Objects.requireNonNull(filter, "Given filter must not be null.");
+
+        if (!isIndexed()) {
+            return store.removeIf(filter);
+        }
+
+        PositionRecorder recorder = new PositionRecorder(filter);
+        int count = store.removeIf(recorder);
+        if (count > 0) {
+            titleIndex.removeAll(recorder.getPositions(), recorder.getCount());
+        }
+        return count;
+    }
+
+    @Override
+    public void clear() {
+        store.clear();
+        if (titleIndex.isValid()) {
+            titleIndex.clear();
+        }
+    }
+
+    @Override
+    public List<LineError> validate() {
+        List<LineError> errors = store.validate();
+        if (!errors.isEmpty()) {
+            titleIndex.invalidate(); // the positions of the removed books are not known
+        }
+        return errors;
+    }
+
+    /**
+     * Check whether the title index covers the books of the store, invalidating it if it does not.
+     *
+     * @return true if changes have to be applied to the index
+     */
+    private boolean isIndexed() {
+        if (titleIndex.isValid() && titleIndex.size() != store.size()) {
+            titleIndex.invalidate();
+        }
+        return titleIndex.isValid();
+    }
+}
@@ -0,0 +1,496 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Class responsible for loading a book data file through a pipeline of stages connected by
+ * bounded queues.
+ *
+ * A reader thread reads batches of lines from the file, several parser threads turn them into
+ * books, and the calling thread merges the parsed batches in file order. Reading the file thus
+ * overlaps with parsing, and as only a fixed number of batches can be in flight at any time, a
+ * reader faster than the parsers or the merge is slowed down instead of filling the memory.
+ * Throughput of every stage and the depth of the queues are measured while loading.
+ */
+public class IngestionPipeline {
+
+    /** Number of lines read and parsed together as one batch. */
+    private static final int BATCH_SIZE = 1_000;
+
+    /** Maximal number of batches waiting in each queue between two stages. */
+    private static final int QUEUE_CAPACITY = 8;
+
+    /** Number of threads parsing batches of lines. */
+    private final int parserCount;
+
+    /** Dictionary the author names of parsed books are interned into, or null if names are not shared. */
+    private final AuthorDictionary authorDictionary;
+
+    /** Throughput of the read, parse and merge stages of the last load. */
+    private final List<StageMetrics> stages;
+
+    /** Depth of the line and book queues of the last load. */
+    private final List<QueueMetrics> queues;
+
+    /** Reason why the last load failed, or null if it has not failed. */
+    private volatile String failure;
+
+    /**
+     * Create a new ingestion pipeline.
+     *
+     * @param parserCount number of threads parsing lines at the same time
+     * @param authorDictionary dictionary to intern author names into, null if names should not be shared
+     * @throws IllegalArgumentException if the given parser count is not positive
+     */
+    public IngestionPipeline(int parserCount, AuthorDictionary authorDictionary) {
+        if (parserCount <= 0) {
+            throw new IllegalArgumentException("Given parser count must be positive: " + parserCount);
+        }
+
+        this.parserCount = parserCount;
+        this.authorDictionary = authorDictionary;
+        stages = new ArrayList<>();
+        queues = new ArrayList<>();
+        failure = null;
+    }
+
+    /**
+     * Load the given book data file. Every parsed batch of books is passed to the given merger on
+     * the calling thread in file order, and lines which cannot be loaded are recorded in the given report.
+     *
+     * @param file path of the book data file
+     * @param merger consumer merging the books parsed from one batch of lines
+     * @param report report every line which cannot be loaded is recorded in
+     * @return true if the whole file was read and parsed, false otherwise
+     * @throws NullPointerException if one of the given parameters is null
+     */
+    public boolean load(Path file, Consumer<List<BookEntry>> merger, LoadReport report) {
+        Objects.requireNonNull(file, "Given filename must not be null.");
+        Objects.requireNonNull(merger, "Given merger must not be null.");
+        Objects.requireNonNull(report, "Given report must not be null.");
+
+        StageMetrics readStage = new StageMetrics("read", "lines", 1);
+        StageMetrics parseStage = new StageMetrics("parse", "lines", parserCount);
+        StageMetrics mergeStage = new StageMetrics("merge", "books", 1);
+        QueueMetrics lineQueueMetrics = new QueueMetrics("lines", QUEUE_CAPACITY);
+        QueueMetrics bookQueueMetrics = new QueueMetrics("books", QUEUE_CAPACITY);
+        stages.clear();
+        stages.add(readStage);
+        stages.add(parseStage);
+        stages.add(mergeStage);
+        queues.clear();
+        queues.add(lineQueueMetrics);
+        queues.add(bookQueueMetrics);
+        failure = null;
+
+        BlockingQueue<LineBatch> lineQueue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        BlockingQueue<ParsedBatch> bookQueue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        // batches waiting to be merged in file order are counted too, so memory stays bounded
+        Semaphore batchesInFlight = new Semaphore(2 * QUEUE_CAPACITY + parserCount);
+
+        ExecutorService pool = Executors.newFixedThreadPool(parserCount + 1);
+        try {
+            pool.execute(() -> read(file, lineQueue, lineQueueMetrics, batchesInFlight, readStage));
+            for (int i = 0; i < parserCount; i++) {
+                pool.execute(() -> parse(lineQueue, bookQueue, bookQueueMetrics, parseStage));
+            }
+
+            Map<Long, ParsedBatch> waiting = new HashMap<>();
+            long nextSequence = 0;
+            int finishedParsers = 0;
+            while (finishedParsers < parserCount) {
+                ParsedBatch parsed = bookQueue.take();
+                if (parsed == ParsedBatch.END) {
+                    finishedParsers++;
+                    continue;
+                }
+
+                waiting.put(parsed.sequence, parsed);
+                while ((parsed = waiting.remove(nextSequence)) != null) {
+                    long start = System.nanoTime();
+                    for (LineError error : parsed.errors) {
+                        error.recordIn(report, String.format("%s, line %d", file, error.getLineNumber()));
+                    }
+                    merger.accept(parsed.books);
+                    mergeStage.record(parsed.books.size(), System.nanoTime() - start);
+                    batchesInFlight.release();
+                    nextSequence++;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure = e.toString();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        if (failure != null) {
+            System.err.println("ERROR: Reading file content failed: " + failure);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Get the throughput of the read, parse and merge stages of the last load.
+     *
+     * @return metrics of all stages in pipeline order, empty if nothing has been loaded yet
+     */
+    public List<StageMetrics> getStageMetrics() {
+        return new ArrayList<>(stages);
+    }
+
+    /**
+     * Get the depth of the queues between the stages of the last load.
+     *
+     * @return metrics of all queues in pipeline order, empty if nothing has been loaded yet
+     */
+    public List<QueueMetrics> getQueueMetrics() {
+        return new ArrayList<>(queues);
+    }
+
+    /**
+     * Print the throughput of every stage and the depth of every queue of the last load.
+     */
+    public void printMetrics() {
+        for (StageMetrics stage : stages) {
+            System.out.printf("Pipeline stage %s: %d %s in %d ms on %d thread(s), %d %s/s.\n", stage.getName(),
+                    stage.getItems(), stage.getUnit(), TimeUnit.NANOSECONDS.toMillis(stage.getBusyNanos()),
+                    stage.getThreads(), stage.getThroughput(), stage.getUnit());
+        }
+        for (QueueMetrics queue : queues) {
+            System.out.printf(Locale.UK, "Pipeline queue %s: max %d of %d batches, average %.1f.\n",
+                    queue.getName(), queue.getMaxDepth(), queue.getCapacity(), queue.getAverageDepth());
+        }
+    }
+
+    /**
+     * Read the given file in batches of lines and put them into the line queue, followed by
+     * an end marker for every parser.
+     *
+     * @param file path of the book data file
+     * @param lineQueue queue the batches of lines are put into
+     * @param lineQueueMetrics metrics of the line queue
+     * @param batchesInFlight permits for batches read but not merged yet
+     * @param readStage metrics of the read stage
+     */
+    private void read(Path file, BlockingQueue<LineBatch> lineQueue, QueueMetrics lineQueueMetrics,
+                      Semaphore batchesInFlight, StageMetrics readStage) {
+        try {
+            try (BufferedReader reader = BookDataFiles.newBufferedReader(file)) {
+                reader.readLine(); // ignores first line of the file, as it is just a column header, not the actual data
+
+                long sequence = 0;
+                long lineNumber = 2;
+                boolean endOfFile = false;
+                while (!endOfFile) {
+                    batchesInFlight.acquire();
+                    long start = System.nanoTime();
+                    List<String> lines = new ArrayList<>(BATCH_SIZE);
+                    String line = null;
+                    while (lines.size() < BATCH_SIZE && (line = reader.readLine()) != null) {
+                        lines.add(line);
+                    }
+                    endOfFile = line == null;
+                    readStage.record(lines.size(), System.nanoTime() - start);
+
+                    if (lines.isEmpty()) {
+                        batchesInFlight.release();
+                    } else {
+                        lineQueue.put(new LineBatch(sequence++, lineNumber, lines));
+                        lineQueueMetrics.sample(lineQueue.size());
+                        lineNumber += lines.size();
+                    }
+                }
+            } catch (IOException | SecurityException e) {
+                failure = e.toString();
+            }
+
+            for (int i = 0; i < parserCount; i++) {
+                lineQueue.put(LineBatch.END);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Parse the batches of lines taken from the line queue and put the parsed books into the
+     * book queue until an end marker is taken, which is passed on to the book queue.
+     *
+     * @param lineQueue queue the batches of lines are taken from
+     * @param bookQueue queue the parsed batches are put into
+     * @param bookQueueMetrics metrics of the book queue
+     * @param parseStage metrics of the parse stage
+     */
+    private void parse(BlockingQueue<LineBatch> lineQueue, BlockingQueue<ParsedBatch> bookQueue,
+                       QueueMetrics bookQueueMetrics, StageMetrics parseStage) {
+        try {
+            try (LibraryFileLoader lineParser = new LibraryFileLoader(authorDictionary)) {
+                LineBatch batch;
+                while ((batch = lineQueue.take()) != LineBatch.END) {
+                    long start = System.nanoTime();
+                    ParsedBatch parsed = new ParsedBatch(batch.sequence);
+                    try {
+                        for (int i = 0; i < batch.lines.size(); i++) {
+                            BookEntry book = lineParser.createBookFromFile(batch.lines.get(i));
+                            if (book != null) {
+                                parsed.books.add(book);
+                            } else {
+                                parsed.errors.add(lineParser.createLineError(batch.firstLineNumber + i));
+                            }
+                        }
+                    } catch (RuntimeException e) {
+                        // an empty batch is passed on instead, so the merge does not wait for it forever
+                        failure = e.toString();
+                        parsed = new ParsedBatch(batch.sequence);
+                    }
+                    parseStage.record(batch.lines.size(), System.nanoTime() - start);
+
+                    bookQueue.put(parsed);
+                    bookQueueMetrics.sample(bookQueue.size());
+                }
+            }
+
+            bookQueue.put(ParsedBatch.END);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Batch of consecutive lines read from a book data file.
+     */
+    private static class LineBatch {
+
+        /** Marker put into the line queue after the last batch, once for every parser. */
+        private static final LineBatch END = new LineBatch(-1, -1, new ArrayList<>());
+
+        /** Position of the batch in the file, starting from 0. */
+        private final long sequence;
+
+        /** Line number of the first line in the file, the column header being line 1. */
+        private final long firstLineNumber;
+
+        /** Lines of the batch without line breaks. */
+        private final List<String> lines;
+
+        private LineBatch(long sequence, long firstLineNumber, List<String> lines) {
+            this.sequence = sequence;
+            this.firstLineNumber = firstLineNumber;
+            this.lines = lines;
+        }
+    }
+
+    /**
+     * Books and errors parsed from a batch of lines.
+     */
+    private static class ParsedBatch {
+
+        /** Marker put into the book queue by every parser after its last batch. */
+        private static final ParsedBatch END = new ParsedBatch(-1);
+
+        /** Position of the batch of lines in the file, starting from 0. */
+        private final long sequence;
+
+        /** Books parsed from the lines in file order. */
+        private final List<BookEntry> books;
+
+        /** Errors of the lines which could not be loaded, numbered as lines of the file. */
+        private final List<LineError> errors;
+
+        private ParsedBatch(long sequence) {
+            this.sequence = sequence;
+            books = new ArrayList<>();
+            errors = new ArrayList<>();
+        }
+    }
+
+    /**
+     * Number of items processed by a stage of the pipeline and the time its threads were busy
+     * processing them, excluding the time spent waiting for the queues. All methods are thread-safe.
+     */
+    public static class StageMetrics {
+
+        /** Name of the stage. */
+        private final String name;
+
+        /** Name of the items processed by the stage. */
+        private final String unit;
+
+        /** Number of threads of the stage. */
+        private final int threads;
+
+        /** Number of items processed. */
+        private final AtomicLong items;
+
+        /** Time all threads of the stage were busy, in nanoseconds. */
+        private final AtomicLong busyNanos;
+
+        private StageMetrics(String name, String unit, int threads) {
+            this.name = name;
+            this.unit = unit;
+            this.threads = threads;
+            items = new AtomicLong();
+            busyNanos = new AtomicLong();
+        }
+
+        /**
+         * Record that a thread of the stage has processed the given number of items.
+         *
+         * @param count number of items processed
+         * @param nanos time spent processing them, in nanoseconds
+         */
+        private void record(long count, long nanos) {
+            items.addAndGet(count);
+            busyNanos.addAndGet(nanos);
+        }
+
+        /**
+         * Get the name of the stage.
+         *
+         * @return name of the stage
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Get the name of the items processed by the stage.
+         *
+         * @return name of the items
+         */
+        public String getUnit() {
+            return unit;
+        }
+
+        /**
+         * Get the number of threads of the stage.
+         *
+         * @return number of threads
+         */
+        public int getThreads() {
+            return threads;
+        }
+
+        /**
+         * Get the number of items processed by the stage.
+         *
+         * @return number of items
+         */
+        public long getItems() {
+            return items.get();
+        }
+
+        /**
+         * Get the time all threads of the stage together were busy.
+         *
+         * @return busy time in nanoseconds
+         */
+        public long getBusyNanos() {
+            return busyNanos.get();
+        }
+
+        /**
+         * Get the number of items the stage processes per second with all its threads busy.
+         *
+         * @return items per second, 0 if no time has been measured
+         */
+        public long getThroughput() {
+            long nanos = getBusyNanos();
+            return nanos == 0 ? 0 : getItems() * threads * TimeUnit.SECONDS.toNanos(1) / nanos;
+        }
+    }
+
+    /**
+     * Depth of a queue between two stages of the pipeline, sampled every time a batch is put
+     * into it. All methods are thread-safe.
+     */
+    public static class QueueMetrics {
+
+        /** Name of the queue. */
+        private final String name;
+
+        /** Maximal number of batches in the queue. */
+        private final int capacity;
+
+        /** Largest sampled depth. */
+        private final AtomicLong maxDepth;
+
+        /** Sum of all sampled depths. */
+        private final AtomicLong depthSum;
+
+        /** Number of samples. */
+        private final AtomicLong samples;
+
+        private QueueMetrics(String name, int capacity) {
+            this.name = name;
+            this.capacity = capacity;
+            maxDepth = new AtomicLong();
+            depthSum = new AtomicLong();
+            samples = new AtomicLong();
+        }
+
+        /**
+         * Record the depth of the queue right after a batch has been put into it.
+         *
+         * @param depth number of batches in the queue
+         */
+        private void sample(int depth) {
+            maxDepth.accumulateAndGet(depth, Math::max);
+            depthSum.addAndGet(depth);
+            samples.incrementAndGet();
+        }
+
+        /**
+         * Get the name of the queue.
+         *
+         * @return name of the queue
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Get the maximal number of batches in the queue.
+         *
+         * @return capacity of the queue
+         */
+        public int getCapacity() {
+            return capacity;
+        }
+
+        /**
+         * Get the largest number of batches found in the queue.
+         *
+         * @return largest sampled depth
+         */
+        public long getMaxDepth() {
+            return maxDepth.get();
+        }
+
+        /**
+         * Get the average number of batches found in the queue.
+         *
+         * @return average sampled depth, 0 if no batch has been put into the queue
+         */
+        public double getAverageDepth() {
+            long count = samples.get();
+            return count == 0 ? 0 : (double) depthSum.get() / count;
+        }
+    }
+}
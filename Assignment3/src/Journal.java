@@ -0,0 +1,543 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of the changes made to the books of a library.
+ *
+ * A journal file consists of a header (magic number, format version and generation) followed by
+ * records. Every record is stored as its length, its type and payload, and a CRC32 checksum of
+ * type and payload. Records refer to books by their position, so replaying them is only correct
+ * on top of the books the journal was started for, which are kept in the snapshot file of the
+ * journal's generation.
+ *
+ * Appended records are buffered and made durable by a group commit: the buffer is written and
+ * the file is forced to disk at most once per commit interval, by a background thread, no matter
+ * how many records were appended in between. commit forces pending records immediately.
+ */
+public class Journal implements AutoCloseable {
+
+    /** Magic number at the start of every journal file, "LIBJ" in ASCII. */
+    private static final int MAGIC = 0x4C49424A;
+
+    /** Version of the journal format written by this class. */
+    private static final int FORMAT_VERSION = 1;
+
+    /** Size of the journal file header, in bytes. */
+    private static final int HEADER_SIZE = 2 * Integer.BYTES + Long.BYTES;
+
+    /** Size of the buffer used when writing records, in bytes. */
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    /** Record types. */
+    private static final byte ADD = 1;
+    private static final byte SET = 2;
+    private static final byte REMOVE = 3;
+    private static final byte CLEAR = 4;
+    private static final byte ADD_LINES = 5;
+    private static final byte VALIDATE = 6;
+
+    /**
+     * Handler of the records read from a journal file.
+     */
+    public interface Replayer {
+
+        /**
+         * Add a book at the end of the books.
+         * @param book added book
+         */
+        void add(BookEntry book);
+
+        /**
+         * Replace the book at the given position.
+         * @param index position of the replaced book
+         * @param book new book
+         */
+        void set(int index, BookEntry book);
+
+        /**
+         * Remove the books at the given positions.
+         * @param indices positions of the removed books in ascending order
+         */
+        void remove(int[] indices);
+
+        /** Remove all books. */
+        void clear();
+
+        /**
+         * Add the raw lines of book data file content without decoding them.
+         * @param content whole content of a book data file
+         */
+        void addLines(byte[] content);
+
+        /** Decode all raw lines and remove the books whose lines are invalid. */
+        void validate();
+    }
+
+    /** Path of the journal file. */
+    private final Path journalFile;
+
+    /** Channel the records are written to. */
+    private FileChannel channel;
+
+    /** Buffered stream over the channel. */
+    private DataOutputStream out;
+
+    /** Buffer the type and payload of the record being appended are written to. */
+    private final ByteArrayOutputStream recordBuffer;
+
+    /** Stream over the record buffer. */
+    private final DataOutputStream recordOut;
+
+    /** Checksum of the record being appended. */
+    private final CRC32 checksum;
+
+    /** Generation of the journal, i.e. of the snapshot it has to be replayed on. */
+    private long generation;
+
+    /** Size of the journal file including records which have not been written yet, in bytes. */
+    private long size;
+
+    /** Have records been appended since the last commit? */
+    private boolean dirty;
+
+    /** Background thread committing appended records once per commit interval. */
+    private final ScheduledExecutorService committer;
+
+    /**
+     * Open the given journal file for appending records, creating it with generation 0 if it does not exist.
+     * Records which are incomplete or corrupted at the end of the file, e.g. because the program crashed
+     * while they were written, are cut off.
+     *
+     * @param journalFile path of the journal file
+     * @param commitIntervalMillis maximal time between appending a record and forcing it to disk, in milliseconds
+     * @throws IOException if the journal file cannot be opened or is not a journal
+     * @throws NullPointerException if the given path is null
+     * @throws IllegalArgumentException if the given commit interval is not positive
+     */
+    public Journal(Path journalFile, long commitIntervalMillis) throws IOException {
+        this.journalFile = Objects.requireNonNull(journalFile, "Given journal file must not be null.");
+        if (commitIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Given commit interval must be positive: " + commitIntervalMillis);
+        }
+
+        recordBuffer = new ByteArrayOutputStream();
+        recordOut = new DataOutputStream(recordBuffer);
+        checksum = new CRC32();
+
+        if (!Files.exists(journalFile)) {
+            writeEmptyJournal(journalFile, 0);
+        }
+        generation = readGeneration(journalFile);
+        size = replay(journalFile, null);
+        openChannel();
+
+        committer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "journal-committer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        committer.scheduleWithFixedDelay(this::commitQuietly, commitIntervalMillis, commitIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Read all complete and intact records of the given journal file and pass them to the given replayer.
+     *
+     * @param journalFile path of the journal file
+     * @param replayer handler of the records, null to only check the records
+     * @return size of the file up to the end of the last intact record, in bytes
+     * @throws IOException if the file cannot be read or is not a journal
+     * @throws NullPointerException if the given path is null
+     */
+    public static long replay(Path journalFile, Replayer replayer) throws IOException {
+        Objects.requireNonNull(journalFile, "Given journal file must not be null.");
+
+        try (InputStream fileIn = Files.newInputStream(journalFile);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(fileIn, WRITE_BUFFER_SIZE))) {
+            readHeader(in);
+            long validSize = HEADER_SIZE;
+            CRC32 recordChecksum = new CRC32();
+
+            while (true) {
+                byte[] record;
+                try {
+                    int length = in.readInt();
+                    if (length <= 0) {
+                        break;
+                    }
+                    record = in.readNBytes(length);
+                    if (record.length < length) {
+                        break; // the last record was not written completely
+                    }
+                    recordChecksum.reset();
+                    recordChecksum.update(record);
+                    if (in.readInt() != (int) recordChecksum.getValue()) {
+                        break;
+                    }
+                } catch (EOFException e) {
+                    break;
+                }
+
+                if (replayer != null) {
+                    replayRecord(record, replayer);
+                }
+                validSize += Integer.BYTES + record.length + Integer.BYTES;
+            }
+
+            return validSize;
+        }
+    }
+
+    /**
+     * Get the generation of the journal, which is the generation of the snapshot it has to be replayed on.
+     *
+     * @return generation of the journal
+     */
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Get the size of the journal file including appended records which have not been written yet.
+     *
+     * @return size in bytes
+     */
+    public synchronized long size() {
+        return size;
+    }
+
+    /**
+     * Append a record adding a book at the end of the books.
+     * @param book added book
+     * @throws IOException if the record cannot be written
+     */
+    public synchronized void logAdd(BookEntry book) throws IOException {
+        recordOut.writeByte(ADD);
+        writeBook(book);
+        appendRecord();
+    }
+
+    /**
+     * Append a record replacing the book at the given position.
+     * @param index position of the replaced book
+     * @param book new book
+     * @throws IOException if the record cannot be written
+     */
+    public synchronized void logSet(int index, BookEntry book) throws IOException {
+        recordOut.writeByte(SET);
+        recordOut.writeInt(index);
+        writeBook(book);
+        appendRecord();
+    }
+
+    /**
+     * Append a record removing the books at the given positions.
+     * @param indices positions of the removed books in ascending order
+     * @param count number of positions used from the array
+     * @throws IOException if the record cannot be written
+     */
+    public synchronized void logRemove(int[] indices, int count) throws IOException {
+        recordOut.writeByte(REMOVE);
+        recordOut.writeInt(count);
+        for (int i = 0; i < count; i++) {
+            recordOut.writeInt(indices[i]);
+        }
+        appendRecord();
+    }
+
+    /**
+     * Append a record removing all books.
+     * @throws IOException if the record cannot be written
+     */
+    public synchronized void logClear() throws IOException {
+        recordOut.writeByte(CLEAR);
+        appendRecord();
+    }
+
+    /**
+     * Append a record adding raw lines of book data file content.
+     * @param content whole content of a book data file
+     * @throws IOException if the record cannot be written
+     */
+    public synchronized void logAddLines(byte[] content) throws IOException {
+        recordOut.writeByte(ADD_LINES);
+        recordOut.write(content);
+        appendRecord();
+    }
+
+    /**
+     * Append a record validating all raw lines.
+     * @throws IOException if the record cannot be written
+     */
+    public synchronized void logValidate() throws IOException {
+        recordOut.writeByte(VALIDATE);
+        appendRecord();
+    }
+
+    /**
+     * Write all appended records and force them to disk.
+     * @throws IOException if the records cannot be written
+     */
+    public synchronized void commit() throws IOException {
+        if (!dirty) {
+            return;
+        }
+        out.flush();
+        channel.force(false);
+        dirty = false;
+    }
+
+    /**
+     * Start a new generation of the journal, after the books have been saved to the snapshot of that
+     * generation. The journal file is atomically replaced by an empty journal of the new generation.
+     *
+     * @param newGeneration generation of the snapshot holding the current books
+     * @throws IOException if the journal file cannot be replaced
+     */
+    public synchronized void startGeneration(long newGeneration) throws IOException {
+        out.flush();
+        channel.close();
+
+        Path tempFile = journalFile.resolveSibling(journalFile.getFileName() + ".tmp");
+        writeEmptyJournal(tempFile, newGeneration);
+        Files.move(tempFile, journalFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        generation = newGeneration;
+        size = HEADER_SIZE;
+        dirty = false;
+        openChannel();
+    }
+
+    /** Commit all appended records and close the journal file. */
+    @Override
+    public synchronized void close() throws IOException {
+        committer.shutdownNow();
+        try {
+            commit();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Open the channel and stream for appending records after the last intact record.
+     * @throws IOException if the journal file cannot be opened
+     */
+    private void openChannel() throws IOException {
+        channel = FileChannel.open(journalFile, StandardOpenOption.WRITE);
+        channel.truncate(size); // cuts off records which were not written completely
+        channel.position(size);
+        out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), WRITE_BUFFER_SIZE));
+    }
+
+    /** Commit from the background thread, reporting instead of throwing failures. */
+    private synchronized void commitQuietly() {
+        try {
+            commit();
+        } catch (IOException e) {
+            System.err.println("ERROR: Committing journal failed: " + e);
+        }
+    }
+
+    /**
+     * Append the record held in the record buffer to the journal.
+     * @throws IOException if the record cannot be written
+     */
+    private void appendRecord() throws IOException {
+        byte[] record = recordBuffer.toByteArray();
+        recordBuffer.reset();
+        checksum.reset();
+        checksum.update(record);
+
+        out.writeInt(record.length);
+        out.write(record);
+        out.writeInt((int) checksum.getValue());
+        size += Integer.BYTES + record.length + Integer.BYTES;
+        dirty = true;
+    }
+
+    /**
+     * Write a book to the record buffer.
+     * @param book book to be written
+     * @throws IOException if writing fails
+     */
+    private void writeBook(BookEntry book) throws IOException {
+        writeString(recordOut, book.getTitle());
+        String[] authors = book.getAuthors();
+        recordOut.writeInt(authors.length);
+        for (String author : authors) {
+            writeString(recordOut, author);
+        }
+        recordOut.writeFloat(book.getRating());
+        writeString(recordOut, book.getISBN());
+        recordOut.writeInt(book.getPages());
+    }
+
+    /**
+     * Pass a single record to the given replayer.
+     * @param record type and payload of the record
+     * @param replayer handler of the record
+     * @throws IOException if the record is corrupted
+     */
+    private static void replayRecord(byte[] record, Replayer replayer) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+        try {
+            byte type = in.readByte();
+            switch (type) {
+                case ADD:
+                    replayer.add(readBook(in));
+                    break;
+                case SET:
+                    int index = in.readInt();
+                    replayer.set(index, readBook(in));
+                    break;
+                case REMOVE:
+                    int[] indices = new int[readCount(in)];
+                    for (int i = 0; i < indices.length; i++) {
+                        indices[i] = in.readInt();
+                    }
+                    replayer.remove(indices);
+                    break;
+                case CLEAR:
+                    replayer.clear();
+                    break;
+                case ADD_LINES:
+                    replayer.addLines(in.readAllBytes());
+                    break;
+                case VALIDATE:
+                    replayer.validate();
+                    break;
+                default:
+                    throw new IOException("Journal file is corrupted: unknown record type " + type);
+            }
+        } catch (EOFException | IllegalArgumentException | NullPointerException e) {
+            throw new IOException("Journal file is corrupted: " + e, e);
+        }
+    }
+
+    /**
+     * Read a book written by writeBook.
+     * @param in stream to read from
+     * @return book read
+     * @throws IOException if reading fails
+     */
+    private static BookEntry readBook(DataInputStream in) throws IOException {
+        String title = readString(in);
+        String[] authors = new String[readCount(in)];
+        for (int i = 0; i < authors.length; i++) {
+            authors[i] = readString(in);
+        }
+        float rating = in.readFloat();
+        String isbn = readString(in);
+        int pages = in.readInt();
+        return new BookEntry(title, authors, rating, isbn, pages);
+    }
+
+    /**
+     * Write an empty journal file of the given generation.
+     * @param file path of the journal file
+     * @param generation generation of the journal
+     * @throws IOException if writing fails
+     */
+    private static void writeEmptyJournal(Path file, long generation) throws IOException {
+        try (FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             DataOutputStream header = new DataOutputStream(Channels.newOutputStream(fileChannel))) {
+            header.writeInt(MAGIC);
+            header.writeInt(FORMAT_VERSION);
+            header.writeLong(generation);
+            header.flush();
+            fileChannel.force(true);
+        }
+    }
+
+    /**
+     * Read the generation from the header of the given journal file.
+     * @param file path of the journal file
+     * @return generation of the journal
+     * @throws IOException if the file cannot be read or is not a journal
+     */
+    private static long readGeneration(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            return readHeader(in);
+        }
+    }
+
+    /**
+     * Read and check the header of a journal file.
+     * @param in stream at the start of the file
+     * @return generation of the journal
+     * @throws IOException if the file is not a journal
+     */
+    private static long readHeader(DataInputStream in) throws IOException {
+        try {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("File is not a library journal.");
+            }
+            int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Journal format version not supported: " + version);
+            }
+            return in.readLong();
+        } catch (EOFException e) {
+            throw new IOException("File is not a library journal.", e);
+        }
+    }
+
+    /**
+     * Write a string as its UTF-8 length followed by its UTF-8 bytes.
+     * @param out stream to write to
+     * @param value string to be written
+     * @throws IOException if writing fails
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Read a string written by writeString.
+     * @param in stream to read from
+     * @return string read
+     * @throws IOException if reading fails
+     */
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[readCount(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Read a non-negative count which is at most the number of remaining bytes.
+     * @param in stream to read from
+     * @return count read
+     * @throws IOException if the count is invalid
+     */
+    private static int readCount(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0 || count > in.available()) {
+            throw new IOException("Journal file is corrupted: invalid count " + count);
+        }
+        return count;
+    }
+}
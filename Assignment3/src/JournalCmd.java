@@ -0,0 +1,64 @@
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Objects;
+
+/**
+ * Journal command used to record all changes to the library in a journal file, which is
+ * replayed to recover the library when the same journal file is opened again.
+ */
+public class JournalCmd extends LibraryCommand {
+
+    /**
+     * File extension that a journal file must have.
+     */
+    private static final String FILE_EXTENSION = ".journal";
+
+    /**
+     * Path of the journal file.
+     */
+    private Path journalPath;
+
+    /**
+     * Create a journal command.
+     *
+     * @param argumentInput Command argument
+     * @throws IllegalArgumentException If given arguments are invalid.
+     * @throws NullPointerException     If the given argumentInput is null.
+     */
+    public JournalCmd(String argumentInput) {
+        super(CommandType.JOURNAL, argumentInput);
+    }
+
+    /**
+     * Execute the journal command. This method calls the given LibraryData instance's openJournal
+     * in order to recover the library from the journal and record all further changes in it.
+     *
+     * @param data book data to be considered for command execution.
+     * @throws NullPointerException If data is null.
+     */
+    @Override
+    public void execute(LibraryData data) {
+        Objects.requireNonNull(data, ExceptionMessage.NULL_DATA.getExceptionMessage());
+
+        data.openJournal(journalPath);
+    }
+
+    /**
+     * Parse the given command argument and assigns it to the instance variable.
+     *
+     * @param argumentInput Path to the journal file, which could include subfolders or only a file name.
+     * @return True if the argument is a valid path that indicates a file name which ends with ".journal".
+     * @throws NullPointerException If the given argumentInput is null.
+     */
+    @Override
+    protected boolean parseArguments(String argumentInput) {
+        Objects.requireNonNull(argumentInput, ExceptionMessage.NULL_ARGUMENT.getExceptionMessage());
+
+        if (!argumentInput.endsWith(FILE_EXTENSION)) {
+            return false;
+        }
+
+        journalPath = Paths.get(argumentInput);
+        return true;
+    }
+}
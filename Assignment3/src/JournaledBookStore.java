@@ -0,0 +1,197 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.IntPredicate;
+
+/**
+ * Book store appending a journal record for every change made through it to another store.
+ *
+ * Reading methods are passed on unchanged. Changes are made to the other store first and
+ * recorded afterwards, so a change which fails is not recorded. Removals by filter are
+ * recorded as the positions of the removed books.
+ */
+public class JournaledBookStore implements BookStore {
+
+    /** Store the changes are made to. */
+    private final BookStore store;
+
+    /** Journal the changes are recorded in. */
+    private final Journal journal;
+
+    /**
+     * Create a store recording all changes made to the given store in the given journal.
+     *
+     * @param store store the changes are made to
+     * @param journal journal the changes are recorded in
+     * @throws NullPointerException if one of the given parameters is null
+     */
+    public JournaledBookStore(BookStore store, Journal journal) {
+        this.store = Objects.requireNonNull(store, ExceptionMessage.NULL_BOOK_ENTRIES.getExceptionMessage());
+        this.journal = Objects.requireNonNull(journal, "Given journal must not be null.");
+    }
+
+    /**
+     * Get the store the changes are made to.
+     *
+     * @return underlying store
+     */
+    public BookStore getStore() {
+        return store;
+    }
+
+    @Override
+    public int size() {
+        return store.size();
+    }
+
+    @Override
+    public boolean hasBook(int index) {
+        return store.hasBook(index);
+    }
+
+    @Override
+    public BookEntry getBook(int index) {
+        return store.getBook(index);
+    }
+
+    @Override
+    public String getTitle(int index) {
+        return store.getTitle(index);
+    }
+
+    @Override
+    public void appendTitle(int index, StringBuilder output) {
+        store.appendTitle(index, output);
+    }
+
+    @Override
+    public boolean titleContains(int index, String lowerCaseTerm) {
+        return store.titleContains(index, lowerCaseTerm);
+    }
+
+    @Override
+    public int getAuthorCount(int index) {
+        return store.getAuthorCount(index);
+    }
+
+    @Override
+    public String getAuthor(int index, int authorIndex) {
+        return store.getAuthor(index, authorIndex);
+    }
+
+    @Override
+    public int getAuthorId(int index, int authorIndex) {
+        return store.getAuthorId(index, authorIndex);
+    }
+
+    @Override
+    public AuthorDictionary getAuthorDictionary() {
+        return store.getAuthorDictionary();
+    }
+
+    @Override
+    public boolean hasTitle(int index, String title) {
+        return store.hasTitle(index, title);
+    }
+
+    @Override
+    public boolean hasAuthor(int index, String author) {
+        return store.hasAuthor(index, author);
+    }
+
+    @Override
+    public IntPredicate authorFilter(String author) {
+        return store.authorFilter(author);
+    }
+
+    @Override
+    public boolean supportsParallelScan() {
+        return store.supportsParallelScan();
+    }
+
+    @Override
+    public float getRating(int index) {
+        return store.getRating(index);
+    }
+
+    @Override
+    public String getISBN(int index) {
+        return store.getISBN(index);
+    }
+
+    @Override
+    public int getPages(int index) {
+        return store.getPages(index);
+    }
+
+    @Override
+    public void add(BookEntry book) {
+        store.add(book);
+        try {
+            journal.logAdd(book);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void set(int index, BookEntry book) {
+        store.set(index, book);
+        try {
+            journal.logSet(index, book);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void remove(int index) {
+        store.remove(index);
+        try {
+            journal.logRemove(new int[] { index }, 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public int removeIf(IntPredicate filter) {
+        Objects.requireNonNull(filter, "Given filter must not be null.");
+
+        PositionRecorder recorder = new PositionRecorder(filter);
+        int count = store.removeIf(recorder);
+
+        if (count > 0) {
+            try {
+                journal.logRemove(recorder.getPositions(), recorder.getCount());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public void clear() {
+        store.clear();
+        try {
+            journal.logClear();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public List<LineError> validate() {
+        List<LineError> errors = store.validate();
+        if (!errors.isEmpty()) {
+            try {
+                journal.logValidate();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return errors;
+    }
+}
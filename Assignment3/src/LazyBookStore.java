@@ -0,0 +1,409 @@
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.IntPredicate;
+
+/**
+ * Book store which keeps loaded book data lines as raw bytes and only decodes them when needed.
+ *
+ * Each raw book only consists of the position of its line within the loaded file content and the
+ * end of its title field. The title is decoded the first time it is accessed. All other data values
+ * are decoded and validated together, either the first time one of them is accessed or for all books
+ * at once by validate, which removes the books whose lines turn out to be invalid. Until then, a raw
+ * book counts as stored book even if its line is invalid.
+ *
+ * Books added as BookEntry objects are kept decoded right away. Raw file content is released once
+ * no raw book refers to it anymore.
+ */
+public class LazyBookStore implements BookStore {
+
+    /** Initial number of books the store has room for. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** Source index of books which were added decoded and have no raw line. */
+    private static final int NO_SOURCE = -1;
+
+    /** Separator between the data values of a line. */
+    private static final byte DATA_VALUES_SEPARATOR = ',';
+
+    /** Quote enclosing data values which contain separators. */
+    private static final byte QUOTE = '"';
+
+    /** Line break terminating every line of a book data file. */
+    private static final byte LINE_BREAK = '\n';
+
+    /** Carriage return preceding the line break of a line with Windows line endings. */
+    private static final byte CARRIAGE_RETURN = '\r';
+
+    /** Loader used to decode and validate raw lines, sharing author names through the dictionary. */
+    private final LibraryFileLoader lineParser;
+
+    /** Dictionary assigning the ids of the authors of the stored books. */
+    private final AuthorDictionary authorDictionary;
+
+    /** Raw file contents referred to by raw books. */
+    private final List<byte[]> sources;
+
+    /** Number of stored books. */
+    private int size;
+
+    /** Number of stored books which have not been decoded yet. */
+    private int rawCount;
+
+    /** Decoded books, null for books which have not been decoded yet. */
+    private BookEntry[] books;
+
+    /** Decoded titles, null for titles which have not been decoded yet. */
+    private String[] titles;
+
+    /** Index of the raw file content of each book in sources, NO_SOURCE for decoded books. */
+    private int[] lineSources;
+
+    /** Offset of the line of each raw book in its file content. */
+    private int[] lineStarts;
+
+    /** Offset after the title field of each raw book in its file content. */
+    private int[] titleEnds;
+
+    /** Offset after the line of each raw book in its file content, excluding the line break. */
+    private int[] lineEnds;
+
+    /**
+     * Create a new and empty lazy book store.
+     *
+     * @param authorDictionary dictionary to intern author names into when decoding books
+     * @throws NullPointerException if the given dictionary is null
+     */
+    public LazyBookStore(AuthorDictionary authorDictionary) {
+        this.authorDictionary = Objects.requireNonNull(authorDictionary, "Given author dictionary must not be null.");
+        lineParser = new LibraryFileLoader(authorDictionary);
+        sources = new ArrayList<>();
+        clear();
+    }
+
+    /**
+     * Add a raw book for every line of the given book data file content, except for the
+     * first line, which is a column header. Only the line boundaries and the end of the
+     * title field of every line are determined, no line is decoded.
+     *
+     * @param content whole content of a book data file in UTF-8
+     * @return number of added books
+     * @throws NullPointerException if the given content is null
+     */
+    public int addLines(byte[] content) {
+        Objects.requireNonNull(content, "Given content must not be null.");
+
+        int source = sources.size();
+        int added = 0;
+        int position = skipLine(content, 0); // ignores first line of the file, as it is just a column header
+
+        while (position < content.length) {
+            int lineEnd = skipLine(content, position);
+            int nextLine = lineEnd;
+            if (lineEnd > position && content[lineEnd - 1] == LINE_BREAK) {
+                lineEnd--;
+            }
+            if (lineEnd > position && content[lineEnd - 1] == CARRIAGE_RETURN) {
+                lineEnd--;
+            }
+
+            ensureCapacity(size + 1);
+            books[size] = null;
+            titles[size] = null;
+            lineSources[size] = source;
+            lineStarts[size] = position;
+            titleEnds[size] = findFieldEnd(content, position, lineEnd);
+            lineEnds[size] = lineEnd;
+            size++;
+            added++;
+
+            position = nextLine;
+        }
+
+        if (added > 0) {
+            sources.add(content);
+            rawCount += added;
+        }
+        return added;
+    }
+
+    /**
+     * Decode and validate all raw books, removing those whose lines are invalid.
+     *
+     * @return errors of the removed books in the order of their positions, numbered by their
+     *         positions before validation
+     */
+    @Override
+    public List<LineError> validate() {
+        List<LineError> errors = new ArrayList<>();
+        if (rawCount == 0) {
+            return errors;
+        }
+
+        removeIf(index -> {
+            if (books[index] != null || decode(index)) {
+                return false;
+            }
+            errors.add(lineParser.createLineError(index));
+            return true;
+        });
+
+        return errors;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean hasBook(int index) {
+        Objects.checkIndex(index, size);
+        return true;
+    }
+
+    @Override
+    public BookEntry getBook(int index) {
+        Objects.checkIndex(index, size);
+
+        if (books[index] == null && !decode(index)) {
+            throw new IllegalStateException(String.format("Book at position %d is invalid: %s",
+                    index, lineParser.getLineError()));
+        }
+        return books[index];
+    }
+
+    @Override
+    public String getTitle(int index) {
+        Objects.checkIndex(index, size);
+
+        if (titles[index] == null) {
+            titles[index] = decodeField(sources.get(lineSources[index]), lineStarts[index], titleEnds[index]);
+        }
+        return titles[index];
+    }
+
+    @Override
+    public int getAuthorCount(int index) {
+        return getBook(index).getAuthors().length;
+    }
+
+    @Override
+    public String getAuthor(int index, int authorIndex) {
+        return getBook(index).getAuthors()[authorIndex];
+    }
+
+    @Override
+    public int getAuthorId(int index, int authorIndex) {
+        return authorDictionary.add(getAuthor(index, authorIndex));
+    }
+
+    @Override
+    public AuthorDictionary getAuthorDictionary() {
+        return authorDictionary;
+    }
+
+    @Override
+    public float getRating(int index) {
+        return getBook(index).getRating();
+    }
+
+    @Override
+    public String getISBN(int index) {
+        return getBook(index).getISBN();
+    }
+
+    @Override
+    public int getPages(int index) {
+        return getBook(index).getPages();
+    }
+
+    @Override
+    public void add(BookEntry book) {
+        Objects.requireNonNull(book, "Given book must not be null.");
+
+        ensureCapacity(size + 1);
+        size++;
+        setDecoded(size - 1, book);
+    }
+
+    @Override
+    public void set(int index, BookEntry book) {
+        Objects.checkIndex(index, size);
+        Objects.requireNonNull(book, "Given book must not be null.");
+
+        if (books[index] == null) {
+            rawCount--;
+        }
+        setDecoded(index, book);
+        releaseSources();
+    }
+
+    @Override
+    public void remove(int index) {
+        Objects.checkIndex(index, size);
+        removeIf(i -> i == index);
+    }
+
+    @Override
+    public int removeIf(IntPredicate filter) {
+        Objects.requireNonNull(filter, "Given filter must not be null.");
+
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (filter.test(i)) {
+                if (books[i] == null) {
+                    rawCount--;
+                }
+            } else {
+                if (kept != i) {
+                    books[kept] = books[i];
+                    titles[kept] = titles[i];
+                    lineSources[kept] = lineSources[i];
+                    lineStarts[kept] = lineStarts[i];
+                    titleEnds[kept] = titleEnds[i];
+                    lineEnds[kept] = lineEnds[i];
+                }
+                kept++;
+            }
+        }
+
+        int removed = size - kept;
+        Arrays.fill(books, kept, size, null);
+        Arrays.fill(titles, kept, size, null);
+        size = kept;
+        releaseSources();
+
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+        rawCount = 0;
+        books = new BookEntry[INITIAL_CAPACITY];
+        titles = new String[INITIAL_CAPACITY];
+        lineSources = new int[INITIAL_CAPACITY];
+        lineStarts = new int[INITIAL_CAPACITY];
+        titleEnds = new int[INITIAL_CAPACITY];
+        lineEnds = new int[INITIAL_CAPACITY];
+        sources.clear();
+    }
+
+    /**
+     * Decode and validate the raw book at the given position.
+     *
+     * @param index position of a raw book
+     * @return true if the book is valid and has been decoded, false if its line is invalid,
+     * in which case the reason is available from the line parser
+     */
+    private boolean decode(int index) {
+        byte[] content = sources.get(lineSources[index]);
+        String line = new String(content, lineStarts[index], lineEnds[index] - lineStarts[index],
+                StandardCharsets.UTF_8);
+
+        BookEntry book = lineParser.createBookFromFile(line);
+        if (book == null) {
+            return false;
+        }
+
+        setDecoded(index, book);
+        rawCount--;
+        return true;
+    }
+
+    /**
+     * Store the given decoded book at the given position.
+     *
+     * @param index position of the book
+     * @param book decoded book
+     */
+    private void setDecoded(int index, BookEntry book) {
+        books[index] = book;
+        titles[index] = book.getTitle();
+        lineSources[index] = NO_SOURCE;
+    }
+
+    /** Release all raw file contents once there are no raw books left. */
+    private void releaseSources() {
+        if (rawCount == 0) {
+            sources.clear();
+        }
+    }
+
+    /**
+     * Make sure the arrays have room for the given number of books.
+     *
+     * @param capacity required number of books
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity <= books.length) {
+            return;
+        }
+
+        int newCapacity = Math.max(capacity, 2 * books.length);
+        books = Arrays.copyOf(books, newCapacity);
+        titles = Arrays.copyOf(titles, newCapacity);
+        lineSources = Arrays.copyOf(lineSources, newCapacity);
+        lineStarts = Arrays.copyOf(lineStarts, newCapacity);
+        titleEnds = Arrays.copyOf(titleEnds, newCapacity);
+        lineEnds = Arrays.copyOf(lineEnds, newCapacity);
+    }
+
+    /**
+     * Find the offset after the line starting at the given offset, including its line break.
+     *
+     * @param content file content
+     * @param start start offset of the line
+     * @return offset of the next line or the content length
+     */
+    private static int skipLine(byte[] content, int start) {
+        for (int i = start; i < content.length; i++) {
+            if (content[i] == LINE_BREAK) {
+                return i + 1;
+            }
+        }
+        return content.length;
+    }
+
+    /**
+     * Find the end of the field starting at the given offset. Separators within quotes
+     * do not end a field.
+     *
+     * @param content file content
+     * @param start start offset of the field
+     * @param lineEnd end offset of the line containing the field
+     * @return offset of the separator after the field or the line end
+     */
+    private static int findFieldEnd(byte[] content, int start, int lineEnd) {
+        boolean quoted = false;
+        for (int i = start; i < lineEnd; i++) {
+            if (content[i] == QUOTE) {
+                quoted = !quoted; // an escaped quote toggles twice
+            } else if (content[i] == DATA_VALUES_SEPARATOR && !quoted) {
+                return i;
+            }
+        }
+        return lineEnd;
+    }
+
+    /**
+     * Decode the content of a field. Quotes enclosing the field are removed and
+     * escaped quotes within it are unescaped.
+     *
+     * @param content file content
+     * @param start start offset of the field
+     * @param end end offset of the field
+     * @return content of the field
+     */
+    private static String decodeField(byte[] content, int start, int end) {
+        if (end - start < 2 || content[start] != QUOTE || content[end - 1] != QUOTE) {
+            return new String(content, start, end - start, StandardCharsets.UTF_8);
+        }
+
+        String quoted = new String(content, start + 1, end - start - 2, StandardCharsets.UTF_8);
+        return quoted.replace("\"\"", "\"");
+    }
+}
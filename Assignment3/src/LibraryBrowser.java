@@ -1,4 +1,6 @@
-import java.util.Scanner;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Path;
 
 /**
  * The main library browser module which 
@@ -12,24 +14,46 @@ public class LibraryBrowser {
     /** Create and handle commands created via user input. */
     private final CommandInterpreter cmdIntrp;
     /** 
-     * Used to read user input from StdIO. 
+     * Used to read user input from StdIO, shared with ADD commands reading book data from it.
      * Only close shortly before program exit.
      */
-    private final Scanner stdInScan;
+    private final BufferedReader stdIn;
+
+    /** Journal file recovered and used when the browser starts, null if no journal is used. */
+    private final Path journalFile;
 
     /**
      * Create library browser.
      */
     public LibraryBrowser() {
+        this(null);
+    }
+
+    /**
+     * Create library browser which recovers the library from the given journal file when it starts
+     * and records all changes in it, as if the first command was a JOURNAL command.
+     * @param journalFile path to the journal file, null if no journal should be used
+     */
+    public LibraryBrowser(Path journalFile) {
         data = new LibraryData();
         cmdIntrp = new CommandInterpreter();
-        stdInScan = new Scanner(System.in);
+        stdIn = StandardInput.getReader();
+        this.journalFile = journalFile;
     }
 
     /** Run the library browser and start the corresponding main loop. */
     public void run() {
+        if (journalFile != null) {
+            data.openJournal(journalFile);
+        }
         mainLoop();
-        stdInScan.close();
+        data.closeJournal();
+        data.closeCatalog();
+        try {
+            stdIn.close();
+        } catch (IOException e) {
+            System.err.println("ERROR: Closing user input failed: " + e);
+        }
     }
 
     /**
@@ -46,7 +70,8 @@ public class LibraryBrowser {
         while(!exit) {
             String inputLine = promptUser();
             if (inputLine == null) {
-                System.err.println("ERROR: User input could not be read successfully.");
+                // no more input can be read, e.g. after ADD - consumed a piped stream up to its end
+                exit = true;
                 continue;
             }
             
@@ -57,7 +82,10 @@ public class LibraryBrowser {
                 if (command instanceof ExitCmd) {
                     exit = true;
                 } else {
+                    // lines appended to followed files are loaded before every command, so it sees them
+                    data.loadFollowedChanges(false);
                     cmdIntrp.executeCommand(command, data);
+                    data.compactJournalIfNeeded();
                 }
             }           
         }
@@ -66,13 +94,14 @@ public class LibraryBrowser {
     /**
      * Display user command prompt and 
      * read corresponding input from StdIn.
-     * @return provided user input or null if stream problem
+     * @return provided user input or null if the end of the input is reached or stream problem
      */
     private String promptUser() {
         System.out.print("> ");
-        if (stdInScan.hasNextLine()) {
-            return stdInScan.nextLine();
-        } else {
+        try {
+            return stdIn.readLine();
+        } catch (IOException e) {
+            System.err.println("ERROR: User input could not be read successfully.");
             return null;
         }
     }
@@ -1,7 +1,14 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
 /** 
  * Class responsible for handling currently loaded
@@ -9,12 +16,102 @@ import java.util.Objects;
  */
 public class LibraryData {
 
-    /** Currently loaded book data. */
-    private final List<BookEntry> books;
+    /** Maximal number of lines parsed and merged at once when loading in STREAM mode. */
+    private static final int STREAM_CHUNK_SIZE = 10_000;
+
+    /** Number of threads parsing lines when loading in PIPELINE mode, leaving a core for reading and merging. */
+    private static final int PIPELINE_PARSER_COUNT = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+    /** Maximal time between a change and forcing its journal record to disk, in milliseconds. */
+    private static final long JOURNAL_COMMIT_INTERVAL_MILLIS = 100;
+
+    /** Size of the journal file above which it is folded into a new snapshot, in bytes. */
+    private static final long JOURNAL_COMPACTION_SIZE = 64L * 1024 * 1024;
+
+    /** Log file every problem of a load with VERBOSE report detail is written to. */
+    private static final Path LOAD_LOG_FILE = Paths.get("library-load.log");
+
+    /**
+     * Currently loaded book data. For the COLUMNAR storage type this is a
+     * BookStoreList viewing the columnar store.
+     */
+    private List<BookEntry> books;
+
+    /**
+     * Positions of the loaded books by their duplicate key, used to find duplicates
+     * in constant time.
+     *
+     * The index is rebuilt whenever it may not match the loaded books anymore,
+     * i.e. if books were removed or a different duplicate key is used.
+     */
+    private final DuplicateIndex duplicateIndex;
+
+    /**
+     * Bloom filter over the duplicate key hashes of the loaded books, checked before the duplicate
+     * index is probed. It is rebuilt together with the index, so keys of removed books do not
+     * linger in it, and rebuilt larger whenever it is full.
+     */
+    private final DuplicateFilter duplicateFilter;
+
+    /**
+     * Dictionary of all author names loaded into this library. Loaders intern author names
+     * into it, so every distinct name exists only once, and stores use its ids.
+     */
+    private final AuthorDictionary authorDictionary;
+
+    /**
+     * Inverted index of the titles of the loaded books, built when titles are first searched
+     * and kept up to date by the changes made through getBookStore afterwards.
+     */
+    private final TitleIndex titleIndex;
+
+    /** Book list the title index was built for, null if it has not been built yet. */
+    private List<BookEntry> titleIndexedBooks;
+
+    /** Index of the tokens of the author names in the author dictionary, for fuzzy author searches. */
+    private final AuthorNameIndex authorNameIndex;
+
+    /** Book list whose authors were last added to the author dictionary, null if none have been. */
+    private List<BookEntry> authorInternedBooks;
+
+    /** Number of books in the book list when their authors were last added to the author dictionary. */
+    private int authorInternedSize;
+
+    /** Follower of the book data files whose appended lines are loaded incrementally. */
+    private final FileFollower fileFollower;
+
+    /** Journal recording all changes to the loaded books, null if changes are not recorded. */
+    private Journal journal;
+
+    /** Path of the journal file, null if changes are not recorded. */
+    private Path journalFile;
+
+    /** Book list the duplicate index was built for. */
+    private List<BookEntry> indexedBooks;
+
+    /** Number of books the duplicate index was built for. */
+    private int indexedSize;
+
+    /** Duplicate key the duplicate index was built for, null if it has not been built yet. */
+    private DuplicateKey indexedKey;
 
     /** Create a new and empty book library. */
     public LibraryData() {
         books = new ArrayList<>();
+        duplicateIndex = new DuplicateIndex();
+        duplicateFilter = new DuplicateFilter();
+        authorDictionary = new AuthorDictionary();
+        fileFollower = new FileFollower(authorDictionary);
+        titleIndex = new TitleIndex();
+        titleIndexedBooks = null;
+        authorNameIndex = new AuthorNameIndex(authorDictionary);
+        authorInternedBooks = null;
+        authorInternedSize = 0;
+        journal = null;
+        journalFile = null;
+        indexedBooks = null;
+        indexedSize = 0;
+        indexedKey = null;
     }
 
     /** 
@@ -25,6 +122,241 @@ public class LibraryData {
         return books;
     }
 
+    /**
+     * Get a store giving access to the data values of all available book entries.
+     * Changes to the store are changes to the available book entries, which are
+     * recorded in the journal if one is open and applied to the title index.
+     * @return store of the available book entries, null if there are none
+     */
+    public BookStore getBookStore() {
+        BookStore store = getUnjournaledBookStore();
+        if (store == null) {
+            return null;
+        }
+        if (journal != null) {
+            store = new JournaledBookStore(store, journal);
+        }
+        if (titleIndexedBooks != books) {
+            titleIndex.invalidate(); // the index was built for books which are not available anymore
+        }
+        return new IndexedBookStore(store, titleIndex);
+    }
+
+    /**
+     * Get the inverted index of the titles of all available book entries, building
+     * it first if it does not cover them.
+     * @return index of the titles of the available book entries, null if there are none
+     */
+    public TitleIndex getTitleIndex() {
+        BookStore store = getUnjournaledBookStore();
+        if (store == null) {
+            return null;
+        }
+        if (titleIndexedBooks != books || !titleIndex.isValid() || titleIndex.size() != store.size()) {
+            titleIndex.build(store);
+            titleIndexedBooks = books;
+        }
+        return titleIndex;
+    }
+
+    /**
+     * Get the index of the tokens of the author names of all available book entries. Authors
+     * of book entries which were added to the book list directly rather than loaded are
+     * added to the author dictionary first.
+     * @return index of the author names of the available book entries, null if there are none
+     */
+    public AuthorNameIndex getAuthorNameIndex() {
+        BookStore store = getUnjournaledBookStore();
+        if (store == null) {
+            return null;
+        }
+        // stores other than the plain list assign author ids, so their authors are in the dictionary already
+        if (!(books instanceof BookStoreList)
+                && (authorInternedBooks != books || authorInternedSize != books.size())) {
+            for (int i = 0; i < store.size(); i++) {
+                if (store.hasBook(i)) {
+                    for (int j = 0; j < store.getAuthorCount(i); j++) {
+                        store.getAuthorId(i, j);
+                    }
+                }
+            }
+            authorInternedBooks = books;
+            authorInternedSize = books.size();
+        }
+        return authorNameIndex;
+    }
+
+    /**
+     * Get a store of all available book entries like getBookStore, without recording changes in the journal.
+     * @return store of the available book entries, null if there are none
+     */
+    private BookStore getUnjournaledBookStore() {
+        if (books == null) {
+            return null;
+        }
+        if (books instanceof BookStoreList) {
+            return ((BookStoreList) books).getStore();
+        }
+        return new ListBookStore(books, authorDictionary);
+    }
+
+    /**
+     * Get the way the available book entries are currently kept in memory.
+     * @return current storage type
+     */
+    public StorageType getStorageType() {
+        if (!(books instanceof BookStoreList)) {
+            return StorageType.LIST;
+        }
+
+        BookStore store = ((BookStoreList) books).getStore();
+        if (store instanceof LazyBookStore) {
+            return StorageType.LAZY;
+        }
+        if (store instanceof PagedBookStore) {
+            return StorageType.DISK;
+        }
+        if (store instanceof LsmBookStore) {
+            return StorageType.CATALOG;
+        }
+        return store instanceof OffHeapBookStore ? StorageType.OFF_HEAP : StorageType.COLUMNAR;
+    }
+
+    /**
+     * Get a store of all available book entries like getBookStore, after decoding and
+     * validating all entries whose validation was deferred. Entries which turn out to be
+     * invalid are removed and reported.
+     * @return store of the available book entries, null if there are none
+     */
+    public BookStore getValidatedBookStore() {
+        validatePending();
+        return getBookStore();
+    }
+
+    /**
+     * Decode and validate all book entries whose validation was deferred, e.g. because they
+     * were loaded in LAZY mode. Entries which turn out to be invalid are removed and reported.
+     * @return number of removed book entries
+     */
+    public int validateData() {
+        int removed = validatePending();
+        System.out.println(removed + " invalid book entries removed.");
+        return removed;
+    }
+
+    /**
+     * Move all available book entries to the given type of storage. Entries which
+     * are null are dropped. Nothing happens if the storage type is already in use.
+     * @param type storage type to be used from now on
+     * @throws NullPointerException if the given storage type is null
+     */
+    public void setStorageType(StorageType type) {
+        Objects.requireNonNull(type, "Given storage type must not be null.");
+
+        if (type == getStorageType()) {
+            System.out.println("Book data is already kept in " + type + " storage.");
+            return;
+        }
+
+        List<BookEntry> newBooks;
+        switch (type) {
+            case LIST:
+                newBooks = new ArrayList<>();
+                break;
+            case COLUMNAR:
+                newBooks = new BookStoreList(new ColumnarBookStore(authorDictionary));
+                break;
+            case LAZY:
+                newBooks = new BookStoreList(new LazyBookStore(authorDictionary));
+                break;
+            case DISK:
+                try {
+                    newBooks = new BookStoreList(PagedBookStore.createTemporary(authorDictionary));
+                } catch (IOException | SecurityException e) {
+                    System.err.println("ERROR: Creating record file failed: " + e);
+                    return;
+                }
+                break;
+            case OFF_HEAP:
+                newBooks = new BookStoreList(new OffHeapBookStore(authorDictionary));
+                break;
+            case CATALOG:
+                System.err.println("ERROR: Book data is moved to a catalog by the " + CommandType.CATALOG + " command.");
+                return;
+            default:
+                throw new IllegalArgumentException("Storage type not supported: " + type);
+        }
+
+        // books are moved one at a time, so only one of them exists as BookEntry for the columnar store
+        BookStore oldStore = getValidatedBookStore();
+        if (oldStore != null) {
+            for (int i = 0; i < oldStore.size(); i++) {
+                if (oldStore.hasBook(i)) {
+                    newBooks.add(oldStore.getBook(i));
+                }
+            }
+        }
+
+        releaseStore();
+        books = newBooks;
+        indexedKey = null; // the duplicate index refers to the previous storage
+        System.out.println(newBooks.size() + " book entries moved to " + type + " storage.");
+    }
+
+    /**
+     * Keep the book data in the LSM-tree catalog in the given directory, which persists every change.
+     * If the catalog holds books, they replace the book data. Otherwise the catalog is created if
+     * necessary, and the current book data is moved into it.
+     * @param directory specified path to the catalog directory
+     * @return true if the catalog could be opened, false otherwise
+     * @throws NullPointerException if the given path is null
+     */
+    public boolean openCatalog(Path directory) {
+        Objects.requireNonNull(directory, "Given directory path must not be null.");
+
+        LsmBookStore catalog;
+        try {
+            catalog = new LsmBookStore(new LsmEngine(directory, LsmEngine.DEFAULT_MEMTABLE_LIMIT), authorDictionary);
+        } catch (IOException | UncheckedIOException | SecurityException e) {
+            System.err.println("ERROR: Opening catalog failed for directory: " + directory + ": " + e.getMessage());
+            return false;
+        }
+
+        if (catalog.size() > 0) {
+            System.out.println(catalog.size() + " book entries restored from catalog.");
+        } else {
+            BookStore oldStore = getValidatedBookStore();
+            try {
+                if (oldStore != null) {
+                    for (int i = 0; i < oldStore.size(); i++) {
+                        if (oldStore.hasBook(i)) {
+                            catalog.add(oldStore.getBook(i));
+                        }
+                    }
+                }
+            } catch (UncheckedIOException e) {
+                System.err.println("ERROR: Moving book data to catalog failed: " + e.getMessage());
+                catalog.close();
+                return false;
+            }
+            System.out.println(catalog.size() + " book entries moved to catalog.");
+        }
+
+        releaseStore();
+        books = new BookStoreList(catalog);
+        indexedKey = null; // the duplicate index refers to the previous storage
+        System.out.println("Storing book data in catalog: " + directory);
+        return true;
+    }
+
+    /** Close the catalog the book data is kept in, if any. Its changes are forced to disk. */
+    public void closeCatalog() {
+        if (getStorageType() == StorageType.CATALOG) {
+            releaseStore();
+            books = new ArrayList<>();
+        }
+    }
+
     /**
      * Initiate book data loading for the given path.
      * @param libraryFile specified path to book data file
@@ -32,15 +364,66 @@ public class LibraryData {
      * @throws NullPointerException if the given path is null
      */
     public boolean loadData(Path libraryFile) {
+        return loadData(libraryFile, LoadMode.FULL);
+    }
+
+    /**
+     * Initiate book data loading for the given path using the given load mode.
+     * @param libraryFile specified path to book data file
+     * @param mode how the book data file should be read and parsed
+     * @return true if loading was successful, false otherwise
+     * @throws NullPointerException if one of the given parameters is null
+     */
+    public boolean loadData(Path libraryFile, LoadMode mode) {
+        return loadData(libraryFile, mode, DuplicateKey.RECORD, DuplicatePolicy.SKIP);
+    }
+
+    /**
+     * Initiate book data loading for the given path using the given load mode and duplicate handling.
+     * @param libraryFile specified path to book data file
+     * @param mode how the book data file should be read and parsed
+     * @param key how loaded books are identified as duplicates of books already loaded,
+     *            not used in LAZY mode, which does not check for duplicates
+     * @param policy what happens to loaded books which are duplicates, not used in LAZY mode
+     * @return true if loading was successful, false otherwise
+     * @throws NullPointerException if one of the given parameters is null
+     */
+    public boolean loadData(Path libraryFile, LoadMode mode, DuplicateKey key, DuplicatePolicy policy) {
+        return loadData(libraryFile, mode, key, policy, ReportDetail.SUMMARY);
+    }
+
+    /**
+     * Initiate book data loading for the given path using the given load mode and duplicate handling.
+     * Lines which cannot be loaded and skipped duplicates are reported in a single summary
+     * once loading has finished.
+     * @param libraryFile specified path to book data file
+     * @param mode how the book data file should be read and parsed
+     * @param key how loaded books are identified as duplicates of books already loaded,
+     *            not used in LAZY mode, which does not check for duplicates
+     * @param policy what happens to loaded books which are duplicates, not used in LAZY mode
+     * @param detail whether every problem is additionally written to a log file
+     * @return true if loading was successful, false otherwise
+     * @throws NullPointerException if one of the given parameters is null
+     */
+    public boolean loadData(Path libraryFile, LoadMode mode, DuplicateKey key, DuplicatePolicy policy,
+                            ReportDetail detail) {
         Objects.requireNonNull(libraryFile, "Given file path must not be null.");
-               
-        LibraryFileLoader loader = new LibraryFileLoader();
-        boolean success = loader.loadFileContent(libraryFile);
+        Objects.requireNonNull(mode, "Given load mode must not be null.");
+        Objects.requireNonNull(key, "Given duplicate key must not be null.");
+        Objects.requireNonNull(policy, "Given duplicate policy must not be null.");
+        Objects.requireNonNull(detail, "Given report detail must not be null.");
+
+        boolean success;
+        MergeCounts counts = new MergeCounts();
+        long sharedBytesBefore = authorDictionary.getSharedBytes();
+
+        try (LoadReport report = createLoadReport(detail)) {
+            success = loadFile(libraryFile, mode, key, policy, counts, report);
+            report.print();
+        }
 
         if (success) {
-            List<BookEntry> loaded = loader.parseFileContent();
-            int added = mergeEntries(loaded);
-            System.out.println(added + " new book entries added.");
+            printLoadSummary(counts, sharedBytesBefore);
         } else {
             System.err.println("ERROR: Loading book data failed for file: " + libraryFile);
         }
@@ -48,27 +431,684 @@ public class LibraryData {
         return success;
     }
 
+    /**
+     * Load the given book data file in the given load mode, merging the loaded books into the
+     * available book entries and recording all problems in the given report.
+     * @param libraryFile specified path to book data file
+     * @param mode how the book data file should be read and parsed
+     * @param key how loaded books are identified as duplicates, not used in LAZY mode
+     * @param policy what happens to loaded books which are duplicates, not used in LAZY mode
+     * @param counts counts of added and replaced entries, which are increased by this load
+     * @param report report every problem of the load is recorded in
+     * @return true if loading was successful, false otherwise
+     */
+    private boolean loadFile(Path libraryFile, LoadMode mode, DuplicateKey key, DuplicatePolicy policy,
+                             MergeCounts counts, LoadReport report) {
+        // compressed files cannot be split into segments, so they are inflated and parsed as a stream instead
+        if (mode == LoadMode.PARALLEL && BookDataFiles.isCompressed(libraryFile)) {
+            mode = LoadMode.STREAM;
+        }
+        // streams can neither be mapped nor read twice, so their lines are parsed as they arrive
+        if ((mode == LoadMode.FULL || mode == LoadMode.PARALLEL) && BookDataFiles.isStream(libraryFile)) {
+            mode = LoadMode.STREAM;
+        }
+
+        boolean success;
+        try (LibraryFileLoader loader = new LibraryFileLoader(authorDictionary)) {
+            switch (mode) {
+                case FULL:
+                    success = loader.loadFileContent(libraryFile);
+                    if (success) {
+                        mergeEntries(loader.parseFileContent(report), key, policy, counts, report);
+                    }
+                    break;
+                case STREAM:
+                    // only one chunk of parsed books is kept in memory at any time
+                    success = loader.openFileStream(libraryFile);
+                    while (loader.hasMoreContent()) {
+                        List<BookEntry> chunk = loader.parseNextChunk(STREAM_CHUNK_SIZE, report);
+                        mergeEntries(chunk, key, policy, counts, report);
+                    }
+                    // the books read before a failure are kept, but the load is incomplete
+                    success = success && !loader.hasReadFailed();
+                    break;
+                case LAZY:
+                    success = loadLazily(libraryFile, counts);
+                    break;
+                case PARALLEL:
+                    List<BookEntry> loaded = new ParallelFileLoader(ForkJoinPool.commonPool(), authorDictionary)
+                            .parseFile(libraryFile, report);
+                    success = loaded != null;
+                    if (success) {
+                        mergeEntries(loaded, key, policy, counts, report);
+                    }
+                    break;
+                case PIPELINE:
+                    IngestionPipeline pipeline = new IngestionPipeline(PIPELINE_PARSER_COUNT, authorDictionary);
+                    success = pipeline.load(libraryFile, chunk -> mergeEntries(chunk, key, policy, counts, report),
+                            report);
+                    if (success) {
+                        pipeline.printMetrics();
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Load mode not supported: " + mode);
+            }
+        }
+        return success;
+    }
+
+    /**
+     * Initiate book data loading for several files at once using the given load mode and duplicate
+     * handling. In FULL and PARALLEL mode, the files are parsed concurrently, one file per thread, and all
+     * parsed books are merged in file order afterwards, so duplicates are checked across all files
+     * within a single merge. In STREAM and PIPELINE mode, the files are loaded one after another in
+     * that mode, so only a bounded number of books is kept in memory however many files are loaded.
+     * Row counts and loading time are reported for each file.
+     * @param libraryFiles specified paths to book data files
+     * @param mode how the book data files should be read and parsed
+     * @param key how loaded books are identified as duplicates, not used in LAZY mode
+     * @param policy what happens to loaded books which are duplicates, not used in LAZY mode
+     * @return true if all files were loaded successfully, false otherwise
+     * @throws NullPointerException if one of the given parameters is null
+     */
+    public boolean loadData(List<Path> libraryFiles, LoadMode mode, DuplicateKey key, DuplicatePolicy policy) {
+        return loadData(libraryFiles, mode, key, policy, ReportDetail.SUMMARY);
+    }
+
+    /**
+     * Initiate book data loading for several files at once like loadData for a list of files,
+     * reporting lines which cannot be loaded and skipped duplicates of all files in a single summary.
+     * @param libraryFiles specified paths to book data files
+     * @param mode how the book data files should be read and parsed
+     * @param key how loaded books are identified as duplicates, not used in LAZY mode
+     * @param policy what happens to loaded books which are duplicates, not used in LAZY mode
+     * @param detail whether every problem is additionally written to a log file
+     * @return true if all files were loaded successfully, false otherwise
+     * @throws NullPointerException if one of the given parameters is null
+     */
+    public boolean loadData(List<Path> libraryFiles, LoadMode mode, DuplicateKey key, DuplicatePolicy policy,
+                            ReportDetail detail) {
+        Objects.requireNonNull(libraryFiles, "Given file paths must not be null.");
+        Objects.requireNonNull(mode, "Given load mode must not be null.");
+        Objects.requireNonNull(key, "Given duplicate key must not be null.");
+        Objects.requireNonNull(policy, "Given duplicate policy must not be null.");
+        Objects.requireNonNull(detail, "Given report detail must not be null.");
+
+        boolean success = true;
+        MergeCounts counts = new MergeCounts();
+        long sharedBytesBefore = authorDictionary.getSharedBytes();
+
+        if (mode == LoadMode.LAZY) {
+            for (Path libraryFile : libraryFiles) {
+                long start = System.nanoTime();
+                int addedBefore = counts.added;
+                if (loadLazily(libraryFile, counts)) {
+                    printFileSummary(libraryFile, counts.added - addedBefore, counts.added - addedBefore,
+                            System.nanoTime() - start);
+                } else {
+                    System.err.println("ERROR: Loading book data failed for file: " + libraryFile);
+                    success = false;
+                }
+            }
+        } else if (mode == LoadMode.STREAM || mode == LoadMode.PIPELINE) {
+            try (LoadReport report = createLoadReport(detail)) {
+                for (Path libraryFile : libraryFiles) {
+                    long start = System.nanoTime();
+                    long rejectedBefore = report.getRejectedCount();
+                    long loadedBefore = counts.added + counts.replaced + report.getCount(LoadReport.Category.DUPLICATE);
+                    if (loadFile(libraryFile, mode, key, policy, counts, report)) {
+                        long loaded = counts.added + counts.replaced + report.getCount(LoadReport.Category.DUPLICATE)
+                                - loadedBefore;
+                        long rejected = report.getRejectedCount() - rejectedBefore;
+                        printFileSummary(libraryFile, (int) (loaded + rejected), (int) loaded,
+                                System.nanoTime() - start);
+                    } else {
+                        System.err.println("ERROR: Loading book data failed for file: " + libraryFile);
+                        success = false;
+                    }
+                }
+                report.print();
+            }
+        } else {
+            try (LoadReport report = createLoadReport(detail)) {
+                List<MultiFileLoader.FileResult> results =
+                        new MultiFileLoader(Runtime.getRuntime().availableProcessors(), authorDictionary)
+                                .parseFiles(libraryFiles);
+
+                List<BookEntry> loaded = new ArrayList<>();
+                for (MultiFileLoader.FileResult result : results) {
+                    if (result.getFailure() != null) {
+                        System.err.println("ERROR: Reading file content failed: " + result.getFailure());
+                        System.err.println("ERROR: Loading book data failed for file: " + result.getFile());
+                        success = false;
+                        continue;
+                    }
+
+                    for (LineError error : result.getErrors()) {
+                        error.recordIn(report, String.format("%s, line %d", result.getFile(), error.getLineNumber()));
+                    }
+                    printFileSummary(result.getFile(), result.getLineCount(), result.getBooks().size(),
+                            result.getElapsedNanos());
+                    loaded.addAll(result.getBooks());
+                }
+
+                mergeEntries(loaded, key, policy, counts, report);
+                report.print();
+            }
+        }
+
+        printLoadSummary(counts, sharedBytesBefore);
+        return success;
+    }
+
+    /**
+     * Start following the given book data file and load the lines which have not been loaded yet.
+     * Afterwards, lines appended to the file are loaded by loadFollowedChanges without reading
+     * the lines loaded before again. Duplicates are identified by RECORD key and skipped.
+     * @param libraryFile specified path to book data file
+     * @return true if the file could be followed and read, false otherwise
+     * @throws NullPointerException if the given path is null
+     */
+    public boolean followData(Path libraryFile) {
+        Objects.requireNonNull(libraryFile, "Given file path must not be null.");
+
+        Path followed = fileFollower.follow(libraryFile);
+        if (followed == null || loadAppendedLines(followed) < 0) {
+            System.err.println("ERROR: Following book data failed for file: " + libraryFile);
+            return false;
+        }
+        System.out.println("Following file: " + followed);
+        return true;
+    }
+
+    /**
+     * Load the lines appended to followed book data files since they were loaded last.
+     * @param allFiles true to check all followed files, false to check only the files
+     *                 the watch service has reported as modified
+     * @return number of book entries added
+     */
+    public int loadFollowedChanges(boolean allFiles) {
+        List<Path> changedFiles = fileFollower.pollChanges();
+        if (allFiles) {
+            changedFiles = fileFollower.getFollowedFiles();
+        }
+
+        int added = 0;
+        for (Path file : changedFiles) {
+            added += Math.max(loadAppendedLines(file), 0);
+        }
+        return added;
+    }
+
+    /**
+     * Load the lines appended to the given followed file since it was loaded last and
+     * report them if there are any.
+     * @param followedFile path under which the file is followed
+     * @return number of book entries added or -1 if the file could not be read
+     */
+    private int loadAppendedLines(Path followedFile) {
+        long start = System.nanoTime();
+        LoadReport report = new LoadReport();
+        List<BookEntry> loaded = fileFollower.readNewBooks(followedFile, report);
+        if (loaded == null) {
+            return -1;
+        }
+
+        MergeCounts counts = new MergeCounts();
+        int lines = fileFollower.getLastLineCount();
+        if (lines > 0) {
+            mergeEntries(loaded, DuplicateKey.RECORD, DuplicatePolicy.SKIP, counts, report);
+            report.print();
+            System.out.printf("%s: %d new lines, %d new book entries added in %d ms.\n", followedFile, lines,
+                    counts.added, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+        return counts.added;
+    }
+
+    /**
+     * Save all currently loaded book data to a binary snapshot file.
+     * @param snapshotFile specified path to the snapshot file
+     * @return true if saving was successful, false otherwise
+     * @throws NullPointerException if the given path is null
+     */
+    public boolean saveData(Path snapshotFile) {
+        Objects.requireNonNull(snapshotFile, "Given file path must not be null.");
+
+        try {
+            validatePending();
+            int saved = LibrarySnapshot.write(books, snapshotFile);
+            System.out.println(saved + " book entries saved.");
+            return true;
+        } catch (IOException | SecurityException e) {
+            System.err.println("ERROR: Saving book data failed for file: " + snapshotFile + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Replace all currently loaded book data by the book data of a binary snapshot file.
+     * The currently loaded book data is kept if the snapshot cannot be read.
+     * @param snapshotFile specified path to the snapshot file
+     * @return true if restoring was successful, false otherwise
+     * @throws NullPointerException if the given path is null
+     */
+    public boolean restoreData(Path snapshotFile) {
+        Objects.requireNonNull(snapshotFile, "Given file path must not be null.");
+
+        List<BookEntry> restored;
+        try {
+            restored = LibrarySnapshot.read(snapshotFile, authorDictionary);
+        } catch (IOException | SecurityException e) {
+            System.err.println("ERROR: Restoring book data failed for file: " + snapshotFile + ": " + e.getMessage());
+            return false;
+        }
+
+        books.clear();
+        books.addAll(restored);
+        indexedKey = null; // the duplicate index does not match the restored books anymore
+        titleIndex.invalidate();
+        System.out.println(restored.size() + " book entries restored.");
+
+        // the restored books are not recorded in the journal, so they become the base of a new generation
+        if (journal != null) {
+            compactJournal();
+        }
+        return true;
+    }
+
+    /**
+     * Start recording all changes to the book data in the given journal file. If the file exists,
+     * the book data is replaced by the snapshot of the journal's generation with all journal records
+     * replayed on top of it. Otherwise the journal is created, and the current book data is saved
+     * as its first snapshot. Changes are forced to disk in groups, at most once per commit interval.
+     * A journal which was open before is closed.
+     * @param journalFile specified path to the journal file
+     * @return true if the journal could be opened, false otherwise
+     * @throws NullPointerException if the given path is null
+     */
+    public boolean openJournal(Path journalFile) {
+        Objects.requireNonNull(journalFile, "Given file path must not be null.");
+        closeJournal();
+
+        boolean existed = Files.exists(journalFile);
+        Journal opened = null;
+        try {
+            opened = new Journal(journalFile, JOURNAL_COMMIT_INTERVAL_MILLIS);
+            if (existed) {
+                replayJournal(journalFile, opened.getGeneration());
+            }
+            journal = opened;
+            this.journalFile = journalFile;
+            if (!existed && !compactJournal()) {
+                throw new IOException("First snapshot could not be saved.");
+            }
+        } catch (IOException | UncheckedIOException | SecurityException e) {
+            System.err.println("ERROR: Opening journal failed for file: " + journalFile + ": " + e.getMessage());
+            journal = null;
+            this.journalFile = null;
+            if (opened != null) {
+                try {
+                    opened.close();
+                } catch (IOException closeFailure) {
+                    System.err.println("ERROR: Closing journal failed: " + closeFailure);
+                }
+            }
+            return false;
+        }
+
+        System.out.println("Recording changes in journal: " + journalFile);
+        return true;
+    }
+
+    /**
+     * Fold the journal into a new snapshot if it has grown past the compaction size.
+     * Nothing happens if no journal is open.
+     */
+    public void compactJournalIfNeeded() {
+        if (journal != null && journal.size() > JOURNAL_COMPACTION_SIZE && compactJournal()) {
+            System.out.println("Journal compacted into snapshot of generation " + journal.getGeneration() + ".");
+        }
+    }
+
+    /** Force all journal records to disk and stop recording changes. Nothing happens if no journal is open. */
+    public void closeJournal() {
+        if (journal == null) {
+            return;
+        }
+
+        try {
+            journal.close();
+        } catch (IOException e) {
+            System.err.println("ERROR: Closing journal failed: " + e);
+        }
+        journal = null;
+        journalFile = null;
+    }
+
+    /**
+     * Release the files used by the current storage, which is about to be replaced: the record file
+     * of DISK storage is deleted and the catalog of CATALOG storage is closed.
+     */
+    private void releaseStore() {
+        BookStore oldBooks = getUnjournaledBookStore();
+        try {
+            if (oldBooks instanceof PagedBookStore) {
+                ((PagedBookStore) oldBooks).close();
+            } else if (oldBooks instanceof LsmBookStore) {
+                ((LsmBookStore) oldBooks).close();
+            }
+        } catch (UncheckedIOException e) {
+            System.err.println("ERROR: Closing storage failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Replace the book data by the snapshot of the given generation and replay the journal on top of it.
+     * @param journalFile path of the journal file
+     * @param generation generation of the journal
+     * @throws IOException if the snapshot or journal cannot be read
+     */
+    private void replayJournal(Path journalFile, long generation) throws IOException {
+        List<BookEntry> base = generation == 0 ? new ArrayList<>()
+                : LibrarySnapshot.read(getJournalSnapshotFile(journalFile, generation), authorDictionary);
+
+        BookStore store = getUnjournaledBookStore();
+        Objects.requireNonNull(store, ExceptionMessage.NULL_BOOK_ENTRIES.getExceptionMessage());
+        store.clear();
+        for (BookEntry book : base) {
+            store.add(book);
+        }
+
+        JournalReplayer replayer = new JournalReplayer();
+        Journal.replay(journalFile, replayer);
+        indexedKey = null; // the duplicate index does not match the replayed books anymore
+        titleIndex.invalidate();
+        System.out.printf("%d book entries restored, %d journal records replayed.\n", base.size(),
+                replayer.records);
+    }
+
+    /**
+     * Save the book data to the snapshot of the next generation and start that generation of the journal.
+     * The snapshot of the previous generation is deleted afterwards.
+     * @return true if the journal was compacted, false otherwise
+     */
+    private boolean compactJournal() {
+        long generation = journal.getGeneration();
+        Path snapshotFile = getJournalSnapshotFile(journalFile, generation + 1);
+
+        try {
+            validatePending();
+            LibrarySnapshot.write(books, snapshotFile);
+            journal.startGeneration(generation + 1);
+            Files.deleteIfExists(getJournalSnapshotFile(journalFile, generation));
+            return true;
+        } catch (IOException | SecurityException e) {
+            // the journal keeps growing in its current generation, which still matches its snapshot
+            System.err.println("ERROR: Compacting journal failed for file: " + journalFile + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Get the path of the snapshot the given generation of a journal has to be replayed on.
+     * @param journalFile path of the journal file
+     * @param generation generation of the journal
+     * @return path of the snapshot file
+     */
+    private static Path getJournalSnapshotFile(Path journalFile, long generation) {
+        return journalFile.resolveSibling(journalFile.getFileName() + "." + generation + ".snapshot");
+    }
+
+    /**
+     * Add the lines of the given book data file to LAZY storage without decoding them,
+     * moving the available book entries to LAZY storage first if necessary.
+     * @param libraryFile specified path to book data file
+     * @param counts counts of added entries, which are increased by this load
+     * @return true if the file could be read, false otherwise
+     */
+    private boolean loadLazily(Path libraryFile, MergeCounts counts) {
+        byte[] content;
+        try {
+            content = BookDataFiles.readAllBytes(libraryFile);
+        } catch (IOException | SecurityException e) {
+            System.err.println("ERROR: Reading file content failed: " + e);
+            return false;
+        }
+
+        counts.added += addLines(content);
+        return true;
+    }
+
+    /**
+     * Add the lines of the given book data file content to LAZY storage without decoding them,
+     * moving the available book entries to LAZY storage first if necessary.
+     * @param content whole content of a book data file
+     * @return number of added book entries
+     */
+    private int addLines(byte[] content) {
+        if (getStorageType() != StorageType.LAZY) {
+            setStorageType(StorageType.LAZY);
+        }
+
+        int added = ((LazyBookStore) getUnjournaledBookStore()).addLines(content);
+        if (journal != null && added > 0) {
+            try {
+                journal.logAddLines(content);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Print the numbers of rows and books of a single loaded file and how long loading it took.
+     * @param libraryFile path of the loaded file
+     * @param rows number of data lines in the file
+     * @param loaded number of books loaded from the file
+     * @param elapsedNanos time spent loading the file, in nanoseconds
+     */
+    private static void printFileSummary(Path libraryFile, int rows, int loaded, long elapsedNanos) {
+        System.out.printf("%s: %d rows, %d books loaded in %d ms.\n", libraryFile, rows, loaded,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+    }
+
+    /**
+     * Print how many book entries were added and replaced by a load and how many bytes
+     * sharing author names saved.
+     * @param counts counts of added and replaced entries
+     * @param sharedBytesBefore bytes saved by sharing author names before the load
+     */
+    private void printLoadSummary(MergeCounts counts, long sharedBytesBefore) {
+        System.out.println(counts.added + " new book entries added.");
+        if (counts.replaced > 0) {
+            System.out.println(counts.replaced + " book entries replaced.");
+        }
+        long newKeys = counts.filtered + counts.falsePositives;
+        if (newKeys > 0) {
+            System.out.printf("%d of %d new duplicate keys ruled out by Bloom filter, %.2f%% false positives.\n",
+                    counts.filtered, newKeys, 100.0 * counts.falsePositives / newKeys);
+        }
+        System.out.printf("%d distinct authors, %d bytes saved by sharing author names.\n",
+                authorDictionary.size(), authorDictionary.getSharedBytes() - sharedBytesBefore);
+    }
+
+    /**
+     * Create the report of a load with the given level of detail. If the log file of a
+     * VERBOSE report cannot be created, only the summary is reported.
+     * @param detail whether every problem is additionally written to a log file
+     * @return new and empty report
+     */
+    private static LoadReport createLoadReport(ReportDetail detail) {
+        if (detail == ReportDetail.VERBOSE) {
+            try {
+                return new LoadReport(LOAD_LOG_FILE);
+            } catch (IOException | SecurityException e) {
+                System.err.println("ERROR: Creating load log failed for file: " + LOAD_LOG_FILE + ": " + e);
+            }
+        }
+        return new LoadReport();
+    }
+
+    /**
+     * Decode and validate all book entries whose validation was deferred, reporting the
+     * removed entries in a single summary the same way as lines which cannot be loaded.
+     * @return number of removed book entries
+     */
+    private int validatePending() {
+        BookStore store = getBookStore();
+        if (store == null) {
+            return 0;
+        }
+
+        List<LineError> errors = store.validate();
+        LoadReport report = new LoadReport();
+        for (LineError error : errors) {
+            error.recordIn(report, null);
+        }
+        report.print();
+        return errors.size();
+    }
+
     /**
      * Merge the list of book entries with the
      * entries already loaded.
      * 
-     * Duplicate entries will be discarded (This requires .equals to be
-     * implemented for BookEntry).
+     * Duplicates are found by looking up their key in the duplicate index, so merging
+     * takes time linear in the number of loaded entries. Entries which are duplicates
+     * of each other within the loaded list are handled the same way.
      * 
      * @param loaded list of book entries to be merged with data already loaded
-     * @return number of book entries added to the library
+     * @param key how loaded books are identified as duplicates
+     * @param policy what happens to loaded books which are duplicates
+     * @param counts counts of added and replaced entries, which are increased by this merge
+     * @param report report every skipped duplicate is recorded in
      */
-    private int mergeEntries(List<BookEntry> loaded) {
-        int count = 0;
+    private void mergeEntries(List<BookEntry> loaded, DuplicateKey key, DuplicatePolicy policy,
+                              MergeCounts counts, LoadReport report) {
+        BookStore store = getValidatedBookStore();
+        updateDuplicateIndex(store, key, loaded.size());
+
         for (BookEntry entry : loaded) {
-            if (!books.contains(entry)) {
-                books.add(entry);
-                count++;
+            int hash = key.hashOf(entry);
+
+            // books ruled out by the filter are new for sure, so the index is not probed for them
+            int position = -1;
+            if (!duplicateFilter.mightContain(hash)) {
+                counts.filtered++;
+            } else {
+                position = duplicateIndex.find(store, key, hash, entry);
+                if (position < 0) {
+                    counts.falsePositives++;
+                }
+            }
+
+            if (position < 0 || policy == DuplicatePolicy.KEEP) {
+                if (position < 0) {
+                    duplicateIndex.add(hash, store.size());
+                    if (duplicateFilter.isFull()) {
+                        duplicateFilter.rebuild(store, key, 2 * duplicateFilter.getCapacity());
+                    }
+                    duplicateFilter.add(hash);
+                }
+                store.add(entry);
+                counts.added++;
+            } else if (policy == DuplicatePolicy.REPLACE) {
+                store.set(position, entry);
+                counts.replaced++;
             } else {
-                System.out.println("Duplicate entry found for book: " + entry);
+                report.record(LoadReport.Category.DUPLICATE, null,
+                        String.format("%s, ISBN %s", entry.getTitle(), entry.getISBN()));
             }
         }
 
-        return count;
+        indexedSize = store.size();
+    }
+
+    /**
+     * Make sure the duplicate index and filter match the loaded books and the given key,
+     * rebuilding them if necessary. A rebuilt filter is sized for the loaded books and the
+     * expected number of new ones.
+     *
+     * @param store store of the loaded books
+     * @param key duplicate key the index has to be built for
+     * @param expectedRows number of books about to be merged
+     */
+    private void updateDuplicateIndex(BookStore store, DuplicateKey key, int expectedRows) {
+        if (indexedBooks == books && indexedSize == store.size() && indexedKey == key) {
+            return;
+        }
+
+        duplicateIndex.clear();
+        duplicateIndex.addAll(store, key);
+        duplicateFilter.rebuild(store, key, (long) store.size() + expectedRows);
+
+        indexedBooks = books;
+        indexedSize = store.size();
+        indexedKey = key;
+    }
+
+    /**
+     * Replayer applying journal records to the available book entries without recording them again.
+     */
+    private class JournalReplayer implements Journal.Replayer {
+
+        /** Number of replayed records. */
+        private int records;
+
+        @Override
+        public void add(BookEntry book) {
+            getUnjournaledBookStore().add(book);
+            records++;
+        }
+
+        @Override
+        public void set(int index, BookEntry book) {
+            getUnjournaledBookStore().set(index, book);
+            records++;
+        }
+
+        @Override
+        public void remove(int[] indices) {
+            getUnjournaledBookStore().removeIf(index -> Arrays.binarySearch(indices, index) >= 0);
+            records++;
+        }
+
+        @Override
+        public void clear() {
+            getUnjournaledBookStore().clear();
+            records++;
+        }
+
+        @Override
+        public void addLines(byte[] content) {
+            LibraryData.this.addLines(content);
+            records++;
+        }
+
+        @Override
+        public void validate() {
+            getUnjournaledBookStore().validate();
+            records++;
+        }
+    }
+
+    /**
+     * Numbers of book entries added and replaced while loading book data.
+     */
+    private static class MergeCounts {
+
+        /** Number of book entries added to the library. */
+        private int added;
+
+        /** Number of book entries replaced in the library. */
+        private int replaced;
+
+        /** Number of book entries whose duplicate check was skipped because the Bloom filter ruled them out. */
+        private long filtered;
+
+        /** Number of book entries the Bloom filter did not rule out, but which had no duplicate. */
+        private long falsePositives;
     }
 }
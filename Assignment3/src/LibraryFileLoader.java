@@ -1,5 +1,5 @@
+import java.io.BufferedReader;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -10,23 +10,30 @@ import java.util.Objects;
  * Class responsible for loading
  * book data from file.
  */
-public class LibraryFileLoader {
+public class LibraryFileLoader implements AutoCloseable {
 
     /**
      * Separator between the data values on a single line of a book data file.
      */
-    private static final String DATA_VALUES_SEPARATOR = ",";
+    private static final char DATA_VALUES_SEPARATOR = ',';
 
     /**
      * Separator between the authors of a title in a book data file.
      */
-    private static final String AUTHOR_SEPARATOR = "-";
+    private static final char AUTHOR_SEPARATOR = '-';
 
     /**
      * Number of data values that are supposed to be present in a single line of a book data file.
      */
     private static final int DATA_VALUES_NUMBER = 5;
 
+    /** Indices of the data values on a single line of a book data file. */
+    private static final int TITLE_INDEX = 0;
+    private static final int AUTHORS_INDEX = 1;
+    private static final int RATING_INDEX = 2;
+    private static final int ISBN_INDEX = 3;
+    private static final int PAGES_INDEX = 4;
+
     /**
      * Contains all lines read from a book data file using
      * the loadFileContent method.
@@ -39,14 +46,68 @@ public class LibraryFileLoader {
      */
     private List<String> fileContent;
 
+    /**
+     * Reader over a book data file opened with the openFileStream method.
+     *
+     * This field is null if no stream is currently open or if the
+     * end of the opened file has been reached.
+     */
+    private BufferedReader fileStream;
+
+    /** Tokenizer reused for every line parsed by this loader. */
+    private final CsvTokenizer tokenizer;
+
+    /** Parser reused for the numeric data values of every line parsed by this loader. */
+    private final NumericFieldParser numberParser;
+
+    /** Reason why the line parsed last could not be loaded, or null if it was loaded successfully. */
+    private String lineError;
+
+    /** Category of the reason why the line parsed last could not be loaded, or null if it was loaded successfully. */
+    private LoadReport.Category lineErrorCategory;
+
+    /** Name of the file being loaded, used to report where lines could not be loaded. */
+    private String sourceName;
+
+    /** Number of lines read from the file opened with openFileStream, including the column header. */
+    private long streamLineNumber;
+
+    /** Number of lines skipped so far because they could not be loaded. */
+    private int skippedLines;
+
+    /** Whether reading the file opened with openFileStream failed before its end was reached. */
+    private boolean readFailed;
+
+    /** Dictionary the author names of parsed books are interned into, or null if names are not shared. */
+    private final AuthorDictionary authorDictionary;
+
     /** Create a new loader. No file content has been loaded yet. */
     public LibraryFileLoader() { 
+        this(null);
+    }
+
+    /**
+     * Create a new loader which shares the author names of all parsed books through the given
+     * dictionary, so every distinct name exists only once. No file content has been loaded yet.
+     * @param authorDictionary dictionary to intern author names into, null if names should not be shared
+     */
+    public LibraryFileLoader(AuthorDictionary authorDictionary) {
         fileContent = null;
+        fileStream = null;
+        tokenizer = new CsvTokenizer(DATA_VALUES_SEPARATOR);
+        numberParser = new NumericFieldParser();
+        lineError = null;
+        lineErrorCategory = null;
+        sourceName = null;
+        skippedLines = 0;
+        readFailed = false;
+        this.authorDictionary = authorDictionary;
     }
 
     /**
      * Load all lines from the specified book data file and
      * save them for later parsing with the parseFileContent method.
+     * Compressed book data files are inflated while they are read.
      * 
      * This method has to be called before the parseFileContent method
      * can be executed successfully.
@@ -59,8 +120,14 @@ public class LibraryFileLoader {
         Objects.requireNonNull(fileName, "Given filename must not be null.");
         boolean success = false;
 
-        try {
-            fileContent = Files.readAllLines(fileName);
+        try (BufferedReader reader = BookDataFiles.newBufferedReader(fileName)) {
+            List<String> lines = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+            fileContent = lines;
+            sourceName = fileName.toString();
             success = true;
         } catch (IOException | SecurityException e) {
             System.err.println("ERROR: Reading file content failed: " + e);
@@ -79,11 +146,28 @@ public class LibraryFileLoader {
 
     /**
      * Parse file content loaded previously with the loadFileContent method.
+     * Lines which cannot be loaded are reported in a single summary afterwards.
      * 
      * @return books parsed from the previously loaded book data or an empty list
      * if no book data has been loaded yet.
      */
     public List<BookEntry> parseFileContent() {
+        LoadReport report = new LoadReport();
+        List<BookEntry> bookEntries = parseFileContent(report);
+        report.print();
+        return bookEntries;
+    }
+
+    /**
+     * Parse file content loaded previously with the loadFileContent method.
+     * 
+     * @param report report every line which cannot be loaded is recorded in
+     * @return books parsed from the previously loaded book data or an empty list
+     * if no book data has been loaded yet.
+     * @throws NullPointerException if the given report is null
+     */
+    public List<BookEntry> parseFileContent(LoadReport report) {
+        Objects.requireNonNull(report, "Given report must not be null.");
         List<BookEntry> bookEntries = new ArrayList<>();
 
         if (contentLoaded()) {
@@ -91,13 +175,15 @@ public class LibraryFileLoader {
             lineIterator.next(); // ignores first line of the file, as it is just a column header, not the actual data
 
             // iterates through each entry of fileContent and adds the corresponding BookEntry to bookEntries
+            long lineNumber = 1;
             while (lineIterator.hasNext()) {
-                try {
-                    String line = lineIterator.next();
-                    BookEntry book = createBookFromFile(line);
+                String line = lineIterator.next();
+                lineNumber++;
+                BookEntry book = createBookFromFile(line);
+                if (book != null) {
                     bookEntries.add(book);
-                } catch (NullPointerException | IllegalArgumentException e) {
-                    System.err.println("ERROR: a book wasn't loaded: " + e.getMessage());
+                } else {
+                    recordLineError(report, lineNumber);
                 }
             }
         } else {
@@ -107,29 +193,331 @@ public class LibraryFileLoader {
         return bookEntries;
     }
 
+    /**
+     * Open the specified book data file for parsing in chunks with the
+     * parseNextChunk method. Unlike loadFileContent, the file content is not
+     * read into memory at once, so peak memory only depends on the chunk size.
+     * Compressed book data files are inflated chunk by chunk while they are parsed.
+     *
+     * @param fileName file path with book data
+     * @return true if the file could be opened successfully, false otherwise
+     * @throws NullPointerException if the given file name is null
+     */
+    public boolean openFileStream(Path fileName) {
+        Objects.requireNonNull(fileName, "Given filename must not be null.");
+        close();
+        readFailed = false;
+        boolean success = false;
+
+        try {
+            fileStream = BookDataFiles.newBufferedReader(fileName);
+            fileStream.readLine(); // ignores first line of the file, as it is just a column header, not the actual data
+            sourceName = fileName.toString();
+            streamLineNumber = 1;
+            success = true;
+        } catch (IOException | SecurityException e) {
+            System.err.println("ERROR: Reading file content failed: " + e);
+            close();
+        }
+
+        return success;
+    }
+
+    /**
+     * Are there lines left to be parsed in the file opened with openFileStream?
+     * @return true if the opened file has not been fully parsed yet.
+     */
+    public boolean hasMoreContent() {
+        return fileStream != null;
+    }
+
+    /**
+     * Read and parse the next lines of the file opened previously with the openFileStream method.
+     * The stream is closed automatically once the end of the file has been reached.
+     * Lines of the chunk which cannot be loaded are reported in a single summary afterwards.
+     *
+     * @param chunkSize maximal number of lines to be read
+     * @return books parsed from the next chunk of lines or an empty list if
+     * no file is open or no valid book was found in the chunk.
+     * @throws IllegalArgumentException if the given chunk size is not positive
+     */
+    public List<BookEntry> parseNextChunk(int chunkSize) {
+        LoadReport report = new LoadReport();
+        List<BookEntry> bookEntries = parseNextChunk(chunkSize, report);
+        report.print();
+        return bookEntries;
+    }
+
+    /**
+     * Read and parse the next lines of the file opened previously with the openFileStream method.
+     * The stream is closed automatically once the end of the file has been reached.
+     *
+     * @param chunkSize maximal number of lines to be read
+     * @param report report every line which cannot be loaded is recorded in
+     * @return books parsed from the next chunk of lines or an empty list if
+     * no file is open or no valid book was found in the chunk.
+     * @throws IllegalArgumentException if the given chunk size is not positive
+     * @throws NullPointerException if the given report is null
+     */
+    public List<BookEntry> parseNextChunk(int chunkSize, LoadReport report) {
+        Objects.requireNonNull(report, "Given report must not be null.");
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Given chunk size must be positive: " + chunkSize);
+        }
+
+        List<BookEntry> bookEntries = new ArrayList<>();
+
+        if (!hasMoreContent()) {
+            System.err.println("ERROR: No file opened before parsing.");
+            return bookEntries;
+        }
+
+        try {
+            int linesRead = 0;
+            String line = null;
+            while (linesRead < chunkSize && (line = fileStream.readLine()) != null) {
+                linesRead++;
+                streamLineNumber++;
+                BookEntry book = createBookFromFile(line);
+                if (book != null) {
+                    bookEntries.add(book);
+                } else {
+                    recordLineError(report, streamLineNumber);
+                }
+            }
+
+            if (line == null) {
+                close();
+            }
+        } catch (IOException e) {
+            System.err.println("ERROR: Reading file content failed: " + e);
+            readFailed = true;
+            close();
+        }
+
+        return bookEntries;
+    }
+
+    /** Close the file opened with openFileStream, if any. */
+    @Override
+    public void close() {
+        if (fileStream != null) {
+            try {
+                fileStream.close();
+            } catch (IOException e) {
+                System.err.println("ERROR: Closing file failed: " + e);
+            }
+            fileStream = null;
+        }
+    }
+
+    /**
+     * Did reading the file opened last with openFileStream fail before its end was reached?
+     * The lines read before the failure have been parsed, but the rest of the file is missing.
+     *
+     * @return true if the opened file could not be read completely
+     */
+    public boolean hasReadFailed() {
+        return readFailed;
+    }
+
+    /**
+     * Get the number of lines skipped so far because they could not be loaded.
+     *
+     * @return number of skipped lines
+     */
+    public int getSkippedLines() {
+        return skippedLines;
+    }
+
+    /**
+     * Get the reason why the line parsed last could not be loaded.
+     *
+     * @return description of the problem or null if the line was loaded successfully
+     */
+    String getLineError() {
+        return lineError;
+    }
+
+    /**
+     * Get the category of the reason why the line parsed last could not be loaded.
+     *
+     * @return category of the problem or null if the line was loaded successfully
+     */
+    LoadReport.Category getLineErrorCategory() {
+        return lineErrorCategory;
+    }
+
+    /**
+     * Describe why the line parsed last could not be loaded.
+     *
+     * @param lineNumber number of the line, counted as the caller counts lines
+     * @return error of the line
+     * @throws IllegalStateException if the line parsed last was loaded successfully
+     */
+    LineError createLineError(long lineNumber) {
+        if (lineErrorCategory == null) {
+            throw new IllegalStateException("The line parsed last was loaded successfully.");
+        }
+        return new LineError(lineErrorCategory, lineNumber, lineError);
+    }
+
+    /**
+     * Record in the given report that the line parsed last could not be loaded.
+     *
+     * @param report report of the load
+     * @param lineNumber line number of the line in the file being loaded, the column header being line 1
+     */
+    private void recordLineError(LoadReport report, long lineNumber) {
+        report.record(lineErrorCategory, String.format("%s, line %d", sourceName, lineNumber), lineError);
+    }
+
     /**
      * Create a BookEntry from a line of the file being loaded.
      *
      * @param line Line in the file used to create the BookEntry.
-     * @return BookEntry created from given line.
+     * @return BookEntry created from given line or null if the line is not formatted as expected,
+     * in which case the reason is available from getLineError.
+     * @throws NullPointerException if given line is null.
+     */
+    BookEntry createBookFromFile(String line) {
+        Objects.requireNonNull(line, "Given line must not be null");
+
+        tokenizer.tokenize(line);
+        return createBookFromTokens();
+    }
+
+    /**
+     * Create a BookEntry from the characters of a line of the file being loaded.
+     *
+     * @param line Characters of the line in the file used to create the BookEntry.
+     * @param length Number of characters of the line.
+     * @return BookEntry created from given line or null if the line is not formatted as expected,
+     * in which case the reason is available from getLineError.
      * @throws NullPointerException if given line is null.
-     * @throws IllegalArgumentException If the book entry line is not formatted as expected
      */
-    private BookEntry createBookFromFile(String line) {
+    BookEntry createBookFromFile(char[] line, int length) {
         Objects.requireNonNull(line, "Given line must not be null");
 
-        String[] lineContent = line.split(DATA_VALUES_SEPARATOR);
+        tokenizer.tokenize(line, length);
+        return createBookFromTokens();
+    }
+
+    /**
+     * Create a BookEntry from the fields of the line tokenized last.
+     *
+     * @return BookEntry created from the tokenized line or null if it is not formatted as expected.
+     */
+    private BookEntry createBookFromTokens() {
+        if (tokenizer.getFieldCount() != DATA_VALUES_NUMBER) {
+            return skipLine(LoadReport.Category.COLUMN_COUNT,
+                    String.format("Given book entry line not correctly formed: %s", tokenizer.getLine()));
+        }
+
+        char[] buffer = tokenizer.getBuffer();
+        NumericFieldParser.Status ratingStatus = numberParser.parseFloat(buffer,
+                tokenizer.getFieldStart(RATING_INDEX), tokenizer.getFieldEnd(RATING_INDEX));
+        if (ratingStatus != NumericFieldParser.Status.OK) {
+            return skipLine(LoadReport.Category.RATING,
+                    String.format("Given rating is not a valid number (%s): %s", ratingStatus, tokenizer.getField(RATING_INDEX)));
+        }
+        float rating = numberParser.getFloatValue();
+
+        NumericFieldParser.Status pagesStatus = numberParser.parseInt(buffer,
+                tokenizer.getFieldStart(PAGES_INDEX), tokenizer.getFieldEnd(PAGES_INDEX));
+        if (pagesStatus != NumericFieldParser.Status.OK) {
+            return skipLine(LoadReport.Category.PAGES,
+                    String.format("Given number of pages is not a valid integer (%s): %s", pagesStatus,
+                            tokenizer.getField(PAGES_INDEX)));
+        }
+        int pages = numberParser.getIntValue();
+
+        String title = tokenizer.getField(TITLE_INDEX);
+        String[] authors = splitAuthors();
+        String ISBN = tokenizer.getField(ISBN_INDEX);
 
-        if (lineContent.length != DATA_VALUES_NUMBER) {
-            throw new IllegalArgumentException(String.format("Given book entry line not correctly formed: %s", line));
+        try {
+            BookEntry book = new BookEntry(title, authors, rating, ISBN, pages);
+            lineError = null;
+            lineErrorCategory = null;
+            return book;
+        } catch (NullPointerException | IllegalArgumentException e) {
+            // the constructor checks the rating before the number of pages
+            return skipLine(BookEntry.isValidRating(rating) ? LoadReport.Category.PAGES : LoadReport.Category.RATING,
+                    e.getMessage());
         }
+    }
 
-        String title = lineContent[0];
-        String[] authors = lineContent[1].split(AUTHOR_SEPARATOR);
-        float rating = Float.parseFloat(lineContent[2]);
-        String ISBN = lineContent[3];
-        int pages = Integer.parseInt(lineContent[4]);
+    /**
+     * Record that the line parsed last is skipped.
+     *
+     * @param category category of why the line cannot be loaded
+     * @param reason description of why the line cannot be loaded
+     * @return null, as no book is created for the line
+     */
+    private BookEntry skipLine(LoadReport.Category category, String reason) {
+        lineError = reason;
+        lineErrorCategory = category;
+        skippedLines++;
+        return null;
+    }
 
-        return new BookEntry(title, authors, rating, ISBN, pages);
+    /**
+     * Split the authors field of the line tokenized last into the individual authors.
+     * Like String.split, trailing empty authors are discarded unless the field is empty.
+     *
+     * @return authors of the tokenized line.
+     */
+    private String[] splitAuthors() {
+        char[] buffer = tokenizer.getBuffer();
+        int start = tokenizer.getFieldStart(AUTHORS_INDEX);
+        int end = tokenizer.getFieldEnd(AUTHORS_INDEX);
+
+        // discards trailing separators, which would only produce empty authors
+        int contentEnd = end;
+        while (contentEnd > start && buffer[contentEnd - 1] == AUTHOR_SEPARATOR) {
+            contentEnd--;
+        }
+        if (start == end) {
+            return new String[] { "" };
+        }
+
+        int authorCount = contentEnd > start ? 1 : 0;
+        for (int i = start; i < contentEnd; i++) {
+            if (buffer[i] == AUTHOR_SEPARATOR) {
+                authorCount++;
+            }
+        }
+
+        String[] authors = new String[authorCount];
+        int authorStart = start;
+        for (int i = 0; i < authorCount; i++) {
+            int authorEnd = authorStart;
+            while (authorEnd < contentEnd && buffer[authorEnd] != AUTHOR_SEPARATOR) {
+                authorEnd++;
+            }
+            authors[i] = createAuthor(authorStart, authorEnd);
+            authorStart = authorEnd + 1;
+        }
+
+        return authors;
+    }
+
+    /**
+     * Create a single author from a part of the authors field of the line tokenized last.
+     * If an author dictionary is used, the shared name is returned instead of a new String.
+     *
+     * @param start start offset of the author in the tokenizer buffer
+     * @param end end offset of the author in the tokenizer buffer
+     * @return author name
+     */
+    private String createAuthor(int start, int end) {
+        if (authorDictionary == null) {
+            return tokenizer.getField(AUTHORS_INDEX, start, end);
+        }
+        if (tokenizer.isFieldEscaped(AUTHORS_INDEX)) {
+            return authorDictionary.intern(tokenizer.getField(AUTHORS_INDEX, start, end));
+        }
+        return authorDictionary.intern(tokenizer.getBuffer(), start, end);
     }
 }
@@ -0,0 +1,281 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Static utility for writing book data to and reading it from a compact binary snapshot file.
+ *
+ * A snapshot consists of a header (magic number, format version, number of books and number of
+ * distinct authors), a table of all distinct author names, the titles and ISBNs of all books, a
+ * column with all ratings, a column with all page numbers and the author ids of every book.
+ * Strings are stored as their UTF-8 length followed by their UTF-8 bytes. The snapshot ends with
+ * a CRC32 checksum of all preceding bytes, which is verified before any book is restored.
+ */
+public final class LibrarySnapshot {
+
+    /** Magic number at the start of every snapshot file, "LIBS" in ASCII. */
+    private static final int MAGIC = 0x4C494253;
+
+    /** Version of the snapshot format written by this class. */
+    private static final int FORMAT_VERSION = 1;
+
+    /** Size of the checksum at the end of a snapshot file, in bytes. */
+    private static final int CHECKSUM_SIZE = Long.BYTES;
+
+    /** Size of the buffer used when writing a snapshot file, in bytes. */
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    /** Initial size of the buffer used to decode strings when reading a snapshot file, in bytes. */
+    private static final int STRING_BUFFER_SIZE = 256;
+
+    /** Not to be used. */
+    private LibrarySnapshot() {
+        throw new UnsupportedOperationException("This constructor should never be used.");
+    }
+
+    /**
+     * Write the given books to a snapshot file. The snapshot is written to a temporary file
+     * first, so an existing snapshot is only replaced once the new one is complete.
+     *
+     * @param books books to be written, null entries are skipped
+     * @param snapshotFile path of the snapshot file
+     * @return number of books written
+     * @throws IOException if writing the snapshot fails
+     * @throws NullPointerException if one of the given parameters is null
+     */
+    public static int write(List<BookEntry> books, Path snapshotFile) throws IOException {
+        Objects.requireNonNull(books, ExceptionMessage.NULL_BOOKS.getExceptionMessage());
+        Objects.requireNonNull(snapshotFile, "Given snapshot file must not be null.");
+
+        List<BookEntry> savedBooks = new ArrayList<>(books.size());
+        List<String> authorTable = new ArrayList<>();
+        Map<String, Integer> authorIds = new HashMap<>();
+        for (BookEntry book : books) {
+            if (book == null) {
+                continue;
+            }
+            savedBooks.add(book);
+            for (String author : book.getAuthors()) {
+                if (authorIds.putIfAbsent(author, authorTable.size()) == null) {
+                    authorTable.add(author);
+                }
+            }
+        }
+
+        Path tempFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        CRC32 checksum = new CRC32();
+        try (OutputStream fileOut = Files.newOutputStream(tempFile);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                     new CheckedOutputStream(fileOut, checksum), WRITE_BUFFER_SIZE))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(savedBooks.size());
+            out.writeInt(authorTable.size());
+
+            for (String author : authorTable) {
+                writeString(out, author);
+            }
+            for (BookEntry book : savedBooks) {
+                writeString(out, book.getTitle());
+            }
+            for (BookEntry book : savedBooks) {
+                writeString(out, book.getISBN());
+            }
+            for (BookEntry book : savedBooks) {
+                out.writeFloat(book.getRating());
+            }
+            for (BookEntry book : savedBooks) {
+                out.writeInt(book.getPages());
+            }
+            for (BookEntry book : savedBooks) {
+                String[] authors = book.getAuthors();
+                out.writeInt(authors.length);
+                for (String author : authors) {
+                    out.writeInt(authorIds.get(author));
+                }
+            }
+
+            // the checksum only covers the bytes flushed before it is written
+            out.flush();
+            out.writeLong(checksum.getValue());
+        } catch (IOException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+
+        Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING);
+        return savedBooks.size();
+    }
+
+    /**
+     * Read all books from a snapshot file. The file is memory-mapped and its checksum
+     * is verified before any book is created.
+     *
+     * @param snapshotFile path of the snapshot file
+     * @return books contained in the snapshot in saved order
+     * @throws IOException if reading the snapshot fails or the snapshot is corrupted
+     * @throws NullPointerException if the given path is null
+     */
+    public static List<BookEntry> read(Path snapshotFile) throws IOException {
+        return read(snapshotFile, new AuthorDictionary());
+    }
+
+    /**
+     * Read all books from a snapshot file, sharing their author names through the given dictionary.
+     * The file is memory-mapped and its checksum is verified before any book is created.
+     *
+     * @param snapshotFile path of the snapshot file
+     * @param authorDictionary dictionary to intern author names into
+     * @return books contained in the snapshot in saved order
+     * @throws IOException if reading the snapshot fails or the snapshot is corrupted
+     * @throws NullPointerException if one of the given parameters is null
+     */
+    public static List<BookEntry> read(Path snapshotFile, AuthorDictionary authorDictionary) throws IOException {
+        Objects.requireNonNull(snapshotFile, "Given snapshot file must not be null.");
+        Objects.requireNonNull(authorDictionary, "Given author dictionary must not be null.");
+
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < CHECKSUM_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot file has invalid size: " + size);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        int dataSize = buffer.limit() - CHECKSUM_SIZE;
+        CRC32 checksum = new CRC32();
+        checksum.update(buffer.duplicate().position(0).limit(dataSize).slice());
+        if (checksum.getValue() != buffer.getLong(dataSize)) {
+            throw new IOException("Snapshot file is corrupted: checksum mismatch.");
+        }
+        buffer.limit(dataSize);
+
+        try {
+            return readBooks(buffer, authorDictionary);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException
+                 | NullPointerException e) {
+            throw new IOException("Snapshot file is corrupted: " + e, e);
+        }
+    }
+
+    /**
+     * Read the books from the verified content of a snapshot file.
+     *
+     * @param buffer snapshot content without checksum
+     * @param authorDictionary dictionary to intern author names into
+     * @return books contained in the snapshot
+     * @throws IOException if the snapshot has an unsupported format
+     */
+    private static List<BookEntry> readBooks(ByteBuffer buffer, AuthorDictionary authorDictionary)
+            throws IOException {
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("File is not a library snapshot.");
+        }
+        int version = buffer.getInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Snapshot format version not supported: " + version);
+        }
+
+        int bookCount = readCount(buffer);
+        int authorCount = readCount(buffer);
+
+        String[] authorTable = readStrings(buffer, authorCount);
+        for (int i = 0; i < authorCount; i++) {
+            authorTable[i] = authorDictionary.intern(authorTable[i]);
+        }
+        String[] titles = readStrings(buffer, bookCount);
+        String[] isbns = readStrings(buffer, bookCount);
+
+        float[] ratings = new float[bookCount];
+        buffer.asFloatBuffer().get(ratings);
+        buffer.position(buffer.position() + bookCount * Float.BYTES);
+        int[] pages = new int[bookCount];
+        buffer.asIntBuffer().get(pages);
+        buffer.position(buffer.position() + bookCount * Integer.BYTES);
+
+        List<BookEntry> books = new ArrayList<>(bookCount);
+        for (int i = 0; i < bookCount; i++) {
+            String[] authors = new String[readCount(buffer)];
+            for (int j = 0; j < authors.length; j++) {
+                authors[j] = authorTable[buffer.getInt()];
+            }
+            books.add(new BookEntry(titles[i], authors, ratings[i], isbns[i], pages[i]));
+        }
+
+        if (buffer.hasRemaining()) {
+            throw new IOException("Snapshot file is corrupted: unexpected trailing data.");
+        }
+
+        return books;
+    }
+
+    /**
+     * Write a string as its UTF-8 length followed by its UTF-8 bytes.
+     *
+     * @param out stream to write to
+     * @param value string to be written
+     * @throws IOException if writing fails
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Read consecutive strings written by writeString.
+     *
+     * @param buffer buffer to read from
+     * @param count number of strings to be read
+     * @return strings read
+     * @throws IOException if a string length is invalid
+     */
+    private static String[] readStrings(ByteBuffer buffer, int count) throws IOException {
+        String[] strings = new String[count];
+        byte[] bytes = new byte[STRING_BUFFER_SIZE];
+
+        for (int i = 0; i < count; i++) {
+            int length = readCount(buffer);
+            if (bytes.length < length) {
+                bytes = new byte[Math.max(length, 2 * bytes.length)];
+            }
+            buffer.get(bytes, 0, length);
+            strings[i] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+
+        return strings;
+    }
+
+    /**
+     * Read a non-negative count which is at most the number of remaining bytes.
+     *
+     * @param buffer buffer to read from
+     * @return count read
+     * @throws IOException if the count is invalid
+     */
+    private static int readCount(ByteBuffer buffer) throws IOException {
+        int count = buffer.getInt();
+        if (count < 0 || count > buffer.remaining()) {
+            throw new IOException("Snapshot file is corrupted: invalid count " + count);
+        }
+        return count;
+    }
+}
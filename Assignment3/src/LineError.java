@@ -0,0 +1,69 @@
+import java.util.Objects;
+
+/**
+ * Line of book data which could not be loaded, kept by loaders which parse lines on other
+ * threads until it can be recorded in the report of the load in file order.
+ */
+public class LineError {
+
+    /** Category of the reason why the line could not be loaded. */
+    private final LoadReport.Category category;
+
+    /** Number of the line, counted as defined by whoever created the error. */
+    private final long lineNumber;
+
+    /** Description of the reason why the line could not be loaded. */
+    private final String message;
+
+    /**
+     * Create an error of a line which could not be loaded.
+     *
+     * @param category category of the reason why the line could not be loaded
+     * @param lineNumber number of the line
+     * @param message description of the reason why the line could not be loaded
+     * @throws NullPointerException if the given category or message is null
+     */
+    public LineError(LoadReport.Category category, long lineNumber, String message) {
+        this.category = Objects.requireNonNull(category, "Given category must not be null.");
+        this.lineNumber = lineNumber;
+        this.message = Objects.requireNonNull(message, "Given message must not be null.");
+    }
+
+    /**
+     * Get the category of the reason why the line could not be loaded.
+     *
+     * @return category of the problem
+     */
+    public LoadReport.Category getCategory() {
+        return category;
+    }
+
+    /**
+     * Get the number of the line.
+     *
+     * @return line number
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Get the description of the reason why the line could not be loaded.
+     *
+     * @return description of the problem
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Record the error in the given report.
+     *
+     * @param report report of the load
+     * @param location where the line is, e.g. file and line number, null if unknown
+     * @throws NullPointerException if the given report is null
+     */
+    public void recordIn(LoadReport report, String location) {
+        report.record(category, location, message);
+    }
+}
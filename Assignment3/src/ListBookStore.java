@@ -0,0 +1,137 @@
+import java.util.List;
+import java.util.Objects;
+import java.util.function.IntPredicate;
+
+/**
+ * Book store keeping every book as a BookEntry object in a list.
+ */
+public class ListBookStore implements BookStore {
+
+    /** Stored books, which may contain null entries for positions without a book. */
+    private final List<BookEntry> books;
+
+    /** Dictionary assigning the ids of the authors of the stored books. */
+    private final AuthorDictionary authorDictionary;
+
+    /**
+     * Create a store backed by the given list. Changes to the store are
+     * written through to the list and vice versa.
+     *
+     * @param books list holding the books
+     * @throws NullPointerException if the given list is null
+     */
+    public ListBookStore(List<BookEntry> books) {
+        this(books, new AuthorDictionary());
+    }
+
+    /**
+     * Create a store backed by the given list, which assigns author ids using the given
+     * dictionary. Authors which are not in the dictionary yet are added on demand.
+     *
+     * @param books list holding the books
+     * @param authorDictionary dictionary assigning the author ids
+     * @throws NullPointerException if one of the given parameters is null
+     */
+    public ListBookStore(List<BookEntry> books, AuthorDictionary authorDictionary) {
+        this.books = Objects.requireNonNull(books, ExceptionMessage.NULL_BOOK_ENTRIES.getExceptionMessage());
+        this.authorDictionary = Objects.requireNonNull(authorDictionary, "Given author dictionary must not be null.");
+    }
+
+    @Override
+    public int size() {
+        return books.size();
+    }
+
+    @Override
+    public boolean hasBook(int index) {
+        return books.get(index) != null;
+    }
+
+    @Override
+    public BookEntry getBook(int index) {
+        return books.get(index);
+    }
+
+    @Override
+    public String getTitle(int index) {
+        return books.get(index).getTitle();
+    }
+
+    @Override
+    public int getAuthorCount(int index) {
+        return books.get(index).getAuthors().length;
+    }
+
+    @Override
+    public String getAuthor(int index, int authorIndex) {
+        return books.get(index).getAuthors()[authorIndex];
+    }
+
+    @Override
+    public int getAuthorId(int index, int authorIndex) {
+        return authorDictionary.add(getAuthor(index, authorIndex));
+    }
+
+    @Override
+    public AuthorDictionary getAuthorDictionary() {
+        return authorDictionary;
+    }
+
+    @Override
+    public boolean supportsParallelScan() {
+        return true;
+    }
+
+    @Override
+    public float getRating(int index) {
+        return books.get(index).getRating();
+    }
+
+    @Override
+    public String getISBN(int index) {
+        return books.get(index).getISBN();
+    }
+
+    @Override
+    public int getPages(int index) {
+        return books.get(index).getPages();
+    }
+
+    @Override
+    public void add(BookEntry book) {
+        books.add(Objects.requireNonNull(book, "Given book must not be null."));
+    }
+
+    @Override
+    public void set(int index, BookEntry book) {
+        books.set(index, Objects.requireNonNull(book, "Given book must not be null."));
+    }
+
+    @Override
+    public void remove(int index) {
+        books.remove(index);
+    }
+
+    @Override
+    public int removeIf(IntPredicate filter) {
+        Objects.requireNonNull(filter, "Given filter must not be null.");
+
+        // compacts the remaining books to the front in a single pass
+        int kept = 0;
+        int size = books.size();
+        for (int i = 0; i < size; i++) {
+            if (!filter.test(i)) {
+                books.set(kept, books.get(i));
+                kept++;
+            }
+        }
+        books.subList(kept, size).clear();
+
+        return size - kept;
+    }
+
+    @Override
+    public void clear() {
+        books.clear();
+    }
+}
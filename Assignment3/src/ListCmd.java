@@ -1,4 +1,3 @@
-import java.util.List;
 import java.util.Objects;
 
 public class ListCmd extends LibraryCommand {
@@ -66,12 +65,14 @@ public class ListCmd extends LibraryCommand {
     public void execute(LibraryData data) {
         Objects.requireNonNull(data, ExceptionMessage.NULL_DATA.getExceptionMessage());
 
-        List<BookEntry> bookEntries = data.getBookData();
+        // only the long output needs more than the titles, which requires all entries to be validated
+        BookStore bookEntries = commandArgument == ListCommandArgument.LONG
+                ? data.getValidatedBookStore() : data.getBookStore();
         Objects.requireNonNull(bookEntries, ExceptionMessage.NULL_BOOK_ENTRIES.getExceptionMessage());
 
         StringBuilder consoleOutput;
 
-        if (bookEntries.isEmpty()) {
+        if (bookEntries.size() == 0) {
             System.out.println("The library has no book entries.");
         } else {
             // appends to consoleOutput the information to print depending on how the user chose to list the books
@@ -99,24 +100,26 @@ public class ListCmd extends LibraryCommand {
     }
 
     /**
-     * Create a StringBuilder containing all the book titles in books.
+     * Create a StringBuilder containing all the book titles in books. Only the titles
+     * are read from the store, no book entries are created.
      *
-     * @param books List of books used to create the output.
+     * @param books Store of books used to create the output.
      * @return StringBuilder containing the short output.
      * @throws NullPointerException If books is null.
      */
-    private StringBuilder createShortOutput(List<BookEntry> books) {
+    private StringBuilder createShortOutput(BookStore books) {
         Objects.requireNonNull(books, ExceptionMessage.NULL_BOOKS.getExceptionMessage());
 
         StringBuilder output = new StringBuilder();
         output.append(String.format("%d books in library:\n", books.size()));
 
         // appends to consoleOutput the book title of all the books in libraryBooks
-        for (BookEntry book : books) {
-            if (book == null) {
+        for (int i = 0; i < books.size(); i++) {
+            if (!books.hasBook(i)) {
                 continue;
             }
-            output.append(book.getTitle()).append("\n");
+            books.appendTitle(i, output);
+            output.append("\n");
         }
 
         return output;
@@ -127,22 +130,22 @@ public class ListCmd extends LibraryCommand {
      * Create a StringBuilder containing all the information about all the
      * books in the format specified for BookEntries toString method.
      *
-     * @param books of books used to create the output.
+     * @param books Store of books used to create the output.
      * @return StringBuilder containing the long output.
      * @throws NullPointerException If books is null.
      */
-    private StringBuilder createLongOutput(List<BookEntry> books) {
+    private StringBuilder createLongOutput(BookStore books) {
         Objects.requireNonNull(books, ExceptionMessage.NULL_BOOKS.getExceptionMessage());
 
         StringBuilder output = new StringBuilder();
         output.append(String.format("%d books in library:\n", books.size()));
 
-        // appends to output all the information about all the books in books
-        for (BookEntry book : books) {
-            if (book == null) {
+        // appends to output all the information about all the books in books, creating one book entry at a time
+        for (int i = 0; i < books.size(); i++) {
+            if (!books.hasBook(i)) {
                 continue;
             }
-            output.append(book).append("\n\n");
+            output.append(books.getBook(i)).append("\n\n");
         }
 
         return output;
@@ -0,0 +1,24 @@
+/**
+ * All available ways of loading a book data file into the library.
+ */
+public enum LoadMode {
+    /** Read the whole file into memory first and parse it afterwards. */
+    FULL,
+    /** Read, parse and merge the file in bounded chunks of lines. */
+    STREAM,
+    /**
+     * Memory-map the file and parse newline-aligned segments of it on multiple cores.
+     * Compressed files are loaded like in STREAM mode.
+     */
+    PARALLEL,
+    /**
+     * Read, parse and merge the file in concurrent stages connected by bounded queues, so reading
+     * overlaps with parsing while memory stays bounded. Throughput of the stages is reported afterwards.
+     */
+    PIPELINE,
+    /**
+     * Keep the lines as raw bytes in LAZY storage and decode them only when a command needs their
+     * data values. Lines are validated at that moment, and duplicates are not checked.
+     */
+    LAZY
+}
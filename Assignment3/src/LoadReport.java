@@ -0,0 +1,251 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.StringJoiner;
+
+/**
+ * Report of the lines and books which were not loaded while loading book data, printed as a
+ * single summary once loading has finished instead of one console line per problem.
+ *
+ * Problems are counted per category, and only the first few of every category are kept as
+ * samples, so the report takes constant memory however dirty the loaded files are. A report
+ * created with a log file additionally writes every problem to that file through a buffer.
+ */
+public class LoadReport implements AutoCloseable {
+
+    /** All categories of problems while loading book data. */
+    public enum Category {
+        /** A line does not have the expected number of data values. */
+        COLUMN_COUNT("wrong column count"),
+        /** The rating of a line is not a number or out of range. */
+        RATING("bad rating"),
+        /** The number of pages of a line is not an integer or out of range. */
+        PAGES("bad pages"),
+        /** A loaded book is a duplicate of a book in the library and has been skipped. */
+        DUPLICATE("duplicate");
+
+        /** Description of the category used in the summary. */
+        private final String description;
+
+        Category(String description) {
+            this.description = description;
+        }
+
+        /**
+         * Get the description of the category used in the summary.
+         *
+         * @return description of the category
+         */
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    /** Maximal number of samples kept for every category. */
+    static final int MAX_SAMPLES = 3;
+
+    /** Number of recorded problems for every category. */
+    private final Map<Category, Long> counts;
+
+    /** First recorded problems of every category. */
+    private final Map<Category, List<String>> samples;
+
+    /** Path of the log file all problems are written to, null if there is none. */
+    private final Path logFile;
+
+    /** Writer of the log file, null if there is none or writing it has failed. */
+    private BufferedWriter logWriter;
+
+    /** Create an empty report which keeps only counts and samples. */
+    public LoadReport() {
+        counts = new EnumMap<>(Category.class);
+        samples = new EnumMap<>(Category.class);
+        logFile = null;
+        logWriter = null;
+    }
+
+    /**
+     * Create an empty report which additionally writes every problem to the given log file.
+     * An existing log file is overwritten.
+     *
+     * @param logFile path of the log file
+     * @throws IOException if the log file cannot be created
+     * @throws NullPointerException if the given path is null
+     */
+    public LoadReport(Path logFile) throws IOException {
+        Objects.requireNonNull(logFile, "Given file path must not be null.");
+
+        counts = new EnumMap<>(Category.class);
+        samples = new EnumMap<>(Category.class);
+        this.logFile = logFile;
+        logWriter = Files.newBufferedWriter(logFile, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Record a problem while loading book data.
+     *
+     * @param category category of the problem
+     * @param location where the problem occurred, e.g. file and line number, null if unknown
+     * @param message description of the problem
+     * @throws NullPointerException if the given category or message is null
+     */
+    public void record(Category category, String location, String message) {
+        Objects.requireNonNull(category, "Given category must not be null.");
+        Objects.requireNonNull(message, "Given message must not be null.");
+
+        String detail = location == null ? message : location + ": " + message;
+        counts.merge(category, 1L, Long::sum);
+        List<String> categorySamples = samples.computeIfAbsent(category, c -> new ArrayList<>());
+        if (categorySamples.size() < MAX_SAMPLES) {
+            categorySamples.add(detail);
+        }
+
+        if (logWriter != null) {
+            try {
+                logWriter.write(category.name());
+                logWriter.write('\t');
+                logWriter.write(detail);
+                logWriter.newLine();
+            } catch (IOException e) {
+                System.err.println("ERROR: Writing load log failed for file: " + logFile + ": " + e.getMessage());
+                closeLog();
+            }
+        }
+    }
+
+    /**
+     * Get the number of recorded problems of the given category.
+     *
+     * @param category category of the problems
+     * @return number of problems
+     */
+    public long getCount(Category category) {
+        return counts.getOrDefault(category, 0L);
+    }
+
+    /**
+     * Get the number of recorded lines which could not be loaded, that is of all problems but duplicates.
+     *
+     * @return number of rejected lines
+     */
+    public long getRejectedCount() {
+        long rejected = 0;
+        for (Map.Entry<Category, Long> count : counts.entrySet()) {
+            if (count.getKey() != Category.DUPLICATE) {
+                rejected += count.getValue();
+            }
+        }
+        return rejected;
+    }
+
+    /**
+     * Get the samples kept of the given category.
+     *
+     * @param category category of the problems
+     * @return first recorded problems of the category, at most MAX_SAMPLES
+     */
+    public List<String> getSamples(Category category) {
+        return Collections.unmodifiableList(samples.getOrDefault(category, Collections.emptyList()));
+    }
+
+    /**
+     * Get the path of the log file all problems are written to.
+     *
+     * @return path of the log file or null if there is none
+     */
+    public Path getLogFile() {
+        return logFile;
+    }
+
+    /**
+     * Print the summary of all recorded problems. Lines which could not be loaded are reported
+     * on the error stream, skipped duplicates on the output stream. Nothing is printed if no
+     * problem has been recorded.
+     */
+    public void print() {
+        long rejected = getRejectedCount();
+        if (rejected > 0) {
+            StringJoiner categories = new StringJoiner(", ");
+            for (Category category : Category.values()) {
+                if (category != Category.DUPLICATE && getCount(category) > 0) {
+                    categories.add(getCount(category) + " " + category.getDescription());
+                }
+            }
+            System.err.printf("ERROR: %d books weren't loaded (%s):\n", rejected, categories);
+            for (Category category : Category.values()) {
+                if (category != Category.DUPLICATE) {
+                    printSamples(category, "ERROR:   ", category.getDescription() + ": ", System.err);
+                }
+            }
+        }
+
+        long duplicates = getCount(Category.DUPLICATE);
+        if (duplicates > 0) {
+            System.out.printf("%d duplicate entries skipped:\n", duplicates);
+            printSamples(Category.DUPLICATE, "  ", "Duplicate entry found for book: ", System.out);
+        }
+
+        if (logFile != null && (rejected > 0 || duplicates > 0)) {
+            flushLog();
+            System.out.println("All details written to: " + logFile);
+        }
+    }
+
+    /** Close the log file, if any. */
+    @Override
+    public void close() {
+        closeLog();
+    }
+
+    /**
+     * Print the samples of the given category and the number of problems not sampled.
+     *
+     * @param category category of the problems
+     * @param indent indentation of every printed line
+     * @param prefix prefix of every printed sample after the indentation
+     * @param out stream the samples are printed to
+     */
+    private void printSamples(Category category, String indent, String prefix, PrintStream out) {
+        List<String> categorySamples = getSamples(category);
+        for (String sample : categorySamples) {
+            out.println(indent + prefix + sample);
+        }
+        long omitted = getCount(category) - categorySamples.size();
+        if (omitted > 0) {
+            out.printf("%s... and %d more\n", indent, omitted);
+        }
+    }
+
+    /** Flush the buffered problems to the log file, if any. */
+    private void flushLog() {
+        if (logWriter != null) {
+            try {
+                logWriter.flush();
+            } catch (IOException e) {
+                System.err.println("ERROR: Writing load log failed for file: " + logFile + ": " + e.getMessage());
+                closeLog();
+            }
+        }
+    }
+
+    /** Close the log file and stop writing to it. */
+    private void closeLog() {
+        if (logWriter != null) {
+            try {
+                logWriter.close();
+            } catch (IOException e) {
+                System.err.println("ERROR: Closing load log failed for file: " + logFile + ": " + e.getMessage());
+            }
+            logWriter = null;
+        }
+    }
+}
@@ -0,0 +1,265 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.IntPredicate;
+
+/**
+ * Book store persisting the books in an LsmEngine, so every change is written to a local
+ * catalog directory as it happens instead of in periodic snapshots.
+ *
+ * Every book is stored under a key assigned when it is added. Keys grow with every added book,
+ * so the order of the keys is the order of the positions, and only the keys of the stored books
+ * are kept on the heap. Replacing a book stores the new book under the same key, removing a book
+ * writes a tombstone.
+ *
+ * Reading consecutive positions, as LIST and SEARCH do, moves a cursor merging memtable and runs
+ * forward; any other position is looked up by its key. The book read last is kept, so reading
+ * several data values of a book decodes it once.
+ */
+public class LsmBookStore implements BookStore, AutoCloseable {
+
+    /** Initial number of books the key array has room for. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** Engine the books are stored in. */
+    private final LsmEngine engine;
+
+    /** Dictionary of the author ids of the stored books. */
+    private final AuthorDictionary authorDictionary;
+
+    /** Key of the book at every position. */
+    private long[] keys;
+
+    /** Number of stored books. */
+    private int size;
+
+    /** Cursor positioned on the book at cursorIndex, null if there is none. */
+    private LsmEngine.Cursor cursor;
+
+    /** Position of the book the cursor is positioned on. */
+    private int cursorIndex;
+
+    /** Position of the book read last, -1 if there is none. */
+    private int cachedIndex;
+
+    /** Book read last. */
+    private BookEntry cachedBook;
+
+    /**
+     * Create a store over the books of the given engine.
+     *
+     * @param engine engine the books are stored in
+     * @param authorDictionary dictionary assigning the author ids
+     * @throws NullPointerException if one of the given parameters is null
+     */
+    public LsmBookStore(LsmEngine engine, AuthorDictionary authorDictionary) {
+        this.engine = Objects.requireNonNull(engine, "Given engine must not be null.");
+        this.authorDictionary = Objects.requireNonNull(authorDictionary, "Given author dictionary must not be null.");
+
+        keys = new long[INITIAL_CAPACITY];
+        for (LsmEngine.Cursor all = engine.cursor(Long.MIN_VALUE); all.hasEntry(); all.next()) {
+            ensureCapacity(size + 1);
+            keys[size++] = all.getKey();
+        }
+        invalidate();
+    }
+
+    /**
+     * Get the engine the books are stored in.
+     *
+     * @return engine of the store
+     */
+    public LsmEngine getEngine() {
+        return engine;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean hasBook(int index) {
+        Objects.checkIndex(index, size);
+        return true;
+    }
+
+    @Override
+    public BookEntry getBook(int index) {
+        Objects.checkIndex(index, size);
+        if (index == cachedIndex) {
+            return cachedBook;
+        }
+
+        BookEntry book;
+        if (cursor != null && index == cursorIndex + 1) {
+            cursor.next();
+            cursorIndex++;
+            book = cursor.getBook();
+        } else if (index == 0) {
+            // a scan over all books starts with the first one
+            cursor = engine.cursor(keys[0]);
+            cursorIndex = 0;
+            book = cursor.getBook();
+        } else {
+            cursor = null;
+            book = engine.get(keys[index]);
+        }
+
+        if (book == null) {
+            throw new IllegalStateException("Book missing in catalog at position " + index);
+        }
+        cachedIndex = index;
+        cachedBook = book;
+        return book;
+    }
+
+    @Override
+    public String getTitle(int index) {
+        return getBook(index).getTitle();
+    }
+
+    @Override
+    public int getAuthorCount(int index) {
+        return getBook(index).getAuthors().length;
+    }
+
+    @Override
+    public String getAuthor(int index, int authorIndex) {
+        String[] authors = getBook(index).getAuthors();
+        Objects.checkIndex(authorIndex, authors.length);
+        return authors[authorIndex];
+    }
+
+    @Override
+    public int getAuthorId(int index, int authorIndex) {
+        return authorDictionary.add(getAuthor(index, authorIndex));
+    }
+
+    @Override
+    public AuthorDictionary getAuthorDictionary() {
+        return authorDictionary;
+    }
+
+    @Override
+    public float getRating(int index) {
+        return getBook(index).getRating();
+    }
+
+    @Override
+    public String getISBN(int index) {
+        return getBook(index).getISBN();
+    }
+
+    @Override
+    public int getPages(int index) {
+        return getBook(index).getPages();
+    }
+
+    @Override
+    public void add(BookEntry book) {
+        Objects.requireNonNull(book, "Given book must not be null.");
+
+        try {
+            long key = engine.add(book);
+            ensureCapacity(size + 1);
+            keys[size++] = key;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        invalidate();
+    }
+
+    @Override
+    public void set(int index, BookEntry book) {
+        Objects.checkIndex(index, size);
+        Objects.requireNonNull(book, "Given book must not be null.");
+
+        try {
+            engine.put(keys[index], book);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        invalidate();
+    }
+
+    @Override
+    public void remove(int index) {
+        Objects.checkIndex(index, size);
+        removeIf(i -> i == index);
+    }
+
+    @Override
+    public int removeIf(IntPredicate filter) {
+        Objects.requireNonNull(filter, "Given filter must not be null.");
+
+        // the filter is evaluated for all positions before the first tombstone is written
+        boolean[] removed = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            removed[i] = filter.test(i);
+        }
+
+        int kept = 0;
+        try {
+            for (int i = 0; i < size; i++) {
+                if (removed[i]) {
+                    engine.delete(keys[i]);
+                } else {
+                    keys[kept++] = keys[i];
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        int removedCount = size - kept;
+        size = kept;
+        invalidate();
+        return removedCount;
+    }
+
+    @Override
+    public void clear() {
+        try {
+            engine.clear();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        keys = new long[INITIAL_CAPACITY];
+        size = 0;
+        invalidate();
+    }
+
+    /**
+     * Close the engine the books are stored in.
+     *
+     * @throws UncheckedIOException if the engine cannot be closed
+     */
+    @Override
+    public void close() {
+        try {
+            engine.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Forget the cursor and the book read last, which may be outdated after a change. */
+    private void invalidate() {
+        cursor = null;
+        cachedIndex = -1;
+        cachedBook = null;
+    }
+
+    /**
+     * Make sure the key array has room for the given number of books.
+     *
+     * @param capacity required number of books
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity > keys.length) {
+            keys = Arrays.copyOf(keys, Math.max(capacity, 2 * keys.length));
+        }
+    }
+}
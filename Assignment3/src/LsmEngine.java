@@ -0,0 +1,1241 @@
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Log-structured merge engine persisting book entries by key in a local directory.
+ *
+ * Changes are collected in a sorted in-memory memtable and recorded in a write-ahead log, which is
+ * committed to disk at most once per commit interval by a background thread. A full memtable is
+ * written to an immutable SortedRun on level 0. A background thread compacts the runs level by
+ * level: as soon as level 0 holds too many runs, they are merged with the overlapping runs of
+ * level 1, and as soon as a deeper level holds too many entries, one of its runs is merged into
+ * the next level. Runs of level 1 and deeper do not overlap. Removed entries are kept as
+ * tombstones until they are merged into the deepest level.
+ *
+ * Lookups go from the newest data to the oldest: memtable, level 0 runs from newest to oldest and
+ * then the deeper levels, skipping runs whose Bloom filter rules the key out. Cursors merge all
+ * sources in key order. The runs of every level are listed in the MANIFEST file of the directory,
+ * which is replaced atomically whenever runs are added or removed.
+ */
+public class LsmEngine implements AutoCloseable {
+
+    /** Magic number at the start of the write-ahead log, "LIBW" in ASCII. */
+    private static final int LOG_MAGIC = 0x4C494257;
+
+    /** Magic number at the start of the manifest, "LIBM" in ASCII. */
+    private static final int MANIFEST_MAGIC = 0x4C49424D;
+
+    /** Version of the log and manifest formats written by this class. */
+    private static final int FORMAT_VERSION = 1;
+
+    /** Size of the write-ahead log header, in bytes. */
+    private static final int LOG_HEADER_SIZE = 2 * Integer.BYTES;
+
+    /** Name of the manifest file. */
+    private static final String MANIFEST_FILE = "MANIFEST";
+
+    /** Name of the write-ahead log file. */
+    private static final String LOG_FILE = "wal.log";
+
+    /** Prefix of the names of run files. */
+    private static final String RUN_FILE_PREFIX = "run-";
+
+    /** Suffix of the names of run files. */
+    private static final String RUN_FILE_SUFFIX = ".sst";
+
+    /** Default maximal number of entries of the memtable. */
+    public static final int DEFAULT_MEMTABLE_LIMIT = 16384;
+
+    /** Number of level 0 runs which triggers their compaction. */
+    private static final int LEVEL0_COMPACTION_TRIGGER = 4;
+
+    /** Factor by which the capacity of a level exceeds the capacity of the level above. */
+    private static final int LEVEL_SIZE_FACTOR = 10;
+
+    /** Number of levels. */
+    private static final int LEVEL_COUNT = 7;
+
+    /** Maximal time between changing an entry and forcing the log to disk, in milliseconds. */
+    private static final long COMMIT_INTERVAL_MILLIS = 100;
+
+    /** Size of the buffer used when writing log records, in bytes. */
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    /** Log record types. */
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final byte CLEAR = 3;
+
+    /** Directory of the engine. */
+    private final Path directory;
+
+    /** Maximal number of entries of the memtable. */
+    private final int memtableLimit;
+
+    /** Changes which have not been written to a run yet, a null book marks a tombstone. */
+    private TreeMap<Long, BookEntry> memtable;
+
+    /** Runs of every level. Level 0 is ordered from oldest to newest, deeper levels by key. */
+    private final List<List<SortedRun>> levels;
+
+    /** Key of the next compaction of every level, used to compact the runs of a level in turn. */
+    private final long[] compactionPointers;
+
+    /** Key assigned to the next added entry. */
+    private long nextKey;
+
+    /** Number of the next run file. */
+    private long nextRunId;
+
+    /** Channel of the write-ahead log. */
+    private FileChannel logChannel;
+
+    /** Buffered stream over the log channel. */
+    private DataOutputStream logOut;
+
+    /** Checksum of the log record being appended. */
+    private final CRC32 checksum;
+
+    /** Have log records been appended since the last commit? */
+    private boolean dirty;
+
+    /** Is a compaction scheduled or running? */
+    private boolean compacting;
+
+    /** Has the engine been closed? */
+    private boolean closed;
+
+    /** Is the write-ahead log being replayed? */
+    private boolean replaying;
+
+    /** Background thread committing the log and compacting runs. */
+    private final ScheduledExecutorService worker;
+
+    /**
+     * Open the engine in the given directory, creating the directory if it does not exist. Changes
+     * recorded in the write-ahead log since the last memtable was written are restored.
+     *
+     * @param directory directory of the engine
+     * @param memtableLimit maximal number of entries of the memtable
+     * @throws IOException if the directory cannot be created or read, or holds corrupted files
+     * @throws NullPointerException if the given directory is null
+     * @throws IllegalArgumentException if the given memtable limit is not positive
+     */
+    public LsmEngine(Path directory, int memtableLimit) throws IOException {
+        this.directory = Objects.requireNonNull(directory, "Given directory must not be null.");
+        if (memtableLimit <= 0) {
+            throw new IllegalArgumentException("Given memtable limit must be positive: " + memtableLimit);
+        }
+
+        this.memtableLimit = memtableLimit;
+        memtable = new TreeMap<>();
+        levels = new ArrayList<>();
+        for (int i = 0; i < LEVEL_COUNT; i++) {
+            levels.add(new ArrayList<>());
+        }
+        compactionPointers = new long[LEVEL_COUNT];
+        checksum = new CRC32();
+
+        Files.createDirectories(directory);
+        readManifest();
+        deleteUnlistedFiles();
+        replayLog();
+
+        worker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "lsm-engine");
+            thread.setDaemon(true);
+            return thread;
+        });
+        worker.scheduleWithFixedDelay(this::commitQuietly, COMMIT_INTERVAL_MILLIS, COMMIT_INTERVAL_MILLIS,
+                TimeUnit.MILLISECONDS);
+        scheduleCompaction();
+    }
+
+    /**
+     * Get the directory of the engine.
+     *
+     * @return directory of the engine
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Add a book under a new key, which is larger than all keys assigned before.
+     *
+     * @param book book to be added
+     * @return key of the book
+     * @throws IOException if the change cannot be recorded
+     * @throws NullPointerException if the given book is null
+     */
+    public synchronized long add(BookEntry book) throws IOException {
+        long key = nextKey;
+        put(key, book);
+        return key;
+    }
+
+    /**
+     * Store the given book under the given key, replacing any book stored under it.
+     *
+     * @param key key of the book
+     * @param book book to be stored
+     * @throws IOException if the change cannot be recorded
+     * @throws NullPointerException if the given book is null
+     */
+    public synchronized void put(long key, BookEntry book) throws IOException {
+        Objects.requireNonNull(book, "Given book must not be null.");
+        checkOpen();
+
+        byte[] encoded = SortedRun.encodeBook(book);
+        ByteBuffer record = ByteBuffer.allocate(1 + Long.BYTES + encoded.length);
+        record.put(PUT).putLong(key).put(encoded);
+        appendRecord(record.array());
+
+        apply(key, book);
+    }
+
+    /**
+     * Remove the book stored under the given key by writing a tombstone.
+     *
+     * @param key key of the book
+     * @throws IOException if the change cannot be recorded
+     */
+    public synchronized void delete(long key) throws IOException {
+        checkOpen();
+
+        ByteBuffer record = ByteBuffer.allocate(1 + Long.BYTES);
+        record.put(DELETE).putLong(key);
+        appendRecord(record.array());
+
+        apply(key, null);
+    }
+
+    /**
+     * Remove all books and run files. Keys are not reused afterwards.
+     *
+     * @throws IOException if the change cannot be recorded
+     */
+    public synchronized void clear() throws IOException {
+        checkOpen();
+
+        // the record makes sure the runs are dropped again if writing the manifest is interrupted
+        appendRecord(new byte[] { CLEAR });
+        commit();
+        dropAll();
+    }
+
+    /**
+     * Look up the book stored under the given key.
+     *
+     * @param key key of the book
+     * @return stored book, null if no book is stored under the key
+     */
+    public synchronized BookEntry get(long key) {
+        if (memtable.containsKey(key)) {
+            return memtable.get(key);
+        }
+
+        List<SortedRun> level0 = levels.get(0);
+        for (int i = level0.size() - 1; i >= 0; i--) {
+            SortedRun.Cursor cursor = level0.get(i).find(key);
+            if (cursor != null) {
+                return cursor.getBook();
+            }
+        }
+
+        for (int level = 1; level < LEVEL_COUNT; level++) {
+            SortedRun run = findRun(levels.get(level), key);
+            SortedRun.Cursor cursor = run == null ? null : run.find(key);
+            if (cursor != null) {
+                return cursor.getBook();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Create a cursor over all stored books in ascending key order, starting at the given key.
+     * The cursor is only valid until the next change, later compactions do not affect it.
+     *
+     * @param fromKey smallest key of interest
+     * @return new cursor
+     */
+    public synchronized Cursor cursor(long fromKey) {
+        List<Source> sources = new ArrayList<>();
+        sources.add(new MemtableSource(memtable.tailMap(fromKey, true).entrySet().iterator()));
+        for (SortedRun run : getRunsByAge(fromKey, Long.MAX_VALUE)) {
+            sources.add(new RunSource(run.cursor(fromKey)));
+        }
+        return new Cursor(new MergingIterator(sources, true));
+    }
+
+    /**
+     * Force all changes recorded in the write-ahead log to disk.
+     *
+     * @throws IOException if the log cannot be written
+     */
+    public synchronized void commit() throws IOException {
+        if (!dirty || closed) {
+            return;
+        }
+        logOut.flush();
+        logChannel.force(false);
+        dirty = false;
+    }
+
+    /**
+     * Get the number of runs of every level.
+     *
+     * @return number of runs per level, from level 0 to the deepest level
+     */
+    public synchronized int[] getRunCounts() {
+        int[] counts = new int[LEVEL_COUNT];
+        for (int level = 0; level < LEVEL_COUNT; level++) {
+            counts[level] = levels.get(level).size();
+        }
+        return counts;
+    }
+
+    /**
+     * Get the number of entries of the memtable.
+     *
+     * @return number of entries which have not been written to a run yet
+     */
+    public synchronized int getMemtableSize() {
+        return memtable.size();
+    }
+
+    /**
+     * Wait until no compaction is scheduled or running.
+     *
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     */
+    public synchronized void awaitCompaction() throws InterruptedException {
+        while (compacting && !closed) {
+            wait();
+        }
+    }
+
+    /**
+     * Commit the write-ahead log, wait for a running compaction and close the engine. The memtable
+     * is not written to a run, its changes are restored from the log when the engine is opened again.
+     *
+     * @throws IOException if the log cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            commit();
+            closed = true;
+            notifyAll();
+        }
+
+        worker.shutdown();
+        try {
+            worker.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logChannel.close();
+    }
+
+    /**
+     * Apply a change to the memtable, writing it to a run once it is full.
+     *
+     * @param key key of the change
+     * @param book stored book, null for a tombstone
+     * @throws IOException if the memtable cannot be written
+     */
+    private void apply(long key, BookEntry book) throws IOException {
+        memtable.put(key, book);
+        nextKey = Math.max(nextKey, key + 1);
+
+        // the log being replayed must not be reset before all of its records have been applied
+        if (memtable.size() >= memtableLimit && !replaying) {
+            flushMemtable();
+        }
+    }
+
+    /**
+     * Write the memtable to a new level 0 run and start a new write-ahead log.
+     *
+     * @throws IOException if the run or the manifest cannot be written
+     */
+    private void flushMemtable() throws IOException {
+        if (memtable.isEmpty()) {
+            return;
+        }
+
+        SortedRun run = SortedRun.write(newRunFile(), memtable.entrySet().iterator(), memtable.size());
+        levels.get(0).add(run);
+        writeManifest();
+
+        // the changes of the log are in the run now
+        logOut.flush();
+        logChannel.truncate(LOG_HEADER_SIZE);
+        logChannel.position(LOG_HEADER_SIZE);
+        logChannel.force(false);
+        dirty = false;
+
+        memtable = new TreeMap<>();
+        scheduleCompaction();
+    }
+
+    /**
+     * Drop the memtable and all runs.
+     *
+     * @throws IOException if the manifest or the log cannot be written
+     */
+    private void dropAll() throws IOException {
+        List<SortedRun> dropped = new ArrayList<>();
+        for (List<SortedRun> runs : levels) {
+            dropped.addAll(runs);
+            runs.clear();
+        }
+        memtable = new TreeMap<>();
+        writeManifest();
+        deleteRuns(dropped);
+        if (replaying) {
+            return;
+        }
+
+        logOut.flush();
+        logChannel.truncate(LOG_HEADER_SIZE);
+        logChannel.position(LOG_HEADER_SIZE);
+        logChannel.force(false);
+        dirty = false;
+    }
+
+    /** Schedule a compaction on the background thread unless one is scheduled already. */
+    private void scheduleCompaction() {
+        if (!compacting && worker != null) {
+            compacting = true;
+            worker.execute(this::compact);
+        }
+    }
+
+    /** Compact runs until no level exceeds its capacity, reporting instead of throwing failures. */
+    private void compact() {
+        try {
+            while (true) {
+                Compaction compaction;
+                synchronized (this) {
+                    compaction = closed ? null : pickCompaction();
+                    if (compaction == null) {
+                        compacting = false;
+                        notifyAll();
+                        return;
+                    }
+                }
+
+                // merging reads immutable runs only, so changes can go on meanwhile
+                List<SortedRun> outputs = compaction.merge();
+
+                synchronized (this) {
+                    install(compaction, outputs);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("ERROR: Compacting catalog runs failed: " + e);
+            synchronized (this) {
+                compacting = false;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Choose the next compaction: all level 0 runs if there are too many of them, else a run of
+     * the first level holding more entries than its capacity.
+     *
+     * @return next compaction, null if no compaction is needed
+     */
+    private Compaction pickCompaction() {
+        List<SortedRun> level0 = levels.get(0);
+        if (level0.size() >= LEVEL0_COMPACTION_TRIGGER) {
+            return newCompaction(0, new ArrayList<>(level0));
+        }
+
+        long capacity = (long) memtableLimit * LEVEL0_COMPACTION_TRIGGER;
+        for (int level = 1; level < LEVEL_COUNT - 1; level++) {
+            capacity *= LEVEL_SIZE_FACTOR;
+            List<SortedRun> runs = levels.get(level);
+            if (countEntries(runs) <= capacity) {
+                continue;
+            }
+
+            // compacts the runs of the level in key order, one at a time
+            SortedRun picked = runs.get(0);
+            for (SortedRun run : runs) {
+                if (run.getMinKey() >= compactionPointers[level]) {
+                    picked = run;
+                    break;
+                }
+            }
+            compactionPointers[level] = picked.getMaxKey() + 1;
+
+            List<SortedRun> inputs = new ArrayList<>();
+            inputs.add(picked);
+            return newCompaction(level, inputs);
+        }
+        return null;
+    }
+
+    /**
+     * Create a compaction of the given runs of a level into the next level.
+     *
+     * @param level level of the given runs
+     * @param upperRuns runs of the level, from newest to oldest for level 0
+     * @return new compaction
+     */
+    private Compaction newCompaction(int level, List<SortedRun> upperRuns) {
+        long from = Long.MAX_VALUE;
+        long to = Long.MIN_VALUE;
+        for (SortedRun run : upperRuns) {
+            from = Math.min(from, run.getMinKey());
+            to = Math.max(to, run.getMaxKey());
+        }
+
+        List<SortedRun> lowerRuns = new ArrayList<>();
+        for (SortedRun run : levels.get(level + 1)) {
+            if (run.overlaps(from, to)) {
+                lowerRuns.add(run);
+            }
+        }
+
+        // tombstones can be dropped if no deeper level holds older entries
+        boolean bottom = true;
+        for (int deeper = level + 2; deeper < LEVEL_COUNT; deeper++) {
+            bottom &= levels.get(deeper).isEmpty();
+        }
+
+        // newer runs take precedence over older ones when merging
+        List<SortedRun> inputs = new ArrayList<>();
+        if (level == 0) {
+            for (int i = upperRuns.size() - 1; i >= 0; i--) {
+                inputs.add(upperRuns.get(i));
+            }
+        } else {
+            inputs.addAll(upperRuns);
+        }
+        int upperCount = inputs.size();
+        inputs.addAll(lowerRuns);
+
+        long maxRunEntries = (long) memtableLimit * LEVEL0_COMPACTION_TRIGGER;
+        return new Compaction(level, inputs, upperCount, bottom, maxRunEntries, new ArrayList<>());
+    }
+
+    /**
+     * Replace the input runs of a finished compaction by its output runs.
+     *
+     * @param compaction finished compaction
+     * @param outputs output runs
+     * @throws IOException if the manifest cannot be written
+     */
+    private void install(Compaction compaction, List<SortedRun> outputs) throws IOException {
+        List<SortedRun> upper = levels.get(compaction.level);
+        List<SortedRun> lower = levels.get(compaction.level + 1);
+        List<SortedRun> upperInputs = compaction.inputs.subList(0, compaction.upperCount);
+        List<SortedRun> lowerInputs = compaction.inputs.subList(compaction.upperCount, compaction.inputs.size());
+
+        // the inputs are gone if the engine was cleared or closed meanwhile
+        if (closed || !upper.containsAll(upperInputs) || !lower.containsAll(lowerInputs)) {
+            deleteRuns(outputs);
+            return;
+        }
+
+        upper.removeAll(upperInputs);
+        lower.removeAll(lowerInputs);
+        lower.addAll(outputs);
+        lower.sort((a, b) -> Long.compare(a.getMinKey(), b.getMinKey()));
+        writeManifest();
+        deleteRuns(compaction.inputs);
+    }
+
+    /**
+     * Get all runs holding keys of the given range, from the newest to the oldest.
+     *
+     * @param from smallest key of the range
+     * @param to largest key of the range
+     * @return runs holding keys of the range
+     */
+    private List<SortedRun> getRunsByAge(long from, long to) {
+        List<SortedRun> runs = new ArrayList<>();
+        List<SortedRun> level0 = levels.get(0);
+        for (int i = level0.size() - 1; i >= 0; i--) {
+            if (level0.get(i).overlaps(from, to)) {
+                runs.add(level0.get(i));
+            }
+        }
+        for (int level = 1; level < LEVEL_COUNT; level++) {
+            for (SortedRun run : levels.get(level)) {
+                if (run.overlaps(from, to)) {
+                    runs.add(run);
+                }
+            }
+        }
+        return runs;
+    }
+
+    /**
+     * Find the run of a level below level 0 whose key range contains the given key.
+     *
+     * @param runs runs of the level, ordered by key
+     * @param key key to look for
+     * @return run whose key range contains the key, null if there is none
+     */
+    private static SortedRun findRun(List<SortedRun> runs, long key) {
+        int low = 0;
+        int high = runs.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            SortedRun run = runs.get(middle);
+            if (run.getMaxKey() < key) {
+                low = middle + 1;
+            } else if (run.getMinKey() > key) {
+                high = middle - 1;
+            } else {
+                return run;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Count the entries of the given runs.
+     *
+     * @param runs runs to be counted
+     * @return number of entries including tombstones
+     */
+    private static long countEntries(List<SortedRun> runs) {
+        long count = 0;
+        for (SortedRun run : runs) {
+            count += run.getEntryCount();
+        }
+        return count;
+    }
+
+    /**
+     * Get the path of a new run file.
+     *
+     * @return path of a run file which does not exist yet
+     */
+    private synchronized Path newRunFile() {
+        return directory.resolve(RUN_FILE_PREFIX + nextRunId++ + RUN_FILE_SUFFIX);
+    }
+
+    /**
+     * Delete the files of the given runs, which must not be used by the engine anymore.
+     * Cursors created before keep reading the mapped content of deleted files.
+     *
+     * @param runs runs to be deleted
+     */
+    private static void deleteRuns(List<SortedRun> runs) {
+        for (SortedRun run : runs) {
+            try {
+                Files.deleteIfExists(run.getRunFile());
+            } catch (IOException e) {
+                System.err.println("ERROR: Deleting catalog run failed: " + e);
+            }
+        }
+    }
+
+    /**
+     * Write the manifest listing the runs of every level, replacing the previous one atomically.
+     *
+     * @throws IOException if the manifest cannot be written
+     */
+    private void writeManifest() throws IOException {
+        Path tempFile = directory.resolve(MANIFEST_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)))) {
+            out.writeInt(MANIFEST_MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(nextKey);
+            out.writeLong(nextRunId);
+            out.writeInt(LEVEL_COUNT);
+            for (List<SortedRun> runs : levels) {
+                out.writeInt(runs.size());
+                for (SortedRun run : runs) {
+                    out.writeUTF(run.getRunFile().getFileName().toString());
+                }
+            }
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(tempFile, directory.resolve(MANIFEST_FILE), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Read the manifest and open the runs listed in it. Nothing happens if there is no manifest.
+     *
+     * @throws IOException if the manifest or one of its runs cannot be read
+     */
+    private void readManifest() throws IOException {
+        Path manifest = directory.resolve(MANIFEST_FILE);
+        if (!Files.exists(manifest)) {
+            return;
+        }
+
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(manifest))) {
+            if (in.readInt() != MANIFEST_MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new IOException("File is not a catalog manifest of the supported version: " + manifest);
+            }
+            nextKey = in.readLong();
+            nextRunId = in.readLong();
+            int levelCount = in.readInt();
+            if (levelCount != LEVEL_COUNT) {
+                throw new IOException("Catalog manifest is corrupted: " + levelCount + " levels");
+            }
+            for (List<SortedRun> runs : levels) {
+                int runCount = in.readInt();
+                for (int i = 0; i < runCount; i++) {
+                    runs.add(new SortedRun(directory.resolve(in.readUTF())));
+                }
+            }
+        } catch (EOFException e) {
+            throw new IOException("Catalog manifest is corrupted: " + manifest, e);
+        }
+    }
+
+    /**
+     * Delete run files and temporary files which are not listed in the manifest, e.g. because
+     * the program crashed during a compaction.
+     *
+     * @throws IOException if the directory cannot be listed
+     */
+    private void deleteUnlistedFiles() throws IOException {
+        Set<Path> listed = new HashSet<>();
+        for (List<SortedRun> runs : levels) {
+            for (SortedRun run : runs) {
+                listed.add(run.getRunFile());
+            }
+        }
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if ((name.startsWith(RUN_FILE_PREFIX) || name.endsWith(".tmp")) && !listed.contains(file)) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * Restore the changes of the write-ahead log into the memtable, creating the log if it does not
+     * exist. Records which are incomplete or corrupted at the end of the log are cut off.
+     *
+     * @throws IOException if the log cannot be read or written
+     */
+    private void replayLog() throws IOException {
+        Path logFile = directory.resolve(LOG_FILE);
+        logChannel = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        logOut = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(logChannel),
+                WRITE_BUFFER_SIZE));
+
+        if (logChannel.size() < LOG_HEADER_SIZE) {
+            logChannel.truncate(0);
+            logOut.writeInt(LOG_MAGIC);
+            logOut.writeInt(FORMAT_VERSION);
+            logOut.flush();
+            logChannel.force(true);
+            return;
+        }
+
+        ByteBuffer content = ByteBuffer.allocate((int) logChannel.size());
+        while (content.hasRemaining() && logChannel.read(content) >= 0) {
+            // reads the whole log
+        }
+        content.flip();
+        if (content.getInt() != LOG_MAGIC || content.getInt() != FORMAT_VERSION) {
+            throw new IOException("File is not a catalog log of the supported version: " + logFile);
+        }
+
+        int validSize = content.position();
+        replaying = true;
+        try {
+            while (content.remaining() >= Integer.BYTES) {
+                int length = content.getInt();
+                if (length <= 0 || length > content.remaining() - Integer.BYTES) {
+                    break;
+                }
+                byte[] record = new byte[length];
+                content.get(record);
+                checksum.reset();
+                checksum.update(record);
+                if (content.getInt() != (int) checksum.getValue()) {
+                    break;
+                }
+
+                replayRecord(ByteBuffer.wrap(record));
+                validSize = content.position();
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            // the record is cut off below
+        } finally {
+            replaying = false;
+        }
+
+        logChannel.truncate(validSize);
+        logChannel.position(validSize);
+        if (memtable.size() >= memtableLimit) {
+            flushMemtable();
+        }
+    }
+
+    /**
+     * Apply a single record of the write-ahead log.
+     *
+     * @param record type and payload of the record
+     * @throws IOException if the memtable cannot be written
+     */
+    private void replayRecord(ByteBuffer record) throws IOException {
+        byte type = record.get();
+        switch (type) {
+            case PUT:
+                long key = record.getLong();
+                apply(key, SortedRun.decodeBook(record));
+                break;
+            case DELETE:
+                apply(record.getLong(), null);
+                break;
+            case CLEAR:
+                dropAll();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown log record type: " + type);
+        }
+    }
+
+    /**
+     * Append a record to the write-ahead log.
+     *
+     * @param record type and payload of the record
+     * @throws IOException if the record cannot be written
+     */
+    private void appendRecord(byte[] record) throws IOException {
+        checksum.reset();
+        checksum.update(record);
+        logOut.writeInt(record.length);
+        logOut.write(record);
+        logOut.writeInt((int) checksum.getValue());
+        dirty = true;
+    }
+
+    /** Commit from the background thread, reporting instead of throwing failures. */
+    private synchronized void commitQuietly() {
+        try {
+            commit();
+        } catch (IOException e) {
+            System.err.println("ERROR: Committing catalog log failed: " + e);
+        }
+    }
+
+    /**
+     * Make sure the engine has not been closed.
+     *
+     * @throws IllegalStateException if the engine has been closed
+     */
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Catalog has been closed: " + directory);
+        }
+    }
+
+    /**
+     * Merge of runs of one level with the overlapping runs of the next level.
+     */
+    private class Compaction {
+
+        /** Level of the upper runs. */
+        private final int level;
+
+        /** Input runs, from the newest to the oldest. */
+        private final List<SortedRun> inputs;
+
+        /** Number of input runs which belong to the upper level. */
+        private final int upperCount;
+
+        /** Can tombstones be dropped? */
+        private final boolean bottom;
+
+        /** Maximal number of entries of an output run. */
+        private final long maxRunEntries;
+
+        /** Output runs written so far. */
+        private final List<SortedRun> outputs;
+
+        /**
+         * Create a compaction.
+         *
+         * @param level level of the upper runs
+         * @param inputs input runs, from the newest to the oldest
+         * @param upperCount number of input runs which belong to the upper level
+         * @param bottom true if tombstones can be dropped
+         * @param maxRunEntries maximal number of entries of an output run
+         * @param outputs empty list for the output runs
+         */
+        private Compaction(int level, List<SortedRun> inputs, int upperCount, boolean bottom, long maxRunEntries,
+                List<SortedRun> outputs) {
+            this.level = level;
+            this.inputs = inputs;
+            this.upperCount = upperCount;
+            this.bottom = bottom;
+            this.maxRunEntries = maxRunEntries;
+            this.outputs = outputs;
+        }
+
+        /**
+         * Merge the input runs into output runs of at most maxRunEntries entries each.
+         *
+         * @return output runs ordered by key
+         * @throws IOException if an output run cannot be written
+         */
+        private List<SortedRun> merge() throws IOException {
+            List<Source> sources = new ArrayList<>();
+            long remaining = 0;
+            for (SortedRun run : inputs) {
+                sources.add(new RunSource(run.cursor(Long.MIN_VALUE)));
+                remaining += run.getEntryCount();
+            }
+
+            MergingIterator merged = new MergingIterator(sources, bottom);
+            try {
+                while (merged.hasNext()) {
+                    long expected = Math.min(remaining, maxRunEntries);
+                    SortedRun run = SortedRun.write(newRunFile(), new LimitedIterator(merged, maxRunEntries),
+                            expected);
+                    outputs.add(run);
+                    remaining = Math.max(remaining - run.getEntryCount(), 0);
+                }
+            } catch (IOException | RuntimeException e) {
+                deleteRuns(outputs);
+                throw e;
+            }
+            return outputs;
+        }
+    }
+
+    /**
+     * Sorted source of entries merged by a MergingIterator.
+     */
+    private interface Source {
+
+        /**
+         * Check whether the source has a current entry.
+         * @return false if the source is exhausted
+         */
+        boolean hasEntry();
+
+        /**
+         * Get the key of the current entry.
+         * @return key of the current entry
+         */
+        long getKey();
+
+        /**
+         * Get the book of the current entry.
+         * @return book of the current entry, null for a tombstone
+         */
+        BookEntry getBook();
+
+        /**
+         * Check whether the current entry is a tombstone without decoding its book.
+         * @return true if the current entry marks a removed book
+         */
+        boolean isTombstone();
+
+        /** Move to the next entry. */
+        void next();
+    }
+
+    /**
+     * Source over the entries of a memtable.
+     */
+    private static class MemtableSource implements Source {
+
+        /** Iterator over the remaining entries. */
+        private final Iterator<Map.Entry<Long, BookEntry>> iterator;
+
+        /** Current entry, null if the source is exhausted. */
+        private Map.Entry<Long, BookEntry> current;
+
+        /**
+         * Create a source over the entries of the given iterator.
+         * @param iterator iterator over memtable entries in ascending key order
+         */
+        private MemtableSource(Iterator<Map.Entry<Long, BookEntry>> iterator) {
+            this.iterator = iterator;
+            next();
+        }
+
+        @Override
+        public boolean hasEntry() {
+            return current != null;
+        }
+
+        @Override
+        public long getKey() {
+            return current.getKey();
+        }
+
+        @Override
+        public BookEntry getBook() {
+            return current.getValue();
+        }
+
+        @Override
+        public boolean isTombstone() {
+            return current.getValue() == null;
+        }
+
+        @Override
+        public void next() {
+            current = iterator.hasNext() ? iterator.next() : null;
+        }
+    }
+
+    /**
+     * Source over the entries of a run.
+     */
+    private static class RunSource implements Source {
+
+        /** Cursor over the run. */
+        private final SortedRun.Cursor cursor;
+
+        /**
+         * Create a source over the entries of the given cursor.
+         * @param cursor cursor over a run
+         */
+        private RunSource(SortedRun.Cursor cursor) {
+            this.cursor = cursor;
+        }
+
+        @Override
+        public boolean hasEntry() {
+            return cursor.hasEntry();
+        }
+
+        @Override
+        public long getKey() {
+            return cursor.getKey();
+        }
+
+        @Override
+        public BookEntry getBook() {
+            return cursor.getBook();
+        }
+
+        @Override
+        public boolean isTombstone() {
+            return cursor.isTombstone();
+        }
+
+        @Override
+        public void next() {
+            cursor.next();
+        }
+    }
+
+    /**
+     * Iterator merging sorted sources in key order. Of several entries with the same key, only the one
+     * of the first source is returned, so sources have to be ordered from the newest to the oldest.
+     */
+    private static class MergingIterator implements Iterator<Map.Entry<Long, BookEntry>> {
+
+        /** Merged sources, from the newest to the oldest. */
+        private final List<Source> sources;
+
+        /** Are tombstones skipped? */
+        private final boolean skipTombstones;
+
+        /** Source of the next entry, null if it has not been determined yet. */
+        private Source nextSource;
+
+        /**
+         * Create an iterator merging the given sources.
+         * @param sources sources, from the newest to the oldest
+         * @param skipTombstones true if tombstones should be skipped
+         */
+        private MergingIterator(List<Source> sources, boolean skipTombstones) {
+            this.sources = sources;
+            this.skipTombstones = skipTombstones;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (nextSource == null) {
+                Source newest = null;
+                for (Source source : sources) {
+                    if (source.hasEntry() && (newest == null || source.getKey() < newest.getKey())) {
+                        newest = source;
+                    }
+                }
+                if (newest == null) {
+                    return false;
+                }
+
+                // older entries with the same key are overridden
+                long key = newest.getKey();
+                for (Source source : sources) {
+                    if (source != newest && source.hasEntry() && source.getKey() == key) {
+                        source.next();
+                    }
+                }
+
+                if (skipTombstones && newest.isTombstone()) {
+                    newest.next();
+                } else {
+                    nextSource = newest;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Get the key of the next entry without moving past it.
+         * @return key of the next entry
+         * @throws NoSuchElementException if there is no next entry
+         */
+        private long peekKey() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return nextSource.getKey();
+        }
+
+        @Override
+        public Map.Entry<Long, BookEntry> next() {
+            long key = peekKey();
+            Map.Entry<Long, BookEntry> entry = new AbstractMap.SimpleImmutableEntry<>(key, nextSource.getBook());
+            skip();
+            return entry;
+        }
+
+        /** Move past the next entry without decoding its book. */
+        private void skip() {
+            if (hasNext()) {
+                nextSource.next();
+                nextSource = null;
+            }
+        }
+    }
+
+    /**
+     * Iterator passing on at most a given number of entries of another iterator.
+     */
+    private static class LimitedIterator implements Iterator<Map.Entry<Long, BookEntry>> {
+
+        /** Iterator passed on. */
+        private final Iterator<Map.Entry<Long, BookEntry>> iterator;
+
+        /** Number of entries which may still be passed on. */
+        private long remaining;
+
+        /**
+         * Create an iterator passing on at most the given number of entries.
+         * @param iterator iterator passed on
+         * @param limit maximal number of entries
+         */
+        private LimitedIterator(Iterator<Map.Entry<Long, BookEntry>> iterator, long limit) {
+            this.iterator = iterator;
+            this.remaining = limit;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0 && iterator.hasNext();
+        }
+
+        @Override
+        public Map.Entry<Long, BookEntry> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            remaining--;
+            return iterator.next();
+        }
+    }
+
+    /**
+     * Cursor over the stored books in ascending key order, skipping removed books.
+     */
+    public static class Cursor {
+
+        /** Iterator merging all sources. */
+        private final MergingIterator merged;
+
+        /**
+         * Create a cursor over the given iterator.
+         * @param merged iterator merging all sources, skipping tombstones
+         */
+        private Cursor(MergingIterator merged) {
+            this.merged = merged;
+        }
+
+        /**
+         * Check whether the cursor is positioned on a book.
+         * @return false if the cursor is exhausted
+         */
+        public boolean hasEntry() {
+            return merged.hasNext();
+        }
+
+        /**
+         * Get the key of the current book.
+         * @return key of the current book
+         * @throws NoSuchElementException if the cursor is exhausted
+         */
+        public long getKey() {
+            return merged.peekKey();
+        }
+
+        /**
+         * Decode the current book.
+         * @return current book
+         * @throws NoSuchElementException if the cursor is exhausted
+         */
+        public BookEntry getBook() {
+            merged.peekKey();
+            return merged.nextSource.getBook();
+        }
+
+        /** Move to the next book. */
+        public void next() {
+            merged.skip();
+        }
+    }
+}
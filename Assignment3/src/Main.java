@@ -1,12 +1,15 @@
+import java.nio.file.Paths;
+
 /** Main entry point into the library browser program. */
 public class Main {
 
     /**
      * Start the library browser program.
-     * @param args not used for arguments
+     * @param args optional path to a journal file, from which the library is recovered
+     *             and in which all changes are recorded
      */
     public static void main(String[] args) {
-        LibraryBrowser browser = new LibraryBrowser();
+        LibraryBrowser browser = new LibraryBrowser(args.length > 0 ? Paths.get(args[0]) : null);
         browser.run();
     }
 }
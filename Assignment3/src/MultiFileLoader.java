@@ -0,0 +1,205 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Class responsible for parsing several book data files concurrently.
+ *
+ * Every file is parsed completely by one thread of a fixed size pool. Results, including
+ * the errors of lines which could not be loaded, are returned per file in the given file
+ * order, so nothing is printed while files are parsed in parallel.
+ */
+public class MultiFileLoader {
+
+    /** Maximal number of files parsed at the same time. */
+    private final int threadCount;
+
+    /** Dictionary the author names of parsed books are interned into, or null if names are not shared. */
+    private final AuthorDictionary authorDictionary;
+
+    /**
+     * Create a new multi file loader.
+     *
+     * @param threadCount maximal number of files parsed at the same time
+     * @param authorDictionary dictionary to intern author names into, null if names should not be shared
+     * @throws IllegalArgumentException if the given thread count is not positive
+     */
+    public MultiFileLoader(int threadCount, AuthorDictionary authorDictionary) {
+        if (threadCount <= 0) {
+            throw new IllegalArgumentException("Given thread count must be positive: " + threadCount);
+        }
+
+        this.threadCount = threadCount;
+        this.authorDictionary = authorDictionary;
+    }
+
+    /**
+     * Parse the given book data files concurrently.
+     *
+     * @param files paths of the book data files
+     * @return results of all files in the given order
+     * @throws NullPointerException if the given list is null
+     */
+    public List<FileResult> parseFiles(List<Path> files) {
+        Objects.requireNonNull(files, "Given files must not be null.");
+
+        List<FileResult> results = new ArrayList<>();
+        if (files.isEmpty()) {
+            return results;
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(threadCount, files.size()));
+        try {
+            List<Future<FileResult>> futures = new ArrayList<>();
+            for (Path file : files) {
+                futures.add(pool.submit(() -> parseFile(file)));
+            }
+
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    results.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    FileResult failed = new FileResult(files.get(i));
+                    failed.failure = e.getCause().toString();
+                    results.add(failed);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        return results;
+    }
+
+    /**
+     * Parse a single book data file.
+     *
+     * @param file path of the book data file
+     * @return result of the file
+     */
+    private FileResult parseFile(Path file) {
+        FileResult result = new FileResult(file);
+        long start = System.nanoTime();
+
+        try (LibraryFileLoader lineParser = new LibraryFileLoader(authorDictionary);
+             BufferedReader reader = BookDataFiles.newBufferedReader(file)) {
+            reader.readLine(); // ignores first line of the file, as it is just a column header, not the actual data
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                result.lineCount++;
+                BookEntry book = lineParser.createBookFromFile(line);
+                if (book != null) {
+                    result.books.add(book);
+                } else {
+                    // the column header is line 1 of the file
+                    result.errors.add(lineParser.createLineError(result.lineCount + 1));
+                }
+            }
+        } catch (IOException | SecurityException e) {
+            result.failure = e.toString();
+            result.books.clear();
+        }
+
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    /**
+     * Result of parsing a single book data file.
+     */
+    public static class FileResult {
+
+        /** Path of the parsed file. */
+        private final Path file;
+
+        /** Books parsed from the file in file order. */
+        private final List<BookEntry> books;
+
+        /** Errors of the lines which could not be loaded, numbered as lines of the file. */
+        private final List<LineError> errors;
+
+        /** Number of data lines in the file. */
+        private int lineCount;
+
+        /** Time spent parsing the file, in nanoseconds. */
+        private long elapsedNanos;
+
+        /** Reason why the file could not be read, or null if it was read successfully. */
+        private String failure;
+
+        /**
+         * Create an empty result for the given file.
+         *
+         * @param file path of the file
+         */
+        private FileResult(Path file) {
+            this.file = file;
+            books = new ArrayList<>();
+            errors = new ArrayList<>();
+        }
+
+        /**
+         * Get the path of the parsed file.
+         *
+         * @return path of the file
+         */
+        public Path getFile() {
+            return file;
+        }
+
+        /**
+         * Get the books parsed from the file.
+         *
+         * @return books in file order, empty if the file could not be read
+         */
+        public List<BookEntry> getBooks() {
+            return books;
+        }
+
+        /**
+         * Get the errors of the lines which could not be loaded.
+         *
+         * @return errors in file order, with line numbers of the file, the column header being line 1
+         */
+        public List<LineError> getErrors() {
+            return errors;
+        }
+
+        /**
+         * Get the number of data lines in the file.
+         *
+         * @return number of lines, not counting the header line
+         */
+        public int getLineCount() {
+            return lineCount;
+        }
+
+        /**
+         * Get the time spent parsing the file.
+         *
+         * @return elapsed time in nanoseconds
+         */
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * Get the reason why the file could not be read.
+         *
+         * @return description of the problem or null if the file was read successfully
+         */
+        public String getFailure() {
+            return failure;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/**
+ * Parser for numeric fields of a book data file working directly on character buffer ranges.
+ *
+ * Instead of throwing an exception for a malformed value, every parse method returns a status,
+ * so malformed lines can be skipped without creating substrings or exception stack traces.
+ * The value of a successful parse is kept in the parser until the next parse, so one parser
+ * should be reused for all lines and must not be shared between threads.
+ */
+public class NumericFieldParser {
+
+    /** All possible results of parsing a numeric field. */
+    public enum Status {
+        /** The field was parsed successfully. */
+        OK,
+        /** The field is empty or only contains white space. */
+        EMPTY,
+        /** The field is not a number in the expected format. */
+        MALFORMED,
+        /** The field is a number which cannot be represented by the expected type. */
+        OUT_OF_RANGE
+    }
+
+    /** Decimal separator of a decimal number. */
+    private static final char DECIMAL_SEPARATOR = '.';
+
+    /**
+     * Largest mantissa for which dividing by a power of ten in double precision gives the correctly
+     * rounded float, as both operands are exactly representable as floats.
+     */
+    private static final long MAX_EXACT_MANTISSA = 1L << 24;
+
+    /** Powers of ten which are exactly representable as floats. */
+    private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10 };
+
+    /** Largest mantissa to which another digit can be appended without overflowing a long. */
+    private static final long MAX_MANTISSA = Long.MAX_VALUE / 10 - 1;
+
+    /** Value of the integer parsed last. */
+    private int intValue;
+
+    /** Value of the decimal number parsed last. */
+    private float floatValue;
+
+    /** Create a new parser. */
+    public NumericFieldParser() {
+        intValue = 0;
+        floatValue = 0;
+    }
+
+    /**
+     * Get the value of the last successfully parsed integer.
+     *
+     * @return parsed integer
+     */
+    public int getIntValue() {
+        return intValue;
+    }
+
+    /**
+     * Get the value of the last successfully parsed decimal number.
+     *
+     * @return parsed decimal number
+     */
+    public float getFloatValue() {
+        return floatValue;
+    }
+
+    /**
+     * Parse an integer consisting of an optional sign followed by decimal digits, as accepted
+     * by Integer.parseInt. The value can be retrieved with getIntValue if parsing succeeded.
+     *
+     * @param buffer characters containing the field
+     * @param start offset of the first character of the field
+     * @param end offset after the last character of the field
+     * @return status of the parse
+     */
+    public Status parseInt(char[] buffer, int start, int end) {
+        if (start >= end) {
+            return Status.EMPTY;
+        }
+
+        boolean negative = buffer[start] == '-';
+        int position = start;
+        if (negative || buffer[start] == '+') {
+            position++;
+        }
+        if (position == end) {
+            return Status.MALFORMED;
+        }
+
+        // the smallest int has no positive counterpart, so its magnitude is accumulated in a long
+        long limit = negative ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE;
+        long value = 0;
+        for (; position < end; position++) {
+            int digit = buffer[position] - '0';
+            if (digit < 0 || digit > 9) {
+                return Status.MALFORMED;
+            }
+            value = 10 * value + digit;
+            if (value > limit) {
+                // keeps checking the remaining characters so a malformed field is not reported as too large
+                for (position++; position < end; position++) {
+                    if (buffer[position] < '0' || buffer[position] > '9') {
+                        return Status.MALFORMED;
+                    }
+                }
+                return Status.OUT_OF_RANGE;
+            }
+        }
+
+        intValue = (int) (negative ? -value : value);
+        return Status.OK;
+    }
+
+    /**
+     * Parse a decimal number in fixed-point format, i.e. an optional sign followed by digits with
+     * an optional decimal separator. Leading and trailing white space is ignored like in
+     * Float.parseFloat, and the parsed value is the same float Float.parseFloat would return.
+     * The value can be retrieved with getFloatValue if parsing succeeded.
+     *
+     * @param buffer characters containing the field
+     * @param start offset of the first character of the field
+     * @param end offset after the last character of the field
+     * @return status of the parse
+     */
+    public Status parseFloat(char[] buffer, int start, int end) {
+        while (start < end && buffer[start] <= ' ') {
+            start++;
+        }
+        while (end > start && buffer[end - 1] <= ' ') {
+            end--;
+        }
+        if (start >= end) {
+            return Status.EMPTY;
+        }
+
+        boolean negative = buffer[start] == '-';
+        int numberStart = start;
+        if (negative || buffer[start] == '+') {
+            numberStart++;
+        }
+
+        long mantissa = 0;
+        int fractionDigits = 0;
+        int digits = 0;
+        boolean separatorFound = false;
+        boolean mantissaOverflow = false;
+        for (int position = numberStart; position < end; position++) {
+            char current = buffer[position];
+            if (current == DECIMAL_SEPARATOR && !separatorFound) {
+                separatorFound = true;
+            } else if (current >= '0' && current <= '9') {
+                digits++;
+                if (mantissa < MAX_MANTISSA) {
+                    mantissa = 10 * mantissa + (current - '0');
+                    if (separatorFound) {
+                        fractionDigits++;
+                    }
+                } else {
+                    mantissaOverflow = true;
+                }
+            } else {
+                return Status.MALFORMED;
+            }
+        }
+        if (digits == 0) {
+            return Status.MALFORMED;
+        }
+
+        float value;
+        if (!mantissaOverflow && mantissa <= MAX_EXACT_MANTISSA && fractionDigits < POWERS_OF_TEN.length) {
+            value = (float) (mantissa / POWERS_OF_TEN[fractionDigits]);
+        } else {
+            // rare long values are left to the JDK, which rounds them correctly
+            value = Float.parseFloat(new String(buffer, numberStart, end - numberStart));
+        }
+
+        if (Float.isInfinite(value)) {
+            return Status.OUT_OF_RANGE;
+        }
+
+        floatValue = negative ? -value : value;
+        return Status.OK;
+    }
+}
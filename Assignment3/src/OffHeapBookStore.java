@@ -0,0 +1,585 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.function.IntPredicate;
+
+/**
+ * Book store keeping all data values of the books in direct buffers outside of the garbage collected heap.
+ *
+ * Every book is a fixed-size record in a record buffer, holding its rating and page number as well as
+ * the offsets and lengths of its title, ISBN and authors. Titles and ISBNs share one char arena and
+ * authors are kept as ids of an AuthorDictionary in an int arena. However many books are stored, the
+ * heap only holds a handful of buffer objects, so the garbage collector has nothing to trace. Titles
+ * can be appended to output and searched in place, without creating String or BookEntry objects.
+ *
+ * Removing or replacing books leaves their previous arena contents unused. The arenas are compacted
+ * as soon as more than half of their content is unused.
+ */
+public class OffHeapBookStore implements BookStore {
+
+    /** Initial number of books the record buffer has room for. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** Maximal size of a buffer, in bytes. */
+    private static final int MAX_BUFFER_SIZE = Integer.MAX_VALUE - 8;
+
+    /** Offset of the title offset within a record. */
+    private static final int TITLE_START = 0;
+
+    /** Offset of the title length within a record. */
+    private static final int TITLE_LENGTH = 4;
+
+    /** Offset of the ISBN offset within a record. */
+    private static final int ISBN_START = 8;
+
+    /** Offset of the ISBN length within a record. */
+    private static final int ISBN_LENGTH = 12;
+
+    /** Offset of the author offset within a record. */
+    private static final int AUTHOR_START = 16;
+
+    /** Offset of the number of authors within a record. */
+    private static final int AUTHOR_COUNT = 20;
+
+    /** Offset of the rating within a record. */
+    private static final int RATING = 24;
+
+    /** Offset of the page number within a record. */
+    private static final int PAGES = 28;
+
+    /** Offset of the flag marking titles consisting of ASCII characters only within a record. */
+    private static final int ASCII_TITLE = 32;
+
+    /** Size of a record, in bytes. */
+    private static final int RECORD_SIZE = 36;
+
+    /** Dictionary of the author ids stored in the author arena. */
+    private final AuthorDictionary authorDictionary;
+
+    /** Fixed-size records of all books. */
+    private ByteBuffer records;
+
+    /** Buffer of the char arena. */
+    private ByteBuffer charBuffer;
+
+    /** Characters of all titles and ISBNs, a view of charBuffer. */
+    private CharBuffer charArena;
+
+    /** Number of used characters in the char arena. */
+    private int charArenaSize;
+
+    /** Buffer of the author arena. */
+    private ByteBuffer authorBuffer;
+
+    /** Author ids of all books, a view of authorBuffer. */
+    private IntBuffer authorArena;
+
+    /** Number of used ids in the author arena. */
+    private int authorArenaSize;
+
+    /** Number of stored books. */
+    private int size;
+
+    /** Number of characters in the char arena which belong to no stored book anymore. */
+    private int unusedChars;
+
+    /** Number of ids in the author arena which belong to no stored book anymore. */
+    private int unusedAuthorIds;
+
+    /**
+     * Create a new and empty off-heap book store keeping author ids of the given dictionary,
+     * which may be shared with other stores and loaders.
+     *
+     * @param authorDictionary dictionary assigning the author ids
+     * @throws NullPointerException if the given dictionary is null
+     */
+    public OffHeapBookStore(AuthorDictionary authorDictionary) {
+        this.authorDictionary = Objects.requireNonNull(authorDictionary, "Given author dictionary must not be null.");
+        clear();
+    }
+
+    /**
+     * Get the number of bytes currently allocated outside of the heap.
+     *
+     * @return capacity of all buffers, in bytes
+     */
+    public long getAllocatedBytes() {
+        return (long) records.capacity() + charBuffer.capacity() + authorBuffer.capacity();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean hasBook(int index) {
+        Objects.checkIndex(index, size);
+        return true;
+    }
+
+    @Override
+    public BookEntry getBook(int index) {
+        Objects.checkIndex(index, size);
+
+        String[] authors = new String[getInt(index, AUTHOR_COUNT)];
+        for (int i = 0; i < authors.length; i++) {
+            authors[i] = authorDictionary.getName(authorArena.get(getInt(index, AUTHOR_START) + i));
+        }
+
+        return new BookEntry(getTitle(index), authors, getRating(index), getISBN(index), getPages(index));
+    }
+
+    @Override
+    public String getTitle(int index) {
+        Objects.checkIndex(index, size);
+        return getString(getInt(index, TITLE_START), getInt(index, TITLE_LENGTH));
+    }
+
+    @Override
+    public boolean hasTitle(int index, String title) {
+        Objects.checkIndex(index, size);
+
+        int length = getInt(index, TITLE_LENGTH);
+        if (title.length() != length) {
+            return false;
+        }
+
+        int start = getInt(index, TITLE_START);
+        for (int i = 0; i < length; i++) {
+            if (charArena.get(start + i) != title.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void appendTitle(int index, StringBuilder output) {
+        Objects.checkIndex(index, size);
+
+        int start = getInt(index, TITLE_START);
+        output.append(charArena, start, start + getInt(index, TITLE_LENGTH));
+    }
+
+    /**
+     * Check whether the title of the book stored at the given position contains the given term,
+     * ignoring the case. Titles and terms consisting of ASCII characters only are compared in
+     * place by folding upper case letters. Any other title is compared as lower case string,
+     * as are all titles if the default locale has special case rules for ASCII letters.
+     *
+     * @param index position of the book
+     * @param lowerCaseTerm term to look for, in lower case
+     * @return true if the lower case title contains the given term
+     * @throws IndexOutOfBoundsException if the position is out of range
+     */
+    @Override
+    public boolean titleContains(int index, String lowerCaseTerm) {
+        Objects.checkIndex(index, size);
+
+        if (getInt(index, ASCII_TITLE) == 0 || !isAscii(lowerCaseTerm) || !hasAsciiCaseRules()) {
+            return BookStore.super.titleContains(index, lowerCaseTerm);
+        }
+
+        int start = getInt(index, TITLE_START);
+        int lastStart = start + getInt(index, TITLE_LENGTH) - lowerCaseTerm.length();
+        for (int from = start; from <= lastStart; from++) {
+            int i = 0;
+            while (i < lowerCaseTerm.length() && toLowerCase(charArena.get(from + i)) == lowerCaseTerm.charAt(i)) {
+                i++;
+            }
+            if (i == lowerCaseTerm.length()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int getAuthorCount(int index) {
+        Objects.checkIndex(index, size);
+        return getInt(index, AUTHOR_COUNT);
+    }
+
+    @Override
+    public String getAuthor(int index, int authorIndex) {
+        return authorDictionary.getName(getAuthorId(index, authorIndex));
+    }
+
+    @Override
+    public int getAuthorId(int index, int authorIndex) {
+        Objects.checkIndex(index, size);
+        Objects.checkIndex(authorIndex, getInt(index, AUTHOR_COUNT));
+        return authorArena.get(getInt(index, AUTHOR_START) + authorIndex);
+    }
+
+    @Override
+    public AuthorDictionary getAuthorDictionary() {
+        return authorDictionary;
+    }
+
+    @Override
+    public boolean hasAuthor(int index, String author) {
+        Objects.checkIndex(index, size);
+
+        int authorId = authorDictionary.find(author);
+        return authorId != AuthorDictionary.NO_ID && hasAuthorId(index, authorId);
+    }
+
+    /**
+     * Check whether the author with the given id is one of the authors of the book stored at
+     * the given position.
+     *
+     * @param index position of the book
+     * @param authorId id of the author in the author dictionary of this store
+     * @return true if one of the authors of the book has the given id
+     * @throws IndexOutOfBoundsException if the position is out of range
+     */
+    public boolean hasAuthorId(int index, int authorId) {
+        Objects.checkIndex(index, size);
+
+        int start = getInt(index, AUTHOR_START);
+        int end = start + getInt(index, AUTHOR_COUNT);
+        for (int i = start; i < end; i++) {
+            if (authorArena.get(i) == authorId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Create a filter accepting the positions of all stored books which have the given author.
+     * The id of the author is looked up once, so the filter only compares ints.
+     *
+     * @param author author to look for
+     * @return filter over the positions of this store
+     * @throws NullPointerException if the given author is null
+     */
+    @Override
+    public IntPredicate authorFilter(String author) {
+        int authorId = authorDictionary.find(author);
+        if (authorId == AuthorDictionary.NO_ID) {
+            return index -> false;
+        }
+        return index -> hasAuthorId(index, authorId);
+    }
+
+    @Override
+    public boolean supportsParallelScan() {
+        return true;
+    }
+
+    @Override
+    public float getRating(int index) {
+        Objects.checkIndex(index, size);
+        return records.getFloat(index * RECORD_SIZE + RATING);
+    }
+
+    @Override
+    public String getISBN(int index) {
+        Objects.checkIndex(index, size);
+        return getString(getInt(index, ISBN_START), getInt(index, ISBN_LENGTH));
+    }
+
+    @Override
+    public int getPages(int index) {
+        Objects.checkIndex(index, size);
+        return getInt(index, PAGES);
+    }
+
+    @Override
+    public void add(BookEntry book) {
+        Objects.requireNonNull(book, "Given book must not be null.");
+
+        records = ensureCapacity(records, (long) (size + 1) * RECORD_SIZE);
+        size++;
+        write(size - 1, book);
+    }
+
+    @Override
+    public void set(int index, BookEntry book) {
+        Objects.checkIndex(index, size);
+        Objects.requireNonNull(book, "Given book must not be null.");
+
+        release(index);
+        write(index, book);
+        compactIfNeeded();
+    }
+
+    @Override
+    public void remove(int index) {
+        Objects.checkIndex(index, size);
+        removeIf(i -> i == index);
+    }
+
+    @Override
+    public int removeIf(IntPredicate filter) {
+        Objects.requireNonNull(filter, "Given filter must not be null.");
+
+        // moves the records of the remaining books to the front, their arena contents stay in place
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (filter.test(i)) {
+                release(i);
+            } else {
+                if (kept != i) {
+                    ByteBuffer record = records.duplicate().position(i * RECORD_SIZE).limit((i + 1) * RECORD_SIZE);
+                    records.duplicate().position(kept * RECORD_SIZE).put(record);
+                }
+                kept++;
+            }
+        }
+
+        int removed = size - kept;
+        size = kept;
+        compactIfNeeded();
+
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+        records = allocate(INITIAL_CAPACITY * RECORD_SIZE);
+        setCharBuffer(allocate(INITIAL_CAPACITY * Character.BYTES));
+        charArenaSize = 0;
+        setAuthorBuffer(allocate(INITIAL_CAPACITY * Integer.BYTES));
+        authorArenaSize = 0;
+        unusedChars = 0;
+        unusedAuthorIds = 0;
+    }
+
+    /**
+     * Write the data values of the given book to the record at the given position, appending
+     * its title, ISBN and authors to the arenas.
+     *
+     * @param index position to write to
+     * @param book book to be written
+     */
+    private void write(int index, BookEntry book) {
+        String title = book.getTitle();
+        String isbn = book.getISBN();
+        String[] authors = book.getAuthors();
+
+        setCharBuffer(ensureCapacity(charBuffer, ((long) charArenaSize + title.length() + isbn.length())
+                * Character.BYTES));
+        setAuthorBuffer(ensureCapacity(authorBuffer, ((long) authorArenaSize + authors.length) * Integer.BYTES));
+
+        setInt(index, TITLE_START, appendString(title));
+        setInt(index, TITLE_LENGTH, title.length());
+        setInt(index, ASCII_TITLE, isAscii(title) ? 1 : 0);
+        setInt(index, ISBN_START, appendString(isbn));
+        setInt(index, ISBN_LENGTH, isbn.length());
+
+        setInt(index, AUTHOR_START, authorArenaSize);
+        setInt(index, AUTHOR_COUNT, authors.length);
+        for (String author : authors) {
+            authorArena.put(authorArenaSize++, authorDictionary.add(author));
+        }
+
+        records.putFloat(index * RECORD_SIZE + RATING, book.getRating());
+        setInt(index, PAGES, book.getPages());
+    }
+
+    /**
+     * Mark the arena contents of the book at the given position as unused.
+     *
+     * @param index position of the book
+     */
+    private void release(int index) {
+        unusedChars += getInt(index, TITLE_LENGTH) + getInt(index, ISBN_LENGTH);
+        unusedAuthorIds += getInt(index, AUTHOR_COUNT);
+    }
+
+    /**
+     * Compact the arenas if more than half of their content is unused. The arenas are copied
+     * in the order of the stored books, so their contents are contiguous afterwards.
+     */
+    private void compactIfNeeded() {
+        if (2 * unusedChars <= charArenaSize && 2 * unusedAuthorIds <= authorArenaSize) {
+            return;
+        }
+
+        CharBuffer oldChars = charArena;
+        IntBuffer oldAuthors = authorArena;
+        setCharBuffer(allocate(Math.max(charArenaSize - unusedChars, INITIAL_CAPACITY) * Character.BYTES));
+        setAuthorBuffer(allocate(Math.max(authorArenaSize - unusedAuthorIds, INITIAL_CAPACITY) * Integer.BYTES));
+        charArenaSize = 0;
+        authorArenaSize = 0;
+
+        for (int i = 0; i < size; i++) {
+            setInt(i, TITLE_START, moveChars(oldChars, getInt(i, TITLE_START), getInt(i, TITLE_LENGTH)));
+            setInt(i, ISBN_START, moveChars(oldChars, getInt(i, ISBN_START), getInt(i, ISBN_LENGTH)));
+
+            int authorCount = getInt(i, AUTHOR_COUNT);
+            int authorStart = getInt(i, AUTHOR_START);
+            authorArena.duplicate().position(authorArenaSize)
+                    .put(oldAuthors.duplicate().position(authorStart).limit(authorStart + authorCount));
+            setInt(i, AUTHOR_START, authorArenaSize);
+            authorArenaSize += authorCount;
+        }
+
+        unusedChars = 0;
+        unusedAuthorIds = 0;
+    }
+
+    /**
+     * Copy characters of a previous char arena to the end of the char arena.
+     *
+     * @param oldChars previous char arena
+     * @param start offset of the characters in the previous arena
+     * @param length number of characters
+     * @return offset of the characters in the char arena
+     */
+    private int moveChars(CharBuffer oldChars, int start, int length) {
+        charArena.duplicate().position(charArenaSize).put(oldChars.duplicate().position(start).limit(start + length));
+        charArenaSize += length;
+        return charArenaSize - length;
+    }
+
+    /**
+     * Append the given string to the char arena, which must have room for it.
+     *
+     * @param value string to be appended
+     * @return offset of the string in the char arena
+     */
+    private int appendString(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            charArena.put(charArenaSize + i, value.charAt(i));
+        }
+        charArenaSize += value.length();
+        return charArenaSize - value.length();
+    }
+
+    /**
+     * Create a string of characters of the char arena.
+     *
+     * @param start offset of the characters
+     * @param length number of characters
+     * @return string of the characters
+     */
+    private String getString(int start, int length) {
+        char[] chars = new char[length];
+        charArena.duplicate().position(start).get(chars);
+        return new String(chars);
+    }
+
+    /**
+     * Read an int field of the record at the given position.
+     *
+     * @param index position of the book
+     * @param field offset of the field within the record
+     * @return value of the field
+     */
+    private int getInt(int index, int field) {
+        return records.getInt(index * RECORD_SIZE + field);
+    }
+
+    /**
+     * Write an int field of the record at the given position.
+     *
+     * @param index position of the book
+     * @param field offset of the field within the record
+     * @param value value of the field
+     */
+    private void setInt(int index, int field, int value) {
+        records.putInt(index * RECORD_SIZE + field, value);
+    }
+
+    /**
+     * Use the given buffer as char arena.
+     *
+     * @param buffer buffer of the char arena
+     */
+    private void setCharBuffer(ByteBuffer buffer) {
+        if (buffer != charBuffer) {
+            charBuffer = buffer;
+            charArena = buffer.asCharBuffer();
+        }
+    }
+
+    /**
+     * Use the given buffer as author arena.
+     *
+     * @param buffer buffer of the author arena
+     */
+    private void setAuthorBuffer(ByteBuffer buffer) {
+        if (buffer != authorBuffer) {
+            authorBuffer = buffer;
+            authorArena = buffer.asIntBuffer();
+        }
+    }
+
+    /**
+     * Get a buffer with room for the given number of bytes, growing the given one if necessary.
+     * The used contents of the given buffer are copied, the given buffer is released by the
+     * garbage collector once it is not referenced anymore.
+     *
+     * @param buffer current buffer
+     * @param capacity required number of bytes
+     * @return buffer with the contents of the given one and at least the given capacity
+     * @throws IllegalStateException if the required capacity exceeds the maximal size of a buffer
+     */
+    private static ByteBuffer ensureCapacity(ByteBuffer buffer, long capacity) {
+        if (capacity <= buffer.capacity()) {
+            return buffer;
+        }
+        if (capacity > MAX_BUFFER_SIZE) {
+            throw new IllegalStateException("Off-heap book storage is full.");
+        }
+
+        ByteBuffer newBuffer = allocate((int) Math.min(Math.max(capacity, 2L * buffer.capacity()), MAX_BUFFER_SIZE));
+        newBuffer.duplicate().put(buffer.duplicate().clear());
+        return newBuffer;
+    }
+
+    /**
+     * Allocate a direct buffer in native byte order.
+     *
+     * @param capacity capacity of the buffer, in bytes
+     * @return new buffer
+     */
+    private static ByteBuffer allocate(int capacity) {
+        return ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Check whether the given string consists of ASCII characters only.
+     *
+     * @param value string to be checked
+     * @return true if all characters are ASCII characters
+     */
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check whether lower casing ASCII letters in the default locale maps them to ASCII letters,
+     * which is not the case for e.g. the upper case I in Turkish.
+     *
+     * @return true if ASCII letters can be folded in place
+     */
+    private static boolean hasAsciiCaseRules() {
+        String language = Locale.getDefault().getLanguage();
+        return !language.equals("tr") && !language.equals("az") && !language.equals("lt");
+    }
+
+    /**
+     * Convert an ASCII character to lower case.
+     *
+     * @param c ASCII character
+     * @return lower case character
+     */
+    private static char toLowerCase(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+}
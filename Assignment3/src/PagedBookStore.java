@@ -0,0 +1,700 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.IntPredicate;
+
+/**
+ * Book store keeping the books in a memory-mapped record file instead of on the heap.
+ *
+ * The file is divided into pages of a fixed size, each holding a header (number of records and
+ * number of used bytes) followed by the encoded records of consecutive books. Authors are encoded
+ * as ids of an AuthorDictionary. The order of the pages is kept in a small page table, so only the
+ * page table and a bounded LRU cache of decoded pages are kept on the heap, however many books are
+ * stored. Sequential scans decode every page once.
+ *
+ * Removing books rewrites the affected pages in place, pages which become empty are reused.
+ * Replacing a book rewrites its page, which is split if the new book does not fit anymore.
+ */
+public class PagedBookStore implements BookStore, AutoCloseable {
+
+    /** Size of a page of the record file, in bytes. */
+    private static final int PAGE_SIZE = 64 * 1024;
+
+    /** Size of the header of a page, in bytes. */
+    private static final int PAGE_HEADER_SIZE = 2 * Integer.BYTES;
+
+    /** Number of pages mapped at once. */
+    private static final int PAGES_PER_REGION = 256;
+
+    /** Default number of decoded pages kept in the page cache. */
+    public static final int DEFAULT_CACHE_PAGES = 64;
+
+    /** Initial number of pages the page table has room for. */
+    private static final int INITIAL_PAGE_CAPACITY = 16;
+
+    /** Path of the record file. */
+    private final Path recordFile;
+
+    /** Should the record file be deleted when the store is closed? */
+    private final boolean temporary;
+
+    /** Channel of the record file. */
+    private final FileChannel channel;
+
+    /** Mapped regions of the record file, null for regions which have not been mapped yet. */
+    private final List<MappedByteBuffer> regions;
+
+    /** Most recently used pages by physical page number. */
+    private final Map<Integer, CachedPage> pageCache;
+
+    /** Dictionary assigning the ids of the authors of the stored books. */
+    private final AuthorDictionary authorDictionary;
+
+    /** Buffer used to encode a single record. */
+    private final ByteBuffer recordBuffer;
+
+    /** Physical page number of every page in book order. */
+    private int[] pageIds;
+
+    /** Number of books in every page in book order. */
+    private int[] pageCounts;
+
+    /** Position of the first book of every page, valid if startsValid is true. */
+    private int[] pageStarts;
+
+    /** Does pageStarts match the current pages? */
+    private boolean startsValid;
+
+    /** Number of pages in book order. */
+    private int pageCount;
+
+    /** Number of physical pages allocated in the record file. */
+    private int allocatedPages;
+
+    /** Physical pages which are no longer used and can be reused. */
+    private int[] freePages;
+
+    /** Number of reusable physical pages. */
+    private int freePageCount;
+
+    /** Number of stored books. */
+    private int size;
+
+    /** Index of the page located last in book order, used to locate consecutive books quickly. */
+    private int lastPage;
+
+    /**
+     * Create a new and empty store in a temporary record file, which is deleted when the store is closed.
+     *
+     * @param authorDictionary dictionary assigning the author ids
+     * @return new store
+     * @throws IOException if the record file cannot be created
+     * @throws NullPointerException if the given dictionary is null
+     */
+    public static PagedBookStore createTemporary(AuthorDictionary authorDictionary) throws IOException {
+        Path file = Files.createTempFile("library", ".pages");
+        file.toFile().deleteOnExit();
+        return new PagedBookStore(file, true, authorDictionary, DEFAULT_CACHE_PAGES);
+    }
+
+    /**
+     * Create a new and empty store in the given record file, which is overwritten if it exists.
+     *
+     * @param recordFile path of the record file
+     * @param authorDictionary dictionary assigning the author ids
+     * @param cachePages maximal number of decoded pages kept on the heap
+     * @throws IOException if the record file cannot be created
+     * @throws NullPointerException if one of the given parameters is null
+     * @throws IllegalArgumentException if the given number of cache pages is not positive
+     */
+    public PagedBookStore(Path recordFile, AuthorDictionary authorDictionary, int cachePages) throws IOException {
+        this(recordFile, false, authorDictionary, cachePages);
+    }
+
+    /**
+     * Create a new and empty store in the given record file.
+     *
+     * @param recordFile path of the record file
+     * @param temporary true if the record file should be deleted when the store is closed
+     * @param authorDictionary dictionary assigning the author ids
+     * @param cachePages maximal number of decoded pages kept on the heap
+     * @throws IOException if the record file cannot be created
+     */
+    private PagedBookStore(Path recordFile, boolean temporary, AuthorDictionary authorDictionary, int cachePages)
+            throws IOException {
+        this.recordFile = Objects.requireNonNull(recordFile, "Given record file must not be null.");
+        this.authorDictionary = Objects.requireNonNull(authorDictionary, "Given author dictionary must not be null.");
+        if (cachePages <= 0) {
+            throw new IllegalArgumentException("Given number of cache pages must be positive: " + cachePages);
+        }
+
+        this.temporary = temporary;
+        channel = FileChannel.open(recordFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        regions = new ArrayList<>();
+        pageCache = new LinkedHashMap<>(2 * cachePages, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, CachedPage> eldest) {
+                return size() > cachePages;
+            }
+        };
+        recordBuffer = ByteBuffer.allocate(PAGE_SIZE - PAGE_HEADER_SIZE);
+        clear();
+    }
+
+    /**
+     * Get the path of the record file.
+     *
+     * @return path of the record file
+     */
+    public Path getRecordFile() {
+        return recordFile;
+    }
+
+    /**
+     * Get the number of pages currently used by the books.
+     *
+     * @return number of used pages
+     */
+    public int getPageCount() {
+        return pageCount;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean hasBook(int index) {
+        Objects.checkIndex(index, size);
+        return true;
+    }
+
+    @Override
+    public BookEntry getBook(int index) {
+        Objects.checkIndex(index, size);
+
+        int page = locate(index);
+        return readPage(pageIds[page]).getBook(index - pageStarts[page]);
+    }
+
+    @Override
+    public String getTitle(int index) {
+        return getBook(index).getTitle();
+    }
+
+    @Override
+    public int getAuthorCount(int index) {
+        return getBook(index).getAuthors().length;
+    }
+
+    @Override
+    public String getAuthor(int index, int authorIndex) {
+        return getBook(index).getAuthors()[authorIndex];
+    }
+
+    @Override
+    public int getAuthorId(int index, int authorIndex) {
+        return authorDictionary.add(getAuthor(index, authorIndex));
+    }
+
+    @Override
+    public AuthorDictionary getAuthorDictionary() {
+        return authorDictionary;
+    }
+
+    @Override
+    public float getRating(int index) {
+        return getBook(index).getRating();
+    }
+
+    @Override
+    public String getISBN(int index) {
+        return getBook(index).getISBN();
+    }
+
+    @Override
+    public int getPages(int index) {
+        return getBook(index).getPages();
+    }
+
+    @Override
+    public void add(BookEntry book) {
+        int length = encode(book);
+
+        int page = pageCount - 1;
+        if (page < 0 || getUsedBytes(pageIds[page]) + length > PAGE_SIZE) {
+            page = appendPage();
+        }
+
+        int physicalPage = pageIds[page];
+        ByteBuffer region = getRegion(physicalPage);
+        int pageOffset = getPageOffset(physicalPage);
+        int usedBytes = region.getInt(pageOffset + Integer.BYTES);
+        region.duplicate().position(pageOffset + usedBytes).put(recordBuffer.array(), 0, length);
+        region.putInt(pageOffset, pageCounts[page] + 1);
+        region.putInt(pageOffset + Integer.BYTES, usedBytes + length);
+
+        pageCounts[page]++;
+        size++;
+        pageCache.remove(physicalPage);
+    }
+
+    @Override
+    public void set(int index, BookEntry book) {
+        Objects.checkIndex(index, size);
+        Objects.requireNonNull(book, "Given book must not be null.");
+
+        int page = locate(index);
+        BookEntry[] books = readPage(pageIds[page]).getBooks();
+        books[index - pageStarts[page]] = book;
+
+        // the page is split if its books do not fit anymore
+        int written = writePage(pageIds[page], books, 0);
+        pageCounts[page] = written;
+        for (int next = written; next < books.length; ) {
+            int newPage = insertPage(page + 1);
+            int count = writePage(pageIds[newPage], books, next);
+            pageCounts[newPage] = count;
+            next += count;
+            page = newPage;
+        }
+        startsValid = false;
+    }
+
+    @Override
+    public void remove(int index) {
+        Objects.checkIndex(index, size);
+        removeIf(i -> i == index);
+    }
+
+    @Override
+    public int removeIf(IntPredicate filter) {
+        Objects.requireNonNull(filter, "Given filter must not be null.");
+
+        int[] keptIds = new int[pageIds.length];
+        int[] keptCounts = new int[pageIds.length];
+        int keptPages = 0;
+        int removed = 0;
+        int position = 0;
+
+        for (int page = 0; page < pageCount; page++) {
+            int count = pageCounts[page];
+            boolean[] removedSlots = null;
+            int removedInPage = 0;
+            for (int slot = 0; slot < count; slot++) {
+                if (filter.test(position + slot)) {
+                    if (removedSlots == null) {
+                        removedSlots = new boolean[count];
+                    }
+                    removedSlots[slot] = true;
+                    removedInPage++;
+                }
+            }
+            position += count;
+
+            int physicalPage = pageIds[page];
+            if (removedInPage == count) {
+                freePage(physicalPage);
+            } else {
+                if (removedInPage > 0) {
+                    // the remaining books always fit into the page they were taken from
+                    BookEntry[] books = readPage(physicalPage).getBooks();
+                    BookEntry[] kept = new BookEntry[count - removedInPage];
+                    for (int slot = 0, k = 0; slot < count; slot++) {
+                        if (!removedSlots[slot]) {
+                            kept[k++] = books[slot];
+                        }
+                    }
+                    writePage(physicalPage, kept, 0);
+                }
+                keptIds[keptPages] = physicalPage;
+                keptCounts[keptPages] = count - removedInPage;
+                keptPages++;
+            }
+            removed += removedInPage;
+        }
+
+        pageIds = keptIds;
+        pageCounts = keptCounts;
+        pageStarts = new int[keptIds.length];
+        pageCount = keptPages;
+        size -= removed;
+        startsValid = false;
+        lastPage = 0;
+
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        try {
+            channel.truncate(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        regions.clear();
+        pageCache.clear();
+        pageIds = new int[INITIAL_PAGE_CAPACITY];
+        pageCounts = new int[INITIAL_PAGE_CAPACITY];
+        pageStarts = new int[INITIAL_PAGE_CAPACITY];
+        startsValid = true;
+        pageCount = 0;
+        allocatedPages = 0;
+        freePages = new int[INITIAL_PAGE_CAPACITY];
+        freePageCount = 0;
+        size = 0;
+        lastPage = 0;
+    }
+
+    /** Close the record file, deleting it if it is temporary. The store must not be used afterwards. */
+    @Override
+    public void close() {
+        regions.clear();
+        pageCache.clear();
+        try {
+            channel.close();
+            if (temporary) {
+                Files.deleteIfExists(recordFile);
+            }
+        } catch (IOException e) {
+            System.err.println("ERROR: Closing record file failed: " + e);
+        }
+    }
+
+    /**
+     * Find the page holding the book at the given position.
+     *
+     * @param index position of a stored book
+     * @return index of the page in book order
+     */
+    private int locate(int index) {
+        if (!startsValid) {
+            int start = 0;
+            for (int page = 0; page < pageCount; page++) {
+                pageStarts[page] = start;
+                start += pageCounts[page];
+            }
+            startsValid = true;
+        }
+
+        // consecutive positions are usually in the page located last or the next one
+        if (lastPage < pageCount && index >= pageStarts[lastPage]) {
+            if (index < pageStarts[lastPage] + pageCounts[lastPage]) {
+                return lastPage;
+            }
+            int next = lastPage + 1;
+            if (next < pageCount && index < pageStarts[next] + pageCounts[next]) {
+                lastPage = next;
+                return next;
+            }
+        }
+
+        int found = Arrays.binarySearch(pageStarts, 0, pageCount, index);
+        if (found < 0) {
+            found = -found - 2; // page with the greatest start before the position
+        }
+        while (pageCounts[found] == 0 || index >= pageStarts[found] + pageCounts[found]) {
+            found++; // skips empty pages sharing their start with the next page
+        }
+        lastPage = found;
+        return found;
+    }
+
+    /**
+     * Get the given physical page from the page cache, adding it if necessary.
+     *
+     * @param physicalPage physical page number
+     * @return cached page
+     */
+    private CachedPage readPage(int physicalPage) {
+        CachedPage page = pageCache.get(physicalPage);
+        if (page == null) {
+            int pageOffset = getPageOffset(physicalPage);
+            ByteBuffer content = getRegion(physicalPage).duplicate().position(pageOffset).limit(pageOffset + PAGE_SIZE);
+            page = new CachedPage(content.slice());
+            pageCache.put(physicalPage, page);
+        }
+        return page;
+    }
+
+    /**
+     * Write as many of the given books as fit into the given physical page, replacing its content.
+     *
+     * @param physicalPage physical page number
+     * @param books books to be written
+     * @param from position of the first book to be written
+     * @return number of books written, at least 1
+     */
+    private int writePage(int physicalPage, BookEntry[] books, int from) {
+        ByteBuffer region = getRegion(physicalPage);
+        int pageOffset = getPageOffset(physicalPage);
+        int usedBytes = PAGE_HEADER_SIZE;
+
+        int written = 0;
+        while (from + written < books.length) {
+            int length = encode(books[from + written]);
+            if (usedBytes + length > PAGE_SIZE) {
+                break;
+            }
+            region.duplicate().position(pageOffset + usedBytes).put(recordBuffer.array(), 0, length);
+            usedBytes += length;
+            written++;
+        }
+
+        region.putInt(pageOffset, written);
+        region.putInt(pageOffset + Integer.BYTES, usedBytes);
+        pageCache.remove(physicalPage);
+        return written;
+    }
+
+    /**
+     * Encode the given book into the record buffer.
+     *
+     * @param book book to be encoded
+     * @return length of the record in bytes
+     * @throws IllegalArgumentException if the book does not fit into a page
+     */
+    private int encode(BookEntry book) {
+        Objects.requireNonNull(book, "Given book must not be null.");
+
+        recordBuffer.clear();
+        try {
+            putString(book.getTitle());
+            String[] authors = book.getAuthors();
+            recordBuffer.putInt(authors.length);
+            for (String author : authors) {
+                recordBuffer.putInt(authorDictionary.add(author));
+            }
+            recordBuffer.putFloat(book.getRating());
+            putString(book.getISBN());
+            recordBuffer.putInt(book.getPages());
+        } catch (BufferOverflowException e) {
+            throw new IllegalArgumentException("Given book is too large to be stored in a page: " + book.getTitle());
+        }
+        return recordBuffer.position();
+    }
+
+    /**
+     * Decode the record at the given offset of a page.
+     *
+     * @param page buffer of a page
+     * @param offset offset of the record in the page
+     * @return decoded book
+     */
+    private BookEntry decode(ByteBuffer page, int offset) {
+        page.position(offset);
+        String title = getString(page);
+        String[] authors = new String[page.getInt()];
+        for (int i = 0; i < authors.length; i++) {
+            authors[i] = authorDictionary.getName(page.getInt());
+        }
+        float rating = page.getFloat();
+        String isbn = getString(page);
+        int pages = page.getInt();
+        return new BookEntry(title, authors, rating, isbn, pages);
+    }
+
+    /**
+     * Write a string to the record buffer as its UTF-8 length followed by its UTF-8 bytes.
+     *
+     * @param value string to be written
+     */
+    private void putString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        recordBuffer.putInt(bytes.length);
+        recordBuffer.put(bytes);
+    }
+
+    /**
+     * Read a string written by putString, advancing the position of the given buffer past it.
+     *
+     * @param buffer buffer to read from
+     * @return string read
+     */
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Add an empty page at the end of the books.
+     *
+     * @return index of the new page in book order
+     */
+    private int appendPage() {
+        int page = insertPage(pageCount);
+        pageStarts[page] = size; // the starts stay valid when a page is appended
+        return page;
+    }
+
+    /**
+     * Insert an empty page at the given index in book order.
+     *
+     * @param page index of the new page in book order
+     * @return index of the new page in book order
+     */
+    private int insertPage(int page) {
+        if (pageCount == pageIds.length) {
+            pageIds = Arrays.copyOf(pageIds, 2 * pageCount);
+            pageCounts = Arrays.copyOf(pageCounts, 2 * pageCount);
+            pageStarts = Arrays.copyOf(pageStarts, 2 * pageCount);
+        }
+
+        System.arraycopy(pageIds, page, pageIds, page + 1, pageCount - page);
+        System.arraycopy(pageCounts, page, pageCounts, page + 1, pageCount - page);
+        System.arraycopy(pageStarts, page, pageStarts, page + 1, pageCount - page);
+        pageCount++;
+
+        int physicalPage = freePageCount > 0 ? freePages[--freePageCount] : allocatedPages++;
+        ByteBuffer region = getRegion(physicalPage);
+        int pageOffset = getPageOffset(physicalPage);
+        region.putInt(pageOffset, 0);
+        region.putInt(pageOffset + Integer.BYTES, PAGE_HEADER_SIZE);
+        pageCache.remove(physicalPage);
+
+        pageIds[page] = physicalPage;
+        pageCounts[page] = 0;
+        return page;
+    }
+
+    /**
+     * Mark the given physical page as reusable.
+     *
+     * @param physicalPage physical page number
+     */
+    private void freePage(int physicalPage) {
+        if (freePageCount == freePages.length) {
+            freePages = Arrays.copyOf(freePages, 2 * freePageCount);
+        }
+        freePages[freePageCount++] = physicalPage;
+        pageCache.remove(physicalPage);
+    }
+
+    /**
+     * Get the number of used bytes of the given physical page, including its header.
+     *
+     * @param physicalPage physical page number
+     * @return number of used bytes
+     */
+    private int getUsedBytes(int physicalPage) {
+        return getRegion(physicalPage).getInt(getPageOffset(physicalPage) + Integer.BYTES);
+    }
+
+    /**
+     * Get the mapped region holding the given physical page, mapping it if necessary.
+     *
+     * @param physicalPage physical page number
+     * @return mapped region
+     */
+    private MappedByteBuffer getRegion(int physicalPage) {
+        int region = physicalPage / PAGES_PER_REGION;
+        while (regions.size() <= region) {
+            regions.add(null);
+        }
+
+        MappedByteBuffer mapped = regions.get(region);
+        if (mapped == null) {
+            try {
+                // mapping beyond the end of the file extends it
+                mapped = channel.map(FileChannel.MapMode.READ_WRITE, (long) region * PAGES_PER_REGION * PAGE_SIZE,
+                        (long) PAGES_PER_REGION * PAGE_SIZE);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            regions.set(region, mapped);
+        }
+        return mapped;
+    }
+
+    /**
+     * Get the offset of the given physical page within its mapped region.
+     *
+     * @param physicalPage physical page number
+     * @return offset in bytes
+     */
+    private static int getPageOffset(int physicalPage) {
+        return (physicalPage % PAGES_PER_REGION) * PAGE_SIZE;
+    }
+
+    /**
+     * Page kept in the page cache. The offsets of all records are determined when the page is
+     * cached, but every book is only decoded the first time it is requested.
+     */
+    private class CachedPage {
+
+        /** Buffer of the page. */
+        private final ByteBuffer page;
+
+        /** Offset of every record in the page. */
+        private final int[] recordOffsets;
+
+        /** Decoded books, null for books which have not been requested yet. */
+        private final BookEntry[] books;
+
+        /**
+         * Cache the given page.
+         *
+         * @param page buffer of the page
+         */
+        private CachedPage(ByteBuffer page) {
+            this.page = page;
+            recordOffsets = new int[page.getInt(0)];
+            books = new BookEntry[recordOffsets.length];
+
+            // skips over every record using its lengths, without decoding it
+            int offset = PAGE_HEADER_SIZE;
+            for (int i = 0; i < recordOffsets.length; i++) {
+                recordOffsets[i] = offset;
+                offset += Integer.BYTES + page.getInt(offset); // title
+                offset += Integer.BYTES + Integer.BYTES * page.getInt(offset); // author ids
+                offset += Float.BYTES; // rating
+                offset += Integer.BYTES + page.getInt(offset); // ISBN
+                offset += Integer.BYTES; // pages
+            }
+        }
+
+        /**
+         * Get the book in the given slot of the page, decoding it if necessary.
+         *
+         * @param slot slot of the book
+         * @return book in the slot
+         */
+        private BookEntry getBook(int slot) {
+            if (books[slot] == null) {
+                books[slot] = decode(page, recordOffsets[slot]);
+            }
+            return books[slot];
+        }
+
+        /**
+         * Get all books of the page, decoding them if necessary.
+         *
+         * @return new array holding the books of the page
+         */
+        private BookEntry[] getBooks() {
+            BookEntry[] all = new BookEntry[books.length];
+            for (int slot = 0; slot < books.length; slot++) {
+                all[slot] = getBook(slot);
+            }
+            return all;
+        }
+    }
+}
@@ -0,0 +1,297 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Class responsible for loading book data from large files on multiple cores.
+ *
+ * The file is memory-mapped and cut into segments which always end at a line break.
+ * Segments are parsed in parallel and their results are merged in file order, so the
+ * returned books and reported errors are in the same order as for LibraryFileLoader.
+ */
+public class ParallelFileLoader {
+
+    /** Line break terminating every line of a book data file. */
+    private static final byte LINE_BREAK = '\n';
+
+    /** Carriage return preceding the line break of a line with Windows line endings. */
+    private static final byte CARRIAGE_RETURN = '\r';
+
+    /** Smallest segment size worth handing to a separate task, in bytes. */
+    private static final long MIN_SEGMENT_SIZE = 1 << 20;
+
+    /** Largest segment size that can be memory-mapped at once, in bytes. */
+    private static final long MAX_SEGMENT_SIZE = Integer.MAX_VALUE;
+
+    /** Number of segments created per worker thread, to balance uneven segments. */
+    private static final int SEGMENTS_PER_THREAD = 4;
+
+    /** Size of the buffer used to look for line breaks at segment boundaries, in bytes. */
+    private static final int BOUNDARY_BUFFER_SIZE = 4096;
+
+    /** Pool executing the segment parsing tasks. */
+    private final ForkJoinPool pool;
+
+    /** Dictionary the author names of parsed books are interned into, or null if names are not shared. */
+    private final AuthorDictionary authorDictionary;
+
+    /** Smallest segment size handed to a separate task, in bytes. */
+    private final long minSegmentSize;
+
+    /** Create a new parallel loader using the common fork/join pool. */
+    public ParallelFileLoader() {
+        this(ForkJoinPool.commonPool(), null);
+    }
+
+    /**
+     * Create a new parallel loader using the given pool.
+     *
+     * @param pool pool used to parse the segments of a file
+     * @throws NullPointerException if the given pool is null
+     */
+    public ParallelFileLoader(ForkJoinPool pool) {
+        this(pool, null);
+    }
+
+    /**
+     * Create a new parallel loader using the given pool, which shares the author names
+     * of all parsed books through the given dictionary.
+     *
+     * @param pool pool used to parse the segments of a file
+     * @param authorDictionary dictionary to intern author names into, null if names should not be shared
+     * @throws NullPointerException if the given pool is null
+     */
+    public ParallelFileLoader(ForkJoinPool pool, AuthorDictionary authorDictionary) {
+        this(pool, authorDictionary, MIN_SEGMENT_SIZE);
+    }
+
+    /**
+     * Create a new parallel loader which cuts files into segments of at least the given size,
+     * so small files can be split into several segments as well.
+     *
+     * @param pool pool used to parse the segments of a file
+     * @param authorDictionary dictionary to intern author names into, null if names should not be shared
+     * @param minSegmentSize smallest segment size handed to a separate task, in bytes
+     * @throws NullPointerException if the given pool is null
+     * @throws IllegalArgumentException if the given segment size is not positive
+     */
+    ParallelFileLoader(ForkJoinPool pool, AuthorDictionary authorDictionary, long minSegmentSize) {
+        if (minSegmentSize <= 0) {
+            throw new IllegalArgumentException("Given segment size must be positive: " + minSegmentSize);
+        }
+        this.pool = Objects.requireNonNull(pool, "Given pool must not be null.");
+        this.authorDictionary = authorDictionary;
+        this.minSegmentSize = minSegmentSize;
+    }
+
+    /**
+     * Load and parse the specified book data file. Errors of lines that could not be
+     * parsed are reported in a single summary afterwards.
+     *
+     * @param fileName file path with book data
+     * @return books parsed from the file in file order or null if the file could not be read
+     * @throws NullPointerException if the given file name is null
+     */
+    public List<BookEntry> parseFile(Path fileName) {
+        LoadReport report = new LoadReport();
+        List<BookEntry> bookEntries = parseFile(fileName, report);
+        report.print();
+        return bookEntries;
+    }
+
+    /**
+     * Load and parse the specified book data file. Errors of lines that could not be
+     * parsed are recorded in the given report together with their line number.
+     *
+     * @param fileName file path with book data
+     * @param report report every line which cannot be loaded is recorded in
+     * @return books parsed from the file in file order or null if the file could not be read
+     * @throws NullPointerException if one of the given parameters is null
+     */
+    public List<BookEntry> parseFile(Path fileName, LoadReport report) {
+        Objects.requireNonNull(fileName, "Given filename must not be null.");
+        Objects.requireNonNull(report, "Given report must not be null.");
+
+        List<SegmentTask> tasks = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(fileName, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            // ignores first line of the file, as it is just a column header, not the actual data
+            long start = findLineEnd(channel, 0, fileSize);
+
+            long segmentSize = computeSegmentSize(fileSize - start);
+            while (start < fileSize) {
+                long end = findLineEnd(channel, Math.min(start + segmentSize, fileSize) - 1, fileSize);
+                MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                tasks.add(new SegmentTask(segment, authorDictionary));
+                start = end;
+            }
+        } catch (IOException | SecurityException e) {
+            System.err.println("ERROR: Reading file content failed: " + e);
+            return null;
+        }
+
+        for (SegmentTask task : tasks) {
+            pool.execute(task);
+        }
+
+        // joins the segments in file order, which keeps book and error order deterministic
+        List<BookEntry> bookEntries = new ArrayList<>();
+        int firstLineNumber = 2; // line numbers start at 1 and the header line is skipped
+        for (int i = 0; i < tasks.size(); i++) {
+            SegmentTask task = tasks.get(i);
+            task.join();
+            bookEntries.addAll(task.books);
+            for (LineError error : task.errors) {
+                error.recordIn(report, String.format("%s, segment %d, line %d", fileName, i + 1,
+                        firstLineNumber + error.getLineNumber()));
+            }
+            firstLineNumber += task.lineCount;
+        }
+
+        return bookEntries;
+    }
+
+    /**
+     * Compute the size of the segments a file should be cut into.
+     *
+     * @param contentSize number of bytes to be parsed
+     * @return target segment size in bytes
+     */
+    private long computeSegmentSize(long contentSize) {
+        long segments = (long) pool.getParallelism() * SEGMENTS_PER_THREAD;
+        long segmentSize = Math.max(minSegmentSize, contentSize / segments + 1);
+        // leaves room for the remainder of the last line of a segment
+        return Math.min(segmentSize, MAX_SEGMENT_SIZE - MIN_SEGMENT_SIZE);
+    }
+
+    /**
+     * Find the end of the line containing the given position.
+     *
+     * @param channel channel of the file to be searched
+     * @param position position from which to start searching
+     * @param fileSize size of the file
+     * @return position directly after the next line break or the file size if there is none
+     * @throws IOException if reading the file fails
+     */
+    private long findLineEnd(FileChannel channel, long position, long fileSize) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BOUNDARY_BUFFER_SIZE);
+        long current = Math.max(position, 0);
+
+        while (current < fileSize) {
+            buffer.clear();
+            int read = channel.read(buffer, current);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == LINE_BREAK) {
+                    return current + i + 1;
+                }
+            }
+            current += read;
+        }
+
+        return fileSize;
+    }
+
+    /**
+     * Task parsing all lines of a single memory-mapped segment.
+     */
+    private static class SegmentTask extends RecursiveTask<Void> {
+
+        /** Version of the serialized form, as fork/join tasks are serializable. */
+        private static final long serialVersionUID = 1L;
+
+        /** Segment content, starting at the beginning of a line and ending after a line break or at end of file. */
+        private final MappedByteBuffer segment;
+
+        /** Books parsed from the segment in segment order. */
+        private final List<BookEntry> books;
+
+        /** Errors of the lines that could not be parsed, numbered relative to the segment starting at 0. */
+        private final List<LineError> errors;
+
+        /** Number of lines contained in the segment. */
+        private int lineCount;
+
+        /** Dictionary shared by all tasks to intern author names, or null. */
+        private final AuthorDictionary authorDictionary;
+
+        /**
+         * Create a task for the given segment.
+         *
+         * @param segment segment content to be parsed
+         * @param authorDictionary dictionary to intern author names into, or null
+         */
+        private SegmentTask(MappedByteBuffer segment, AuthorDictionary authorDictionary) {
+            this.segment = segment;
+            this.authorDictionary = authorDictionary;
+            books = new ArrayList<>();
+            errors = new ArrayList<>();
+            lineCount = 0;
+        }
+
+        /**
+         * Parse every line of the segment.
+         *
+         * @return nothing, results are kept in the task fields
+         */
+        @Override
+        protected Void compute() {
+            LibraryFileLoader lineParser = new LibraryFileLoader(authorDictionary);
+            CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            CharBuffer lineBuffer = CharBuffer.allocate(BOUNDARY_BUFFER_SIZE);
+            int limit = segment.limit();
+            int lineStart = 0;
+
+            while (lineStart < limit) {
+                int lineEnd = lineStart;
+                while (lineEnd < limit && segment.get(lineEnd) != LINE_BREAK) {
+                    lineEnd++;
+                }
+                int contentEnd = lineEnd;
+                if (contentEnd > lineStart && segment.get(contentEnd - 1) == CARRIAGE_RETURN) {
+                    contentEnd--;
+                }
+
+                // decodes the line straight into the reused character buffer, UTF-8 never needs more chars than bytes
+                int length = contentEnd - lineStart;
+                if (lineBuffer.capacity() < length) {
+                    lineBuffer = CharBuffer.allocate(Math.max(length, 2 * lineBuffer.capacity()));
+                }
+                lineBuffer.clear();
+                decoder.reset();
+                segment.limit(contentEnd).position(lineStart);
+                decoder.decode(segment, lineBuffer, true);
+                decoder.flush(lineBuffer);
+                segment.limit(limit);
+
+                BookEntry book = lineParser.createBookFromFile(lineBuffer.array(), lineBuffer.position());
+                if (book != null) {
+                    books.add(book);
+                } else {
+                    errors.add(lineParser.createLineError(lineCount));
+                }
+
+                lineCount++;
+                lineStart = lineEnd + 1;
+            }
+
+            return null;
+        }
+    }
+}
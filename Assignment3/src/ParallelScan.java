@@ -0,0 +1,179 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntPredicate;
+
+/**
+ * Class responsible for evaluating a filter over a range of positions on multiple cores.
+ *
+ * The first positions are always evaluated on the calling thread, timing how long they take.
+ * Only if the pool has several workers and the remaining positions are estimated to take long
+ * enough to be worth splitting, they are cut into chunks which are evaluated in parallel, so the
+ * number of positions above which a scan runs in parallel is measured for every filter at runtime
+ * rather than fixed.
+ * The matches of the chunks are joined in order, so the returned positions are the same as
+ * for a sequential scan.
+ *
+ * Filters evaluated in parallel must not change any state, and nothing they read may be
+ * changed until the scan is finished.
+ */
+public class ParallelScan {
+
+    /** Number of positions evaluated on the calling thread to measure the cost of the filter. */
+    private static final int SAMPLE_SIZE = 1024;
+
+    /** Smallest estimated time of the remaining positions worth splitting into chunks, in nanoseconds. */
+    private static final long MIN_PARALLEL_NANOS = 500_000;
+
+    /** Smallest number of positions worth handing to a separate task. */
+    private static final int MIN_CHUNK_SIZE = 1024;
+
+    /** Number of chunks created per worker thread, to balance uneven chunks. */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /** Pool evaluating the chunks. */
+    private final ForkJoinPool pool;
+
+    /** Create a new scan using the common fork/join pool. */
+    public ParallelScan() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create a new scan using the given pool.
+     *
+     * @param pool pool used to evaluate the chunks of a scan
+     * @throws NullPointerException if the given pool is null
+     */
+    public ParallelScan(ForkJoinPool pool) {
+        this.pool = Objects.requireNonNull(pool, "Given pool must not be null.");
+    }
+
+    /**
+     * Find all positions from 0 to size - 1 matching the given filter.
+     *
+     * @param size number of positions
+     * @param filter filter deciding for each position whether it matches
+     * @return matching positions in ascending order
+     * @throws NullPointerException if the given filter is null
+     * @throws IllegalArgumentException if the given size is negative
+     */
+    public int[] filter(int size, IntPredicate filter) {
+        Objects.requireNonNull(filter, "Given filter must not be null.");
+        if (size < 0) {
+            throw new IllegalArgumentException("Given size must not be negative: " + size);
+        }
+
+        int sampleEnd = Math.min(size, SAMPLE_SIZE);
+        long start = System.nanoTime();
+        int[] sample = filterRange(0, sampleEnd, filter);
+        long elapsed = System.nanoTime() - start;
+
+        int remaining = size - sampleEnd;
+        int chunkSize = computeChunkSize(remaining);
+        if (remaining == 0 || chunkSize >= remaining || pool.getParallelism() < 2
+                || (double) elapsed / sampleEnd * remaining < MIN_PARALLEL_NANOS) {
+            return concat(sample, filterRange(sampleEnd, size, filter));
+        }
+
+        List<ChunkTask> tasks = new ArrayList<>();
+        for (int from = sampleEnd; from < size; from += chunkSize) {
+            tasks.add(new ChunkTask(from, Math.min(size, from + chunkSize), filter));
+        }
+        for (ChunkTask task : tasks) {
+            pool.execute(task);
+        }
+
+        // joins the chunks in order, which keeps the matches in ascending order
+        int[][] matches = new int[tasks.size() + 1][];
+        matches[0] = sample;
+        for (int i = 0; i < tasks.size(); i++) {
+            matches[i + 1] = tasks.get(i).join();
+        }
+        return concat(matches);
+    }
+
+    /**
+     * Compute the size of the chunks the given number of positions is cut into, so every
+     * worker of the pool gets several chunks.
+     *
+     * @param positionCount number of positions to be split
+     * @return number of positions per chunk
+     */
+    private int computeChunkSize(int positionCount) {
+        int chunkCount = pool.getParallelism() * CHUNKS_PER_THREAD;
+        return Math.max(MIN_CHUNK_SIZE, (positionCount + chunkCount - 1) / chunkCount);
+    }
+
+    /**
+     * Find all positions of the given range matching the given filter on the calling thread.
+     *
+     * @param from first position of the range
+     * @param to position after the last position of the range
+     * @param filter filter deciding for each position whether it matches
+     * @return matching positions in ascending order
+     */
+    private static int[] filterRange(int from, int to, IntPredicate filter) {
+        int[] matches = new int[to - from];
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (filter.test(i)) {
+                matches[count++] = i;
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    /**
+     * Join the given arrays of positions in the given order.
+     *
+     * @param parts arrays of positions
+     * @return single array of all positions
+     */
+    private static int[] concat(int[]... parts) {
+        int length = 0;
+        for (int[] part : parts) {
+            length += part.length;
+        }
+
+        int[] result = new int[length];
+        int offset = 0;
+        for (int[] part : parts) {
+            System.arraycopy(part, 0, result, offset, part.length);
+            offset += part.length;
+        }
+        return result;
+    }
+
+    /**
+     * Task evaluating a filter over a chunk of positions.
+     */
+    private static class ChunkTask extends RecursiveTask<int[]> {
+
+        /** Version of the serialized form, as fork/join tasks are serializable. */
+        private static final long serialVersionUID = 1L;
+
+        /** First position of the chunk. */
+        private final int from;
+
+        /** Position after the last position of the chunk. */
+        private final int to;
+
+        /** Filter deciding for each position whether it matches. */
+        private final IntPredicate filter;
+
+        private ChunkTask(int from, int to, IntPredicate filter) {
+            this.from = from;
+            this.to = to;
+            this.filter = filter;
+        }
+
+        @Override
+        protected int[] compute() {
+            return filterRange(from, to, filter);
+        }
+    }
+}
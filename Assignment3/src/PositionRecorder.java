@@ -0,0 +1,63 @@
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Filter recording all positions accepted by another filter, used by stores which
+ * have to know which positions a removal by filter has removed.
+ */
+class PositionRecorder implements IntPredicate {
+
+    /** Initial number of accepted positions the recorder has room for. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** Filter deciding which positions are accepted. */
+    private final IntPredicate filter;
+
+    /** Accepted positions in the order they were tested. */
+    private int[] positions;
+
+    /** Number of accepted positions. */
+    private int count;
+
+    /**
+     * Create a recorder for the given filter.
+     *
+     * @param filter filter deciding which positions are accepted
+     */
+    PositionRecorder(IntPredicate filter) {
+        this.filter = filter;
+        positions = new int[INITIAL_CAPACITY];
+        count = 0;
+    }
+
+    @Override
+    public boolean test(int index) {
+        if (!filter.test(index)) {
+            return false;
+        }
+        if (count == positions.length) {
+            positions = Arrays.copyOf(positions, 2 * count);
+        }
+        positions[count++] = index;
+        return true;
+    }
+
+    /**
+     * Get the accepted positions.
+     *
+     * @return accepted positions in ascending order, only the first getCount elements are used
+     */
+    int[] getPositions() {
+        Arrays.sort(positions, 0, count);
+        return positions;
+    }
+
+    /**
+     * Get the number of accepted positions.
+     *
+     * @return number of accepted positions
+     */
+    int getCount() {
+        return count;
+    }
+}
@@ -1,7 +1,6 @@
 import java.util.Arrays;
-import java.util.Iterator;
-import java.util.List;
 import java.util.Objects;
+import java.util.function.IntPredicate;
 
 public class RemoveCmd extends LibraryCommand {
 
@@ -55,7 +54,9 @@ public class RemoveCmd extends LibraryCommand {
     public void execute(LibraryData data) {
         Objects.requireNonNull(data, ExceptionMessage.NULL_DATA.getExceptionMessage());
 
-        List<BookEntry> bookEntries = data.getBookData();
+        // removing by author needs the authors, which requires all entries to be validated
+        BookStore bookEntries = firstCommandArgument == RemoveCommandArgument.AUTHOR
+                ? data.getValidatedBookStore() : data.getBookStore();
         Objects.requireNonNull(bookEntries, ExceptionMessage.NULL_BOOK_ENTRIES.getExceptionMessage());
 
         // removes the required books depending on whether the user chose to remove by title or author
@@ -75,25 +76,22 @@ public class RemoveCmd extends LibraryCommand {
     /**
      * Go through the given books and removes any book which title is equal to the input value of the user.
      *
-     * @param books List of books from which a possible book can be removed.
+     * @param books Store of books from which a possible book can be removed.
      */
-    private void removeByTitle(List<BookEntry> books) {
+    private void removeByTitle(BookStore books) {
         Objects.requireNonNull(books, ExceptionMessage.NULL_BOOKS.getExceptionMessage());
 
         int removedBooks = 0;
-        Iterator<BookEntry> titleIterator = books.iterator();
 
         // iterates through the books, and removes a book if its title is equal to secondArgument
-        while (titleIterator.hasNext()) {
-            BookEntry book = titleIterator.next();
-            if (book == null) {
+        for (int i = 0; i < books.size(); i++) {
+            if (!books.hasBook(i)) {
                 continue;
             }
-            String title = book.getTitle();
-            if (title.equals(secondCommandArgument)) {
-                titleIterator.remove();
+            if (books.hasTitle(i, secondCommandArgument)) {
+                books.remove(i);
                 removedBooks++;
-                System.out.printf("%s: removed successfully.\n", title);
+                System.out.printf("%s: removed successfully.\n", secondCommandArgument);
                 break;
             }
         }
@@ -104,28 +102,22 @@ public class RemoveCmd extends LibraryCommand {
 
     /**
      * Go through the given books and removes any book that has the same author as the input value of the user.
+     * If the store can be scanned in parallel, the books of the author are found by a parallel scan first.
      *
-     * @param books list of books from which possible books can be removed.
+     * @param books store of books from which possible books can be removed.
      */
-    private void removeByAuthor(List<BookEntry> books) {
+    private void removeByAuthor(BookStore books) {
         Objects.requireNonNull(books, ExceptionMessage.NULL_BOOKS.getExceptionMessage());
 
-        int removedBooks = 0;
-        Iterator<BookEntry> authorIterator = books.iterator();
-
-        // iterates through the books, and removes a book if one of its authors is equal to secondArgument
-        while (authorIterator.hasNext()) {
-            BookEntry book = authorIterator.next();
-            if (book == null) {
-                continue;
-            }
-            String[] authors = book.getAuthors();
-            if (Arrays.asList(authors).contains(secondCommandArgument)) {
-                authorIterator.remove();
-                removedBooks++;
-            }
+        IntPredicate authorFilter = books.authorFilter(secondCommandArgument);
+        if (books.supportsParallelScan()) {
+            int[] positions = new ParallelScan().filter(books.size(), authorFilter);
+            authorFilter = index -> Arrays.binarySearch(positions, index) >= 0;
         }
 
+        // removes every book of which one of the authors is equal to secondArgument in a single pass
+        int removedBooks = books.removeIf(authorFilter);
+
         System.out.printf("%d books removed for author: %s\n", removedBooks, secondCommandArgument);
     }
 
@@ -0,0 +1,9 @@
+/**
+ * All available levels of detail in which problems while loading book data are reported.
+ */
+public enum ReportDetail {
+    /** Print counts and a few samples of the lines and duplicates which were not loaded. */
+    SUMMARY,
+    /** Print the summary and additionally write every line and duplicate which was not loaded to a log file. */
+    VERBOSE
+}
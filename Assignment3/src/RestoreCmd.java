@@ -0,0 +1,58 @@
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Objects;
+
+/**
+ * Restore command used to replace all books of the library by the books of a binary snapshot file.
+ */
+public class RestoreCmd extends LibraryCommand {
+
+    /**
+     * Path of the snapshot file to be read.
+     */
+    private Path snapshotPath;
+
+    /**
+     * Create a restore command.
+     *
+     * @param argumentInput Command argument
+     * @throws IllegalArgumentException If given arguments are invalid.
+     * @throws NullPointerException     If the given argumentInput is null.
+     */
+    public RestoreCmd(String argumentInput) {
+        super(CommandType.RESTORE, argumentInput);
+    }
+
+    /**
+     * Execute the restore command. This method calls the given LibraryData instance's restoreData
+     * in order to read the snapshot file.
+     *
+     * @param data book data to be considered for command execution.
+     * @throws NullPointerException If data is null.
+     */
+    @Override
+    public void execute(LibraryData data) {
+        Objects.requireNonNull(data, ExceptionMessage.NULL_DATA.getExceptionMessage());
+
+        data.restoreData(snapshotPath);
+    }
+
+    /**
+     * Parse the given command argument and assigns it to the instance variable.
+     *
+     * @param argumentInput Path to a snapshot file, which could include subfolders or only a file name.
+     * @return True if the argument is a valid path that indicates a file name which ends with ".snapshot".
+     * @throws NullPointerException If the given argumentInput is null.
+     */
+    @Override
+    protected boolean parseArguments(String argumentInput) {
+        Objects.requireNonNull(argumentInput, ExceptionMessage.NULL_ARGUMENT.getExceptionMessage());
+
+        if (!argumentInput.endsWith(SaveCmd.FILE_EXTENSION)) {
+            return false;
+        }
+
+        snapshotPath = Paths.get(argumentInput);
+        return true;
+    }
+}
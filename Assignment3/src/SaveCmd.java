@@ -0,0 +1,63 @@
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Objects;
+
+/**
+ * Save command used to write all books of the library to a binary snapshot file.
+ */
+public class SaveCmd extends LibraryCommand {
+
+    /**
+     * File extension that a snapshot file must have.
+     */
+    static final String FILE_EXTENSION = ".snapshot";
+
+    /**
+     * Path of the snapshot file to be written.
+     */
+    private Path snapshotPath;
+
+    /**
+     * Create a save command.
+     *
+     * @param argumentInput Command argument
+     * @throws IllegalArgumentException If given arguments are invalid.
+     * @throws NullPointerException     If the given argumentInput is null.
+     */
+    public SaveCmd(String argumentInput) {
+        super(CommandType.SAVE, argumentInput);
+    }
+
+    /**
+     * Execute the save command. This method calls the given LibraryData instance's saveData
+     * in order to write the snapshot file.
+     *
+     * @param data book data to be considered for command execution.
+     * @throws NullPointerException If data is null.
+     */
+    @Override
+    public void execute(LibraryData data) {
+        Objects.requireNonNull(data, ExceptionMessage.NULL_DATA.getExceptionMessage());
+
+        data.saveData(snapshotPath);
+    }
+
+    /**
+     * Parse the given command argument and assigns it to the instance variable.
+     *
+     * @param argumentInput Path to a snapshot file, which could include subfolders or only a file name.
+     * @return True if the argument is a valid path that indicates a file name which ends with ".snapshot".
+     * @throws NullPointerException If the given argumentInput is null.
+     */
+    @Override
+    protected boolean parseArguments(String argumentInput) {
+        Objects.requireNonNull(argumentInput, ExceptionMessage.NULL_ARGUMENT.getExceptionMessage());
+
+        if (!argumentInput.endsWith(FILE_EXTENSION)) {
+            return false;
+        }
+
+        snapshotPath = Paths.get(argumentInput);
+        return true;
+    }
+}
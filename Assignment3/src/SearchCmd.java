@@ -1,18 +1,55 @@
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.IntPredicate;
 
 public class SearchCmd extends LibraryCommand {
 
+    /**
+     * All available fields of a fuzzy search.
+     */
+    private enum FuzzyField {
+        TITLE,
+        AUTHOR
+    }
+
     /**
      * Separator between the arguments from user input.
      */
     private static final String COMMAND_ARGUMENT_DELIMITER = " ";
 
+    /**
+     * Keyword preceding the arguments of a fuzzy search.
+     */
+    private static final String FUZZY_KEYWORD = "FUZZY";
+
+    /**
+     * Length of the longest search values for which a fuzzy search only allows SHORT_VALUE_MAX_DISTANCE edits.
+     */
+    private static final int SHORT_VALUE_LENGTH = 4;
+
+    /**
+     * Largest number of edits a fuzzy search allows for short search values.
+     */
+    private static final int SHORT_VALUE_MAX_DISTANCE = 1;
+
+    /**
+     * Largest number of edits a fuzzy search allows for longer search values.
+     */
+    private static final int MAX_DISTANCE = 2;
+
     /**
      * Command argument that follows the SEARCH command which is currently being executed.
      */
     private String commandArgument;
 
+    /**
+     * Field searched by the fuzzy search which is currently being executed, null for a search of titles
+     * containing the search value.
+     */
+    private FuzzyField fuzzyField;
+
     /**
      * Create a search command.
      *
@@ -27,6 +64,8 @@ public class SearchCmd extends LibraryCommand {
     /**
      * Execute the search command. It prints the titles of all books that
      * contain the search value to the command line in the order they are found.
+     * A fuzzy search prints the titles of all books whose title or authors contain a word
+     * within one or two edits of the search value, ranked by the number of edits.
      *
      * @param data Book data to be considered for command execution.
      * @throws NullPointerException If data is null.
@@ -36,10 +75,13 @@ public class SearchCmd extends LibraryCommand {
     public void execute(LibraryData data) {
         Objects.requireNonNull(data, ExceptionMessage.NULL_DATA.getExceptionMessage());
 
-        List<BookEntry> bookEntries = data.getBookData();
+        // searching the authors needs the authors, which requires all entries to be validated
+        BookStore bookEntries = fuzzyField == FuzzyField.AUTHOR ? data.getValidatedBookStore() : data.getBookStore();
         Objects.requireNonNull(bookEntries, ExceptionMessage.NULL_BOOK_ENTRIES.getExceptionMessage());
 
-        StringBuilder searchOutput = createSearchOutput(bookEntries);
+        StringBuilder searchOutput = fuzzyField == null
+                ? createSearchOutput(bookEntries, data.getTitleIndex())
+                : createFuzzySearchOutput(bookEntries, data);
 
         if (searchOutput.length() == 0) {
             System.out.printf("No hits found for search term: %s\n", commandArgument);
@@ -49,45 +91,144 @@ public class SearchCmd extends LibraryCommand {
     }
 
     /**
-     * Create the search output by searching through the titles of all books and checking
-     * if any of the titles match the search parameter ignoring the case.
+     * Create the search output from the titles of the books matching the search parameter ignoring
+     * the case and diacritics. The search parameter is folded once and compared with the folded
+     * titles kept by the title index, so no title is converted while searching.
      *
-     * @param books List of books from which the search output is created.
+     * @param books Store of books from which the search output is created.
+     * @param titleIndex Index of the titles of the given books.
      * @return StringBuilder containing the search output.
      */
-    private StringBuilder createSearchOutput(List<BookEntry> books) {
+    private StringBuilder createSearchOutput(BookStore books, TitleIndex titleIndex) {
         Objects.requireNonNull(books, ExceptionMessage.NULL_BOOKS.getExceptionMessage());
+        Objects.requireNonNull(titleIndex, "Given title index must not be null.");
 
-        StringBuilder output = new StringBuilder();
+        // hits are in ascending order, so the titles are appended in the order of the books
+        return appendTitles(books, titleIndex.search(TitleIndex.fold(commandArgument)));
+    }
+
+    /**
+     * Create the search output from the titles of the books whose title or authors, depending on the
+     * searched field, contain a word within a small number of edits of the search parameter, ignoring
+     * the case and diacritics. Words are looked up in the BK-trees of the title and author name indices,
+     * so the search parameter is only compared with a small part of the words, and never with a book.
+     *
+     * @param books Store of books from which the search output is created.
+     * @param data Book data providing the indices of the given books.
+     * @return StringBuilder containing the search output, ranked by the number of edits.
+     */
+    private StringBuilder createFuzzySearchOutput(BookStore books, LibraryData data) {
+        Objects.requireNonNull(books, ExceptionMessage.NULL_BOOKS.getExceptionMessage());
+
+        String foldedValue = TitleIndex.fold(commandArgument);
+        int maxDistance = foldedValue.length() <= SHORT_VALUE_LENGTH ? SHORT_VALUE_MAX_DISTANCE : MAX_DISTANCE;
+
+        switch (fuzzyField) {
+            case TITLE:
+                return appendTitles(books, data.getTitleIndex().fuzzySearch(foldedValue, maxDistance));
+            case AUTHOR:
+                return appendTitles(books, findAuthorBooks(books,
+                        data.getAuthorNameIndex().fuzzySearch(foldedValue, maxDistance)));
+            default:
+                throw new IllegalArgumentException(String.format("Fuzzy search field should be" +
+                        " either TITLE or AUTHOR: %s", fuzzyField));
+        }
+    }
 
-        // iterates through the books, and if a book title contains the commandArgument (ignoring the case),
-        // then the title gets appended to consoleOutput
-        for (BookEntry book : books) {
-            if (book == null) {
+    /**
+     * Find the positions of the books written by the given authors, keeping the order of the authors' ranks.
+     *
+     * @param books Store of books to search.
+     * @param rankedNames Names of the authors grouped by rank, best rank first.
+     * @return Positions of the books, ordered by the best rank of their authors and by position within a rank.
+     */
+    private int[] findAuthorBooks(BookStore books, List<List<String>> rankedNames) {
+        BitSet foundBooks = new BitSet(books.size());
+        int[] positions = new int[books.size()];
+        int count = 0;
+
+        for (List<String> names : rankedNames) {
+            if (names.isEmpty()) {
                 continue;
             }
-            String titleLowerCase = book.getTitle().toLowerCase();
-            String argumentLowerCase = commandArgument.toLowerCase();
-            if (titleLowerCase.contains(argumentLowerCase)) {
-                String title = book.getTitle();
-                output.append(title).append("\n");
+            IntPredicate[] authorFilters = new IntPredicate[names.size()];
+            for (int i = 0; i < authorFilters.length; i++) {
+                authorFilters[i] = books.authorFilter(names.get(i));
+            }
+            IntPredicate anyAuthorFilter = index -> {
+                for (IntPredicate authorFilter : authorFilters) {
+                    if (authorFilter.test(index)) {
+                        return true;
+                    }
+                }
+                return false;
+            };
+
+            for (int position : findBooks(books, anyAuthorFilter)) {
+                if (!foundBooks.get(position)) {
+                    foundBooks.set(position);
+                    positions[count++] = position;
+                }
             }
         }
 
+        return Arrays.copyOf(positions, count);
+    }
+
+    /**
+     * Find the positions of all books matching the given filter, scanning the books in parallel if the store allows it.
+     *
+     * @param books Store of books to scan.
+     * @param filter Filter deciding for each position whether its book matches.
+     * @return Positions of the matching books in ascending order.
+     */
+    private static int[] findBooks(BookStore books, IntPredicate filter) {
+        if (books.supportsParallelScan()) {
+            return new ParallelScan().filter(books.size(), filter);
+        }
+
+        int[] positions = new int[books.size()];
+        int count = 0;
+        for (int i = 0; i < books.size(); i++) {
+            if (filter.test(i)) {
+                positions[count++] = i;
+            }
+        }
+        return Arrays.copyOf(positions, count);
+    }
+
+    /**
+     * Append the titles of the books at the given positions, one per line and in the given order.
+     *
+     * @param books Store of books the positions refer to.
+     * @param positions Positions of the books.
+     * @return StringBuilder containing the titles.
+     */
+    private static StringBuilder appendTitles(BookStore books, int[] positions) {
+        StringBuilder output = new StringBuilder();
+        for (int position : positions) {
+            books.appendTitle(position, output);
+            output.append("\n");
+        }
         return output;
     }
 
     /**
-     * Parse the given command argument and assigns it to the instance variable.
+     * Parse the given command argument and assigns it to the instance variables.
      *
-     * @param argumentInput Command argument that follows the search command, which is a specific search value.
-     * @return True if the argument is a single word (no white spaces in between) and is not entirely blank.
+     * @param argumentInput Command argument that follows the search command, which is a specific search value,
+     *                      or FUZZY followed by TITLE or AUTHOR and the search value for a fuzzy search.
+     * @return True if the search value is a single word (no white spaces in between) and is not entirely blank.
      * @throws NullPointerException If the given argumentInput is null.
      */
     @Override
     protected boolean parseArguments(String argumentInput) {
         Objects.requireNonNull(argumentInput, ExceptionMessage.NULL_ARGUMENT.getExceptionMessage());
 
+        if (argumentInput.startsWith(FUZZY_KEYWORD + COMMAND_ARGUMENT_DELIMITER)) {
+            return parseFuzzyArguments(argumentInput.substring(FUZZY_KEYWORD.length() + 1));
+        }
+
         // checks that the search value is a single word and is not entirely blank
         if ((argumentInput.trim().contains(COMMAND_ARGUMENT_DELIMITER) || (argumentInput.isBlank()))) {
             return false;
@@ -97,4 +238,49 @@ public class SearchCmd extends LibraryCommand {
 
         return true;
     }
+
+    /**
+     * Parse the arguments of a fuzzy search and assigns them to the instance variables.
+     *
+     * @param argumentInput Arguments following the FUZZY keyword, which are TITLE or AUTHOR
+     *                      followed by the search value.
+     * @return True if the field is either TITLE or AUTHOR and the search value is a single word
+     * which is not entirely blank.
+     */
+    private boolean parseFuzzyArguments(String argumentInput) {
+        if (!argumentInput.contains(COMMAND_ARGUMENT_DELIMITER)) {
+            return false;
+        }
+
+        int delimiterIndex = argumentInput.indexOf(COMMAND_ARGUMENT_DELIMITER);
+        FuzzyField field = parseFuzzyField(argumentInput.substring(0, delimiterIndex));
+        String value = argumentInput.substring(delimiterIndex + 1);
+
+        // checks that the search value is a single word and is not entirely blank
+        if (field == null || value.trim().contains(COMMAND_ARGUMENT_DELIMITER) || value.isBlank()) {
+            return false;
+        }
+
+        fuzzyField = field;
+        commandArgument = value;
+
+        return true;
+    }
+
+    /**
+     * Translate given command keyword to corresponding FuzzyField.
+     *
+     * @param inputArgument Command keyword.
+     * @return FuzzyField associated with given keyword or null if no association was found.
+     */
+    private FuzzyField parseFuzzyField(String inputArgument) {
+        // iterates through the values of the enum, and returns the one which is associated with inputArgument
+        for (FuzzyField field : FuzzyField.values()) {
+            if (field.name().equals(inputArgument)) {
+                return field;
+            }
+        }
+
+        return null; // returns null if no association has been found
+    }
 }
@@ -0,0 +1,454 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable file of book entries sorted by key, the building block of an LsmEngine.
+ *
+ * A run file consists of a header (magic number and format version), the entries in ascending key
+ * order, a sparse index holding the key and offset of every INDEX_INTERVAL-th entry, a Bloom filter
+ * over all keys and a fixed-size footer locating index and filter. Every entry is stored as its key,
+ * the length of the encoded book and the encoded book. Removed books are stored as tombstones, which
+ * have a length of -1 and no book.
+ *
+ * The file is mapped into memory when it is opened, index and filter are read onto the heap.
+ */
+public class SortedRun {
+
+    /** Magic number at the start and end of every run file, "LIBR" in ASCII. */
+    private static final int MAGIC = 0x4C494252;
+
+    /** Version of the run format written by this class. */
+    private static final int FORMAT_VERSION = 1;
+
+    /** Size of the run file header, in bytes. */
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+
+    /** Size of the run file footer, in bytes. */
+    private static final int FOOTER_SIZE = 4 * Long.BYTES + Integer.BYTES + Integer.BYTES;
+
+    /** Number of entries per sparse index entry. */
+    private static final int INDEX_INTERVAL = 32;
+
+    /** False positive rate of the Bloom filter of a run. */
+    private static final double BLOOM_FALSE_POSITIVE_RATE = 0.01;
+
+    /** Size of the buffer used when writing entries, in bytes. */
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    /** Length marking an entry as tombstone. */
+    private static final int TOMBSTONE = -1;
+
+    /** Path of the run file. */
+    private final Path runFile;
+
+    /** Mapped content of the run file. */
+    private final MappedByteBuffer content;
+
+    /** Number of entries including tombstones. */
+    private final long entryCount;
+
+    /** Smallest key of the run. */
+    private final long minKey;
+
+    /** Largest key of the run. */
+    private final long maxKey;
+
+    /** Key of every INDEX_INTERVAL-th entry. */
+    private final long[] indexKeys;
+
+    /** Offset of every INDEX_INTERVAL-th entry. */
+    private final int[] indexOffsets;
+
+    /** Bloom filter over all keys of the run. */
+    private final BloomFilter bloomFilter;
+
+    /** Offset of the end of the entries. */
+    private final int entriesEnd;
+
+    /**
+     * Open an existing run file.
+     *
+     * @param runFile path of the run file
+     * @throws IOException if the run file cannot be read or is corrupted
+     * @throws NullPointerException if the given path is null
+     */
+    public SortedRun(Path runFile) throws IOException {
+        this.runFile = Objects.requireNonNull(runFile, "Given run file must not be null.");
+
+        try (FileChannel channel = FileChannel.open(runFile, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE + FOOTER_SIZE || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Run file is corrupted: invalid size " + channel.size());
+            }
+            content = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        try {
+            if (content.getInt(0) != MAGIC || content.getInt(Integer.BYTES) != FORMAT_VERSION) {
+                throw new IOException("File is not a run file of the supported version: " + runFile);
+            }
+
+            ByteBuffer footer = content.duplicate().position(content.capacity() - FOOTER_SIZE);
+            entryCount = footer.getLong();
+            minKey = footer.getLong();
+            maxKey = footer.getLong();
+            long indexOffset = footer.getLong();
+            int indexCount = footer.getInt();
+            if (footer.getInt() != MAGIC || indexOffset < HEADER_SIZE || indexCount < 0
+                    || indexCount > (content.capacity() - indexOffset) / (Long.BYTES + Integer.BYTES)) {
+                throw new IOException("Run file is corrupted: " + runFile);
+            }
+
+            entriesEnd = (int) indexOffset;
+            ByteBuffer index = content.duplicate().position(entriesEnd);
+            indexKeys = new long[indexCount];
+            indexOffsets = new int[indexCount];
+            for (int i = 0; i < indexCount; i++) {
+                indexKeys[i] = index.getLong();
+                indexOffsets[i] = index.getInt();
+            }
+            bloomFilter = BloomFilter.read(index);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Run file is corrupted: " + runFile, e);
+        }
+    }
+
+    /**
+     * Write the given entries to a new run file. The file is written under a temporary name, forced
+     * to disk and then moved to the given path, so a run file is either complete or missing.
+     *
+     * @param runFile path of the run file
+     * @param entries entries in ascending key order, a null book marks a tombstone
+     * @param expectedEntries number of entries, used to size the Bloom filter
+     * @return opened run
+     * @throws IOException if writing fails
+     * @throws NullPointerException if one of the given parameters is null
+     */
+    public static SortedRun write(Path runFile, Iterator<Map.Entry<Long, BookEntry>> entries, long expectedEntries)
+            throws IOException {
+        Objects.requireNonNull(runFile, "Given run file must not be null.");
+        Objects.requireNonNull(entries, "Given entries must not be null.");
+
+        BloomFilter filter = new BloomFilter(expectedEntries, BLOOM_FALSE_POSITIVE_RATE);
+        ByteBuffer index = ByteBuffer.allocate((int) (expectedEntries / INDEX_INTERVAL + 1)
+                * (Long.BYTES + Integer.BYTES));
+        long count = 0;
+        long minKey = 0;
+        long maxKey = 0;
+        long offset = HEADER_SIZE;
+
+        Path tempFile = runFile.resolveSibling(runFile.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel),
+                     WRITE_BUFFER_SIZE))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+
+            while (entries.hasNext()) {
+                Map.Entry<Long, BookEntry> entry = entries.next();
+                long key = entry.getKey();
+                if (count > 0 && key <= maxKey) {
+                    throw new IllegalArgumentException("Given entries are not in ascending key order: " + key);
+                }
+                if (count == 0) {
+                    minKey = key;
+                }
+                maxKey = key;
+
+                if (count % INDEX_INTERVAL == 0) {
+                    if (index.remaining() == 0) {
+                        index = ByteBuffer.allocate(2 * index.capacity()).put(index.flip());
+                    }
+                    index.putLong(key);
+                    index.putInt((int) offset);
+                }
+                filter.add(BloomFilter.hash(key));
+
+                out.writeLong(key);
+                if (entry.getValue() == null) {
+                    out.writeInt(TOMBSTONE);
+                    offset += Long.BYTES + Integer.BYTES;
+                } else {
+                    byte[] book = encodeBook(entry.getValue());
+                    out.writeInt(book.length);
+                    out.write(book);
+                    offset += Long.BYTES + Integer.BYTES + book.length;
+                }
+                if (offset > Integer.MAX_VALUE / 2) {
+                    throw new IOException("Run file is too large: " + runFile);
+                }
+                count++;
+            }
+
+            ByteBuffer trailer = ByteBuffer.allocate(index.position() + filter.getSerializedSize() + FOOTER_SIZE);
+            trailer.put(index.flip());
+            filter.write(trailer);
+            trailer.putLong(count);
+            trailer.putLong(minKey);
+            trailer.putLong(maxKey);
+            trailer.putLong(offset);
+            trailer.putInt((int) (count + INDEX_INTERVAL - 1) / INDEX_INTERVAL);
+            trailer.putInt(MAGIC);
+            out.write(trailer.array());
+            out.flush();
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+
+        Files.move(tempFile, runFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return new SortedRun(runFile);
+    }
+
+    /**
+     * Get the path of the run file.
+     *
+     * @return path of the run file
+     */
+    public Path getRunFile() {
+        return runFile;
+    }
+
+    /**
+     * Get the number of entries including tombstones.
+     *
+     * @return number of entries
+     */
+    public long getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * Get the smallest key of the run.
+     *
+     * @return smallest key, undefined if the run is empty
+     */
+    public long getMinKey() {
+        return minKey;
+    }
+
+    /**
+     * Get the largest key of the run.
+     *
+     * @return largest key, undefined if the run is empty
+     */
+    public long getMaxKey() {
+        return maxKey;
+    }
+
+    /**
+     * Check whether the key range of the run overlaps the given key range.
+     *
+     * @param from smallest key of the range
+     * @param to largest key of the range
+     * @return true if the run may hold keys of the range
+     */
+    public boolean overlaps(long from, long to) {
+        return entryCount > 0 && minKey <= to && maxKey >= from;
+    }
+
+    /**
+     * Check whether the run may hold an entry with the given key, using the key range and the
+     * Bloom filter of the run.
+     *
+     * @param key key to look for
+     * @return false if the run certainly holds no entry with the given key
+     */
+    public boolean mightContain(long key) {
+        return overlaps(key, key) && bloomFilter.mightContain(BloomFilter.hash(key));
+    }
+
+    /**
+     * Look up the entry with the given key.
+     *
+     * @param key key to look for
+     * @return cursor positioned on the entry, or null if the run holds no entry with the given key
+     */
+    public Cursor find(long key) {
+        if (!mightContain(key)) {
+            return null;
+        }
+        Cursor cursor = cursor(key);
+        return cursor.hasEntry() && cursor.getKey() == key ? cursor : null;
+    }
+
+    /**
+     * Create a cursor positioned on the first entry whose key is at least the given key.
+     *
+     * @param fromKey smallest key of interest
+     * @return new cursor
+     */
+    public Cursor cursor(long fromKey) {
+        // last index entry whose key is at most the given key
+        int low = 0;
+        int high = indexKeys.length - 1;
+        int start = -1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (indexKeys[middle] <= fromKey) {
+                start = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+
+        Cursor cursor = new Cursor(start < 0 ? HEADER_SIZE : indexOffsets[start]);
+        while (cursor.hasEntry() && cursor.getKey() < fromKey) {
+            cursor.next();
+        }
+        return cursor;
+    }
+
+    /**
+     * Encode the data values of a book.
+     *
+     * @param book book to be encoded
+     * @return encoded book
+     */
+    static byte[] encodeBook(BookEntry book) {
+        byte[] title = book.getTitle().getBytes(StandardCharsets.UTF_8);
+        byte[] isbn = book.getISBN().getBytes(StandardCharsets.UTF_8);
+        String[] authors = book.getAuthors();
+        byte[][] authorBytes = new byte[authors.length][];
+        int size = 4 * Integer.BYTES + Float.BYTES + title.length + isbn.length;
+        for (int i = 0; i < authors.length; i++) {
+            authorBytes[i] = authors[i].getBytes(StandardCharsets.UTF_8);
+            size += Integer.BYTES + authorBytes[i].length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(title.length).put(title);
+        buffer.putInt(authorBytes.length);
+        for (byte[] author : authorBytes) {
+            buffer.putInt(author.length).put(author);
+        }
+        buffer.putFloat(book.getRating());
+        buffer.putInt(isbn.length).put(isbn);
+        buffer.putInt(book.getPages());
+        return buffer.array();
+    }
+
+    /**
+     * Decode a book encoded by encodeBook at the position of the given buffer.
+     *
+     * @param buffer buffer to decode from
+     * @return decoded book
+     * @throws BufferUnderflowException if the buffer ends within the book
+     * @throws IllegalArgumentException if the buffer does not hold a valid book
+     */
+    static BookEntry decodeBook(ByteBuffer buffer) {
+        String title = getString(buffer);
+        int authorCount = buffer.getInt();
+        if (authorCount < 0 || authorCount > buffer.remaining() / Integer.BYTES) {
+            throw new IllegalArgumentException("Invalid number of authors: " + authorCount);
+        }
+        String[] authors = new String[authorCount];
+        for (int i = 0; i < authors.length; i++) {
+            authors[i] = getString(buffer);
+        }
+        float rating = buffer.getFloat();
+        String isbn = getString(buffer);
+        int pages = buffer.getInt();
+        return new BookEntry(title, authors, rating, isbn, pages);
+    }
+
+    /**
+     * Read a string stored as its UTF-8 length followed by its UTF-8 bytes.
+     *
+     * @param buffer buffer to read from
+     * @return string read
+     */
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("Invalid string length: " + length);
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+                StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    /**
+     * Cursor iterating over the entries of a run in ascending key order.
+     */
+    public class Cursor {
+
+        /** Offset of the current entry, entriesEnd if the cursor is exhausted. */
+        private int offset;
+
+        /**
+         * Create a cursor positioned on the entry at the given offset.
+         *
+         * @param offset offset of an entry
+         */
+        private Cursor(int offset) {
+            this.offset = offset;
+        }
+
+        /**
+         * Check whether the cursor is positioned on an entry.
+         *
+         * @return false if the cursor is exhausted
+         */
+        public boolean hasEntry() {
+            return offset < entriesEnd;
+        }
+
+        /**
+         * Get the key of the current entry.
+         *
+         * @return key of the current entry
+         */
+        public long getKey() {
+            return content.getLong(offset);
+        }
+
+        /**
+         * Check whether the current entry is a tombstone.
+         *
+         * @return true if the current entry marks a removed book
+         */
+        public boolean isTombstone() {
+            return content.getInt(offset + Long.BYTES) == TOMBSTONE;
+        }
+
+        /**
+         * Decode the book of the current entry.
+         *
+         * @return book of the current entry, null for a tombstone
+         */
+        public BookEntry getBook() {
+            int length = content.getInt(offset + Long.BYTES);
+            if (length == TOMBSTONE) {
+                return null;
+            }
+
+            byte[] book = new byte[length];
+            content.duplicate().position(offset + Long.BYTES + Integer.BYTES).get(book);
+            return decodeBook(ByteBuffer.wrap(book));
+        }
+
+        /** Move to the next entry. */
+        public void next() {
+            int length = content.getInt(offset + Long.BYTES);
+            offset += Long.BYTES + Integer.BYTES + Math.max(length, 0);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Static utility giving the library browser and the ADD command shared access to standard input.
+ *
+ * Commands and book data piped into the program arrive on the same stream, so both are read
+ * through a single buffered reader, and no data is lost in the buffer of another reader. Book
+ * data read from standard input ends at the end of the stream or at a line consisting only of
+ * END_OF_DATA, after which further commands can follow.
+ */
+public final class StandardInput {
+
+    /** Line ending book data read from standard input before the end of the stream. */
+    public static final String END_OF_DATA = ".";
+
+    /** Standard input stream the shared reader was created for. */
+    private static InputStream source;
+
+    /** Shared reader of standard input, null if it has not been created yet. */
+    private static BufferedReader reader;
+
+    /** Not to be used. */
+    private StandardInput() {
+        throw new UnsupportedOperationException("This constructor should never be used.");
+    }
+
+    /**
+     * Get the reader shared by all users of standard input. A new reader is created
+     * if standard input has been reassigned since the shared reader was created.
+     *
+     * @return reader of the UTF-8 text on standard input
+     */
+    public static synchronized BufferedReader getReader() {
+        if (reader == null || source != System.in) {
+            source = System.in;
+            reader = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        }
+        return reader;
+    }
+
+    /**
+     * Open a reader of the book data on standard input, which ends at the end of the stream or at
+     * a line consisting only of END_OF_DATA. Lines are taken from the shared reader only while they
+     * are read, so parsing can start as soon as the first lines arrive. Closing the returned reader
+     * does not close standard input.
+     *
+     * @return reader of the book data
+     */
+    public static BufferedReader newDataReader() {
+        return new BufferedReader(new DataReader(getReader()));
+    }
+
+    /**
+     * Reader passing on the lines of another reader up to the END_OF_DATA line.
+     */
+    private static class DataReader extends Reader {
+
+        /** Reader the lines are taken from. */
+        private final BufferedReader lineSource;
+
+        /** Rest of the line taken last including its line break, which has not been read yet. */
+        private String pending;
+
+        /** Position of the next character of pending to be read. */
+        private int pendingIndex;
+
+        /** True once the END_OF_DATA line or the end of the stream has been reached. */
+        private boolean ended;
+
+        /**
+         * Create a reader of the lines of the given reader.
+         *
+         * @param lineSource reader the lines are taken from
+         */
+        private DataReader(BufferedReader lineSource) {
+            this.lineSource = Objects.requireNonNull(lineSource);
+            pending = "";
+            pendingIndex = 0;
+            ended = false;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            Objects.checkFromIndexSize(offset, length, buffer.length);
+            if (length == 0) {
+                return 0;
+            }
+
+            // only one line is taken at a time, so reading never blocks for more lines than needed
+            if (pendingIndex == pending.length()) {
+                String line = ended ? null : lineSource.readLine();
+                if (line == null || line.equals(END_OF_DATA)) {
+                    ended = true;
+                    return -1;
+                }
+                pending = line + '\n';
+                pendingIndex = 0;
+            }
+
+            int count = Math.min(length, pending.length() - pendingIndex);
+            pending.getChars(pendingIndex, pendingIndex + count, buffer, offset);
+            pendingIndex += count;
+            return count;
+        }
+
+        /**
+         * Skip the lines up to the END_OF_DATA line which have not been read, so they are not
+         * taken for commands. Standard input itself stays open for further commands.
+         */
+        @Override
+        public void close() throws IOException {
+            while (!ended) {
+                String line = lineSource.readLine();
+                ended = line == null || line.equals(END_OF_DATA);
+            }
+        }
+    }
+}
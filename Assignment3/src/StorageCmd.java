@@ -0,0 +1,59 @@
+import java.util.Objects;
+
+/**
+ * Storage command used to choose how the loaded book data is kept in memory.
+ */
+public class StorageCmd extends LibraryCommand {
+
+    /**
+     * Storage type to be used after the command is executed.
+     */
+    private StorageType storageType;
+
+    /**
+     * Create a storage command.
+     *
+     * @param argumentInput Command argument
+     * @throws IllegalArgumentException If given arguments are invalid.
+     * @throws NullPointerException     If the given argumentInput is null.
+     */
+    public StorageCmd(String argumentInput) {
+        super(CommandType.STORAGE, argumentInput);
+    }
+
+    /**
+     * Execute the storage command. This method calls the given LibraryData instance's
+     * setStorageType in order to move the loaded books to the chosen storage.
+     *
+     * @param data book data to be considered for command execution.
+     * @throws NullPointerException If data is null.
+     */
+    @Override
+    public void execute(LibraryData data) {
+        Objects.requireNonNull(data, ExceptionMessage.NULL_DATA.getExceptionMessage());
+
+        data.setStorageType(storageType);
+    }
+
+    /**
+     * Parse the given command argument and assigns it to the instance variable.
+     *
+     * @param argumentInput Name of a storage type, either LIST, COLUMNAR, LAZY, DISK or OFF_HEAP.
+     * @return True if the argument is the name of a storage type.
+     * @throws NullPointerException If the given argumentInput is null.
+     */
+    @Override
+    protected boolean parseArguments(String argumentInput) {
+        Objects.requireNonNull(argumentInput, ExceptionMessage.NULL_ARGUMENT.getExceptionMessage());
+
+        // iterates through the storage types, and keeps the one which is associated with argumentInput
+        for (StorageType type : StorageType.values()) {
+            if (type.name().equals(argumentInput) && type != StorageType.CATALOG) {
+                storageType = type;
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,23 @@
+/**
+ * All available ways of keeping the loaded book data in memory.
+ */
+public enum StorageType {
+    /** Keep every book as a BookEntry object in a list. */
+    LIST,
+    /** Keep each data value of the books in its own column and create BookEntry objects on demand. */
+    COLUMNAR,
+    /** Keep loaded lines as raw bytes and only decode the data values of a book when they are needed. */
+    LAZY,
+    /**
+     * Keep the books in a memory-mapped record file of fixed-size pages, with only a bounded
+     * cache of recently used pages on the heap.
+     */
+    DISK,
+    /** Keep each book as a fixed-size record in direct buffers outside of the garbage collected heap. */
+    OFF_HEAP,
+    /**
+     * Keep the books in an LSM-tree catalog directory, which persists every change. Chosen by the
+     * CATALOG command, as it needs a directory.
+     */
+    CATALOG
+}
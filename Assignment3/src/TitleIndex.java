@@ -0,0 +1,823 @@
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Inverted index from the tokens and trigrams of book titles to the books whose titles contain them.
+ *
+ * Titles are folded once when they are added, i.e. decomposed, stripped of diacritics and
+ * converted to lower case, and the folded titles are kept, so searches compare them with the
+ * folded term without converting any title again. Folded titles are split into tokens, which
+ * are the maximal runs of letters and digits. As a search term consisting only of letters and
+ * digits can only occur within a single token, the books whose titles contain such a term are
+ * exactly the books of the tokens containing it, so no other title has to be looked at.
+ *
+ * Every sequence of three characters of a folded title is a trigram of it, including
+ * spaces and punctuation. A title containing a term contains all trigrams of the term, so
+ * intersecting their posting lists gives a small set of candidates for terms of any characters,
+ * which only have to be verified against their titles.
+ *
+ * Posting lists are not cleaned up when a title is replaced, as the books found by them are
+ * verified against their titles, which rules out stale entries. Once more titles have been
+ * replaced than there are books, all posting lists are rebuilt from the folded titles.
+ *
+ * For fuzzy searches, the distinct tokens are kept in a BK-tree, which is only built when it is
+ * first needed, so the tokens within a small edit distance of a term are found without comparing
+ * the term with every token, let alone every title.
+ *
+ * Books are identified by ids which, unlike their positions, do not change when books before
+ * them are removed. Ids increase with the positions, and the position of an id is its rank
+ * among the ids of books which have not been removed, kept in a Fenwick tree. Removed ids are
+ * skipped when the index is searched and dropped once they outnumber the remaining ones.
+ */
+public class TitleIndex {
+
+    /** Initial number of ids the index has room for. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** Initial number of ids a posting list has room for. */
+    private static final int INITIAL_POSTING_CAPACITY = 4;
+
+    /** Number of removed ids or replaced titles above which they are only dropped if they outnumber the books. */
+    private static final int MIN_COMPACTION_COUNT = 1024;
+
+    /** Number of characters of a trigram. */
+    private static final int TRIGRAM_LENGTH = 3;
+
+    /** Posting lists of all tokens, holding the ids of the books whose titles contain the token. */
+    private final Map<String, Postings> postings;
+
+    /** Posting lists of all trigrams, holding the ids of books whose titles contain the trigram. */
+    private final Map<Long, Postings> trigrams;
+
+    /** Tree of the tokens of all titles, only kept up to date once it has been built. */
+    private final BkTree tokenTree;
+
+    /** Scan checking the folded titles of many books in parallel. */
+    private final ParallelScan scan;
+
+    /** Folded title of every id, null if the position of the id holds no book. */
+    private String[] foldedTitles;
+
+    /** Ids of the books which have not been removed. */
+    private BitSet liveIds;
+
+    /** Fenwick tree counting the ids which have not been removed, indexed by id + 1. */
+    private int[] tree;
+
+    /** Id assigned to the next added book. */
+    private int nextId;
+
+    /** Number of ids which have not been removed. */
+    private int liveCount;
+
+    /** Number of titles replaced since the posting lists were built, whose old entries are stale. */
+    private int replacedCount;
+
+    /** True if the index has been built and kept up to date since. */
+    private boolean valid;
+
+    /** True if the token tree has been built and holds all tokens of the posting lists since. */
+    private boolean tokenTreeBuilt;
+
+    /** Create a new and invalid title index. */
+    public TitleIndex() {
+        postings = new HashMap<>();
+        trigrams = new HashMap<>();
+        tokenTree = new BkTree();
+        scan = new ParallelScan();
+        clear();
+        valid = false;
+    }
+
+    /**
+     * Check whether the index has been built and kept up to date since.
+     *
+     * @return true if the index can be searched
+     */
+    public boolean isValid() {
+        return valid;
+    }
+
+    /** Drop all entries and mark the index as out of date, so it has to be built before it is searched. */
+    public void invalidate() {
+        clear();
+        valid = false;
+    }
+
+    /** Remove all entries, leaving a valid index of no books. */
+    public void clear() {
+        postings.clear();
+        trigrams.clear();
+        tokenTree.clear();
+        tokenTreeBuilt = false;
+        foldedTitles = new String[INITIAL_CAPACITY];
+        liveIds = new BitSet();
+        tree = new int[INITIAL_CAPACITY + 1];
+        nextId = 0;
+        liveCount = 0;
+        replacedCount = 0;
+        valid = true;
+    }
+
+    /**
+     * Build the index for all books of the given store.
+     *
+     * @param store store of the books
+     * @throws NullPointerException if the given store is null
+     */
+    public void build(BookStore store) {
+        Objects.requireNonNull(store, ExceptionMessage.NULL_BOOK_ENTRIES.getExceptionMessage());
+
+        clear();
+        for (int i = 0; i < store.size(); i++) {
+            add(store.hasBook(i) ? store.getTitle(i) : null);
+        }
+    }
+
+    /**
+     * Get the number of positions covered by the index.
+     *
+     * @return number of indexed books
+     */
+    public int size() {
+        return liveCount;
+    }
+
+    /**
+     * Add a book after the last position.
+     *
+     * @param title title of the book, null if the position holds no book
+     */
+    public void add(String title) {
+        int id = nextId++;
+        if (nextId >= tree.length) {
+            rebuildTree(2 * nextId);
+            foldedTitles = Arrays.copyOf(foldedTitles, 2 * nextId);
+        }
+        liveIds.set(id);
+        updateTree(id, 1);
+        liveCount++;
+
+        if (title != null) {
+            addTitle(id, fold(title));
+        }
+    }
+
+    /**
+     * Replace the title of the book at the given position.
+     *
+     * @param position position of the book
+     * @param newTitle title the book has from now on
+     * @throws IndexOutOfBoundsException if the position is out of range
+     */
+    public void set(int position, String newTitle) {
+        int id = idAt(position);
+        // the id stays in the posting lists of the old title, which would take a scan of every list to find it in
+        if (foldedTitles[id] != null) {
+            replacedCount++;
+        }
+        addTitle(id, fold(newTitle));
+        rebuildPostingsIfNeeded();
+    }
+
+    /**
+     * Remove the book at the given position. Books at later positions move one position to the front.
+     *
+     * @param position position of the book
+     * @throws IndexOutOfBoundsException if the position is out of range
+     */
+    public void remove(int position) {
+        removeId(idAt(position));
+        compactIfNeeded();
+    }
+
+    /**
+     * Remove the books at the given positions, which refer to the positions before any of them is removed.
+     *
+     * @param positions positions of the books in ascending order
+     * @param count number of positions used from the start of the given array
+     * @throws IndexOutOfBoundsException if one of the positions is out of range
+     */
+    public void removeAll(int[] positions, int count) {
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = idAt(positions[i]);
+        }
+        for (int id : ids) {
+            removeId(id);
+        }
+        compactIfNeeded();
+    }
+
+    /**
+     * Find the positions of all books whose titles contain the given term, comparing the folded
+     * titles kept by the index. Terms of at least three characters are looked up by their trigrams,
+     * shorter terms of letters and digits by the tokens containing them, and only the folded titles
+     * of these candidates are checked. The folded titles of all books are only checked for shorter
+     * terms with other characters. Many folded titles are checked in parallel.
+     *
+     * @param foldedTerm term to look for, folded as by fold
+     * @return positions of the books in ascending order
+     * @throws NullPointerException if the given term is null
+     * @throws IllegalStateException if the index is not valid
+     */
+    public int[] search(String foldedTerm) {
+        Objects.requireNonNull(foldedTerm, "Given term must not be null.");
+        checkValid();
+
+        // the folded titles are only read while searching, so they can be checked in parallel
+        int[] ids = candidateIds(foldedTerm);
+        int[] hits;
+        if (ids == null) {
+            hits = scan.filter(nextId, id -> liveIds.get(id) && titleContains(id, foldedTerm));
+        } else {
+            int[] candidateHits = scan.filter(ids.length, i -> titleContains(ids[i], foldedTerm));
+            hits = new int[candidateHits.length];
+            for (int i = 0; i < candidateHits.length; i++) {
+                hits[i] = ids[candidateHits[i]];
+            }
+        }
+        return toPositions(hits);
+    }
+
+    /**
+     * Find the positions of all books whose titles contain the given term.
+     *
+     * @param foldedTerm term to look for, folded as by fold
+     * @return positions of the books in ascending order, or null if the term contains characters
+     * other than letters and digits, so it cannot be answered by the index
+     * @throws NullPointerException if the given term is null
+     * @throws IllegalStateException if the index is not valid
+     */
+    public int[] find(String foldedTerm) {
+        Objects.requireNonNull(foldedTerm, "Given term must not be null.");
+        checkValid();
+        return toPositions(tokenIds(foldedTerm));
+    }
+
+    /**
+     * Find the positions of the books whose titles may contain the given term. Terms of at
+     * least three characters are looked up by their trigrams, shorter terms of letters and
+     * digits by the tokens containing them.
+     *
+     * @param foldedTerm term to look for, folded as by fold
+     * @return positions of the candidate books in ascending order, which include all books whose titles
+     * contain the term, or null if the term is too short and contains characters other than letters and
+     * digits, so the index cannot narrow down the books
+     * @throws NullPointerException if the given term is null
+     * @throws IllegalStateException if the index is not valid
+     */
+    public int[] findCandidates(String foldedTerm) {
+        Objects.requireNonNull(foldedTerm, "Given term must not be null.");
+        checkValid();
+        return toPositions(candidateIds(foldedTerm));
+    }
+
+    /**
+     * Find the positions of all books whose titles contain a token within the given edit distance
+     * of the given term, ranked by the distance of their closest token.
+     *
+     * @param foldedTerm term to look for, folded as by fold
+     * @param maxDistance largest number of inserted, deleted or replaced characters
+     * @return positions of the books in ascending order of their distance, and of their
+     * positions among books of the same distance
+     * @throws NullPointerException if the given term is null
+     * @throws IllegalArgumentException if the given distance is negative
+     * @throws IllegalStateException if the index is not valid
+     */
+    public int[] fuzzySearch(String foldedTerm, int maxDistance) {
+        Objects.requireNonNull(foldedTerm, "Given term must not be null.");
+        checkValid();
+        if (!tokenTreeBuilt) {
+            for (String token : postings.keySet()) {
+                tokenTree.add(token);
+            }
+            tokenTreeBuilt = true;
+        }
+
+        BitSet foundIds = new BitSet(nextId);
+        int[] positions = new int[0];
+        int count = 0;
+        for (List<String> tokens : tokenTree.find(foldedTerm, maxDistance)) {
+            // tokens whose posting lists have been dropped stay in the tree, but have no books
+            Postings hits = new Postings();
+            for (String token : tokens) {
+                Postings tokenPostings = postings.get(token);
+                if (tokenPostings != null) {
+                    hits.addAll(tokenPostings);
+                }
+            }
+
+            int[] ids = Arrays.copyOf(hits.ids, hits.size);
+            Arrays.sort(ids);
+            positions = Arrays.copyOf(positions, count + ids.length);
+            for (int id : ids) {
+                if (!foundIds.get(id) && titleHasToken(id, tokens)) {
+                    foundIds.set(id);
+                    positions[count++] = prefixCount(id) - 1;
+                }
+            }
+        }
+        return Arrays.copyOf(positions, count);
+    }
+
+    /**
+     * Fold the given text for comparison with folded titles. The text is decomposed into base
+     * characters and combining marks, the combining marks are dropped and the rest is converted
+     * to lower case independently of the default locale, e.g. "Pokémon" is folded to "pokemon".
+     * Compatibility characters such as "™" are kept, as replacing them by plain letters would let
+     * terms like "stm" match "Beginners™". Text without non-ASCII characters is only converted
+     * to lower case.
+     *
+     * @param text title or search term
+     * @return folded text, which may differ in length from the given text
+     * @throws NullPointerException if the given text is null
+     */
+    public static String fold(String text) {
+        Objects.requireNonNull(text, "Given text must not be null.");
+
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) {
+                String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+                StringBuilder stripped = new StringBuilder(decomposed.length());
+                for (int j = 0; j < decomposed.length(); j++) {
+                    char c = decomposed.charAt(j);
+                    if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                        stripped.append(c);
+                    }
+                }
+                return stripped.toString().toLowerCase(Locale.ROOT);
+            }
+        }
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Get the distinct trigrams of the given folded text, each encoded as the
+     * characters of the trigram in the lower 48 bits of a long.
+     *
+     * @param foldedText folded title or term
+     * @return distinct trigrams of the text in ascending order
+     */
+    static long[] getTrigrams(String foldedText) {
+        int count = Math.max(0, foldedText.length() - TRIGRAM_LENGTH + 1);
+        long[] result = new long[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = ((long) foldedText.charAt(i) << 32) | ((long) foldedText.charAt(i + 1) << 16)
+                    | foldedText.charAt(i + 2);
+        }
+
+        Arrays.sort(result);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (i == 0 || result[i] != result[i - 1]) {
+                result[distinct++] = result[i];
+            }
+        }
+        return Arrays.copyOf(result, distinct);
+    }
+
+    /**
+     * Split the given folded title into its tokens.
+     *
+     * @param foldedTitle title of a book, folded as by fold
+     * @return distinct tokens of the title in the order they occur
+     */
+    static String[] tokenize(String foldedTitle) {
+        String[] tokens = new String[foldedTitle.length() / 2 + 1];
+        int count = 0;
+
+        int start = -1;
+        for (int i = 0; i <= foldedTitle.length(); i++) {
+            boolean tokenChar = i < foldedTitle.length() && isTokenChar(foldedTitle.charAt(i));
+            if (tokenChar && start < 0) {
+                start = i;
+            } else if (!tokenChar && start >= 0) {
+                String token = foldedTitle.substring(start, i);
+                if (!Arrays.asList(tokens).subList(0, count).contains(token)) {
+                    tokens[count++] = token;
+                }
+                start = -1;
+            }
+        }
+        return Arrays.copyOf(tokens, count);
+    }
+
+    /**
+     * Check whether the given character is part of tokens.
+     *
+     * @param c character of a title
+     * @return true if the character is a letter or a digit
+     */
+    private static boolean isTokenChar(char c) {
+        return Character.isLetterOrDigit(c);
+    }
+
+    /**
+     * Check whether the given term consists only of characters which are part of tokens.
+     *
+     * @param term search term
+     * @return true if the term can only occur within a single token
+     */
+    private static boolean isToken(String term) {
+        for (int i = 0; i < term.length(); i++) {
+            if (!isTokenChar(term.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check that the index has been built and kept up to date since.
+     *
+     * @throws IllegalStateException if the index is not valid
+     */
+    private void checkValid() {
+        if (!valid) {
+            throw new IllegalStateException("Title index has to be built before it is searched.");
+        }
+    }
+
+    /**
+     * Find the ids of all books whose titles contain a token containing the given term.
+     *
+     * @param foldedTerm term to look for, folded as by fold
+     * @return ids of the books not removed in ascending order, or null if the term is empty
+     * or contains characters other than letters and digits
+     */
+    private int[] tokenIds(String foldedTerm) {
+        if (foldedTerm.isEmpty() || !isToken(foldedTerm)) {
+            return null;
+        }
+
+        // a term which is a token itself is looked up directly, other tokens only need to be checked if longer
+        Postings hits = new Postings();
+        Postings exact = postings.get(foldedTerm);
+        if (exact != null) {
+            hits.addAll(exact);
+        }
+        for (Map.Entry<String, Postings> entry : postings.entrySet()) {
+            String token = entry.getKey();
+            if (token.length() > foldedTerm.length() && token.contains(foldedTerm)) {
+                hits.addAll(entry.getValue());
+            }
+        }
+
+        // the title of a book still contains the term unless the entry is stale
+        int[] ids = Arrays.copyOf(hits.ids, hits.size);
+        Arrays.sort(ids);
+        int count = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if ((i == 0 || ids[i] != ids[i - 1]) && titleContains(ids[i], foldedTerm)) {
+                ids[count++] = ids[i];
+            }
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    /**
+     * Find the ids of the books whose titles may contain the given term, by the trigrams of terms
+     * of at least three characters and by the tokens containing shorter terms.
+     *
+     * @param foldedTerm term to look for, folded as by fold
+     * @return ids of the candidate books not removed in ascending order, or null if the term is too
+     * short and contains characters other than letters and digits
+     */
+    private int[] candidateIds(String foldedTerm) {
+        if (foldedTerm.length() < TRIGRAM_LENGTH) {
+            return tokenIds(foldedTerm);
+        }
+
+        long[] termTrigrams = getTrigrams(foldedTerm);
+        Postings[] lists = new Postings[termTrigrams.length];
+        for (int i = 0; i < termTrigrams.length; i++) {
+            lists[i] = trigrams.get(termTrigrams[i]);
+            if (lists[i] == null) {
+                return new int[0]; // no title contains this trigram of the term
+            }
+            lists[i].sort();
+        }
+
+        // intersecting from the shortest list keeps the work proportional to the fewest postings
+        Arrays.sort(lists, (first, second) -> Integer.compare(first.size, second.size));
+        int[] ids = new int[lists[0].size];
+        int count = 0;
+        for (int i = 0; i < lists[0].size; i++) {
+            int id = lists[0].ids[i];
+            if (!liveIds.get(id)) {
+                continue;
+            }
+            boolean inAll = true;
+            for (int j = 1; j < lists.length && inAll; j++) {
+                inAll = Arrays.binarySearch(lists[j].ids, 0, lists[j].size, id) >= 0;
+            }
+            if (inAll) {
+                ids[count++] = id;
+            }
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    /**
+     * Get the positions of the given ids. Ids increase with the positions, so ascending ids
+     * give the positions in ascending order.
+     *
+     * @param ids ids of books not removed, may be null
+     * @return positions of the books, or null if the given ids are null
+     */
+    private int[] toPositions(int[] ids) {
+        if (ids == null) {
+            return null;
+        }
+        int[] positions = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            positions[i] = prefixCount(ids[i]) - 1;
+        }
+        return positions;
+    }
+
+    /**
+     * Check whether the folded title of the given id contains the given term.
+     *
+     * @param id id of a book
+     * @param foldedTerm term to look for, folded as by fold
+     * @return true if the position of the id holds a book whose folded title contains the term
+     */
+    private boolean titleContains(int id, String foldedTerm) {
+        String foldedTitle = foldedTitles[id];
+        return foldedTitle != null && foldedTitle.contains(foldedTerm);
+    }
+
+    /**
+     * Check whether the folded title of the given id contains one of the given tokens as a token.
+     *
+     * @param id id of a book
+     * @param tokens tokens to look for
+     * @return true if the position of the id holds a book whose folded title contains one of the tokens
+     */
+    private boolean titleHasToken(int id, List<String> tokens) {
+        String foldedTitle = foldedTitles[id];
+        if (foldedTitle == null) {
+            return false;
+        }
+        for (String token : tokens) {
+            for (int start = foldedTitle.indexOf(token); start >= 0; start = foldedTitle.indexOf(token, start + 1)) {
+                int end = start + token.length();
+                if ((start == 0 || !isTokenChar(foldedTitle.charAt(start - 1)))
+                        && (end == foldedTitle.length() || !isTokenChar(foldedTitle.charAt(end)))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Keep the given folded title for the given id and add the id to the posting
+     * lists of all tokens and trigrams of the title.
+     *
+     * @param id id of the book
+     * @param foldedTitle title of the book, folded as by fold
+     */
+    private void addTitle(int id, String foldedTitle) {
+        foldedTitles[id] = foldedTitle;
+        for (String token : tokenize(foldedTitle)) {
+            Postings tokenPostings = postings.get(token);
+            if (tokenPostings == null) {
+                tokenPostings = new Postings();
+                postings.put(token, tokenPostings);
+                if (tokenTreeBuilt) {
+                    tokenTree.add(token);
+                }
+            }
+            tokenPostings.add(id);
+        }
+        for (long trigram : getTrigrams(foldedTitle)) {
+            trigrams.computeIfAbsent(trigram, t -> new Postings()).add(id);
+        }
+    }
+
+    /**
+     * Mark the given id as removed and drop its folded title. The id stays in the posting
+     * lists until the index is compacted.
+     *
+     * @param id id of the book
+     */
+    private void removeId(int id) {
+        foldedTitles[id] = null;
+        liveIds.clear(id);
+        updateTree(id, -1);
+        liveCount--;
+    }
+
+    /**
+     * Rebuild all posting lists from the folded titles, dropping their stale entries,
+     * if more titles have been replaced than there are books.
+     */
+    private void rebuildPostingsIfNeeded() {
+        if (replacedCount < MIN_COMPACTION_COUNT || replacedCount <= liveCount) {
+            return;
+        }
+
+        postings.clear();
+        trigrams.clear();
+        for (int id = 0; id < nextId; id++) {
+            if (foldedTitles[id] != null) {
+                addTitle(id, foldedTitles[id]);
+            }
+        }
+        replacedCount = 0;
+    }
+
+    /**
+     * Drop the removed ids from the posting lists and renumber the remaining ones by their
+     * positions, if the removed ids outnumber the remaining ones.
+     */
+    private void compactIfNeeded() {
+        int removedCount = nextId - liveCount;
+        if (removedCount < MIN_COMPACTION_COUNT || removedCount <= liveCount) {
+            return;
+        }
+
+        int[] newIds = new int[nextId];
+        int position = 0;
+        for (int id = 0; id < nextId; id++) {
+            newIds[id] = liveIds.get(id) ? position++ : -1;
+        }
+
+        String[] newFoldedTitles = new String[Math.max(INITIAL_CAPACITY, 2 * liveCount)];
+        for (int id = 0; id < nextId; id++) {
+            if (newIds[id] >= 0) {
+                newFoldedTitles[newIds[id]] = foldedTitles[id];
+            }
+        }
+        foldedTitles = newFoldedTitles;
+
+        // renumbering keeps the order of the ids, so sorted posting lists stay sorted
+        postings.values().removeIf(tokenPostings -> tokenPostings.renumber(newIds) == 0);
+        trigrams.values().removeIf(trigramPostings -> trigramPostings.renumber(newIds) == 0);
+
+        nextId = liveCount;
+        liveIds = new BitSet(nextId);
+        liveIds.set(0, nextId);
+        rebuildTree(Math.max(INITIAL_CAPACITY, 2 * nextId));
+    }
+
+    /**
+     * Get the id of the book at the given position, i.e. the smallest id whose number of
+     * ids not removed up to and including it is position + 1.
+     *
+     * @param position position of the book
+     * @return id of the book
+     * @throws IndexOutOfBoundsException if the position is out of range
+     */
+    private int idAt(int position) {
+        if (position < 0 || position >= liveCount) {
+            throw new IndexOutOfBoundsException("Position out of range: " + position);
+        }
+
+        int remaining = position + 1;
+        int node = 0;
+        for (int step = Integer.highestOneBit(tree.length - 1); step > 0; step >>= 1) {
+            int next = node + step;
+            if (next < tree.length && tree[next] < remaining) {
+                node = next;
+                remaining -= tree[next];
+            }
+        }
+        return node; // node + 1 is the tree index of the id, so node is the id itself
+    }
+
+    /**
+     * Count the ids not removed up to and including the given id.
+     *
+     * @param id id of a book
+     * @return number of ids not removed
+     */
+    private int prefixCount(int id) {
+        int count = 0;
+        for (int node = id + 1; node > 0; node -= node & -node) {
+            count += tree[node];
+        }
+        return count;
+    }
+
+    /**
+     * Add the given difference to the count of the given id in the Fenwick tree.
+     *
+     * @param id id of a book
+     * @param difference change of the count
+     */
+    private void updateTree(int id, int difference) {
+        for (int node = id + 1; node < tree.length; node += node & -node) {
+            tree[node] += difference;
+        }
+    }
+
+    /**
+     * Rebuild the Fenwick tree with room for the given number of ids.
+     *
+     * @param capacity number of ids the tree has room for
+     */
+    private void rebuildTree(int capacity) {
+        tree = new int[capacity + 1];
+        for (int node = 1; node <= capacity; node++) {
+            tree[node] += liveIds.get(node - 1) ? 1 : 0;
+            int parent = node + (node & -node);
+            if (parent <= capacity) {
+                tree[parent] += tree[node];
+            }
+        }
+    }
+
+    /**
+     * Posting list of a token or trigram, holding the ids of the books whose titles contain it.
+     */
+    private static class Postings {
+
+        /** Ids of the books, only the first size elements are used. */
+        private int[] ids;
+
+        /** Number of ids in the list. */
+        private int size;
+
+        /** True if the ids are in ascending order without duplicates. */
+        private boolean sorted;
+
+        private Postings() {
+            ids = new int[INITIAL_POSTING_CAPACITY];
+            size = 0;
+            sorted = true;
+        }
+
+        /**
+         * Add the given id to the list.
+         *
+         * @param id id of a book
+         */
+        private void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, 2 * size);
+            }
+            // ids of added books are ascending, only ids of replaced titles can come out of order
+            if (size > 0 && id <= ids[size - 1]) {
+                sorted = false;
+            }
+            ids[size++] = id;
+        }
+
+        /** Sort the ids in ascending order and drop duplicates, if they are not sorted yet. */
+        private void sort() {
+            if (sorted) {
+                return;
+            }
+            Arrays.sort(ids, 0, size);
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (count == 0 || ids[i] != ids[count - 1]) {
+                    ids[count++] = ids[i];
+                }
+            }
+            size = count;
+            sorted = true;
+        }
+
+        /**
+         * Replace every id by its new id, dropping ids which have no new id.
+         *
+         * @param newIds new id of every id, -1 for ids to be dropped
+         * @return number of remaining ids
+         */
+        private int renumber(int[] newIds) {
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                int newId = newIds[ids[i]];
+                if (newId >= 0) {
+                    ids[count++] = newId;
+                }
+            }
+            size = count;
+            return count;
+        }
+
+        /**
+         * Add all ids of the given list to this list.
+         *
+         * @param other other posting list
+         */
+        private void addAll(Postings other) {
+            if (size + other.size > ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(2 * ids.length, size + other.size));
+            }
+            System.arraycopy(other.ids, 0, ids, size, other.size);
+            size += other.size;
+        }
+    }
+}
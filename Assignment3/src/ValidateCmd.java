@@ -0,0 +1,32 @@
+import java.util.Objects;
+
+/**
+ * Validate command used to decode and validate all book entries whose validation was deferred.
+ */
+public class ValidateCmd extends LibraryCommand {
+
+    /**
+     * Create a validate command.
+     *
+     * @param argumentInput argument input is expected to be blank
+     * @throws IllegalArgumentException If given arguments are invalid.
+     * @throws NullPointerException     If the given argumentInput is null.
+     */
+    public ValidateCmd(String argumentInput) {
+        super(CommandType.VALIDATE, argumentInput);
+    }
+
+    /**
+     * Execute the validate command. This method calls the given LibraryData instance's validateData
+     * in order to decode all book entries loaded in LAZY mode and remove those which are invalid.
+     *
+     * @param data book data to be considered for command execution.
+     * @throws NullPointerException If data is null.
+     */
+    @Override
+    public void execute(LibraryData data) {
+        Objects.requireNonNull(data, ExceptionMessage.NULL_DATA.getExceptionMessage());
+
+        data.validateData();
+    }
+}
@@ -0,0 +1,115 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Objects;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Input stream over all book data files in a zip archive, read in a single pass while they are
+ * inflated. The content looks like one book data file: the column header of the first file is
+ * kept, the column headers of all further files are skipped, and a line break is inserted after
+ * a file whose last line does not end with one. Directories and entries which are not csv files
+ * are ignored.
+ */
+public class ZipBookDataInputStream extends InputStream {
+
+    /** Line break terminating every line of a book data file. */
+    private static final int LINE_BREAK = '\n';
+
+    /** Archive being read. */
+    private final ZipInputStream archive;
+
+    /** Is an entry currently being read? */
+    private boolean inEntry;
+
+    /** Has the first csv entry been found yet? */
+    private boolean firstEntryFound;
+
+    /** Last byte returned from the current entry, or LINE_BREAK before its first byte. */
+    private int lastByte;
+
+    /** Has the end of the archive been reached? */
+    private boolean finished;
+
+    /**
+     * Create a new input stream over the book data files in the given zip archive.
+     *
+     * @param in stream of the zip archive
+     * @throws NullPointerException if the given stream is null
+     */
+    public ZipBookDataInputStream(InputStream in) {
+        archive = new ZipInputStream(Objects.requireNonNull(in, "Given input stream must not be null."));
+        inEntry = false;
+        firstEntryFound = false;
+        lastByte = LINE_BREAK;
+        finished = false;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        Objects.checkFromIndexSize(offset, length, buffer.length);
+        if (length == 0) {
+            return 0;
+        }
+
+        while (!finished) {
+            if (!inEntry && !nextEntry()) {
+                finished = true;
+                return -1;
+            }
+
+            int read = archive.read(buffer, offset, length);
+            if (read > 0) {
+                lastByte = buffer[offset + read - 1];
+                return read;
+            }
+
+            // end of the current entry, which has to end with a line break before the next entry starts
+            inEntry = false;
+            if (lastByte != LINE_BREAK) {
+                lastByte = LINE_BREAK;
+                buffer[offset] = LINE_BREAK;
+                return 1;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        archive.close();
+    }
+
+    /**
+     * Move to the next csv entry of the archive, skipping its column header unless it is the first one.
+     *
+     * @return true if an entry was found, false if the end of the archive has been reached
+     * @throws IOException if the archive cannot be read
+     */
+    private boolean nextEntry() throws IOException {
+        ZipEntry entry;
+        while ((entry = archive.getNextEntry()) != null) {
+            if (entry.isDirectory() || !entry.getName().endsWith(BookDataFiles.FILE_EXTENSION)) {
+                continue;
+            }
+
+            if (firstEntryFound) {
+                int b;
+                do {
+                    b = archive.read();
+                } while (b != -1 && b != LINE_BREAK);
+            }
+            firstEntryFound = true;
+            inEntry = true;
+            lastByte = LINE_BREAK;
+            return true;
+        }
+        return false;
+    }
+}
@@ -64,8 +64,44 @@ public class AddCmdAdvancedTest extends CommandTest {
         CommandTestUtils.checkArgumentInput(testCommand, true, validPath);
     }
 
+    @Test
+    public void testParseArgumentsLegalArgumentWithOptions() {
+        CommandTestUtils.checkArgumentInput(testCommand, true, "STREAM " + TEST_PATH);
+        CommandTestUtils.checkArgumentInput(testCommand, true, "PARALLEL ISBN REPLACE " + TEST_PATH);
+        CommandTestUtils.checkArgumentInput(testCommand, true, "KEEP TITLE_AUTHORS " + TEST_PATH);
+        // options which are repeated or unknown are considered to be part of the path
+        CommandTestUtils.checkArgumentInput(testCommand, true, "SKIP SKIP books.csv");
+        CommandTestUtils.checkArgumentInput(testCommand, false, "STREAM hello.txt");
+        // LAZY mode does not check for duplicates
+        CommandTestUtils.checkArgumentInput(testCommand, true, "LAZY " + TEST_PATH);
+        CommandTestUtils.checkArgumentInput(testCommand, false, "LAZY ISBN " + TEST_PATH);
+        // compressed book data files
+        CommandTestUtils.checkArgumentInput(testCommand, true, "STREAM books.csv.gz");
+        CommandTestUtils.checkArgumentInput(testCommand, true, "books.zip");
+        CommandTestUtils.checkArgumentInput(testCommand, false, "books.gz");
+        // standard input, whose raw content cannot be kept in LAZY mode
+        CommandTestUtils.checkArgumentInput(testCommand, true, "-");
+        CommandTestUtils.checkArgumentInput(testCommand, true, "STREAM ISBN -");
+        CommandTestUtils.checkArgumentInput(testCommand, false, "LAZY -");
+    }
+
     // ------------------------- execute tests --------------------
 
+    @Test
+    public void testExecuteReplaceDuplicates() {
+        List<BookEntry> bookData = new ArrayList<>();
+        bookData.add(new BookEntry("Old Title", new String[] { "AuthorA" }, 3.2f, "452284244", 500));
+        FieldTestUtils.setPrivateField(testLibrary, testLibrary.getClass(), "books", bookData);
+
+        testCommand = new AddCmd("ISBN REPLACE " + TEST_PATH);
+        testCommand.execute(testLibrary);
+
+        List<BookEntry> books = testLibrary.getBookData();
+        assertEquals("Unexpected amount of books in library after loading file.", 2, books.size());
+        BookEntryTestUtils.checkBookFieldValues(books.get(0), BookEntryBasicTest.BOOK_ENTRY_FIELD_NAMES,
+                new Object[] { "Animal Farm", new String[] { "George Orwell" }, 3.91f, "452284244", 122 });
+    }
+
     @Test
     public void testExecuteLoadData() {
 
@@ -0,0 +1,110 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class AuthorDictionaryTest {
+
+    private AuthorDictionary testDictionary;
+
+    @Before
+    public void setup() {
+        testDictionary = new AuthorDictionary();
+    }
+
+    // ------------------------- check ids --------------------
+
+    @Test
+    public void testAddAssignsConsecutiveIds() {
+        assertEquals(0, testDictionary.add("Barbara Park"));
+        assertEquals(1, testDictionary.add("Zilpha Keatley Snyder"));
+        assertEquals(0, testDictionary.add(new String("Barbara Park")));
+
+        assertEquals(2, testDictionary.size());
+        assertEquals("Zilpha Keatley Snyder", testDictionary.getName(1));
+    }
+
+    @Test
+    public void testFindDoesNotAdd() {
+        testDictionary.add("Barbara Park");
+
+        assertEquals(0, testDictionary.find("Barbara Park"));
+        assertEquals(AuthorDictionary.NO_ID, testDictionary.find("Unknown Author"));
+        assertEquals(1, testDictionary.size());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testGetNameUnknownId() {
+        testDictionary.getName(0);
+    }
+
+    // ------------------------- check interning --------------------
+
+    @Test
+    public void testInternReturnsSharedInstance() {
+        String name = testDictionary.intern(new String("Barbara Park"));
+        char[] buffer = "Dear God,Barbara Park,3.95".toCharArray();
+
+        assertSame(name, testDictionary.intern(new String("Barbara Park")));
+        assertSame(name, testDictionary.intern(buffer, 9, 21));
+        assertTrue("Shared names are expected to save bytes.", testDictionary.getSharedBytes() > 0);
+    }
+
+    @Test
+    public void testManyNames() {
+        // exceeds the initial capacity several times
+        for (int i = 0; i < 1000; i++) {
+            char[] buffer = ("Author " + i).toCharArray();
+            assertEquals("Author " + i, testDictionary.intern(buffer, 0, buffer.length));
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, testDictionary.find("Author " + i));
+        }
+        assertEquals(1000, testDictionary.size());
+    }
+
+    @Test
+    public void testConcurrentInterning() throws Exception {
+        int threadCount = 4;
+        int nameCount = 2000;
+        List<Future<String[]>> results = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            for (int t = 0; t < threadCount; t++) {
+                int offset = t * nameCount / threadCount;
+                results.add(executor.submit(() -> {
+                    // every thread interns the same names, starting at a different one
+                    String[] interned = new String[nameCount];
+                    for (int i = 0; i < nameCount; i++) {
+                        int n = (offset + i) % nameCount;
+                        char[] buffer = ("Author " + n).toCharArray();
+                        interned[n] = testDictionary.intern(buffer, 0, buffer.length);
+                    }
+                    return interned;
+                }));
+            }
+            for (Future<String[]> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(nameCount, testDictionary.size());
+        for (int n = 0; n < nameCount; n++) {
+            String name = testDictionary.getName(testDictionary.find("Author " + n));
+            assertEquals("Author " + n, name);
+            for (Future<String[]> result : results) {
+                assertSame("Every thread is expected to get the shared name.", name, result.get()[n]);
+            }
+        }
+    }
+}
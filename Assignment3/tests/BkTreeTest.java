@@ -0,0 +1,91 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BkTreeTest {
+
+    private BkTree testTree;
+
+    @Before
+    public void setup() {
+        testTree = new BkTree();
+        for (String word : new String[] { "harry", "potter", "hairy", "hurry", "pottery", "otter", "carry" }) {
+            testTree.add(word);
+        }
+    }
+
+    // ------------------------- check distance --------------------
+
+    @Test
+    public void testDistance() {
+        assertEquals(0, testTree.distance("harry", "harry"));
+        assertEquals(1, testTree.distance("harry", "hary"));
+        assertEquals(1, testTree.distance("harry", "hurry"));
+        assertEquals("Transpositions are expected to count as two edits.", 2, testTree.distance("castle", "castel"));
+        assertEquals(5, testTree.distance("", "harry"));
+        assertEquals(3, testTree.distance("kitten", "sitting"));
+    }
+
+    // ------------------------- check add --------------------
+
+    @Test
+    public void testAddDuplicate() {
+        assertEquals(7, testTree.size());
+        assertFalse(testTree.add("harry"));
+        assertTrue(testTree.add("harr"));
+        assertEquals(8, testTree.size());
+    }
+
+    // ------------------------- check find --------------------
+
+    @Test
+    public void testFindGroupedByDistance() {
+        List<List<String>> matches = testTree.find("harry", 1);
+
+        assertEquals(Arrays.asList(Collections.singletonList("harry"), Arrays.asList("carry", "hairy", "hurry")),
+                matches);
+    }
+
+    @Test
+    public void testFindMisspelled() {
+        List<List<String>> matches = testTree.find("poter", 2);
+
+        assertEquals(Collections.emptyList(), matches.get(0));
+        assertEquals(Collections.singletonList("potter"), matches.get(1));
+        assertEquals(Arrays.asList("otter", "pottery"), matches.get(2));
+    }
+
+    @Test
+    public void testFindSameAsAllDistances() {
+        String[] words = new String[500];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = Integer.toString(i * 7919, 36);
+            testTree.add(words[i]);
+        }
+
+        List<List<String>> matches = testTree.find("abc", 2);
+        for (String word : words) {
+            int distance = testTree.distance("abc", word);
+            assertEquals(word, distance <= 2, distance <= 2 && matches.get(distance).contains(word));
+        }
+    }
+
+    @Test
+    public void testFindEmpty() {
+        testTree.clear();
+
+        assertEquals(Arrays.asList(Collections.emptyList(), Collections.emptyList()), testTree.find("harry", 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFindNegativeDistance() {
+        testTree.find("harry", -1);
+    }
+}
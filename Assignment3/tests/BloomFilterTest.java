@@ -0,0 +1,79 @@
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BloomFilterTest {
+
+    private static final int KEY_COUNT = 10_000;
+
+    // ------------------------- test helper -------------------------------------
+
+    private static BloomFilter createFilter(double falsePositiveRate) {
+        BloomFilter filter = new BloomFilter(KEY_COUNT, falsePositiveRate);
+        for (long key = 0; key < KEY_COUNT; key++) {
+            filter.add(BloomFilter.hash(key));
+        }
+        return filter;
+    }
+
+    private static int countFalsePositives(BloomFilter filter) {
+        int falsePositives = 0;
+        for (long key = KEY_COUNT; key < 2 * KEY_COUNT; key++) {
+            if (filter.mightContain(BloomFilter.hash(key))) {
+                falsePositives++;
+            }
+        }
+        return falsePositives;
+    }
+
+    // ------------------------- check membership --------------------
+
+    @Test
+    public void testNoFalseNegatives() {
+        BloomFilter filter = createFilter(0.01);
+        for (long key = 0; key < KEY_COUNT; key++) {
+            assertTrue("Added key must be reported: " + key, filter.mightContain(BloomFilter.hash(key)));
+        }
+    }
+
+    @Test
+    public void testFalsePositiveRate() {
+        BloomFilter filter = createFilter(0.01);
+        int falsePositives = countFalsePositives(filter);
+
+        assertTrue("Too many false positives: " + falsePositives, falsePositives < 0.02 * KEY_COUNT);
+        assertTrue("Unexpected estimated rate: " + filter.getFalsePositiveRate(),
+                filter.getFalsePositiveRate() < 0.02);
+    }
+
+    @Test
+    public void testEmptyFilter() {
+        BloomFilter filter = new BloomFilter(0, 0.01);
+        assertFalse(filter.mightContain(BloomFilter.hash(42)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRate() {
+        new BloomFilter(KEY_COUNT, 1);
+    }
+
+    // ------------------------- check serialization --------------------
+
+    @Test
+    public void testWriteReadRoundTrip() {
+        BloomFilter filter = createFilter(0.05);
+        ByteBuffer buffer = ByteBuffer.allocate(filter.getSerializedSize());
+        filter.write(buffer);
+        assertFalse("Serialized size must be exact.", buffer.hasRemaining());
+
+        BloomFilter read = BloomFilter.read(buffer.flip());
+        for (long key = 0; key < 2 * KEY_COUNT; key++) {
+            long hash = BloomFilter.hash(key);
+            assertTrue("Read filter must answer like the written one.",
+                    filter.mightContain(hash) == read.mightContain(hash));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class CsvTokenizerTest {
+
+    private CsvTokenizer testTokenizer;
+
+    @Before
+    public void setup() {
+        testTokenizer = new CsvTokenizer(',');
+    }
+
+    // -------------------------- test helper -------------------------------------
+
+    private void checkFields(String line, String... expectedFields) {
+        assertEquals("Unexpected number of fields for line: " + line, expectedFields.length,
+                testTokenizer.tokenize(line));
+        for (int i = 0; i < expectedFields.length; i++) {
+            assertEquals("Unexpected field content for line: " + line, expectedFields[i], testTokenizer.getField(i));
+        }
+    }
+
+    // ------------------------- check tokenize --------------------
+
+    @Test
+    public void testTokenizeUnquotedFields() {
+        checkFields("The Changeling,Zilpha Keatley Snyder,4.17,595321801,228",
+                "The Changeling", "Zilpha Keatley Snyder", "4.17", "595321801", "228");
+        checkFields("a,,b,", "a", "", "b", "");
+        checkFields("", "");
+    }
+
+    @Test
+    public void testTokenizeQuotedFields() {
+        checkFields("\"Dear God, Help!!!\",Barbara Park", "Dear God, Help!!!", "Barbara Park");
+        checkFields("x,\"John \"\"Red\"\" Shea-Mark Wahlberg\",3.51", "x", "John \"Red\" Shea-Mark Wahlberg", "3.51");
+        checkFields("\"\",\"\"\"\"", "", "\"");
+    }
+
+    @Test
+    public void testTokenizeMalformedLines() {
+        assertEquals("Missing closing quote expected to be malformed.", -1, testTokenizer.tokenize("\"open,field"));
+        assertEquals("Text after closing quote expected to be malformed.", -1,
+                testTokenizer.tokenize("\"quoted\"text,field"));
+    }
+
+    @Test
+    public void testTokenizeReusesBufferForLongLines() {
+        StringBuilder longField = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            longField.append('x');
+        }
+        checkFields(longField + ",y", longField.toString(), "y");
+        checkFields("a,b", "a", "b");
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testGetFieldOutOfBounds() {
+        testTokenizer.tokenize("a,b");
+        testTokenizer.getField(2);
+    }
+}
@@ -0,0 +1,63 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DuplicateFilterTest {
+
+    private static final int BOOK_COUNT = 2000;
+
+    private ColumnarBookStore testStore;
+    private DuplicateFilter testFilter;
+
+    @Before
+    public void setup() {
+        testStore = new ColumnarBookStore();
+        for (int i = 0; i < BOOK_COUNT; i++) {
+            testStore.add(createBook(i));
+        }
+        testFilter = new DuplicateFilter();
+        testFilter.rebuild(testStore, DuplicateKey.ISBN, BOOK_COUNT);
+    }
+
+    // ------------------------- test helper -------------------------------------
+
+    private static BookEntry createBook(int i) {
+        return new BookEntry("Title " + i, new String[] { "Author" }, 1f, "ISBN" + i, 1);
+    }
+
+    // ------------------------- check filter --------------------
+
+    @Test
+    public void testStoredKeysNotRuledOut() {
+        for (int i = 0; i < BOOK_COUNT; i++) {
+            assertTrue("Stored key must not be ruled out: " + i,
+                    testFilter.mightContain(DuplicateKey.ISBN.hashOf(createBook(i))));
+        }
+    }
+
+    @Test
+    public void testMostNewKeysRuledOut() {
+        int passed = 0;
+        for (int i = BOOK_COUNT; i < 2 * BOOK_COUNT; i++) {
+            if (testFilter.mightContain(DuplicateKey.ISBN.hashOf(createBook(i)))) {
+                passed++;
+            }
+        }
+        assertTrue("Too many false positives: " + passed, passed < 0.03 * BOOK_COUNT);
+    }
+
+    @Test
+    public void testCapacity() {
+        assertEquals(BOOK_COUNT, testFilter.getCapacity());
+        assertTrue("Filter sized for the stored books is expected to be full.", testFilter.isFull());
+
+        testFilter.rebuild(testStore, DuplicateKey.ISBN, 10 * BOOK_COUNT);
+        assertFalse(testFilter.isFull());
+
+        testFilter.clear(0);
+        assertFalse(testFilter.mightContain(DuplicateKey.ISBN.hashOf(createBook(0))));
+    }
+}
@@ -0,0 +1,98 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class FileFollowerTest {
+
+    private static final String HEADER = "title,authors,average_rating,isbn,# num_pages\n";
+    private static final String FIRST_BOOK = "The Changeling,Zilpha Keatley Snyder,4.17,595321801,228\n";
+    private static final String SECOND_BOOK = "Junie B. Jones,Barbara Park,3.95,679853952,144\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private FileFollower testFollower;
+    private Path testFile;
+
+    @Before
+    public void setup() throws IOException {
+        testFollower = new FileFollower(new AuthorDictionary());
+        testFile = folder.getRoot().toPath().resolve("books.csv");
+        Files.write(testFile, (HEADER + FIRST_BOOK).getBytes(StandardCharsets.UTF_8));
+        testFile = testFollower.follow(testFile);
+    }
+
+    @After
+    public void tearDown() {
+        testFollower.close();
+    }
+
+    private void append(String content) throws IOException {
+        Files.write(testFile, content.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+    }
+
+    // ------------------------- check incremental reading --------------------
+
+    @Test
+    public void testOnlyAppendedLinesRead() throws IOException {
+        assertEquals(1, testFollower.readNewBooks(testFile).size());
+        assertEquals(0, testFollower.readNewBooks(testFile).size());
+
+        append(SECOND_BOOK);
+        List<BookEntry> books = testFollower.readNewBooks(testFile);
+
+        assertEquals(1, books.size());
+        assertEquals("Junie B. Jones", books.get(0).getTitle());
+        assertEquals(1, testFollower.getLastLineCount());
+        assertEquals(HEADER.length() + FIRST_BOOK.length() + SECOND_BOOK.length(), testFollower.getOffset(testFile));
+    }
+
+    @Test
+    public void testIncompleteLineReadOnceComplete() throws IOException {
+        testFollower.readNewBooks(testFile);
+
+        append(SECOND_BOOK.substring(0, 10));
+        assertEquals(0, testFollower.readNewBooks(testFile).size());
+
+        append(SECOND_BOOK.substring(10));
+        assertEquals("Junie B. Jones", testFollower.readNewBooks(testFile).get(0).getTitle());
+    }
+
+    @Test
+    public void testTruncatedFileReadAgain() throws IOException {
+        testFollower.readNewBooks(testFile);
+        Files.write(testFile, HEADER.getBytes(StandardCharsets.UTF_8));
+        append(SECOND_BOOK.replace("\n", "\r\n"));
+
+        assertEquals("Junie B. Jones", testFollower.readNewBooks(testFile).get(0).getTitle());
+    }
+
+    @Test
+    public void testFollowTwice() {
+        assertEquals(testFile, testFollower.follow(testFile));
+        assertEquals(1, testFollower.getFollowedFiles().size());
+    }
+
+    @Test
+    public void testMissingFile() throws IOException {
+        Files.delete(testFile);
+        assertNull(testFollower.readNewBooks(testFile));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReadUnfollowedFile() {
+        testFollower.readNewBooks(folder.getRoot().toPath().resolve("other.csv"));
+    }
+}
@@ -0,0 +1,95 @@
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class IngestionPipelineTest {
+
+    private static final String HEADER = "title,authors,average_rating,isbn,# num_pages\n";
+    private static final int BOOK_COUNT = 25_000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private IngestionPipeline testPipeline;
+    private Path testFile;
+
+    @Before
+    public void setup() throws IOException {
+        testPipeline = new IngestionPipeline(3, new AuthorDictionary());
+
+        StringBuilder content = new StringBuilder(HEADER);
+        for (int i = 0; i < BOOK_COUNT; i++) {
+            content.append("Title ").append(i).append(",Author,4.5,").append(i).append(",100\n");
+        }
+        content.append("Broken Book,Barbara Park,hello,123,1\n");
+        testFile = folder.getRoot().toPath().resolve("books.csv");
+        Files.write(testFile, content.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // ------------------------- check load --------------------
+
+    @Test
+    public void testLoadInFileOrder() {
+        List<BookEntry> books = new ArrayList<>();
+        LoadReport report = new LoadReport();
+
+        assertTrue(testPipeline.load(testFile, books::addAll, report));
+        assertEquals(BOOK_COUNT, books.size());
+        for (int i = 0; i < BOOK_COUNT; i++) {
+            assertEquals("Books are expected in file order.", "Title " + i, books.get(i).getTitle());
+        }
+    }
+
+    @Test
+    public void testLoadReportsInvalidLines() {
+        LoadReport report = new LoadReport();
+
+        testPipeline.load(testFile, books -> { }, report);
+        assertEquals(1, report.getCount(LoadReport.Category.RATING));
+        assertTrue(report.getSamples(LoadReport.Category.RATING).get(0)
+                .startsWith(testFile + ", line " + (BOOK_COUNT + 2) + ": "));
+    }
+
+    @Test
+    public void testLoadMissingFile() {
+        assertFalse(testPipeline.load(folder.getRoot().toPath().resolve("missing.csv"), books -> { },
+                new LoadReport()));
+    }
+
+    // ------------------------- check metrics --------------------
+
+    @Test
+    public void testStageMetrics() {
+        testPipeline.load(testFile, books -> { }, new LoadReport());
+
+        List<IngestionPipeline.StageMetrics> stages = testPipeline.getStageMetrics();
+        assertEquals(3, stages.size());
+        assertEquals(BOOK_COUNT + 1, stages.get(0).getItems());
+        assertEquals(BOOK_COUNT + 1, stages.get(1).getItems());
+        assertEquals(3, stages.get(1).getThreads());
+        assertEquals(BOOK_COUNT, stages.get(2).getItems());
+    }
+
+    @Test
+    public void testQueueMetricsBounded() {
+        testPipeline.load(testFile, books -> { }, new LoadReport());
+
+        for (IngestionPipeline.QueueMetrics queue : testPipeline.getQueueMetrics()) {
+            assertTrue(queue.getMaxDepth() > 0);
+            assertTrue("Queue depth is expected to stay within its capacity.",
+                    queue.getMaxDepth() <= queue.getCapacity());
+        }
+    }
+}
@@ -0,0 +1,151 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class JournalTest {
+
+    private static final BookEntry BOOK = new BookEntry("The Changeling",
+            new String[] { "Zilpha Keatley Snyder" }, 4.17f, "595321801", 228);
+    private static final BookEntry OTHER_BOOK = new BookEntry("Junie B. Jones",
+            new String[] { "Barbara Park", "Denise Brunkus" }, 3.95f, "679853952", 144);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path journalFile;
+    private Journal testJournal;
+
+    /** Replayer recording every record as a readable line. */
+    private static class RecordingReplayer implements Journal.Replayer {
+
+        private final List<String> records = new ArrayList<>();
+
+        @Override
+        public void add(BookEntry book) {
+            records.add("ADD " + book.getTitle());
+        }
+
+        @Override
+        public void set(int index, BookEntry book) {
+            records.add("SET " + index + " " + book.getTitle() + " " + Arrays.toString(book.getAuthors()));
+        }
+
+        @Override
+        public void remove(int[] indices) {
+            records.add("REMOVE " + Arrays.toString(indices));
+        }
+
+        @Override
+        public void clear() {
+            records.add("CLEAR");
+        }
+
+        @Override
+        public void addLines(byte[] content) {
+            records.add("ADD_LINES " + content.length);
+        }
+
+        @Override
+        public void validate() {
+            records.add("VALIDATE");
+        }
+    }
+
+    @Before
+    public void setup() throws IOException {
+        journalFile = folder.getRoot().toPath().resolve("library.journal");
+        testJournal = new Journal(journalFile, 1000);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        testJournal.close();
+    }
+
+    private List<String> replay() throws IOException {
+        RecordingReplayer replayer = new RecordingReplayer();
+        Journal.replay(journalFile, replayer);
+        return replayer.records;
+    }
+
+    // ------------------------- check records --------------------
+
+    @Test
+    public void testRecordsReplayedInOrder() throws IOException {
+        testJournal.logAdd(BOOK);
+        testJournal.logSet(0, OTHER_BOOK);
+        testJournal.logRemove(new int[] { 0, 3, 7 }, 2);
+        testJournal.logAddLines(new byte[10]);
+        testJournal.logValidate();
+        testJournal.logClear();
+        testJournal.commit();
+
+        assertEquals(Arrays.asList("ADD The Changeling", "SET 0 Junie B. Jones [Barbara Park, Denise Brunkus]",
+                "REMOVE [0, 3]", "ADD_LINES 10", "VALIDATE", "CLEAR"), replay());
+    }
+
+    @Test
+    public void testReopenAppends() throws IOException {
+        testJournal.logAdd(BOOK);
+        testJournal.close();
+
+        testJournal = new Journal(journalFile, 1000);
+        testJournal.logAdd(OTHER_BOOK);
+        testJournal.commit();
+
+        assertEquals(Arrays.asList("ADD The Changeling", "ADD Junie B. Jones"), replay());
+    }
+
+    @Test
+    public void testIncompleteRecordCutOff() throws IOException {
+        testJournal.logAdd(BOOK);
+        testJournal.logAdd(OTHER_BOOK);
+        testJournal.close();
+
+        long validSize = testJournal.size();
+        try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.WRITE)) {
+            channel.truncate(validSize - 3); // the last record was not written completely
+        }
+
+        testJournal = new Journal(journalFile, 1000);
+        assertEquals(Arrays.asList("ADD The Changeling"), replay());
+
+        testJournal.logClear();
+        testJournal.commit();
+        assertEquals(Arrays.asList("ADD The Changeling", "CLEAR"), replay());
+    }
+
+    // ------------------------- check generations --------------------
+
+    @Test
+    public void testStartGeneration() throws IOException {
+        assertEquals(0, testJournal.getGeneration());
+        testJournal.logAdd(BOOK);
+
+        testJournal.startGeneration(1);
+        testJournal.logAdd(OTHER_BOOK);
+        testJournal.close();
+
+        testJournal = new Journal(journalFile, 1000);
+        assertEquals(1, testJournal.getGeneration());
+        assertEquals(Arrays.asList("ADD Junie B. Jones"), replay());
+    }
+
+    @Test(expected = IOException.class)
+    public void testNotAJournal() throws IOException {
+        Path file = folder.newFile("other.journal").toPath();
+        Journal.replay(file, null);
+    }
+}
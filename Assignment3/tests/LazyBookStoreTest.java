@@ -0,0 +1,79 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class LazyBookStoreTest {
+
+    private static final String CONTENT = "title,authors,average_rating,isbn,# num_pages\n"
+            + "The Changeling,Zilpha Keatley Snyder,4.17,595321801,228\r\n"
+            + "\"Dear God, Help!!! \"\"Love\"\" Earl\",Barbara Park,3.95,679853952,144\n"
+            + "Broken Book,Barbara Park,hello,123,1\n"
+            + "Åsa's Bok,Barbara Park,0,,0";
+
+    private LazyBookStore testStore;
+
+    @Before
+    public void setup() {
+        testStore = new LazyBookStore(new AuthorDictionary());
+        assertEquals("Unexpected number of added lines.", 4,
+                testStore.addLines(CONTENT.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    // ------------------------- check lazy decoding --------------------
+
+    @Test
+    public void testTitlesWithoutValidation() {
+        assertEquals(4, testStore.size());
+        assertEquals("The Changeling", testStore.getTitle(0));
+        assertEquals("Dear God, Help!!! \"Love\" Earl", testStore.getTitle(1));
+        assertEquals("Broken Book", testStore.getTitle(2));
+        assertEquals("Åsa's Bok", testStore.getTitle(3));
+    }
+
+    @Test
+    public void testDataValuesDecodedOnAccess() {
+        BookEntry expected = new BookEntry("The Changeling", new String[] { "Zilpha Keatley Snyder" }, 4.17f,
+                "595321801", 228);
+
+        assertEquals(228, testStore.getPages(0));
+        assertEquals(expected, testStore.getBook(0));
+        assertEquals("", testStore.getISBN(3));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testInvalidBookAccess() {
+        testStore.getRating(2);
+    }
+
+    // ------------------------- check validation --------------------
+
+    @Test
+    public void testValidateRemovesInvalidBooks() {
+        List<LineError> errors = testStore.validate();
+
+        assertEquals("Unexpected number of invalid books.", 1, errors.size());
+        assertEquals(LoadReport.Category.RATING, errors.get(0).getCategory());
+        assertEquals("Errors are numbered by position.", 2, errors.get(0).getLineNumber());
+        assertEquals("Given rating is not a valid number (MALFORMED): hello", errors.get(0).getMessage());
+        assertEquals(3, testStore.size());
+        assertEquals("Åsa's Bok", testStore.getBook(2).getTitle());
+        assertEquals("No invalid books are expected after validation.", 0, testStore.validate().size());
+    }
+
+    @Test
+    public void testMixedRawAndDecodedBooks() {
+        BookEntry added = new BookEntry("Added", new String[] { "Barbara Park" }, 1f, "1", 1);
+        testStore.add(added);
+        testStore.remove(0);
+
+        assertEquals(4, testStore.size());
+        assertEquals(added, testStore.getBook(3));
+        assertEquals(1, testStore.validate().size());
+        assertEquals(3, testStore.removeIf(testStore.authorFilter("Barbara Park")));
+        assertEquals(0, testStore.size());
+    }
+}
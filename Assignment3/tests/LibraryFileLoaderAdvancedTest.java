@@ -0,0 +1,168 @@
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.*;
+
+public class LibraryFileLoaderAdvancedTest extends LibraryFileLoaderTest {
+
+    private Path testFile;
+
+    @After
+    public void cleanup() throws IOException {
+        testFileLoader.close();
+        if (testFile != null) {
+            Files.deleteIfExists(testFile);
+        }
+    }
+
+    // -------------------------- test helper -------------------------------------
+
+    protected Path writeTestFile(List<String> lines) {
+        try {
+            testFile = Files.createTempFile("books", ".csv");
+            Files.write(testFile, lines);
+        } catch (IOException e) {
+            fail("Test file could not be written: " + e);
+        }
+        return testFile;
+    }
+
+    // ------------------------- check parseNextChunk --------------------
+
+    @Test
+    public void testParseNextChunkResultInChunks() {
+        assertTrue(testFileLoader.openFileStream(writeTestFile(testBookData)));
+
+        List<BookEntry> firstChunk = testFileLoader.parseNextChunk(1);
+        assertEquals("Unexpected size of first chunk.", 1, firstChunk.size());
+        BookEntryTestUtils.checkBookFieldValues(firstChunk.get(0), BookEntryTest.BOOK_ENTRY_FIELD_NAMES,
+                BOOK_SAMPLE1_VALUES);
+        assertTrue("Stream is expected to have more content.", testFileLoader.hasMoreContent());
+
+        List<BookEntry> secondChunk = testFileLoader.parseNextChunk(1);
+        assertEquals("Unexpected size of second chunk.", 1, secondChunk.size());
+        BookEntryTestUtils.checkBookFieldValues(secondChunk.get(0), BookEntryTest.BOOK_ENTRY_FIELD_NAMES,
+                BOOK_SAMPLE2_VALUES);
+
+        assertTrue("Last chunk is expected to be empty.", testFileLoader.parseNextChunk(1).isEmpty());
+        assertFalse("Stream is expected to be closed at end of file.", testFileLoader.hasMoreContent());
+    }
+
+    @Test
+    public void testParseNextChunkSkipsInvalidLines() {
+        List<String> data = new ArrayList<>(testBookData);
+        data.add(1, "Not,a,valid,line");
+        assertTrue(testFileLoader.openFileStream(writeTestFile(data)));
+
+        List<BookEntry> books = testFileLoader.parseNextChunk(10);
+        assertEquals("Invalid line is expected to be skipped.", 2, books.size());
+        assertFalse("Stream is expected to be closed at end of file.", testFileLoader.hasMoreContent());
+    }
+
+    @Test
+    public void testParseNextChunkReadFailure() throws IOException {
+        testFile = Files.createTempFile("books", BookDataFiles.GZIP_EXTENSION);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(compressed), StandardCharsets.UTF_8)) {
+            writer.write(testBookData.get(0) + "\n");
+            for (int i = 0; i < 20000; i++) {
+                writer.write(i + "," + DATA_SAMPLE1.substring(DATA_SAMPLE1.indexOf(',') + 1) + "\n");
+            }
+        }
+        // cuts the file off in the middle, so reading fails after some lines were parsed
+        byte[] content = compressed.toByteArray();
+        Files.write(testFile, Arrays.copyOf(content, content.length / 2));
+
+        assertTrue(testFileLoader.openFileStream(testFile));
+        int parsed = 0;
+        while (testFileLoader.hasMoreContent()) {
+            parsed += testFileLoader.parseNextChunk(1000).size();
+        }
+        assertTrue("Lines before the failure are expected to be parsed.", parsed > 0 && parsed < 20000);
+        assertTrue("Read failure is expected to be recorded.", testFileLoader.hasReadFailed());
+
+        LibraryData library = new LibraryData();
+        assertFalse("Truncated read is not expected to load successfully.",
+                library.loadData(testFile, LoadMode.STREAM));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseNextChunkInvalidChunkSize() {
+        testFileLoader.parseNextChunk(0);
+    }
+
+    // ------------------------- check ParallelFileLoader --------------------
+
+    @Test
+    public void testParallelParseFileResultInFileOrder() {
+        List<String> data = new ArrayList<>(testBookData);
+        data.add(2, "Not,a,valid,line");
+        data.add(DATA_SAMPLE1);
+        List<BookEntry> books = new ParallelFileLoader().parseFile(writeTestFile(data));
+
+        List<Object[]> expectedValues = new ArrayList<>();
+        expectedValues.add(BOOK_SAMPLE1_VALUES);
+        expectedValues.add(BOOK_SAMPLE2_VALUES);
+        expectedValues.add(BOOK_SAMPLE1_VALUES);
+
+        assertNotNull("Resulting book collection is not expected to be null.", books);
+        assertEquals("Resulting book data has unexpected size.", expectedValues.size(), books.size());
+        for (int i = 0; i < books.size(); i++) {
+            BookEntryTestUtils.checkBookFieldValues(books.get(i), BookEntryTest.BOOK_ENTRY_FIELD_NAMES,
+                    expectedValues.get(i));
+        }
+    }
+
+    @Test
+    public void testParallelParseFileSeveralSegments() {
+        List<String> data = new ArrayList<>();
+        data.add(DATA_HEADER);
+        for (int i = 0; i < 500; i++) {
+            data.add(i % 97 == 96 ? "Not,a,valid,line" : "Book " + i + ",Author " + i % 7 + ",4.0," + i + "," + i);
+        }
+        Path file = writeTestFile(data);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        LoadReport report = new LoadReport();
+        List<BookEntry> books;
+        try {
+            // with a small minimum, the file is cut into four segments per worker, 16 in total
+            books = new ParallelFileLoader(pool, null, 64).parseFile(file, report);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertTrue(testFileLoader.loadFileContent(file));
+        List<BookEntry> expected = testFileLoader.parseFileContent(new LoadReport());
+        assertEquals("Books of all segments are expected in file order.", expected, books);
+        assertEquals(5, report.getCount(LoadReport.Category.COLUMN_COUNT));
+
+        // data line i is line i + 2 of the file, as the header is line 1, and later lines lie in later segments
+        List<String> samples = report.getSamples(LoadReport.Category.COLUMN_COUNT);
+        int previousSegment = 0;
+        for (int i = 0; i < samples.size(); i++) {
+            String prefix = file + ", segment ";
+            String lineLocation = String.format(", line %d: ", 97 * i + 96 + 2);
+            String sample = samples.get(i);
+            assertTrue("Unexpected location of invalid line: " + sample, sample.startsWith(prefix));
+            int segmentEnd = sample.indexOf(lineLocation, prefix.length());
+            assertTrue("Unexpected location of invalid line: " + sample, segmentEnd > prefix.length());
+            int segment = Integer.parseInt(sample.substring(prefix.length(), segmentEnd));
+            assertTrue("Unexpected segment of invalid line: " + sample, segment > previousSegment);
+            previousSegment = segment;
+        }
+    }
+}
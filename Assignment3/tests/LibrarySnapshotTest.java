@@ -0,0 +1,99 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LibrarySnapshotTest {
+
+    private Path testFile;
+    private List<BookEntry> testBooks;
+
+    @Before
+    public void setup() throws IOException {
+        testFile = Files.createTempFile("library", ".snapshot");
+        testBooks = new ArrayList<>();
+        testBooks.add(new BookEntry("The Changeling", new String[] { "Zilpha Keatley Snyder" }, 4.17f, "595321801",
+                228));
+        testBooks.add(new BookEntry("Dear God, Help!!! Love Earl", new String[] { "Barbara Park", "Kenneth Lafreniere" },
+                3.95f, "679853952", 144));
+        testBooks.add(new BookEntry("Åsa's Bok", new String[] { "Barbara Park" }, 0f, "", 0));
+    }
+
+    @After
+    public void cleanup() throws IOException {
+        Files.deleteIfExists(testFile);
+    }
+
+    // ------------------------- check write and read --------------------
+
+    @Test
+    public void testWriteReadRoundTrip() throws IOException {
+        List<BookEntry> books = new ArrayList<>(testBooks);
+        books.add(1, null);
+
+        assertEquals("Unexpected number of written books.", testBooks.size(), LibrarySnapshot.write(books, testFile));
+        assertEquals("Restored books not as expected.", testBooks, LibrarySnapshot.read(testFile));
+    }
+
+    @Test
+    public void testWriteReadEmptyLibrary() throws IOException {
+        LibrarySnapshot.write(new ArrayList<>(), testFile);
+        assertEquals("Restored library is expected to be empty.", 0, LibrarySnapshot.read(testFile).size());
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadCorruptedSnapshot() throws IOException {
+        LibrarySnapshot.write(testBooks, testFile);
+
+        byte[] content = Files.readAllBytes(testFile);
+        content[content.length / 2] ^= 1;
+        Files.write(testFile, content);
+
+        LibrarySnapshot.read(testFile);
+    }
+
+    // ------------------------- check restoring a library --------------------
+
+    @Test
+    public void testRestoreDataSearchSameSize() throws IOException {
+        Path directory = Files.createTempDirectory("library");
+        Path fileA = directory.resolve("a.csv");
+        Path fileB = directory.resolve("b.csv");
+        Files.write(fileA, List.of("title,authors,average_rating,isbn,# num_pages",
+                "Alpha Book,Author A,4.0,1,100", "Beta Book,Author B,3.0,2,200", "Gamma Book,Author C,2.0,3,300"));
+        Files.write(fileB, List.of("title,authors,average_rating,isbn,# num_pages", "Zeta Book,Author Z,1.0,4,400"));
+
+        try {
+            LibraryData library = new LibraryData();
+            library.loadData(fileA);
+            CommandTestUtils.captureExecuteStdOutput(new SearchCmd("book"), library);
+            library.saveData(testFile);
+            CommandTestUtils.captureExecuteStdOutput(new RemoveCmd("TITLE Alpha Book"), library);
+            library.loadData(fileB);
+
+            assertTrue("Restoring is expected to succeed.", library.restoreData(testFile));
+            assertEquals("Search after restoring not as expected.", "Alpha Book",
+                    CommandTestUtils.captureExecuteStdOutput(new SearchCmd("alpha"), library).trim());
+            assertEquals("Search after restoring not as expected.", "No hits found for search term: zeta",
+                    CommandTestUtils.captureExecuteStdOutput(new SearchCmd("zeta"), library).trim());
+        } finally {
+            Files.delete(fileA);
+            Files.delete(fileB);
+            Files.delete(directory);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadNoSnapshot() throws IOException {
+        Files.write(testFile, List.of("title,authors,average_rating,isbn,# num_pages"));
+        LibrarySnapshot.read(testFile);
+    }
+}
@@ -0,0 +1,87 @@
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class LoadReportTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private LoadReport testReport;
+
+    @Before
+    public void setup() {
+        testReport = new LoadReport();
+    }
+
+    // ------------------------- check counts and samples --------------------
+
+    @Test
+    public void testCountsPerCategory() {
+        testReport.record(LoadReport.Category.RATING, "books.csv, line 2", "bad");
+        testReport.record(LoadReport.Category.RATING, "books.csv, line 3", "bad");
+        testReport.record(LoadReport.Category.PAGES, "books.csv, line 4", "bad");
+        testReport.record(LoadReport.Category.DUPLICATE, null, "book");
+
+        assertEquals(2, testReport.getCount(LoadReport.Category.RATING));
+        assertEquals(1, testReport.getCount(LoadReport.Category.PAGES));
+        assertEquals(0, testReport.getCount(LoadReport.Category.COLUMN_COUNT));
+        assertEquals("Duplicates are not rejected lines.", 3, testReport.getRejectedCount());
+    }
+
+    @Test
+    public void testSamplesBounded() {
+        for (int i = 0; i < 100; i++) {
+            testReport.record(LoadReport.Category.COLUMN_COUNT, "books.csv, line " + i, "malformed");
+        }
+
+        assertEquals(100, testReport.getCount(LoadReport.Category.COLUMN_COUNT));
+        assertEquals(Arrays.asList("books.csv, line 0: malformed", "books.csv, line 1: malformed",
+                "books.csv, line 2: malformed"), testReport.getSamples(LoadReport.Category.COLUMN_COUNT));
+    }
+
+    @Test
+    public void testLogContainsAllProblems() throws IOException {
+        Path logFile = folder.getRoot().toPath().resolve("load.log");
+        try (LoadReport report = new LoadReport(logFile)) {
+            for (int i = 0; i < 10; i++) {
+                report.record(LoadReport.Category.PAGES, "books.csv, line " + i, "negative");
+            }
+            report.record(LoadReport.Category.DUPLICATE, null, "book");
+        }
+
+        List<String> lines = Files.readAllLines(logFile, StandardCharsets.UTF_8);
+        assertEquals(11, lines.size());
+        assertEquals("PAGES\tbooks.csv, line 9: negative", lines.get(9));
+        assertEquals("DUPLICATE\tbook", lines.get(10));
+    }
+
+    // ------------------------- check categories of loader --------------------
+
+    @Test
+    public void testLoaderCategories() {
+        LibraryFileLoader loader = new LibraryFileLoader();
+
+        loader.createBookFromFile("Title,Author,4.5,ISBN");
+        assertEquals(LoadReport.Category.COLUMN_COUNT, loader.getLineErrorCategory());
+        loader.createBookFromFile("Title,Author,hello,ISBN,100");
+        assertEquals(LoadReport.Category.RATING, loader.getLineErrorCategory());
+        loader.createBookFromFile("Title,Author,7,ISBN,-100");
+        assertEquals("Rating is checked before pages.", LoadReport.Category.RATING, loader.getLineErrorCategory());
+        loader.createBookFromFile("Title,Author,4.5,ISBN,-100");
+        assertEquals(LoadReport.Category.PAGES, loader.getLineErrorCategory());
+        loader.createBookFromFile("Title,Author,4.5,ISBN,x");
+        assertEquals(LoadReport.Category.PAGES, loader.getLineErrorCategory());
+    }
+}
@@ -0,0 +1,172 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LsmEngineTest {
+
+    private static final int MEMTABLE_LIMIT = 8;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path directory;
+    private LsmEngine testEngine;
+
+    @Before
+    public void setup() throws IOException {
+        directory = folder.getRoot().toPath().resolve("catalog");
+        testEngine = new LsmEngine(directory, MEMTABLE_LIMIT);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        testEngine.close();
+    }
+
+    // ------------------------- test helper -------------------------------------
+
+    private static BookEntry createBook(long i) {
+        return new BookEntry("Title " + i, new String[] { "Author " + i % 7 }, 1f, "ISBN" + i, (int) i);
+    }
+
+    private void reopen() throws IOException {
+        testEngine.close();
+        testEngine = new LsmEngine(directory, MEMTABLE_LIMIT);
+    }
+
+    private List<Long> collectKeys() {
+        List<Long> keys = new ArrayList<>();
+        for (LsmEngine.Cursor cursor = testEngine.cursor(Long.MIN_VALUE); cursor.hasEntry(); cursor.next()) {
+            keys.add(cursor.getKey());
+        }
+        return keys;
+    }
+
+    private static int sum(int[] values) {
+        int sum = 0;
+        for (int value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    // ------------------------- check engine --------------------
+
+    @Test
+    public void testPutGetDelete() throws IOException {
+        long key = testEngine.add(createBook(1));
+        assertEquals(createBook(1), testEngine.get(key));
+
+        testEngine.put(key, createBook(2));
+        assertEquals(createBook(2), testEngine.get(key));
+
+        testEngine.delete(key);
+        assertNull(testEngine.get(key));
+        assertEquals(0, collectKeys().size());
+    }
+
+    @Test
+    public void testLogRestoredAfterReopen() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            testEngine.add(createBook(i));
+        }
+        testEngine.delete(1);
+        reopen();
+
+        assertEquals("Only the memtable is expected to hold changes.", 0, sum(testEngine.getRunCounts()));
+        assertEquals(List.of(0L, 2L), collectKeys());
+        assertEquals(createBook(2), testEngine.get(2));
+        assertEquals("Keys must not be reused after reopening.", 3, testEngine.add(createBook(3)));
+    }
+
+    @Test
+    public void testRunsCompactedAcrossLevels() throws IOException, InterruptedException {
+        int count = 40 * MEMTABLE_LIMIT;
+        for (int i = 0; i < count; i++) {
+            testEngine.add(createBook(i));
+        }
+        // replaces and removes books which have already been written to runs
+        for (int i = 0; i < count; i += 3) {
+            testEngine.put(i, createBook(i + count));
+        }
+        for (int i = 1; i < count; i += 3) {
+            testEngine.delete(i);
+        }
+        testEngine.awaitCompaction();
+
+        int[] runCounts = testEngine.getRunCounts();
+        assertTrue("Level 0 is expected to be compacted.", runCounts[0] < 4);
+        assertTrue("Deeper levels are expected to hold runs.", sum(runCounts) > runCounts[0]);
+
+        reopen();
+        List<Long> keys = collectKeys();
+        assertEquals("Unexpected number of books.", count - (count + 1) / 3, keys.size());
+        for (long key : keys) {
+            assertFalse("Removed book must not be listed: " + key, key % 3 == 1);
+            BookEntry expected = key % 3 == 0 ? createBook(key + count) : createBook(key);
+            assertEquals(expected, testEngine.get(key));
+        }
+        assertNull(testEngine.get(1));
+    }
+
+    @Test
+    public void testCursorFromKey() throws IOException {
+        for (int i = 0; i < 3 * MEMTABLE_LIMIT; i++) {
+            testEngine.add(createBook(i));
+        }
+
+        LsmEngine.Cursor cursor = testEngine.cursor(10);
+        assertEquals(10, cursor.getKey());
+        assertEquals(createBook(10), cursor.getBook());
+        cursor.next();
+        assertEquals(11, cursor.getKey());
+    }
+
+    @Test
+    public void testClear() throws IOException {
+        for (int i = 0; i < 2 * MEMTABLE_LIMIT + 1; i++) {
+            testEngine.add(createBook(i));
+        }
+        testEngine.clear();
+        assertEquals(0, collectKeys().size());
+
+        reopen();
+        assertEquals(0, collectKeys().size());
+        assertEquals(0, sum(testEngine.getRunCounts()));
+    }
+
+    // ------------------------- check book store --------------------
+
+    @Test
+    public void testBookStoreKeepsPositions() throws IOException {
+        LsmBookStore store = new LsmBookStore(testEngine, new AuthorDictionary());
+        for (int i = 0; i < 3 * MEMTABLE_LIMIT; i++) {
+            store.add(createBook(i));
+        }
+        store.set(1, createBook(100));
+        assertEquals(MEMTABLE_LIMIT, store.removeIf(i -> i >= 2 * MEMTABLE_LIMIT));
+        store.remove(0);
+
+        reopen();
+        store = new LsmBookStore(testEngine, new AuthorDictionary());
+        assertEquals(2 * MEMTABLE_LIMIT - 1, store.size());
+        assertEquals(createBook(100), store.getBook(0));
+        for (int i = 1; i < store.size(); i++) {
+            assertEquals(createBook(i + 1), store.getBook(i));
+        }
+        assertEquals("Title 5", store.getTitle(4));
+        assertTrue(store.hasAuthor(4, "Author 5"));
+    }
+}
@@ -0,0 +1,154 @@
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MultiFileLoaderTest {
+
+    private static final String HEADER = "title,authors,average_rating,isbn,# num_pages\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path firstFile;
+    private Path secondFile;
+
+    @Before
+    public void setup() throws IOException {
+        firstFile = write("books01.csv", HEADER
+                + "The Changeling,Zilpha Keatley Snyder,4.17,595321801,228\n"
+                + "Broken Book,Barbara Park,hello,123,1\n");
+        secondFile = write("books02.csv", HEADER
+                + "Junie B. Jones,Barbara Park,3.95,679853952,144\n");
+        write("notes.txt", "not book data");
+        folder.newFolder("more");
+        write("more/books03.csv", HEADER);
+    }
+
+    private Path write(String name, String content) throws IOException {
+        Path file = folder.getRoot().toPath().resolve(name);
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    // ------------------------- check file sets --------------------
+
+    @Test
+    public void testIsFileSet() {
+        assertTrue(BookDataFiles.isFileSet(folder.getRoot().toString()));
+        assertTrue(BookDataFiles.isFileSet("books*.csv"));
+        assertFalse(BookDataFiles.isFileSet(firstFile.toString()));
+    }
+
+    @Test
+    public void testFindDirectory() {
+        List<Path> files = BookDataFiles.find(folder.getRoot().toString());
+
+        assertEquals(Arrays.asList(firstFile, secondFile), files);
+    }
+
+    @Test
+    public void testFindGlob() {
+        String root = folder.getRoot().toString();
+
+        assertEquals(Arrays.asList(secondFile), BookDataFiles.find(root + "/*02.csv"));
+        assertEquals(3, BookDataFiles.find(root + "/**.csv").size());
+        assertEquals(0, BookDataFiles.find(root + "/*.dat").size());
+    }
+
+    // ------------------------- check parsing --------------------
+
+    @Test
+    public void testParseFilesInOrder() {
+        List<MultiFileLoader.FileResult> results = new MultiFileLoader(2, new AuthorDictionary())
+                .parseFiles(Arrays.asList(firstFile, secondFile));
+
+        assertEquals(2, results.size());
+        MultiFileLoader.FileResult first = results.get(0);
+        assertEquals(firstFile, first.getFile());
+        assertNull(first.getFailure());
+        assertEquals(2, first.getLineCount());
+        assertEquals(1, first.getBooks().size());
+        assertEquals(1, first.getErrors().size());
+        LineError error = first.getErrors().get(0);
+        assertEquals(LoadReport.Category.RATING, error.getCategory());
+        assertEquals(3, error.getLineNumber());
+        assertEquals("Given rating is not a valid number (MALFORMED): hello", error.getMessage());
+
+        assertEquals("Junie B. Jones", results.get(1).getBooks().get(0).getTitle());
+    }
+
+    @Test
+    public void testParseMissingFile() {
+        List<MultiFileLoader.FileResult> results = new MultiFileLoader(2, null)
+                .parseFiles(Arrays.asList(folder.getRoot().toPath().resolve("missing.csv"), secondFile));
+
+        assertNotNull(results.get(0).getFailure());
+        assertEquals(0, results.get(0).getBooks().size());
+        assertEquals(1, results.get(1).getBooks().size());
+    }
+
+    // ------------------------- check loading several files --------------------
+
+    @Test
+    public void testLoadDataStreamFileByFile() {
+        LibraryData library = new LibraryData();
+        StdStreamIntercept intercept = new StdStreamIntercept();
+
+        intercept.stdCaptureStart();
+        boolean success;
+        String output;
+        try {
+            success = library.loadData(Arrays.asList(firstFile, secondFile, firstFile), LoadMode.STREAM,
+                    DuplicateKey.RECORD, DuplicatePolicy.SKIP);
+        } finally {
+            output = intercept.getCapturedStdOut();
+            intercept.stdCaptureStop();
+        }
+
+        assertTrue(success);
+        assertEquals("Duplicates across files are expected to be skipped.", 2, library.getBookData().size());
+        assertTrue(output, output.contains(firstFile + ": 2 rows, 1 books loaded"));
+        assertTrue(output, output.contains(secondFile + ": 1 rows, 1 books loaded"));
+        assertTrue(output, output.contains("1 duplicate entries skipped"));
+    }
+
+    @Test
+    public void testLoadDataPipelineFileByFile() {
+        LibraryData library = new LibraryData();
+        StdStreamIntercept intercept = new StdStreamIntercept();
+
+        intercept.stdCaptureStart();
+        String output;
+        try {
+            assertTrue(library.loadData(Arrays.asList(firstFile, secondFile), LoadMode.PIPELINE,
+                    DuplicateKey.RECORD, DuplicatePolicy.SKIP));
+        } finally {
+            output = intercept.getCapturedStdOut();
+            intercept.stdCaptureStop();
+        }
+
+        assertEquals(2, library.getBookData().size());
+        int firstMetrics = output.indexOf("Pipeline stage");
+        assertTrue("Every file is expected to go through the pipeline.",
+                firstMetrics >= 0 && firstMetrics < output.indexOf(secondFile + ":"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidThreadCount() {
+        new MultiFileLoader(0, null);
+    }
+}
@@ -0,0 +1,70 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class NumericFieldParserTest {
+
+    private NumericFieldParser testParser;
+
+    @Before
+    public void setup() {
+        testParser = new NumericFieldParser();
+    }
+
+    // -------------------------- test helper -------------------------------------
+
+    private NumericFieldParser.Status parseInt(String field) {
+        char[] buffer = ("#" + field + "#").toCharArray(); // surrounding characters must be ignored
+        return testParser.parseInt(buffer, 1, buffer.length - 1);
+    }
+
+    private NumericFieldParser.Status parseFloat(String field) {
+        char[] buffer = ("#" + field + "#").toCharArray(); // surrounding characters must be ignored
+        return testParser.parseFloat(buffer, 1, buffer.length - 1);
+    }
+
+    // ------------------------- check parseInt --------------------
+
+    @Test
+    public void testParseIntValidValues() {
+        String[] fields = { "0", "228", "+64", "-5", "007", "2147483647", "-2147483648" };
+        for (String field : fields) {
+            assertEquals("Unexpected status for: " + field, NumericFieldParser.Status.OK, parseInt(field));
+            assertEquals("Unexpected value for: " + field, Integer.parseInt(field), testParser.getIntValue());
+        }
+    }
+
+    @Test
+    public void testParseIntInvalidValues() {
+        assertEquals(NumericFieldParser.Status.EMPTY, parseInt(""));
+        assertEquals(NumericFieldParser.Status.MALFORMED, parseInt("-"));
+        assertEquals(NumericFieldParser.Status.MALFORMED, parseInt("12a"));
+        assertEquals(NumericFieldParser.Status.MALFORMED, parseInt(" 12"));
+        assertEquals(NumericFieldParser.Status.MALFORMED, parseInt("99999999999x"));
+        assertEquals(NumericFieldParser.Status.OUT_OF_RANGE, parseInt("2147483648"));
+        assertEquals(NumericFieldParser.Status.OUT_OF_RANGE, parseInt("-2147483649"));
+    }
+
+    // ------------------------- check parseFloat --------------------
+
+    @Test
+    public void testParseFloatValidValues() {
+        String[] fields = { "4.17", "3.75", "0", "5.00", "-1.5", "+.5", "4.", " 3.91 ", "1.23456789012345678901" };
+        for (String field : fields) {
+            assertEquals("Unexpected status for: " + field, NumericFieldParser.Status.OK, parseFloat(field));
+            assertEquals("Unexpected value for: " + field, Float.floatToIntBits(Float.parseFloat(field)),
+                    Float.floatToIntBits(testParser.getFloatValue()));
+        }
+    }
+
+    @Test
+    public void testParseFloatInvalidValues() {
+        assertEquals(NumericFieldParser.Status.EMPTY, parseFloat(""));
+        assertEquals(NumericFieldParser.Status.EMPTY, parseFloat("  "));
+        assertEquals(NumericFieldParser.Status.MALFORMED, parseFloat("hello"));
+        assertEquals(NumericFieldParser.Status.MALFORMED, parseFloat("."));
+        assertEquals(NumericFieldParser.Status.MALFORMED, parseFloat("1.2.3"));
+        assertEquals(NumericFieldParser.Status.MALFORMED, parseFloat("1e3"));
+    }
+}
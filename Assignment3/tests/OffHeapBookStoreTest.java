@@ -0,0 +1,133 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class OffHeapBookStoreTest {
+
+    private OffHeapBookStore testStore;
+    private List<BookEntry> testBooks;
+
+    @Before
+    public void setup() {
+        testStore = new OffHeapBookStore(new AuthorDictionary());
+        testBooks = new ArrayList<>();
+        testBooks.add(new BookEntry("The Changeling", new String[] { "Zilpha Keatley Snyder" }, 4.17f, "595321801",
+                228));
+        testBooks.add(new BookEntry("Dear God, Help!!! Love Earl", new String[] { "Barbara Park", "Kenneth Lafreniere" },
+                3.95f, "679853952", 144));
+        testBooks.add(new BookEntry("Åsa's Bok", new String[] { "Barbara Park" }, 0f, "", 0));
+        testBooks.add(new BookEntry("Isbn With Check Digit", new String[] {}, 5f, "080442957X", 12));
+        testBooks.add(new BookEntry("Irregular Isbn", new String[] { "Anonymous" }, 2.5f, "978-3-16-148410-0", 7));
+
+        for (BookEntry book : testBooks) {
+            testStore.add(book);
+        }
+    }
+
+    // ------------------------- test helper -------------------------------------
+
+    private void checkStoredBooks() {
+        assertEquals("Unexpected number of stored books.", testBooks.size(), testStore.size());
+        for (int i = 0; i < testBooks.size(); i++) {
+            assertEquals("Unexpected book at position " + i, testBooks.get(i), testStore.getBook(i));
+        }
+    }
+
+    // ------------------------- check data values --------------------
+
+    @Test
+    public void testAddGetRoundTrip() {
+        checkStoredBooks();
+    }
+
+    @Test
+    public void testDataValues() {
+        assertEquals("Dear God, Help!!! Love Earl", testStore.getTitle(1));
+        assertEquals(2, testStore.getAuthorCount(1));
+        assertEquals("Kenneth Lafreniere", testStore.getAuthor(1, 1));
+        assertEquals(3.95f, testStore.getRating(1), 0f);
+        assertEquals("080442957X", testStore.getISBN(3));
+        assertEquals("978-3-16-148410-0", testStore.getISBN(4));
+        assertEquals(144, testStore.getPages(1));
+    }
+
+    @Test
+    public void testHasTitleAndAuthor() {
+        assertTrue(testStore.hasTitle(2, "Åsa's Bok"));
+        assertFalse(testStore.hasTitle(2, "Åsa's Book"));
+        assertTrue(testStore.hasAuthor(1, "Barbara Park"));
+        assertFalse(testStore.hasAuthor(0, "Barbara Park"));
+        assertFalse(testStore.hasAuthor(0, "Unknown Author"));
+    }
+
+    @Test
+    public void testTitleScanWithoutStrings() {
+        StringBuilder output = new StringBuilder();
+        testStore.appendTitle(1, output);
+        testStore.appendTitle(2, output);
+        assertEquals("Dear God, Help!!! Love Earl" + "Åsa's Bok", output.toString());
+
+        assertTrue(testStore.titleContains(1, "help!!!"));
+        assertTrue(testStore.titleContains(1, "dear god, help!!! love earl"));
+        assertFalse(testStore.titleContains(1, "earls"));
+        // titles with non-ASCII characters are compared as lower case strings
+        assertTrue(testStore.titleContains(2, "åsa"));
+        assertTrue(testStore.titleContains(0, ""));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testGetBookOutOfRange() {
+        testStore.getBook(testBooks.size());
+    }
+
+    // ------------------------- check modification --------------------
+
+    @Test
+    public void testSetAndRemove() {
+        BookEntry replacement = new BookEntry("Replacement", new String[] { "Barbara Park" }, 1f, "123-X", 1);
+        testStore.set(4, replacement);
+        testBooks.set(4, replacement);
+        checkStoredBooks();
+
+        testStore.remove(1);
+        testBooks.remove(1);
+        checkStoredBooks();
+    }
+
+    @Test
+    public void testRemoveIf() {
+        int removed = testStore.removeIf(i -> testStore.hasAuthor(i, "Barbara Park"));
+
+        assertEquals("Unexpected number of removed books.", 2, removed);
+        testBooks.remove(2);
+        testBooks.remove(1);
+        checkStoredBooks();
+    }
+
+    @Test
+    public void testRepeatedChangesCompactArenas() {
+        // replaces and removes enough books to trigger compaction several times
+        for (int i = 0; i < 200; i++) {
+            BookEntry book = new BookEntry("Title " + i, new String[] { "Author " + i % 7 }, 1f, "x" + i, i);
+            testStore.add(book);
+            testBooks.add(book);
+            testStore.set(i % testBooks.size(), book);
+            testBooks.set(i % testBooks.size(), book);
+            if (i % 3 == 0) {
+                testStore.remove(0);
+                testBooks.remove(0);
+            }
+        }
+        checkStoredBooks();
+
+        testStore.clear();
+        assertEquals("Store is expected to be empty.", 0, testStore.size());
+        assertTrue("Cleared store is expected to release its buffers.", testStore.getAllocatedBytes() < 1024);
+    }
+}
@@ -0,0 +1,141 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PagedBookStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private PagedBookStore testStore;
+    private List<BookEntry> testBooks;
+
+    @Before
+    public void setup() throws IOException {
+        testStore = new PagedBookStore(folder.getRoot().toPath().resolve("books.pages"), new AuthorDictionary(), 2);
+        testBooks = new ArrayList<>();
+        testBooks.add(new BookEntry("The Changeling", new String[] { "Zilpha Keatley Snyder" }, 4.17f, "595321801",
+                228));
+        testBooks.add(new BookEntry("Dear God, Help!!! Love Earl", new String[] { "Barbara Park", "Kenneth Lafreniere" },
+                3.95f, "679853952", 144));
+        testBooks.add(new BookEntry("Åsa's Bok", new String[] { "Barbara Park" }, 0f, "", 0));
+        testBooks.add(new BookEntry("No Authors", new String[] {}, 5f, "080442957X", 12));
+
+        for (BookEntry book : testBooks) {
+            testStore.add(book);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        testStore.close();
+    }
+
+    // ------------------------- test helper -------------------------------------
+
+    private void checkStoredBooks() {
+        assertEquals("Unexpected number of stored books.", testBooks.size(), testStore.size());
+        for (int i = 0; i < testBooks.size(); i++) {
+            assertEquals("Unexpected book at position " + i, testBooks.get(i), testStore.getBook(i));
+        }
+    }
+
+    private void addManyBooks(int count) {
+        for (int i = 0; i < count; i++) {
+            BookEntry book = new BookEntry("Title " + i, new String[] { "Author " + i % 13 }, 1f, "x" + i, i);
+            testStore.add(book);
+            testBooks.add(book);
+        }
+    }
+
+    // ------------------------- check data values --------------------
+
+    @Test
+    public void testAddGetRoundTrip() {
+        checkStoredBooks();
+        assertEquals("Kenneth Lafreniere", testStore.getAuthor(1, 1));
+        assertEquals(3.95f, testStore.getRating(1), 0f);
+    }
+
+    @Test
+    public void testManyPagesWithSmallCache() {
+        // fills far more pages than the cache holds, which are read backwards to defeat the cache
+        addManyBooks(20_000);
+
+        assertTrue("Books are expected to use several pages.", testStore.getPageCount() > 2);
+        for (int i = testBooks.size() - 1; i >= 0; i -= 97) {
+            assertEquals(testBooks.get(i), testStore.getBook(i));
+        }
+        checkStoredBooks();
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testGetBookOutOfRange() {
+        testStore.getBook(testBooks.size());
+    }
+
+    // ------------------------- check modification --------------------
+
+    @Test
+    public void testSetAndRemove() {
+        BookEntry replacement = new BookEntry("Replacement", new String[] { "Barbara Park" }, 1f, "123-X", 1);
+        testStore.set(3, replacement);
+        testBooks.set(3, replacement);
+        checkStoredBooks();
+
+        testStore.remove(1);
+        testBooks.remove(1);
+        checkStoredBooks();
+    }
+
+    @Test
+    public void testSetSplitsFullPage() {
+        addManyBooks(5_000);
+        int pages = testStore.getPageCount();
+
+        // a much longer title does not fit into the full page anymore
+        BookEntry longBook = new BookEntry("Long Title ".repeat(1000), new String[] { "Barbara Park" }, 1f, "1", 1);
+        testStore.set(10, longBook);
+        testBooks.set(10, longBook);
+
+        assertEquals(pages + 1, testStore.getPageCount());
+        checkStoredBooks();
+    }
+
+    @Test
+    public void testRemoveIfAcrossPages() {
+        addManyBooks(10_000);
+
+        int removed = testStore.removeIf(i -> testStore.getPages(i) % 3 != 0 || testStore.getTitle(i).startsWith("D"));
+        testBooks.removeIf(book -> book.getPages() % 3 != 0 || book.getTitle().startsWith("D"));
+
+        assertEquals(10_004 - testBooks.size(), removed);
+        checkStoredBooks();
+
+        addManyBooks(10);
+        checkStoredBooks();
+    }
+
+    @Test
+    public void testRemoveAllAndReuse() {
+        addManyBooks(5_000);
+        testStore.removeIf(i -> true);
+        testBooks.clear();
+        assertEquals(0, testStore.getPageCount());
+
+        addManyBooks(100);
+        checkStoredBooks();
+
+        testStore.clear();
+        assertEquals("Store is expected to be empty.", 0, testStore.size());
+    }
+}
@@ -0,0 +1,90 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntPredicate;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ParallelScanTest {
+
+    private static final int POSITION_COUNT = 200_000;
+
+    private ForkJoinPool testPool;
+    private ParallelScan testScan;
+
+    @Before
+    public void setup() {
+        testPool = new ForkJoinPool(4);
+        testScan = new ParallelScan(testPool);
+    }
+
+    @After
+    public void tearDown() {
+        testPool.shutdown();
+    }
+
+    private static int[] filterSequentially(int size, IntPredicate filter) {
+        int[] matches = new int[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (filter.test(i)) {
+                matches[count++] = i;
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    // ------------------------- check filter --------------------
+
+    @Test
+    public void testFilterSmallRange() {
+        assertArrayEquals(new int[] { 0, 3, 6, 9 }, testScan.filter(10, i -> i % 3 == 0));
+        assertArrayEquals(new int[0], testScan.filter(0, i -> true));
+    }
+
+    @Test
+    public void testFilterCheapFilter() {
+        IntPredicate filter = i -> i % 7 == 2;
+        assertArrayEquals(filterSequentially(POSITION_COUNT, filter), testScan.filter(POSITION_COUNT, filter));
+    }
+
+    @Test
+    public void testFilterExpensiveFilterInOrder() {
+        IntPredicate filter = i -> Integer.toString(i * 31).hashCode() % 5 == 0;
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        int[] matches = testScan.filter(POSITION_COUNT, i -> {
+            threads.add(Thread.currentThread().getName());
+            return filter.test(i);
+        });
+
+        assertArrayEquals("Matches are expected in ascending order.", filterSequentially(POSITION_COUNT, filter), matches);
+        assertTrue("Expensive filters are expected to be evaluated on several threads.", threads.size() > 1);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFilterPropagatesExceptions() {
+        testScan.filter(POSITION_COUNT, i -> {
+            if (i == POSITION_COUNT - 1) {
+                throw new IllegalStateException("Broken filter");
+            }
+            return Integer.toString(i).hashCode() % 2 == 0;
+        });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFilterNegativeSize() {
+        testScan.filter(-1, i -> true);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testFilterNull() {
+        testScan.filter(10, null);
+    }
+}
@@ -48,6 +48,17 @@ public class SearchCmdAdvancedTest extends SearchCmdTest {
         CommandTestUtils.checkArgumentInput(testCommand, true, argWithHyphen);
     }
 
+    @Test
+    public void testParseArgumentsFuzzy() {
+        CommandTestUtils.checkArgumentInput(testCommand, true, "FUZZY TITLE Hary");
+        CommandTestUtils.checkArgumentInput(testCommand, true, "FUZZY AUTHOR Austin");
+
+        CommandTestUtils.checkArgumentInput(testCommand, false, "FUZZY ISBN Hary");
+        CommandTestUtils.checkArgumentInput(testCommand, false, "FUZZY TITLE two words");
+        CommandTestUtils.checkArgumentInput(testCommand, false, "FUZZY TITLE  ");
+        CommandTestUtils.checkArgumentInput(testCommand, false, "FUZZY TITLE");
+    }
+
     // ------------------------- execute tests --------------------
 
     @Test(expected = NullPointerException.class)
@@ -74,4 +85,36 @@ public class SearchCmdAdvancedTest extends SearchCmdTest {
         testCommand = new SearchCmd(searchTerm);
         CommandTestUtils.checkExecuteConsoleOutput(testCommand, testLibrary, expectedConsoleOutput);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testExecuteFuzzyTitleRankedByDistance() {
+        testLibrary.getBookData().add(0, new BookEntry("Hary Potter", new String[]{"AuthorD"}, 2.0f, "ISBND", 200));
+        testCommand = new SearchCmd("FUZZY TITLE Harry");
+
+        CommandTestUtils.checkExecuteConsoleOutput(testCommand, testLibrary, SINGLE_WORD_TITLE + "\nHary Potter");
+    }
+
+    @Test
+    public void testExecuteFuzzyTitleMisspelled() {
+        testCommand = new SearchCmd("FUZZY TITLE castel");
+
+        CommandTestUtils.checkExecuteConsoleOutput(testCommand, testLibrary,
+                MULTI_WORD_TITLE_A + "\n" + MULTI_WORD_TITLE_B);
+    }
+
+    @Test
+    public void testExecuteFuzzyAuthor() {
+        testLibrary.getBookData().add(new BookEntry("Emma", new String[]{"Jane Austen"}, 4.0f, "ISBNE", 300));
+        testCommand = new SearchCmd("FUZZY AUTHOR Austin");
+
+        CommandTestUtils.checkExecuteConsoleOutput(testCommand, testLibrary, "Emma");
+    }
+
+    @Test
+    public void testExecuteFuzzyNoMatch() {
+        String searchTerm = "Xyzzy";
+        testCommand = new SearchCmd("FUZZY TITLE " + searchTerm);
+
+        CommandTestUtils.checkExecuteConsoleOutput(testCommand, testLibrary, NO_HITS_FOUND_MESSAGE + searchTerm);
+    }
+}
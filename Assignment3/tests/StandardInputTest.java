@@ -0,0 +1,104 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class StandardInputTest {
+
+    private static final String HEADER = "title,authors,average_rating,isbn,# num_pages";
+    private static final String FIRST_BOOK = "The Changeling,Zilpha Keatley Snyder,4.17,595321801,228";
+
+    private InputStream originalIn;
+
+    @Before
+    public void setup() {
+        originalIn = System.in;
+    }
+
+    @After
+    public void tearDown() {
+        System.setIn(originalIn);
+    }
+
+    private void setInput(String content) {
+        System.setIn(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    // ------------------------- check data reader --------------------
+
+    @Test
+    public void testDataEndsAtEndOfData() throws IOException {
+        setInput(HEADER + "\n" + FIRST_BOOK + "\n.\nLIST\n");
+
+        try (BufferedReader reader = StandardInput.newDataReader()) {
+            assertEquals(HEADER, reader.readLine());
+            assertEquals(FIRST_BOOK, reader.readLine());
+            assertNull(reader.readLine());
+        }
+        assertEquals("Commands after the data are expected to remain.", "LIST", StandardInput.getReader().readLine());
+    }
+
+    @Test
+    public void testDataEndsAtEndOfStream() throws IOException {
+        setInput(HEADER + "\n" + FIRST_BOOK);
+
+        try (BufferedReader reader = StandardInput.newDataReader()) {
+            assertEquals(HEADER, reader.readLine());
+            assertEquals(FIRST_BOOK, reader.readLine());
+            assertNull(reader.readLine());
+        }
+    }
+
+    @Test
+    public void testCloseSkipsUnreadData() throws IOException {
+        setInput(HEADER + "\n" + FIRST_BOOK + "\n.\nLIST\n");
+
+        try (BufferedReader reader = StandardInput.newDataReader()) {
+            assertEquals(HEADER, reader.readLine());
+        }
+        assertEquals("LIST", StandardInput.getReader().readLine());
+    }
+
+    @Test
+    public void testLoadFromStandardInput() {
+        setInput(HEADER + "\n" + FIRST_BOOK + "\n.\n");
+
+        assertTrue(BookDataFiles.isStream(Paths.get(BookDataFiles.STANDARD_INPUT)));
+        LibraryData library = new LibraryData();
+        assertTrue(library.loadData(Paths.get(BookDataFiles.STANDARD_INPUT)));
+        assertEquals(1, library.getBookData().size());
+    }
+
+    // ------------------------- check library browser --------------------
+
+    @Test(timeout = 10000)
+    public void testBrowserExitsAtEndOfStream() {
+        setInput("ADD -\n" + HEADER + "\n" + FIRST_BOOK + "\n");
+        StdStreamIntercept intercept = new StdStreamIntercept();
+
+        intercept.stdCaptureStart();
+        String output;
+        String errors;
+        try {
+            new LibraryBrowser().run();
+        } finally {
+            output = intercept.getCapturedStdOut();
+            errors = intercept.getCapturedStdErr();
+            intercept.stdCaptureStop();
+        }
+
+        assertTrue("Books read up to the end of the stream are expected to be added.",
+                output.contains("1 new book entries added."));
+        assertEquals("The end of the stream is not expected to be reported as an error.", "", errors);
+    }
+}
@@ -0,0 +1,234 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TitleIndexTest {
+
+    private TitleIndex testIndex;
+
+    @Before
+    public void setup() {
+        testIndex = new TitleIndex();
+        testIndex.clear();
+        testIndex.add("Harry Potter and the Goblet of Fire (Harry Potter  #4)");
+        testIndex.add("The Changeling");
+        testIndex.add("Animal Farm");
+    }
+
+    // ------------------------- check tokens --------------------
+
+    @Test
+    public void testTokenize() {
+        assertArrayEquals(new String[] { "harry", "potter", "4" }, TitleIndex.tokenize("harry potter (harry potter #4)"));
+        assertArrayEquals(new String[0], TitleIndex.tokenize(" - "));
+    }
+
+    // ------------------------- check find --------------------
+
+    @Test
+    public void testFindToken() {
+        assertArrayEquals(new int[] { 0, 1 }, testIndex.find("the"));
+        assertArrayEquals(new int[] { 2 }, testIndex.find("farm"));
+        assertArrayEquals(new int[0], testIndex.find("ring"));
+    }
+
+    @Test
+    public void testFindWithinToken() {
+        assertArrayEquals(new int[] { 1 }, testIndex.find("chang"));
+        assertArrayEquals(new int[] { 0, 1, 2 }, testIndex.find("a"));
+    }
+
+    @Test
+    public void testFindNonToken() {
+        assertNull("Terms with other characters are not answered by the index.", testIndex.find("#4"));
+        assertNull(testIndex.find("harry potter"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFindInvalid() {
+        testIndex.invalidate();
+        testIndex.find("the");
+    }
+
+    @Test
+    public void testGetTrigrams() {
+        assertArrayEquals(new long[] { ((long) 'a' << 32) | ('a' << 16) | 'a' }, TitleIndex.getTrigrams("aaaaa"));
+        assertArrayEquals(new long[0], TitleIndex.getTrigrams("ab"));
+    }
+
+    @Test
+    public void testFindCandidatesWithinToken() {
+        assertArrayEquals("Substrings within tokens are expected to be found.", new int[] { 0 },
+                testIndex.findCandidates("otter"));
+        assertArrayEquals(new int[] { 1 }, testIndex.findCandidates("changel"));
+        assertArrayEquals(new int[0], testIndex.findCandidates("xyz"));
+    }
+
+    @Test
+    public void testFindCandidatesWithPunctuation() {
+        assertArrayEquals(new int[] { 0 }, testIndex.findCandidates("(harry"));
+        assertArrayEquals(new int[] { 0 }, testIndex.findCandidates(" #4"));
+        assertArrayEquals(new int[] { 2 }, testIndex.findCandidates("mal f"));
+    }
+
+    @Test
+    public void testFindCandidatesShortTerm() {
+        assertArrayEquals(new int[] { 0, 1 }, testIndex.findCandidates("th"));
+        assertNull("Short terms with other characters are not answered by the index.", testIndex.findCandidates("#4"));
+    }
+
+    // ------------------------- check fold and search --------------------
+
+    @Test
+    public void testFold() {
+        assertEquals("harry potter #4", TitleIndex.fold("Harry Potter #4"));
+        assertEquals("pokemon cafe", TitleIndex.fold("Pok\u00e9mon Caf\u0065\u0301"));
+        assertEquals("Compatibility characters are expected to be kept.", "beginners\u2122",
+                TitleIndex.fold("Beginners\u2122"));
+        assertEquals("Case folding is expected to be locale independent.", "title", TitleIndex.fold("TITLE"));
+    }
+
+    @Test
+    public void testSearch() {
+        assertArrayEquals(new int[] { 0, 1 }, testIndex.search("the"));
+        assertArrayEquals(new int[] { 0 }, testIndex.search("potter  #4"));
+        assertArrayEquals(new int[] { 0 }, testIndex.search("#4"));
+        assertArrayEquals(new int[] { 0, 1, 2 }, testIndex.search(""));
+        assertArrayEquals(new int[0], testIndex.search("xyz"));
+    }
+
+    @Test
+    public void testSearchIgnoresDiacritics() {
+        testIndex.add("Pok\u00e9mon Adventures");
+
+        assertArrayEquals(new int[] { 3 }, testIndex.search(TitleIndex.fold("POKEMON")));
+        assertArrayEquals(new int[] { 3 }, testIndex.search(TitleIndex.fold("pok\u00e9")));
+        assertArrayEquals(new int[] { 3 }, testIndex.search(TitleIndex.fold("\u00e9m")));
+    }
+
+    @Test
+    public void testSearchKeepsTrademarkSign() {
+        testIndex.add("nietzsche For Beginners\u2122");
+
+        assertArrayEquals(new int[] { 2 }, testIndex.search(TitleIndex.fold("m")));
+        assertArrayEquals(new int[] { 2 }, testIndex.find(TitleIndex.fold("M")));
+        assertArrayEquals(new int[0], testIndex.search(TitleIndex.fold("St")));
+        assertArrayEquals(new int[0], testIndex.search(TitleIndex.fold("stm")));
+        assertArrayEquals(new int[] { 3 }, testIndex.search(TitleIndex.fold("beginners\u2122")));
+    }
+
+    @Test
+    public void testSearchSkipsEmptyPositions() {
+        testIndex.add(null);
+        testIndex.remove(1);
+
+        assertArrayEquals(new int[] { 0, 1 }, testIndex.search("a"));
+        assertArrayEquals(new int[] { 0 }, testIndex.search("e "));
+    }
+
+    @Test
+    public void testFuzzySearch() {
+        testIndex.add("Hary Potter");
+
+        assertArrayEquals("Closer tokens are expected to be ranked first.", new int[] { 0, 3 },
+                testIndex.fuzzySearch("harry", 1));
+        assertArrayEquals(new int[] { 1 }, testIndex.fuzzySearch("changelin", 2));
+        assertArrayEquals(new int[0], testIndex.fuzzySearch("changelin", 0));
+    }
+
+    @Test
+    public void testFuzzySearchAfterChanges() {
+        assertArrayEquals(new int[] { 2 }, testIndex.fuzzySearch("fram", 2));
+
+        testIndex.set(2, "Animal Frame");
+        testIndex.add("Farm Life");
+
+        assertArrayEquals("Closer tokens are expected to be ranked first.", new int[] { 2, 3 },
+                testIndex.fuzzySearch("fram", 2));
+        assertArrayEquals(new int[] { 3 }, testIndex.fuzzySearch("farm", 1));
+    }
+
+    // ------------------------- check changes --------------------
+
+    @Test
+    public void testRemoveMovesPositions() {
+        testIndex.remove(0);
+
+        assertArrayEquals(new int[] { 0 }, testIndex.find("the"));
+        assertArrayEquals(new int[] { 1 }, testIndex.find("farm"));
+        assertArrayEquals(new int[0], testIndex.find("potter"));
+    }
+
+    @Test
+    public void testRemoveAll() {
+        testIndex.add("Farm Life");
+        testIndex.removeAll(new int[] { 0, 2 }, 2);
+
+        assertArrayEquals(new int[] { 0 }, testIndex.find("the"));
+        assertArrayEquals(new int[] { 1 }, testIndex.find("farm"));
+    }
+
+    @Test
+    public void testSetReplacesTokens() {
+        testIndex.set(1, "Farm Animals");
+
+        assertArrayEquals(new int[] { 0 }, testIndex.find("the"));
+        assertArrayEquals(new int[] { 1, 2 }, testIndex.find("farm"));
+        assertArrayEquals(new int[] { 1, 2 }, testIndex.findCandidates("farm"));
+        assertArrayEquals("Replaced titles are not expected to be found.", new int[0], testIndex.search("changel"));
+    }
+
+    @Test
+    public void testSetManyTitles() {
+        for (int i = 0; i < 1000; i++) {
+            testIndex.add("Book " + i);
+        }
+        for (int i = 3; i < 1003; i++) {
+            testIndex.set(i, (i % 2 == 0 ? "Even Novel " : "Odd Book ") + (i - 3));
+        }
+
+        assertEquals("Stale entries of replaced titles are not expected to be found.", 500, testIndex.find("book").length);
+        assertEquals(500, testIndex.find("even").length);
+        assertArrayEquals(new int[] { 4, 6 }, Arrays.copyOf(testIndex.fuzzySearch("nove", 1), 2));
+        assertArrayEquals(new int[] { 500 }, testIndex.search("even novel 497"));
+
+        // replacing more titles than there are books rebuilds the posting lists in between
+        for (int i = 3; i < 1003; i++) {
+            testIndex.set(i, "Book " + (i - 3));
+        }
+
+        assertEquals(1000, testIndex.find("book").length);
+        assertArrayEquals(new int[0], testIndex.find("even"));
+        assertArrayEquals(new int[0], testIndex.search("novel"));
+        assertArrayEquals(new int[] { 500 }, testIndex.search("book 497"));
+        assertArrayEquals(new int[] { 0, 1 }, testIndex.find("the"));
+    }
+
+    @Test
+    public void testCompaction() {
+        for (int i = 0; i < 5000; i++) {
+            testIndex.add("Book " + i);
+        }
+        for (int i = 0; i < 4990; i++) {
+            testIndex.remove(3);
+        }
+
+        assertArrayEquals(new int[] { 11 }, testIndex.find("4998"));
+        assertArrayEquals(new int[] { 2 }, testIndex.find("farm"));
+        assertArrayEquals(new int[] { 11 }, testIndex.search("ok 4998"));
+    }
+
+    @Test
+    public void testInvalidate() {
+        assertTrue(testIndex.isValid());
+        testIndex.invalidate();
+        assertFalse(testIndex.isValid());
+    }
+}
@@ -0,0 +1,98 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.assertEquals;
+
+public class ZipBookDataInputStreamTest {
+
+    private static final String HEADER = "title,authors,average_rating,isbn,# num_pages\n";
+    private static final String FIRST_BOOK = "The Changeling,Zilpha Keatley Snyder,4.17,595321801,228\n";
+    private static final String SECOND_BOOK = "Junie B. Jones,Barbara Park,3.95,679853952,144";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static byte[] createArchive() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            addEntry(zip, "books01.csv", HEADER + FIRST_BOOK);
+            addEntry(zip, "notes.txt", "not book data\n");
+            zip.putNextEntry(new ZipEntry("more/"));
+            zip.closeEntry();
+            addEntry(zip, "more/books02.csv", HEADER + SECOND_BOOK); // no line break after the last line
+            addEntry(zip, "books03.csv", HEADER + FIRST_BOOK);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void addEntry(ZipOutputStream zip, String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(content.getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+
+    // ------------------------- check archive content --------------------
+
+    @Test
+    public void testEntriesReadAsSingleFile() throws IOException {
+        try (InputStream in = new ZipBookDataInputStream(new ByteArrayInputStream(createArchive()))) {
+            String content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertEquals(HEADER + FIRST_BOOK + SECOND_BOOK + "\n" + FIRST_BOOK, content);
+        }
+    }
+
+    @Test
+    public void testEmptyArchive() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new ZipOutputStream(bytes).close();
+
+        try (InputStream in = new ZipBookDataInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertEquals(-1, in.read());
+        }
+    }
+
+    // ------------------------- check compressed files --------------------
+
+    @Test
+    public void testLoadZipFile() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("books.zip");
+        Files.write(file, createArchive());
+
+        LibraryFileLoader loader = new LibraryFileLoader();
+        loader.loadFileContent(file);
+        List<BookEntry> books = loader.parseFileContent();
+
+        assertEquals(3, books.size());
+        assertEquals("Junie B. Jones", books.get(1).getTitle());
+    }
+
+    @Test
+    public void testStreamGzipFile() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("books.csv.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            out.write((HEADER + FIRST_BOOK + SECOND_BOOK).getBytes(StandardCharsets.UTF_8));
+        }
+
+        try (LibraryFileLoader loader = new LibraryFileLoader()) {
+            loader.openFileStream(file);
+            assertEquals(1, loader.parseNextChunk(1).size());
+            assertEquals("Junie B. Jones", loader.parseNextChunk(1).get(0).getTitle());
+        }
+        assertEquals(HEADER + FIRST_BOOK + SECOND_BOOK,
+                new String(BookDataFiles.readAllBytes(file), StandardCharsets.UTF_8));
+    }
+}